@@ -0,0 +1,303 @@
+/**
+ * A superclass for hash-sets of any type of elements: it keeps their size and load factors, decides when
+ * their table grows or shrinks, and reports their lookups and resizes. SimpleHashSet extends it for
+ * strings, and PrimitiveHashSet for primitive numbers.
+ * @author Oren Motiei
+ */
+public abstract class AbstractHashSet {
+
+    /** Describes the capacity of a newly created hash set. */
+    protected static final int INITIAL_CAPACITY = 16;
+
+    /** Describes the lower load factor of a newly created hash set. */
+    protected static final float DEFAULT_LOWER_CAPACITY = 0.25f;
+
+    /** Describes the higher load factor of a newly created hash set. */
+    protected static final float DEFAULT_HIGHER_CAPACITY = 0.75f;
+
+    /** Defines the lowest capacity a table can get */
+    protected static final int LOWEST_TABLE_CAPACITY = 1;
+
+    /** Defines how many times the table size will grow */
+    protected static final float GROWTH_CONSTANT = 2f;
+
+    /** Defines how many times the table size will decrease */
+    protected static final float REDUCTION_CONSTANT = 0.5f;
+
+    /** Defines the highest capacity a table can get */
+    protected static final int HIGHEST_TABLE_CAPACITY = 1 << 30;
+
+    private int numOfElements = 0; // current number of elements in the table
+    private float lowerLoadFactor;
+    private float upperLoadFactor;
+    private ProbeStatistics probeStatistics = null;
+    private HashSetListener listener = null;
+    private ResizePolicy resizePolicy = ResizePolicy.DEFAULT;
+
+
+    /**
+     * Constructs a new hash set with capacity INITIAL_CAPACITY.
+     * @param upperLoadFactor upperLoadFactor - the upper load factor before rehashing
+     * @param lowerLoadFactor lowerLoadFactor - the lower load factor before rehashing
+     */
+    protected AbstractHashSet(float upperLoadFactor, float lowerLoadFactor) {
+        this.lowerLoadFactor = lowerLoadFactor;
+        this.upperLoadFactor = upperLoadFactor;
+    }
+
+    /**
+     * Constructs a new hash set with the default capacities given in
+     * DEFAULT_LOWER_CAPACITY and DEFAULT_HIGHER_CAPACITY.
+     */
+    protected AbstractHashSet() {
+        this.lowerLoadFactor = DEFAULT_LOWER_CAPACITY;
+        this.upperLoadFactor = DEFAULT_HIGHER_CAPACITY;
+    }
+
+
+    /**
+     * @return The current capacity (number of cells) of the table.
+     */
+    public abstract int capacity();
+
+
+    /**
+     * @return The lower load factor of the table.
+     */
+    protected float getLowerLoadFactor() {
+        return lowerLoadFactor;
+    }
+
+
+    /**
+     * @return The higher load factor of the table.
+     */
+    protected float getUpperLoadFactor() {
+        return upperLoadFactor;
+    }
+
+
+    /**
+     * Checks whether a table of the given capacity holding the given number of elements is loaded beyond
+     * the upper load factor, so that adding should grow it.
+     * @param size The number of elements in the table.
+     * @param capacity The capacity of the table.
+     * @return True iff the table should grow.
+     */
+    protected boolean isOverloaded(int size, int capacity) {
+        return (double)size / capacity > upperLoadFactor;
+    }
+
+
+    /**
+     * Computes the capacity a table grows to while elements are added to it one by one, as the resize
+     * policy decides. It only asks the policy, so it's also used to presize or rebuild the table.
+     * @param capacity The capacity of the table before adding.
+     * @param size The number of elements in the table after adding.
+     * @return The capacity of the table after adding.
+     */
+    protected int grownCapacity(int capacity, int size) {
+        return resizePolicy.grownCapacity(this, size, capacity);
+    }
+
+
+    /**
+     * Tells the resize policy that elements were added, and computes the capacity the table grows to.
+     * Called once by every add which added an element.
+     * @param capacity The capacity of the table before adding.
+     * @param size The number of elements in the table after adding.
+     * @return The capacity of the table after adding.
+     */
+    protected int capacityAfterAdd(int capacity, int size) {
+        resizePolicy.onAdd(this);
+        return grownCapacity(capacity, size);
+    }
+
+
+    /**
+     * Computes the capacity a table shrinks to after an element was deleted from it, as the resize policy
+     * decides. The table never shrinks to a capacity at which it's overloaded, since it might not hold the
+     * elements, and would grow again on the next add.
+     * @param capacity The capacity of the table.
+     * @param size The number of elements in the table after deleting.
+     * @return The capacity of the table after deleting.
+     */
+    protected int shrunkCapacity(int capacity, int size) {
+        int shrunk = resizePolicy.shrunkCapacity(this, size, capacity);
+        return shrunk < capacity && isOverloaded(size, shrunk) ? capacity : shrunk;
+    }
+
+
+    /**
+     * Computes the capacity a table shrinks to after an element was deleted from it, and tells the resize
+     * policy about the delete. Called once by every delete which deleted an element.
+     * @param capacity The capacity of the table.
+     * @param size The number of elements in the table after deleting.
+     * @return The capacity of the table after deleting.
+     */
+    protected int capacityAfterDelete(int capacity, int size) {
+        int shrunk = shrunkCapacity(capacity, size);
+        resizePolicy.onDelete(this, size, capacity, shrunk);
+        return shrunk;
+    }
+
+
+    /**
+     * Sets the policy which decides when the table grows or shrinks, and to which capacity. It takes effect
+     * from the next add or delete.
+     * @param resizePolicy The policy, e.g. ResizePolicy.DEFAULT or a HysteresisResizePolicy of this set.
+     * @throws IllegalArgumentException if the policy is null, or keeps the state of another set.
+     */
+    public void setResizePolicy(ResizePolicy resizePolicy) {
+        if (resizePolicy == null)
+            throw new IllegalArgumentException("ERROR: The resize policy can't be null.");
+        resizePolicy.attach(this);
+        this.resizePolicy = resizePolicy;
+    }
+
+
+    /**
+     * @return The policy which decides when the table grows or shrinks.
+     */
+    public ResizePolicy getResizePolicy() {
+        return resizePolicy;
+    }
+
+
+    /**
+     * Starts or stops collecting the probe lengths of the lookups, in sets which probe their table.
+     * @param probeStatistics The statistics to record the lookups in, or null to stop collecting.
+     */
+    public void setProbeStatistics(ProbeStatistics probeStatistics) {
+        this.probeStatistics = probeStatistics;
+    }
+
+
+    /**
+     * @return The statistics the lookups are recorded in, or null if they aren't collected.
+     */
+    public ProbeStatistics getProbeStatistics() {
+        return probeStatistics;
+    }
+
+
+    /**
+     * Sets the listener which is told about the lookups and the resizes of the table, e.g. a HashSetMetrics.
+     * While there's no listener, nothing is measured.
+     * @param listener The listener, or null to stop listening.
+     */
+    public void setListener(HashSetListener listener) {
+        this.listener = listener;
+    }
+
+
+    /**
+     * @return The listener of the set, or null if there's none.
+     */
+    public HashSetListener getListener() {
+        return listener;
+    }
+
+
+    /**
+     * Records the probe length of a lookup, if probe statistics are collected or there's a listener.
+     * @param probes The number of cells the lookup visited, or the number of elements of the chain it
+     * searched (about log2 of its length, in a tree).
+     */
+    protected void recordProbes(int probes) {
+        if (probeStatistics != null)
+            probeStatistics.record(probes);
+        if (listener != null)
+            listener.onLookup(probes);
+    }
+
+
+    /**
+     * Reads the clock at the start of a resize, only if there's a listener to report it to.
+     * @return The start time to pass to recordResize.
+     */
+    protected long resizeStartTime() {
+        return listener == null ? 0 : System.nanoTime();
+    }
+
+
+    /**
+     * Reports a resize of the table to the listener, if there's one.
+     * @param oldCapacity The capacity of the table before the resize.
+     * @param newCapacity The capacity of the table after the resize.
+     * @param startTime The time returned by resizeStartTime when the resize started.
+     */
+    protected void recordResize(int oldCapacity, int newCapacity, long startTime) {
+        if (listener != null && startTime != 0)
+            listener.onResize(oldCapacity, newCapacity, size(), System.nanoTime() - startTime);
+    }
+
+
+    /**
+     * @return The number of cells of the table which are marked as deleted, and are neither empty nor in
+     * use. It's 0 in sets which don't mark deleted cells.
+     */
+    public int deletedCells() {
+        return 0;
+    }
+
+
+    /**
+     * Moves all of the elements at once into a new table of the given capacity. The table must be large
+     * enough to hold them.
+     * @param capacity The capacity of the new table, a power of two.
+     */
+    protected abstract void resize(int capacity);
+
+
+    /**
+     * Resizes the table, and reports the resize to the listener.
+     * @param capacity The capacity of the new table, a power of two.
+     */
+    protected void recordedResize(int capacity) {
+        long startTime = resizeStartTime();
+        int oldCapacity = capacity();
+        resize(capacity);
+        recordResize(oldCapacity, capacity(), startTime);
+    }
+
+
+    /**
+     * Clamps hashing indices to fit within the current table capacity
+     * (see the exercise description for details)
+     * @param index the index before clamping.
+     * @return an index properly clamped.
+     */
+    protected int clamp(int index) {
+        return index & (this.capacity() - 1);
+    }
+
+
+    /**
+     * Clamps hashing indices to fit within a table of the given capacity.
+     * @param index the index before clamping.
+     * @param capacity the capacity of the table, a power of two.
+     * @return an index properly clamped.
+     */
+    protected int clamp(int index, int capacity) {
+        return index & (capacity - 1);
+    }
+
+
+    /**
+     * @return The number of elements currently in the set
+     */
+    public int size() {
+        return numOfElements;
+    }
+
+
+    /**
+     * Updates the number of elements currently in the set.
+     * @param size The updated number of elements.
+     */
+    protected void setSize(int size) {
+        numOfElements = size;
+    }
+
+}
@@ -0,0 +1,451 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A small benchmark harness in the spirit of JMH: every benchmark runs in several forked JVMs,
+ * each fork runs warm-up iterations before the measured iterations, results are consumed by a blackhole,
+ * and the scores are summarized and written as JSON.
+ * JMH itself can't be used here, since its generated code can't reference classes in the default package.
+ * @author Oren Motiei
+ */
+public class BenchmarkHarness {
+
+    /** The argument that tells a benchmark's main method that it runs inside a fork. */
+    public static final String FORK_FLAG = "--fork";
+
+    private static final String ITERATION_PREFIX = "ITERATION ";
+    private static final double CONFIDENCE_Z = 3.29; // 99.9% confidence, as reported by JMH
+    private static final long NANOS_IN_MILLI = 1000000L;
+    private static final String THROUGHPUT_UNIT = "ops/us";
+
+    private final int forks;
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationMillis;
+    private final List<Result> results = new ArrayList<>();
+
+    /**
+     * A single benchmark invocation: performs a batch of operations.
+     */
+    public interface Workload {
+        /**
+         * Runs a batch of operations.
+         * @param blackhole Consumes the results of the operations.
+         * @return The number of operations that were performed.
+         */
+        long run(Blackhole blackhole);
+    }
+
+
+    /**
+     * A benchmark invocation run by several threads at once. Any state it shares must be thread-safe.
+     */
+    public interface ConcurrentWorkload {
+        /**
+         * Runs a batch of operations in one of the threads.
+         * @param thread The index of the running thread, from 0 to the number of threads - 1.
+         * @param blackhole Consumes the results of the operations. Every thread has its own.
+         * @return The number of operations that were performed.
+         */
+        long run(int thread, Blackhole blackhole);
+    }
+
+
+    /**
+     * Consumes values, so that the JIT can't eliminate the code that computed them.
+     */
+    public static class Blackhole {
+
+        private int sink;
+        private volatile int published;
+
+        /**
+         * @param value The value to consume.
+         */
+        public void consume(boolean value) {
+            sink += value ? 1 : 0;
+        }
+
+        /**
+         * @param value The value to consume.
+         */
+        public void consume(int value) {
+            sink += value;
+        }
+
+        /**
+         * @param value The value to consume.
+         */
+        public void consume(Object value) {
+            sink += System.identityHashCode(value);
+        }
+
+        /*
+         * Publishes the consumed values to a volatile field.
+         */
+        private void publish() {
+            published = sink;
+        }
+    }
+
+
+    /**
+     * The summarized scores of a single benchmark.
+     */
+    public static class Result {
+
+        private final String benchmark;
+        private final Map<String, String> params;
+        private final String scoreUnit;
+        private final List<double[]> forkScores;
+
+        /*
+         * Constructs a result from the scores of all of the forks.
+         */
+        private Result(String benchmark, Map<String, String> params, String scoreUnit,
+                       List<double[]> forkScores) {
+            this.benchmark = benchmark;
+            this.params = params;
+            this.scoreUnit = scoreUnit;
+            this.forkScores = forkScores;
+        }
+
+        /**
+         * @return The mean score of all the measured iterations.
+         */
+        public double score() {
+            double sum = 0;
+            int count = 0;
+            for (double[] scores: forkScores) {
+                for (double score: scores) {
+                    sum += score;
+                    count++;
+                }
+            }
+            return count == 0 ? Double.NaN : sum / count;
+        }
+
+        /**
+         * @return Half the width of the 99.9% confidence interval of the score.
+         */
+        public double scoreError() {
+            double mean = score();
+            double squares = 0;
+            int count = 0;
+            for (double[] scores: forkScores) {
+                for (double score: scores) {
+                    squares += (score - mean) * (score - mean);
+                    count++;
+                }
+            }
+            if (count < 2)
+                return Double.NaN;
+            return CONFIDENCE_Z * Math.sqrt(squares / (count - 1)) / Math.sqrt(count);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-40s %-50s %14.3f +- %10.3f %s",
+                    benchmark, params, score(), scoreError(), scoreUnit);
+        }
+    }
+
+
+    /**
+     * Constructs a harness.
+     * @param forks The number of JVMs each benchmark runs in.
+     * @param warmupIterations The number of iterations each fork runs before measuring.
+     * @param measurementIterations The number of measured iterations in each fork.
+     * @param iterationMillis The minimal duration of each iteration, in milliseconds.
+     */
+    public BenchmarkHarness(int forks, int warmupIterations, int measurementIterations,
+                            long iterationMillis) {
+        this.forks = forks;
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationMillis = iterationMillis;
+    }
+
+
+    /**
+     * Runs a benchmark in forked JVMs. Each fork runs the main method of mainClass with FORK_FLAG followed
+     * by forkArgs, and is expected to call runInFork.
+     * @param benchmark The name of the benchmark.
+     * @param params The parameters of the benchmark, reported with its result.
+     * @param unit The time unit of the scores.
+     * @param mainClass The class whose main method runs the benchmark inside a fork.
+     * @param forkArgs The arguments identifying the benchmark to mainClass.
+     * @return The result of the benchmark.
+     * @throws IOException if a fork couldn't be run.
+     * @throws InterruptedException if interrupted while waiting for a fork.
+     */
+    public Result run(String benchmark, Map<String, String> params, TimeUnit unit,
+                      Class<?> mainClass, String... forkArgs) throws IOException, InterruptedException {
+        return run(benchmark, params, unitName(unit) + "/op", mainClass, forkArgs);
+    }
+
+
+    /**
+     * Runs a benchmark in forked JVMs, whose forks report their own scores through reportInFork.
+     * @param benchmark The name of the benchmark.
+     * @param params The parameters of the benchmark, reported with its result.
+     * @param scoreUnit The unit of the scores, e.g. "B" for a benchmark measuring memory.
+     * @param mainClass The class whose main method runs the benchmark inside a fork.
+     * @param forkArgs The arguments identifying the benchmark to mainClass.
+     * @return The result of the benchmark.
+     * @throws IOException if a fork couldn't be run.
+     * @throws InterruptedException if interrupted while waiting for a fork.
+     */
+    public Result run(String benchmark, Map<String, String> params, String scoreUnit,
+                      Class<?> mainClass, String... forkArgs) throws IOException, InterruptedException {
+        List<double[]> forkScores = new ArrayList<>();
+        for (int fork=0; fork<forks; fork++)
+            forkScores.add(runFork(mainClass, forkArgs));
+        Result result = new Result(benchmark, new LinkedHashMap<>(params), scoreUnit, forkScores);
+        results.add(result);
+        System.out.println(result);
+        return result;
+    }
+
+
+    /**
+     * Runs the warm-up and measured iterations of a workload inside the current fork, and reports the score
+     * of each measured iteration to the parent JVM.
+     * @param workload The workload to measure.
+     * @param unit The time unit of the scores.
+     */
+    public void runInFork(Workload workload, TimeUnit unit) {
+        Blackhole blackhole = new Blackhole();
+        for (int i=0; i<warmupIterations; i++)
+            iteration(workload, blackhole, unit);
+        for (int i=0; i<measurementIterations; i++)
+            System.out.println(ITERATION_PREFIX + iteration(workload, blackhole, unit));
+        blackhole.publish();
+    }
+
+
+    /**
+     * Runs the warm-up and measured iterations of a workload inside the current fork, in the given number of
+     * threads at once, and reports the throughput of each measured iteration to the parent JVM.
+     * The parent should run the benchmark with the score unit returned by getThroughputUnit.
+     * @param workload The workload to measure.
+     * @param threads The number of threads running the workload.
+     * @throws InterruptedException if interrupted while waiting for the threads.
+     */
+    public void runInFork(ConcurrentWorkload workload, int threads) throws InterruptedException {
+        for (int i=0; i<warmupIterations; i++)
+            iteration(workload, threads);
+        for (int i=0; i<measurementIterations; i++)
+            System.out.println(ITERATION_PREFIX + iteration(workload, threads));
+    }
+
+
+    /**
+     * @return The unit of the scores reported by the concurrent runInFork.
+     */
+    public static String getThroughputUnit() {
+        return THROUGHPUT_UNIT;
+    }
+
+
+    /**
+     * Reports the score of a single measured iteration to the parent JVM, for benchmarks which measure
+     * something other than time.
+     * @param score The score of the iteration.
+     */
+    public void reportInFork(double score) {
+        System.out.println(ITERATION_PREFIX + score);
+    }
+
+
+    /**
+     * @return The number of measured iterations each fork should report.
+     */
+    public int getMeasurementIterations() {
+        return measurementIterations;
+    }
+
+
+    /**
+     * Writes the results of all of the benchmarks that were run so far as a JSON array.
+     * @param fileName The file to write to.
+     * @throws IOException if the file couldn't be written.
+     */
+    public void writeJson(String fileName) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(fileName))) {
+            writer.println("[");
+            for (int i=0; i<results.size(); i++) {
+                Result result = results.get(i);
+                writer.println("    {");
+                writer.println("        \"benchmark\" : \"" + result.benchmark + "\",");
+                writer.println("        \"mode\" : \"" +
+                        (result.scoreUnit.equals(THROUGHPUT_UNIT) ? "thrpt" : "avgt") + "\",");
+                writer.println("        \"forks\" : " + forks + ",");
+                writer.println("        \"warmupIterations\" : " + warmupIterations + ",");
+                writer.println("        \"measurementIterations\" : " + measurementIterations + ",");
+                writer.println("        \"params\" : {" + paramsJson(result.params) + "},");
+                writer.println("        \"primaryMetric\" : {");
+                writer.println("            \"score\" : " + number(result.score()) + ",");
+                writer.println("            \"scoreError\" : " + number(result.scoreError()) + ",");
+                writer.println("            \"scoreUnit\" : \"" + result.scoreUnit + "\",");
+                writer.println("            \"rawData\" : " + rawDataJson(result.forkScores));
+                writer.println("        }");
+                writer.println(i == results.size() - 1 ? "    }" : "    },");
+            }
+            writer.println("]");
+        }
+    }
+
+
+    /*
+     * Runs a single fork and collects the scores it reports.
+     */
+    private double[] runFork(Class<?> mainClass, String... forkArgs)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(mainClass.getName());
+        command.add(FORK_FLAG);
+        command.addAll(Arrays.asList(forkArgs));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        List<Double> scores = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(ITERATION_PREFIX))
+                    scores.add(Double.parseDouble(line.substring(ITERATION_PREFIX.length())));
+                else
+                    System.err.println(line);
+            }
+        }
+        if (process.waitFor() != 0)
+            throw new IOException("The fork of " + Arrays.toString(forkArgs) + " failed.");
+        double[] result = new double[scores.size()];
+        for (int i=0; i<result.length; i++)
+            result[i] = scores.get(i);
+        return result;
+    }
+
+
+    /*
+     * Runs batches of the workload until the iteration time passes.
+     * Returns the average time of a single operation in the given unit.
+     */
+    private double iteration(Workload workload, Blackhole blackhole, TimeUnit unit) {
+        long operations = 0;
+        long deadline = System.nanoTime() + iterationMillis * NANOS_IN_MILLI;
+        long timeBefore = System.nanoTime();
+        long timeAfter;
+        do {
+            operations += workload.run(blackhole);
+            timeAfter = System.nanoTime();
+        } while (timeAfter < deadline);
+        return (double)(timeAfter - timeBefore) / operations / unit.toNanos(1);
+    }
+
+
+    /*
+     * Runs batches of the workload in all of the threads, which start together, until the iteration time
+     * passes. Returns the total number of operations per microsecond.
+     */
+    private double iteration(ConcurrentWorkload workload, int threads) throws InterruptedException {
+        AtomicLong operations = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int i=0; i<threads; i++) {
+            int thread = i;
+            workers[i] = new Thread(() -> {
+                Blackhole blackhole = new Blackhole();
+                long performed = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long deadline = System.nanoTime() + iterationMillis * NANOS_IN_MILLI;
+                do {
+                    performed += workload.run(thread, blackhole);
+                } while (System.nanoTime() < deadline);
+                blackhole.publish();
+                operations.addAndGet(performed);
+            });
+            workers[i].start();
+        }
+        long timeBefore = System.nanoTime();
+        start.countDown();
+        for (Thread worker: workers)
+            worker.join();
+        long timeAfter = System.nanoTime();
+        return (double)operations.get() * TimeUnit.MICROSECONDS.toNanos(1) / (timeAfter - timeBefore);
+    }
+
+
+    /*
+     * Formats the parameters as the members of a JSON object.
+     */
+    private static String paramsJson(Map<String, String> params) {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, String> param: params.entrySet()) {
+            if (builder.length() > 0)
+                builder.append(", ");
+            builder.append('"').append(param.getKey()).append("\" : \"").append(param.getValue()).append('"');
+        }
+        return builder.toString();
+    }
+
+
+    /*
+     * Formats the scores of all of the forks as a JSON array of arrays.
+     */
+    private static String rawDataJson(List<double[]> forkScores) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int fork=0; fork<forkScores.size(); fork++) {
+            builder.append(fork == 0 ? "[" : ", [");
+            double[] scores = forkScores.get(fork);
+            for (int i=0; i<scores.length; i++)
+                builder.append(i == 0 ? "" : ", ").append(number(scores[i]));
+            builder.append(']');
+        }
+        return builder.append(']').toString();
+    }
+
+
+    /*
+     * Formats a number as a JSON value.
+     */
+    private static String number(double value) {
+        return Double.isNaN(value) ? "\"NaN\"" : Double.toString(value);
+    }
+
+
+    /*
+     * Returns the abbreviation of a time unit.
+     */
+    private static String unitName(TimeUnit unit) {
+        switch (unit) {
+            case NANOSECONDS:
+                return "ns";
+            case MICROSECONDS:
+                return "us";
+            case MILLISECONDS:
+                return "ms";
+            default:
+                return "s";
+        }
+    }
+
+}
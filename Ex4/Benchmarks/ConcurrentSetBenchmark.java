@@ -0,0 +1,175 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * A multi-threaded benchmark of the thread-safe sets, under a read-mostly workload: in every thread, 99% of
+ * the operations look for a word of data2.txt, and the rest alternately add and delete a word of the
+ * thread's own. The number of threads scales from 1 to the number of available processors, doubling each
+ * time. A ClosedHashSet guarded by a single lock is measured as the baseline.
+ * Run it from the repository's root directory. Any arguments are treated as regular expressions, and only
+ * the benchmarks whose "set/threads" key matches one of them are run (e.g. "CONCURRENT_.+/4").
+ * The scores are the total throughput of all of the threads. The results are written as JSON to
+ * RESULTS_FILE.
+ * @author Oren Motiei
+ */
+public class ConcurrentSetBenchmark {
+
+    /** The file to which the results are written. */
+    public static final String RESULTS_FILE = "Ex4/concurrent-benchmark-results.json";
+
+    private static final String BENCHMARK = "READ_MOSTLY";
+    private static final int FORKS = 2;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASUREMENT_ITERATIONS = 10;
+    private static final long ITERATION_MILLIS = 1000;
+    private static final int OPERATION_BATCH = 100;
+    private static final int WRITES_PER_BATCH = 1;
+    private static final int PRIVATE_WORDS = 64;
+    private static final int PADDING = 16; // ints per cache line, so the threads' counters don't share one
+
+    /** The data structures that are measured. */
+    public enum SetType {
+        CONCURRENT_CLOSED_HASH_SET, CONCURRENT_SIMPLE_HASH_SET, SYNCHRONIZED_CLOSED_HASH_SET;
+
+        /**
+         * @return A new, empty set of this type, which may be shared by several threads.
+         */
+        public SimpleSet create() {
+            switch (this) {
+                case CONCURRENT_CLOSED_HASH_SET:
+                    return new ConcurrentClosedHashSet();
+                case CONCURRENT_SIMPLE_HASH_SET:
+                    return new ConcurrentSimpleHashSet();
+                default:
+                    return new SynchronizedSet(new ClosedHashSet());
+            }
+        }
+    }
+
+
+    /*
+     * Guards every operation of a set by a single lock.
+     */
+    private static class SynchronizedSet implements SimpleSet {
+        private final SimpleSet set;
+
+        private SynchronizedSet(SimpleSet set) {
+            this.set = set;
+        }
+
+        @Override
+        public synchronized boolean add(String newValue) {
+            return set.add(newValue);
+        }
+
+        @Override
+        public synchronized boolean contains(String searchVal) {
+            return set.contains(searchVal);
+        }
+
+        @Override
+        public synchronized boolean delete(String toDelete) {
+            return set.delete(toDelete);
+        }
+
+        @Override
+        public synchronized int size() {
+            return set.size();
+        }
+    }
+
+
+    /*
+     * Prepares the workload: fills the set with data2.txt. Every thread looks for the words in its own
+     * order, and writes words no other thread writes, so that each add and delete succeeds.
+     */
+    private static BenchmarkHarness.ConcurrentWorkload workload(SetType setType, int threads) {
+        String[] words = Ex4Utils.file2array("Ex4/data2.txt");
+        SimpleSet set = setType.create();
+        for (String word: words)
+            set.add(word);
+        String[][] privateWords = new String[threads][PRIVATE_WORDS];
+        for (int thread=0; thread<threads; thread++) {
+            for (int i=0; i<PRIVATE_WORDS; i++)
+                privateWords[thread][i] = "#" + thread + "-" + i;
+        }
+        int[] positions = new int[threads * PADDING];
+        int[] writes = new int[threads * PADDING];
+        return (thread, blackhole) -> {
+            int position = positions[thread * PADDING];
+            int step = thread * 2 + 1;
+            for (int i=0; i<OPERATION_BATCH - WRITES_PER_BATCH; i++) {
+                blackhole.consume(set.contains(words[position]));
+                position = (position + step) % words.length;
+            }
+            positions[thread * PADDING] = position;
+            for (int i=0; i<WRITES_PER_BATCH; i++) {
+                int write = writes[thread * PADDING]++;
+                String word = privateWords[thread][(write / 2) % PRIVATE_WORDS];
+                blackhole.consume(write % 2 == 0 ? set.add(word) : set.delete(word));
+            }
+            return OPERATION_BATCH;
+        };
+    }
+
+
+    /*
+     * Returns the numbers of threads to measure: the powers of two up to the number of available processors,
+     * and that number itself.
+     */
+    private static List<Integer> threadCounts() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        List<Integer> counts = new ArrayList<>();
+        for (int threads=1; threads<processors; threads*=2)
+            counts.add(threads);
+        counts.add(processors);
+        return counts;
+    }
+
+
+    /*
+     * Checks whether the key matches one of the patterns. No patterns match every key.
+     */
+    private static boolean selected(String key, String[] patterns) {
+        if (patterns.length == 0)
+            return true;
+        for (String pattern: patterns) {
+            if (Pattern.matches(pattern, key))
+                return true;
+        }
+        return false;
+    }
+
+
+    /**
+     * Runs the selected benchmarks, each in its own forks, and writes the results to RESULTS_FILE.
+     * Inside a fork, runs the single benchmark given by the arguments.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        BenchmarkHarness harness =
+                new BenchmarkHarness(FORKS, WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS, ITERATION_MILLIS);
+        if (args.length > 0 && args[0].equals(BenchmarkHarness.FORK_FLAG)) {
+            SetType setType = SetType.valueOf(args[1]);
+            int threads = Integer.parseInt(args[2]);
+            harness.runInFork(workload(setType, threads), threads);
+            return;
+        }
+        for (SetType setType: SetType.values()) {
+            for (int threads: threadCounts()) {
+                if (!selected(setType + "/" + threads, args))
+                    continue;
+                Map<String, String> params = new LinkedHashMap<>();
+                params.put("set", setType.toString());
+                params.put("threads", Integer.toString(threads));
+                harness.run(BENCHMARK, params, BenchmarkHarness.getThroughputUnit(),
+                        ConcurrentSetBenchmark.class, setType.toString(), Integer.toString(threads));
+            }
+        }
+        harness.writeJson(RESULTS_FILE);
+    }
+
+}
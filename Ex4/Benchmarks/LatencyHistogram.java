@@ -0,0 +1,113 @@
+import java.util.Arrays;
+
+/**
+ * A histogram of latencies in the spirit of HdrHistogram: the values are counted in buckets whose width
+ * grows with the values, so every value is kept to within about 3% (32 buckets per power of two), in a
+ * fixed array, without allocating while recording.
+ * @author Oren Motiei
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; // the buckets of every power of two
+    private static final int MAGNITUDES = Long.SIZE - SUB_BUCKET_BITS + 1;
+    private static final double PERCENT = 100.0;
+
+    private final long[] counts = new long[MAGNITUDES * SUB_BUCKETS];
+    private long totalCount = 0;
+    private long sum = 0;
+    private long max = 0;
+
+
+    /**
+     * Counts a value.
+     * @param value The value to count, e.g. a latency in nanoseconds. Negative values count as 0.
+     */
+    public void record(long value) {
+        if (value < 0)
+            value = 0;
+        counts[bucket(value)]++;
+        totalCount++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+
+    /**
+     * @return The number of values that were counted.
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+
+    /**
+     * @return The mean of the values, or NaN if none were counted.
+     */
+    public double getMean() {
+        return totalCount == 0 ? Double.NaN : (double)sum / totalCount;
+    }
+
+
+    /**
+     * @return The largest value that was counted, exactly.
+     */
+    public long getMax() {
+        return max;
+    }
+
+
+    /**
+     * Returns the value below which the given percentage of the values are. Like HdrHistogram, it's the
+     * highest value of the bucket that holds it, so it's never below the exact percentile.
+     * @param percentile The percentage, between 0 and 100, e.g. 99.9.
+     * @return The value at the percentile, or 0 if no values were counted.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long rank = Math.max(1, (long)Math.ceil(percentile / PERCENT * totalCount));
+        long seen = 0;
+        for (int i=0; i<counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank)
+                return Math.min(highestValue(i), max);
+        }
+        return 0;
+    }
+
+
+    /**
+     * Forgets all of the values.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        sum = 0;
+        max = 0;
+    }
+
+
+    /*
+     * Returns the bucket of a non-negative value: the values below SUB_BUCKETS have a bucket each, and every
+     * following power of two is split into SUB_BUCKETS buckets by the bits below its highest one.
+     */
+    private static int bucket(long value) {
+        int highestBit = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        if (highestBit < SUB_BUCKET_BITS)
+            return (int)value;
+        int shift = highestBit - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int)(value >>> shift) - SUB_BUCKETS;
+    }
+
+
+    /*
+     * Returns the highest value that falls in the given bucket.
+     */
+    private static long highestValue(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS)
+            return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long)(bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+}
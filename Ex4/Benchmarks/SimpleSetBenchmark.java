@@ -0,0 +1,734 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * A benchmark suite measuring the SimpleSet implementations: OpenHashSet, ClosedHashSet, their variants and
+ * CollectionFacadeSet wrapping java's TreeSet, LinkedList and HashSet.
+ * Every set is measured on data1.txt, data2.txt, a synthetic uniform data set and a synthetic
+ * adversarial data set, in which all of the words share the same hash code.
+ * Run it from the repository's root directory. Any arguments are treated as regular expressions, and only
+ * the benchmarks whose "benchmark/set/data" key matches one of them are run (e.g. "ADD/.+/DATA2").
+ * FOOTPRINT measures the heap retained by a filled set, excluding the words themselves which are shared
+ * with the data set. OWNED_FOOTPRINT also counts the words, by filling the set with copies of them.
+ * Neither counts the buffers of OffHeapStringSet, which are outside of the heap. PROBES measures the mean
+ * probe length of the lookups of the MIXED workload, in the sets which probe their table.
+ * PARALLEL_BUILD measures building a plain OpenHashSet or ClosedHashSet by ParallelHashSetBuilder, and
+ * LOAD_SNAPSHOT measures loading it from a snapshot file. Unlike ADD_ALL, which adds words already in
+ * memory, LOAD_SNAPSHOT includes decoding the words. The BLOOM_ sets put a BloomFilteredSet in front of
+ * the set, which mostly shows in CONTAINS_MISS. FROZEN_STRING_SET can't be changed, so it's only measured
+ * by the lookups and the footprints. The NumericSetTypes (IntHashSet and LongHashSet) aren't SimpleSets:
+ * they hold the words of data2 (and data1, for LONG_HASH_SET) as numbers, parsed beforehand, and have no
+ * OWNED_FOOTPRINT, since they hold no words.
+ * The results are written as JSON to RESULTS_FILE.
+ * @author Oren Motiei
+ */
+public class SimpleSetBenchmark {
+
+    /** The file to which the results are written. */
+    public static final String RESULTS_FILE = "Ex4/benchmark-results.json";
+
+    private static final int FORKS = 2;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASUREMENT_ITERATIONS = 10;
+    private static final long ITERATION_MILLIS = 1000;
+    private static final int LOOKUP_BATCH = 1000;
+    private static final int SAMPLED_WORDS = 1024;
+    private static final int SYNTHETIC_SIZE = 100000;
+    private static final long RANDOM_SEED = 4L;
+    private static final int WORD_LENGTH = 10;
+    private static final String[] COLLIDING_BLOCKS = {"Aa", "BB"}; // "Aa".hashCode() == "BB".hashCode()
+    private static final int GC_ROUNDS = 3;
+    private static final String FOOTPRINT_UNIT = "B";
+    private static final String PROBES_UNIT = "probes/op";
+
+    /** The data sets the sets are measured with. */
+    public enum DataSet {
+        DATA1, DATA2, UNIFORM, COLLISIONS;
+
+        /**
+         * Builds the words of the data set, followed by words which aren't part of it.
+         * The missing words collide with the others whenever the data set is adversarial.
+         * @return The words of the data set followed by the missing words.
+         */
+        public String[] wordsAndMisses() {
+            switch (this) {
+                case DATA1:
+                    return append(Ex4Utils.file2array("Ex4/data1.txt"), "-13170890158");
+                case DATA2:
+                    return append(Ex4Utils.file2array("Ex4/data2.txt"), "hi");
+                case UNIFORM:
+                    return uniformWords(SYNTHETIC_SIZE + SAMPLED_WORDS);
+                default:
+                    return collidingWords(SYNTHETIC_SIZE + SAMPLED_WORDS);
+            }
+        }
+
+        /**
+         * Parses the words of the data set as numbers, skipping the words which aren't numbers (the empty
+         * line of data1). A missing word which isn't a number is replaced by the number following the
+         * largest one.
+         * @return The numbers of the data set followed by the missing numbers.
+         */
+        public long[] numbersAndMisses() {
+            String[] all = wordsAndMisses();
+            long[] numbers = new long[all.length];
+            int count = 0;
+            long largest = Long.MIN_VALUE;
+            for (int i=0; i<all.length - misses(); i++) {
+                try {
+                    numbers[count] = Long.parseLong(all[i]);
+                    largest = Math.max(largest, numbers[count++]);
+                } catch (NumberFormatException e) {
+                    // not a number
+                }
+            }
+            for (int i=all.length-misses(); i<all.length; i++) {
+                try {
+                    numbers[count++] = Long.parseLong(all[i]);
+                } catch (NumberFormatException e) {
+                    numbers[count - 1] = ++largest;
+                }
+            }
+            return Arrays.copyOf(numbers, count);
+        }
+
+        /**
+         * @return The number of missing words at the end of wordsAndMisses.
+         */
+        public int misses() {
+            return this == DATA1 || this == DATA2 ? 1 : SAMPLED_WORDS;
+        }
+    }
+
+    /** The SimpleSets that are measured. */
+    public enum SetType {
+        // whether they probe their table, and whether they are plain OpenHashSets or ClosedHashSets
+        OPEN_HASH_SET(false, true), CLOSED_HASH_SET(true, true), OPEN_HASH_SET_INCREMENTAL(false, true),
+        CLOSED_HASH_SET_INCREMENTAL(true, true), OPEN_HASH_SET_SEEDED(false, true),
+        CLOSED_HASH_SET_SEEDED(true, true), FLAT_OPEN_HASH_SET(false, false),
+        CLOSED_HASH_SET_LINEAR(true, true), ROBIN_HOOD_HASH_SET(true, false), CUCKOO_HASH_SET(true, false),
+        CONCURRENT_SIMPLE_HASH_SET(false, false), OFF_HEAP_STRING_SET(false, false),
+        BLOOM_OPEN_HASH_SET(false, false), BLOOM_CLOSED_HASH_SET(false, false),
+        FROZEN_STRING_SET(false, false), TREE_SET(false, false), LINKED_LIST(false, false),
+        HASH_SET(false, false);
+
+        private final boolean probes;
+        private final boolean plain;
+
+        SetType(boolean probes, boolean plain) {
+            this.probes = probes;
+            this.plain = plain;
+        }
+
+        /**
+         * @return A new, empty set of this type.
+         */
+        public SimpleSet create() {
+            switch (this) {
+                case OPEN_HASH_SET:
+                    return new OpenHashSet();
+                case CLOSED_HASH_SET:
+                    return new ClosedHashSet();
+                case OPEN_HASH_SET_INCREMENTAL:
+                    return incremental(new OpenHashSet());
+                case CLOSED_HASH_SET_INCREMENTAL:
+                    return incremental(new ClosedHashSet());
+                case OPEN_HASH_SET_SEEDED:
+                    return seeded(new OpenHashSet());
+                case CLOSED_HASH_SET_SEEDED:
+                    return seeded(new ClosedHashSet());
+                case FLAT_OPEN_HASH_SET:
+                    return new FlatOpenHashSet();
+                case CLOSED_HASH_SET_LINEAR:
+                    ClosedHashSet linear = new ClosedHashSet();
+                    linear.setProbingStrategy(ProbingStrategy.LINEAR);
+                    return linear;
+                case ROBIN_HOOD_HASH_SET:
+                    return new RobinHoodHashSet();
+                case CUCKOO_HASH_SET:
+                    return new CuckooHashSet();
+                case CONCURRENT_SIMPLE_HASH_SET:
+                    return new ConcurrentSimpleHashSet();
+                case OFF_HEAP_STRING_SET:
+                    return new OffHeapStringSet();
+                case BLOOM_OPEN_HASH_SET:
+                    return new BloomFilteredSet(new OpenHashSet());
+                case BLOOM_CLOSED_HASH_SET:
+                    return new BloomFilteredSet(new ClosedHashSet());
+                case FROZEN_STRING_SET:
+                    return FrozenStringSet.of(new ClosedHashSet());
+                case TREE_SET:
+                    return new CollectionFacadeSet(new TreeSet<>());
+                case LINKED_LIST:
+                    return new CollectionFacadeSet(new LinkedList<>());
+                default:
+                    return new CollectionFacadeSet(new HashSet<>());
+            }
+        }
+
+        /**
+         * @param words The words to fill the set with.
+         * @param copies Whether the set is filled with copies of the words, which only the set references.
+         * @return A new set of this type holding the given words. A frozen set is frozen from a
+         * ClosedHashSet holding them.
+         */
+        public SimpleSet create(String[] words, boolean copies) {
+            SimpleSet set = mutable() ? create() : new ClosedHashSet();
+            for (String word: words)
+                set.add(copies ? new String(word.toCharArray()) : word);
+            return mutable() ? set : FrozenStringSet.of((ClosedHashSet)set);
+        }
+
+        /**
+         * @return True iff the sets of this type can be changed once they are created. The others are
+         * only measured by the lookups and the footprints.
+         */
+        public boolean mutable() {
+            return this != FROZEN_STRING_SET;
+        }
+
+        /**
+         * @return True iff the sets of this type probe their table, and record their probe lengths.
+         */
+        public boolean probes() {
+            return probes;
+        }
+
+        /**
+         * @return True iff the sets of this type are plain OpenHashSets or ClosedHashSets, which can be
+         * loaded from a snapshot and built by ParallelHashSetBuilder.
+         */
+        public boolean plain() {
+            return plain;
+        }
+    }
+
+    /** The sets of numbers that are measured, on the numbers of the data sets which are all in range. */
+    public enum NumericSetType {
+        INT_HASH_SET, LONG_HASH_SET;
+
+        /**
+         * @param dataSet A data set.
+         * @return True iff the sets of this type can hold the words of the data set as numbers: only data2
+         * for ints, and data1 and data2 for longs.
+         */
+        public boolean holds(DataSet dataSet) {
+            return dataSet == DataSet.DATA2 || (this == LONG_HASH_SET && dataSet == DataSet.DATA1);
+        }
+
+        /**
+         * @param operation An operation.
+         * @return True iff the operation is measured on the sets of numbers. They have no snapshots,
+         * parallel builder or probe statistics, and hold no words to own.
+         */
+        public boolean measures(Operation operation) {
+            return operation != Operation.PARALLEL_BUILD && operation != Operation.LOAD_SNAPSHOT &&
+                    operation != Operation.PROBES && operation != Operation.OWNED_FOOTPRINT;
+        }
+
+        /**
+         * @param name The name of a set type.
+         * @return True iff it's the name of a NumericSetType.
+         */
+        public static boolean isNumeric(String name) {
+            for (NumericSetType setType: values()) {
+                if (setType.name().equals(name))
+                    return true;
+            }
+            return false;
+        }
+    }
+
+    /** The measured operations. */
+    public enum Operation {
+        ADD(TimeUnit.MILLISECONDS), ADD_ALL(TimeUnit.MILLISECONDS), PARALLEL_BUILD(TimeUnit.MILLISECONDS),
+        LOAD_SNAPSHOT(TimeUnit.MILLISECONDS), CONTAINS_HIT(TimeUnit.NANOSECONDS),
+        CONTAINS_MISS(TimeUnit.NANOSECONDS), MIXED(TimeUnit.NANOSECONDS), FOOTPRINT(null),
+        OWNED_FOOTPRINT(null), PROBES(null);
+
+        private final TimeUnit unit;
+
+        Operation(TimeUnit unit) {
+            this.unit = unit;
+        }
+
+        /*
+         * Prepares the workload of this operation.
+         * ADD measures building a whole set one word at a time, ADD_ALL measures building it by a single
+         * addAll, PARALLEL_BUILD measures building it by ParallelHashSetBuilder on the common pool,
+         * LOAD_SNAPSHOT measures loading it from a snapshot written once beforehand, and the
+         * lookups measure a single contains.
+         * MIXED slides a window over the words: every step adds the word entering the window, deletes the
+         * word leaving it and looks for a word inside it, so the set keeps its size while deletes pile up.
+         */
+        private BenchmarkHarness.Workload workload(SetType setType, DataSet dataSet) {
+            String[] all = dataSet.wordsAndMisses();
+            String[] words = Arrays.copyOf(all, all.length - dataSet.misses());
+            if (this == ADD) {
+                return blackhole -> {
+                    SimpleSet set = setType.create();
+                    for (String word: words)
+                        blackhole.consume(set.add(word));
+                    blackhole.consume(set);
+                    return 1;
+                };
+            }
+            if (this == ADD_ALL) {
+                return blackhole -> {
+                    SimpleSet set = setType.create();
+                    blackhole.consume(set.addAll(words));
+                    blackhole.consume(set);
+                    return 1;
+                };
+            }
+            if (this == PARALLEL_BUILD) {
+                ParallelHashSetBuilder builder = new ParallelHashSetBuilder();
+                return blackhole -> {
+                    SimpleSet set = setType.create();
+                    if (set instanceof OpenHashSet)
+                        blackhole.consume(builder.build((OpenHashSet)set, words));
+                    else
+                        blackhole.consume(builder.build((ClosedHashSet)set, words));
+                    return 1;
+                };
+            }
+            if (this == LOAD_SNAPSHOT)
+                return snapshotWorkload(setType.create(), words);
+            if (this == MIXED)
+                return mixedWorkload(setType.create(), words);
+            SimpleSet set = setType.create(words, false);
+            String[] keys = (this == CONTAINS_HIT) ? sample(words) :
+                    Arrays.copyOfRange(all, words.length, all.length);
+            return blackhole -> {
+                for (int i=0; i<LOOKUP_BATCH; i++)
+                    blackhole.consume(set.contains(keys[i % keys.length]));
+                return LOOKUP_BATCH;
+            };
+        }
+    }
+
+
+    /*
+     * Prepares the workload of an operation on an IntHashSet or a LongHashSet, like the workloads of the
+     * sets of strings. The numbers are parsed once beforehand, so the measured operations neither parse
+     * nor box them.
+     */
+    private static BenchmarkHarness.Workload numericWorkload(Operation operation, NumericSetType setType,
+                                                             DataSet dataSet) {
+        long[] all = dataSet.numbersAndMisses();
+        long[] numbers = Arrays.copyOf(all, all.length - dataSet.misses());
+        long[] keys = (operation == Operation.CONTAINS_HIT) ? sample(numbers) :
+                Arrays.copyOfRange(all, numbers.length, all.length);
+        if (setType == NumericSetType.INT_HASH_SET)
+            return intWorkload(operation, toInts(numbers), toInts(keys));
+        return longWorkload(operation, numbers, keys);
+    }
+
+
+    /*
+     * Prepares the workload of an operation on an IntHashSet, given the numbers and the looked up keys.
+     */
+    private static BenchmarkHarness.Workload intWorkload(Operation operation, int[] numbers, int[] keys) {
+        if (operation == Operation.ADD) {
+            return blackhole -> {
+                IntHashSet set = new IntHashSet();
+                for (int number: numbers)
+                    blackhole.consume(set.add(number));
+                blackhole.consume(set);
+                return 1;
+            };
+        }
+        if (operation == Operation.ADD_ALL) {
+            return blackhole -> {
+                IntHashSet set = new IntHashSet();
+                blackhole.consume(set.addAll(numbers));
+                blackhole.consume(set);
+                return 1;
+            };
+        }
+        int window = numbers.length / 2;
+        IntHashSet set =
+                new IntHashSet(operation == Operation.MIXED ? Arrays.copyOf(numbers, window) : numbers);
+        if (operation == Operation.MIXED) {
+            int[] start = {0};
+            return blackhole -> {
+                for (int i=0; i<LOOKUP_BATCH; i++) {
+                    int first = start[0];
+                    blackhole.consume(set.add(numbers[(first + window) % numbers.length]));
+                    blackhole.consume(set.delete(numbers[first]));
+                    blackhole.consume(set.contains(numbers[(first + window / 2) % numbers.length]));
+                    start[0] = (first + 1) % numbers.length;
+                }
+                return LOOKUP_BATCH * 3;
+            };
+        }
+        return blackhole -> {
+            for (int i=0; i<LOOKUP_BATCH; i++)
+                blackhole.consume(set.contains(keys[i % keys.length]));
+            return LOOKUP_BATCH;
+        };
+    }
+
+
+    /*
+     * Prepares the workload of an operation on a LongHashSet, given the numbers and the looked up keys.
+     */
+    private static BenchmarkHarness.Workload longWorkload(Operation operation, long[] numbers, long[] keys) {
+        if (operation == Operation.ADD) {
+            return blackhole -> {
+                LongHashSet set = new LongHashSet();
+                for (long number: numbers)
+                    blackhole.consume(set.add(number));
+                blackhole.consume(set);
+                return 1;
+            };
+        }
+        if (operation == Operation.ADD_ALL) {
+            return blackhole -> {
+                LongHashSet set = new LongHashSet();
+                blackhole.consume(set.addAll(numbers));
+                blackhole.consume(set);
+                return 1;
+            };
+        }
+        int window = numbers.length / 2;
+        LongHashSet set =
+                new LongHashSet(operation == Operation.MIXED ? Arrays.copyOf(numbers, window) : numbers);
+        if (operation == Operation.MIXED) {
+            int[] start = {0};
+            return blackhole -> {
+                for (int i=0; i<LOOKUP_BATCH; i++) {
+                    int first = start[0];
+                    blackhole.consume(set.add(numbers[(first + window) % numbers.length]));
+                    blackhole.consume(set.delete(numbers[first]));
+                    blackhole.consume(set.contains(numbers[(first + window / 2) % numbers.length]));
+                    start[0] = (first + 1) % numbers.length;
+                }
+                return LOOKUP_BATCH * 3;
+            };
+        }
+        return blackhole -> {
+            for (int i=0; i<LOOKUP_BATCH; i++)
+                blackhole.consume(set.contains(keys[i % keys.length]));
+            return LOOKUP_BATCH;
+        };
+    }
+
+
+    /*
+     * Prepares the LOAD_SNAPSHOT workload: fills the set, which must be an OpenHashSet or a ClosedHashSet,
+     * and writes its snapshot to a temporary file, which every step loads.
+     */
+    private static BenchmarkHarness.Workload snapshotWorkload(SimpleSet set, String[] words) {
+        Path file;
+        try {
+            file = Files.createTempFile("benchmark", ".snapshot");
+            file.toFile().deleteOnExit();
+            set.addAll(words);
+            if (set instanceof OpenHashSet)
+                ((OpenHashSet)set).writeSnapshot(file);
+            else
+                ((ClosedHashSet)set).writeSnapshot(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        boolean open = set instanceof OpenHashSet;
+        return blackhole -> {
+            try {
+                blackhole.consume(open ? OpenHashSet.loadSnapshot(file) : ClosedHashSet.loadSnapshot(file));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return 1;
+        };
+    }
+
+
+    /*
+     * Prepares the MIXED workload: fills the set with the first half of the words, which is the initial
+     * window, and then every step slides the window by one word.
+     */
+    private static BenchmarkHarness.Workload mixedWorkload(SimpleSet set, String[] words) {
+        int window = words.length / 2;
+        for (int i=0; i<window; i++)
+            set.add(words[i]);
+        int[] start = {0};
+        return blackhole -> {
+            for (int i=0; i<LOOKUP_BATCH; i++) {
+                int first = start[0];
+                blackhole.consume(set.add(words[(first + window) % words.length]));
+                blackhole.consume(set.delete(words[first]));
+                blackhole.consume(set.contains(words[(first + window / 2) % words.length]));
+                start[0] = (first + 1) % words.length;
+            }
+            return LOOKUP_BATCH * 3;
+        };
+    }
+
+
+    /*
+     * Reports the heap retained by a filled set, once per measured iteration. The set is filled either with
+     * the words of the data set, or with copies of them which only the set references.
+     */
+    private static void measureFootprint(BenchmarkHarness harness, SetType setType, DataSet dataSet,
+                                         boolean ownedWords) {
+        String[] all = dataSet.wordsAndMisses();
+        String[] words = Arrays.copyOf(all, all.length - dataSet.misses());
+        Runtime runtime = Runtime.getRuntime();
+        for (int i=0; i<harness.getMeasurementIterations(); i++) {
+            long before = usedMemory(runtime);
+            SimpleSet set = setType.create(words, ownedWords);
+            long after = usedMemory(runtime);
+            Reference.reachabilityFence(set);
+            harness.reportInFork(after - before);
+        }
+    }
+
+
+    /*
+     * Reports the heap retained by a set of the numbers of the data set, once per measured iteration.
+     */
+    private static void measureFootprint(BenchmarkHarness harness, NumericSetType setType, DataSet dataSet) {
+        long[] all = dataSet.numbersAndMisses();
+        long[] numbers = Arrays.copyOf(all, all.length - dataSet.misses());
+        int[] ints = setType == NumericSetType.INT_HASH_SET ? toInts(numbers) : null;
+        Runtime runtime = Runtime.getRuntime();
+        for (int i=0; i<harness.getMeasurementIterations(); i++) {
+            long before = usedMemory(runtime);
+            AbstractHashSet set = ints != null ? new IntHashSet(ints) : new LongHashSet(numbers);
+            long after = usedMemory(runtime);
+            Reference.reachabilityFence(set);
+            harness.reportInFork(after - before);
+        }
+    }
+
+
+    /*
+     * Reports the mean probe length of the lookups of a batch of the MIXED workload, once per measured
+     * iteration. The sets of the given type must probe their table.
+     */
+    private static void measureProbes(BenchmarkHarness harness, SetType setType, DataSet dataSet) {
+        String[] all = dataSet.wordsAndMisses();
+        String[] words = Arrays.copyOf(all, all.length - dataSet.misses());
+        SimpleHashSet set = (SimpleHashSet)setType.create();
+        ProbeStatistics statistics = new ProbeStatistics();
+        set.setProbeStatistics(statistics);
+        BenchmarkHarness.Workload workload = mixedWorkload(set, words);
+        BenchmarkHarness.Blackhole blackhole = new BenchmarkHarness.Blackhole();
+        for (int i=0; i<harness.getMeasurementIterations(); i++) {
+            statistics.reset();
+            for (int batch=0; batch<words.length / LOOKUP_BATCH; batch++)
+                workload.run(blackhole);
+            harness.reportInFork(statistics.getMeanProbes());
+        }
+    }
+
+
+    /*
+     * Collects the garbage and returns the heap in use.
+     */
+    private static long usedMemory(Runtime runtime) {
+        for (int i=0; i<GC_ROUNDS; i++)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+
+    /*
+     * Switches the set to incremental resizing.
+     */
+    private static SimpleSet incremental(IncrementalResizeSet set) {
+        set.setIncrementalResize(true);
+        return set;
+    }
+
+
+    /*
+     * Switches the set to a randomly seeded hash function.
+     */
+    private static SimpleSet seeded(SimpleHashSet set) {
+        set.setHasher(new SeededMurmurHasher());
+        return set;
+    }
+
+
+    /*
+     * Returns up to SAMPLED_WORDS words spread evenly across the given words.
+     */
+    private static String[] sample(String[] words) {
+        int step = Math.max(1, words.length / SAMPLED_WORDS);
+        String[] sample = new String[Math.min(SAMPLED_WORDS, words.length)];
+        for (int i=0; i<sample.length; i++)
+            sample[i] = words[i * step];
+        return sample;
+    }
+
+
+    /*
+     * Returns up to SAMPLED_WORDS numbers spread evenly across the given numbers.
+     */
+    private static long[] sample(long[] numbers) {
+        int step = Math.max(1, numbers.length / SAMPLED_WORDS);
+        long[] sample = new long[Math.min(SAMPLED_WORDS, numbers.length)];
+        for (int i=0; i<sample.length; i++)
+            sample[i] = numbers[i * step];
+        return sample;
+    }
+
+
+    /*
+     * Narrows numbers which are all in the range of an int.
+     */
+    private static int[] toInts(long[] numbers) {
+        int[] ints = new int[numbers.length];
+        for (int i=0; i<numbers.length; i++)
+            ints[i] = Math.toIntExact(numbers[i]);
+        return ints;
+    }
+
+
+    /*
+     * Returns a copy of the words with the missing word appended.
+     */
+    private static String[] append(String[] words, String missing) {
+        String[] all = Arrays.copyOf(words, words.length + 1);
+        all[words.length] = missing;
+        return all;
+    }
+
+
+    /*
+     * Generates distinct random words of WORD_LENGTH lowercase letters.
+     */
+    private static String[] uniformWords(int size) {
+        Random random = new Random(RANDOM_SEED);
+        Set<String> words = new LinkedHashSet<>();
+        char[] word = new char[WORD_LENGTH];
+        while (words.size() < size) {
+            for (int i=0; i<word.length; i++)
+                word[i] = (char)('a' + random.nextInt('z' - 'a' + 1));
+            words.add(new String(word));
+        }
+        return words.toArray(new String[0]);
+    }
+
+
+    /*
+     * Generates distinct words which all share the same hash code, by concatenating blocks
+     * whose hash codes are equal.
+     */
+    private static String[] collidingWords(int size) {
+        int blocks = 1;
+        while ((1 << blocks) < size)
+            blocks++;
+        String[] words = new String[size];
+        StringBuilder builder = new StringBuilder();
+        for (int i=0; i<size; i++) {
+            builder.setLength(0);
+            for (int bit=blocks-1; bit>=0; bit--)
+                builder.append(COLLIDING_BLOCKS[(i >> bit) & 1]);
+            words[i] = builder.toString();
+        }
+        return words;
+    }
+
+
+    /*
+     * Checks whether the key matches one of the patterns. No patterns match every key.
+     */
+    private static boolean selected(String key, String[] patterns) {
+        if (patterns.length == 0)
+            return true;
+        for (String pattern: patterns) {
+            if (Pattern.matches(pattern, key))
+                return true;
+        }
+        return false;
+    }
+
+
+    /**
+     * Runs the selected benchmarks, each in its own forks, and writes the results to RESULTS_FILE.
+     * Inside a fork, runs the single benchmark given by the arguments.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        BenchmarkHarness harness =
+                new BenchmarkHarness(FORKS, WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS, ITERATION_MILLIS);
+        if (args.length > 0 && args[0].equals(BenchmarkHarness.FORK_FLAG)) {
+            Operation operation = Operation.valueOf(args[1]);
+            DataSet dataSet = DataSet.valueOf(args[3]);
+            if (NumericSetType.isNumeric(args[2])) {
+                NumericSetType setType = NumericSetType.valueOf(args[2]);
+                if (operation == Operation.FOOTPRINT)
+                    measureFootprint(harness, setType, dataSet);
+                else
+                    harness.runInFork(numericWorkload(operation, setType, dataSet), operation.unit);
+                return;
+            }
+            SetType setType = SetType.valueOf(args[2]);
+            if (operation == Operation.FOOTPRINT || operation == Operation.OWNED_FOOTPRINT)
+                measureFootprint(harness, setType, dataSet, operation == Operation.OWNED_FOOTPRINT);
+            else if (operation == Operation.PROBES)
+                measureProbes(harness, setType, dataSet);
+            else
+                harness.runInFork(operation.workload(setType, dataSet), operation.unit);
+            return;
+        }
+        for (Operation operation: Operation.values()) {
+            boolean plainOnly = operation == Operation.LOAD_SNAPSHOT || operation == Operation.PARALLEL_BUILD;
+            boolean readOnly = operation == Operation.CONTAINS_HIT || operation == Operation.CONTAINS_MISS ||
+                    operation == Operation.FOOTPRINT || operation == Operation.OWNED_FOOTPRINT;
+            for (SetType setType: SetType.values()) {
+                for (DataSet dataSet: DataSet.values()) {
+                    if ((operation == Operation.PROBES && !setType.probes()) ||
+                            (plainOnly && !setType.plain()) || (!readOnly && !setType.mutable()))
+                        continue;
+                    run(harness, operation, setType.toString(), dataSet, args);
+                }
+            }
+            for (NumericSetType setType: NumericSetType.values()) {
+                for (DataSet dataSet: DataSet.values()) {
+                    if (setType.measures(operation) && setType.holds(dataSet))
+                        run(harness, operation, setType.toString(), dataSet, args);
+                }
+            }
+        }
+        harness.writeJson(RESULTS_FILE);
+    }
+
+
+    /*
+     * Runs the benchmark of an operation on a set type and a data set in its own forks, if its key
+     * matches one of the patterns.
+     */
+    private static void run(BenchmarkHarness harness, Operation operation, String setType, DataSet dataSet,
+                            String[] patterns) throws IOException, InterruptedException {
+        if (!selected(operation + "/" + setType + "/" + dataSet, patterns))
+            return;
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("set", setType);
+        params.put("data", dataSet.toString());
+        if (operation.unit == null)
+            harness.run(operation.toString(), params,
+                    operation == Operation.PROBES ? PROBES_UNIT : FOOTPRINT_UNIT,
+                    SimpleSetBenchmark.class, operation.toString(), setType, dataSet.toString());
+        else
+            harness.run(operation.toString(), params, operation.unit, SimpleSetBenchmark.class,
+                    operation.toString(), setType, dataSet.toString());
+    }
+
+}
@@ -0,0 +1,230 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Replays a trace of mixed adds, lookups and deletes (see WorkloadTrace) against the SimpleSets, and
+ * measures their throughput and the percentiles of their latencies.
+ * Run it from the repository's root directory. The trace is synthesized over the words of a data set of
+ * SimpleSetBenchmark, half of which are in the set when the trace starts, unless a recorded trace is
+ * replayed. The options are:
+ *   --data=DATA2        the data set whose words the trace is made of.
+ *   --operations=1000000 the number of operations of the trace.
+ *   --ratios=10:80:10   the percentages of adds, lookups and deletes.
+ *   --zipf=0.99         the exponent of the words' Zipfian popularity, 0 for a uniform one.
+ *   --record=FILE       records the synthesized trace in FILE.
+ *   --replay=FILE       replays the trace recorded in FILE instead of synthesizing one.
+ * Any other arguments are treated as regular expressions, and only the benchmarks whose "metric/set" key
+ * matches one of them are run (e.g. "REPLAY_P99/(OPEN|CLOSED)_HASH_SET"). LINKED_LIST, whose lookups scan
+ * the whole list, is only run when it's selected by such an argument.
+ * REPLAY_THROUGHPUT replays the whole trace without timing the operations. The REPLAY_P percentiles time
+ * every operation in a LatencyHistogram, so they include reading the clock, which takes about 20ns.
+ * Every iteration replays the trace on a new set, which holds the trace's initial words.
+ * The results are written as JSON to RESULTS_FILE.
+ * @author Oren Motiei
+ */
+public class WorkloadReplayDriver {
+
+    /** The file to which the results are written. */
+    public static final String RESULTS_FILE = "Ex4/replay-results.json";
+
+    private static final int FORKS = 2;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASUREMENT_ITERATIONS = 10;
+    private static final String OPTION_PREFIX = "--";
+    private static final char OPTION_SEPARATOR = '=';
+    private static final String RATIO_SEPARATOR = ":";
+    private static final String DEFAULT_DATA = "DATA2";
+    private static final String DEFAULT_OPERATIONS = "1000000";
+    private static final String DEFAULT_RATIOS = "10:80:10";
+    private static final String DEFAULT_ZIPF = "0.99";
+    private static final long RANDOM_SEED = 4L;
+    private static final double NANOS_IN_MICRO = 1000.0;
+    private static final int TOTAL_PERCENT = 100;
+
+    /** The measured metrics of a replay. */
+    public enum Metric {
+        REPLAY_THROUGHPUT(0), REPLAY_P50(50), REPLAY_P99(99), REPLAY_P999(99.9);
+
+        private final double percentile;
+
+        Metric(double percentile) {
+            this.percentile = percentile;
+        }
+
+        /**
+         * @return The unit of the metric's scores.
+         */
+        public String unit() {
+            return this == REPLAY_THROUGHPUT ? BenchmarkHarness.getThroughputUnit() : "ns";
+        }
+    }
+
+
+    /*
+     * Replays the trace on new sets of the given type, and reports the metric of every measured iteration.
+     */
+    private static void replayInFork(BenchmarkHarness harness, Metric metric,
+                                     SimpleSetBenchmark.SetType setType, WorkloadTrace trace) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        BenchmarkHarness.Blackhole blackhole = new BenchmarkHarness.Blackhole();
+        for (int i=0; i<WARMUP_ITERATIONS + harness.getMeasurementIterations(); i++) {
+            SimpleSet set = setType.create(trace.getInitial(), false);
+            double score;
+            if (metric == Metric.REPLAY_THROUGHPUT) {
+                long before = System.nanoTime();
+                replay(set, trace, blackhole);
+                score = trace.size() * NANOS_IN_MICRO / (System.nanoTime() - before);
+            } else {
+                histogram.reset();
+                replayTimed(set, trace, blackhole, histogram);
+                score = histogram.getValueAtPercentile(metric.percentile);
+            }
+            if (i >= WARMUP_ITERATIONS)
+                harness.reportInFork(score);
+        }
+    }
+
+
+    /*
+     * Performs the operations of the trace on the set.
+     */
+    private static void replay(SimpleSet set, WorkloadTrace trace, BenchmarkHarness.Blackhole blackhole) {
+        for (int i=0; i<trace.size(); i++)
+            blackhole.consume(perform(set, trace.kindAt(i), trace.wordAt(i)));
+    }
+
+
+    /*
+     * Performs the operations of the trace on the set, and records the latency of each in the histogram.
+     */
+    private static void replayTimed(SimpleSet set, WorkloadTrace trace, BenchmarkHarness.Blackhole blackhole,
+                                    LatencyHistogram histogram) {
+        for (int i=0; i<trace.size(); i++) {
+            WorkloadTrace.Kind kind = trace.kindAt(i);
+            String word = trace.wordAt(i);
+            long before = System.nanoTime();
+            boolean result = perform(set, kind, word);
+            histogram.record(System.nanoTime() - before);
+            blackhole.consume(result);
+        }
+    }
+
+
+    /*
+     * Performs a single operation on the set, and returns its result.
+     */
+    private static boolean perform(SimpleSet set, WorkloadTrace.Kind kind, String word) {
+        switch (kind) {
+            case ADD:
+                return set.add(word);
+            case DELETE:
+                return set.delete(word);
+            default:
+                return set.contains(word);
+        }
+    }
+
+
+    /*
+     * Synthesizes the trace described by the options.
+     */
+    private static WorkloadTrace synthesize(Map<String, String> options) {
+        SimpleSetBenchmark.DataSet dataSet =
+                SimpleSetBenchmark.DataSet.valueOf(options.getOrDefault("data", DEFAULT_DATA));
+        String[] all = dataSet.wordsAndMisses();
+        String[] universe = Arrays.copyOf(all, all.length - dataSet.misses());
+        String[] ratios = options.getOrDefault("ratios", DEFAULT_RATIOS).split(RATIO_SEPARATOR);
+        if (ratios.length != WorkloadTrace.Kind.values().length)
+            throw new IllegalArgumentException("ERROR: The ratios must be given as add:contains:delete.");
+        int addPercent = Integer.parseInt(ratios[0]);
+        int containsPercent = Integer.parseInt(ratios[1]);
+        int deletePercent = Integer.parseInt(ratios[2]);
+        if (addPercent + containsPercent + deletePercent != TOTAL_PERCENT)
+            throw new IllegalArgumentException("ERROR: The ratios must sum up to 100.");
+        return WorkloadTrace.synthesize(universe, universe.length / 2,
+                Integer.parseInt(options.getOrDefault("operations", DEFAULT_OPERATIONS)), addPercent,
+                deletePercent, Double.parseDouble(options.getOrDefault("zipf", DEFAULT_ZIPF)), RANDOM_SEED);
+    }
+
+
+    /*
+     * Checks whether the key matches one of the patterns. No patterns match every key.
+     */
+    private static boolean selected(String key, List<String> patterns) {
+        if (patterns.isEmpty())
+            return true;
+        for (String pattern: patterns) {
+            if (Pattern.matches(pattern, key))
+                return true;
+        }
+        return false;
+    }
+
+
+    /**
+     * Runs the selected benchmarks, each in its own forks, and writes the results to RESULTS_FILE.
+     * Inside a fork, runs the single benchmark given by the arguments.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        BenchmarkHarness harness = new BenchmarkHarness(FORKS, WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS, 0);
+        if (args.length > 0 && args[0].equals(BenchmarkHarness.FORK_FLAG)) {
+            replayInFork(harness, Metric.valueOf(args[1]), SimpleSetBenchmark.SetType.valueOf(args[2]),
+                    WorkloadTrace.read(Paths.get(args[3])));
+            return;
+        }
+        Map<String, String> options = new HashMap<>();
+        List<String> patterns = new ArrayList<>();
+        for (String arg: args) {
+            int separator = arg.indexOf(OPTION_SEPARATOR);
+            if (arg.startsWith(OPTION_PREFIX) && separator > 0)
+                options.put(arg.substring(OPTION_PREFIX.length(), separator), arg.substring(separator + 1));
+            else
+                patterns.add(arg);
+        }
+        Path traceFile;
+        String traceName;
+        if (options.containsKey("replay")) {
+            traceFile = Paths.get(options.get("replay"));
+            WorkloadTrace.read(traceFile); // fails early on an invalid trace
+            traceName = traceFile.getFileName().toString();
+        } else {
+            WorkloadTrace trace = synthesize(options);
+            traceFile = options.containsKey("record") ? Paths.get(options.get("record")) :
+                    Files.createTempFile("replay", ".trace");
+            trace.write(traceFile);
+            traceName = options.getOrDefault("data", DEFAULT_DATA) + " " +
+                    options.getOrDefault("ratios", DEFAULT_RATIOS) + " zipf " +
+                    options.getOrDefault("zipf", DEFAULT_ZIPF);
+        }
+        try {
+            for (SimpleSetBenchmark.SetType setType: SimpleSetBenchmark.SetType.values()) {
+                if (!setType.mutable() ||
+                        (setType == SimpleSetBenchmark.SetType.LINKED_LIST && patterns.isEmpty()))
+                    continue;
+                for (Metric metric: Metric.values()) {
+                    if (!selected(metric + "/" + setType, patterns))
+                        continue;
+                    Map<String, String> params = new LinkedHashMap<>();
+                    params.put("set", setType.toString());
+                    params.put("trace", traceName);
+                    harness.run(metric.toString(), params, metric.unit(), WorkloadReplayDriver.class,
+                            metric.toString(), setType.toString(), traceFile.toString());
+                }
+            }
+        } finally {
+            if (!options.containsKey("replay") && !options.containsKey("record"))
+                Files.deleteIfExists(traceFile);
+        }
+        harness.writeJson(RESULTS_FILE);
+    }
+
+}
@@ -0,0 +1,182 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A trace of set operations to replay against a SimpleSet: the words the set holds before the trace
+ * starts, followed by a stream of adds, lookups and deletes.
+ * A trace is either synthesized, with a Zipfian popularity of the words, or read from a file it was
+ * recorded in. In the file, every line holds a kind (INIT, ADD, CONTAINS or DELETE), a single space and
+ * a word, so a word can hold spaces but no line breaks. The INIT lines come first.
+ * @author Oren Motiei
+ */
+public class WorkloadTrace {
+
+    /** The kinds of the operations of a trace. */
+    public enum Kind {
+        ADD, CONTAINS, DELETE
+    }
+
+    private static final String INIT = "INIT";
+    private static final char SEPARATOR = ' ';
+    private static final int PERCENT = 100;
+
+    private final String[] initial;
+    private final Kind[] kinds;
+    private final String[] words;
+
+
+    /*
+     * Constructs a trace of the given initial words and operations. The i-th operation is of kinds[i] and
+     * words[i].
+     */
+    private WorkloadTrace(String[] initial, Kind[] kinds, String[] words) {
+        this.initial = initial;
+        this.kinds = kinds;
+        this.words = words;
+    }
+
+
+    /**
+     * Synthesizes a trace over a universe of words. The set starts with the first initialSize words, and the
+     * words of the operations are drawn by their popularity, which follows Zipf's law: the word of rank k is
+     * drawn in proportion to 1 / k^exponent. The ranks are a random permutation of the universe, so popular
+     * words are both in the set and out of it.
+     * @param universe The words the trace is made of.
+     * @param initialSize The number of words in the set before the trace starts.
+     * @param operations The number of operations.
+     * @param addPercent The percentage of the operations which add a word.
+     * @param deletePercent The percentage of the operations which delete a word. The rest look for one.
+     * @param exponent The exponent of Zipf's law. 0 draws the words uniformly, and the larger it is, the
+     * more the operations focus on the most popular words.
+     * @param seed The seed of the random choices.
+     * @return The trace.
+     */
+    public static WorkloadTrace synthesize(String[] universe, int initialSize, int operations, int addPercent,
+                                           int deletePercent, double exponent, long seed) {
+        if (addPercent < 0 || deletePercent < 0 || addPercent + deletePercent > PERCENT)
+            throw new IllegalArgumentException("ERROR: The percentages of the operations are invalid.");
+        Random random = new Random(seed);
+        String[] ranked = universe.clone();
+        Collections.shuffle(Arrays.asList(ranked), random);
+        double[] cumulative = new double[ranked.length];
+        double total = 0;
+        for (int rank=0; rank<ranked.length; rank++) {
+            total += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+        Kind[] kinds = new Kind[operations];
+        String[] words = new String[operations];
+        for (int i=0; i<operations; i++) {
+            int roll = random.nextInt(PERCENT);
+            kinds[i] = roll < addPercent ? Kind.ADD :
+                    roll < addPercent + deletePercent ? Kind.DELETE : Kind.CONTAINS;
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            words[i] = ranked[Math.min(rank < 0 ? -rank - 1 : rank, ranked.length - 1)];
+        }
+        return new WorkloadTrace(Arrays.copyOf(universe, initialSize), kinds, words);
+    }
+
+
+    /**
+     * Reads a trace recorded by write. Equal words share a single String, as they do in a synthesized
+     * trace, so the sets see the same objects however the trace was made.
+     * @param file The file to read.
+     * @return The trace.
+     * @throws IOException if the file couldn't be read, or a line isn't a valid operation.
+     */
+    public static WorkloadTrace read(Path file) throws IOException {
+        Map<String, String> shared = new HashMap<>();
+        List<String> initial = new ArrayList<>();
+        List<Kind> kinds = new ArrayList<>();
+        List<String> words = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf(SEPARATOR);
+                if (separator < 0)
+                    throw new IOException("ERROR: Invalid trace line: " + line);
+                String kind = line.substring(0, separator);
+                String word = shared.computeIfAbsent(line.substring(separator + 1), value -> value);
+                if (kind.equals(INIT)) {
+                    if (!kinds.isEmpty())
+                        throw new IOException("ERROR: The INIT lines must precede the operations.");
+                    initial.add(word);
+                    continue;
+                }
+                try {
+                    kinds.add(Kind.valueOf(kind));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("ERROR: Invalid trace line: " + line, e);
+                }
+                words.add(word);
+            }
+        }
+        return new WorkloadTrace(initial.toArray(new String[0]), kinds.toArray(new Kind[0]),
+                words.toArray(new String[0]));
+    }
+
+
+    /**
+     * Records the trace in a file, which read turns back into the same trace.
+     * @param file The file to write.
+     * @throws IOException if the file couldn't be written.
+     */
+    public void write(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (String word: initial) {
+                writer.write(INIT + SEPARATOR + word);
+                writer.newLine();
+            }
+            for (int i=0; i<kinds.length; i++) {
+                writer.write(kinds[i].toString() + SEPARATOR + words[i]);
+                writer.newLine();
+            }
+        }
+    }
+
+
+    /**
+     * @return The words the set holds before the trace starts.
+     */
+    public String[] getInitial() {
+        return initial;
+    }
+
+
+    /**
+     * @return The number of operations of the trace.
+     */
+    public int size() {
+        return kinds.length;
+    }
+
+
+    /**
+     * @param index The index of an operation.
+     * @return The kind of the operation.
+     */
+    public Kind kindAt(int index) {
+        return kinds[index];
+    }
+
+
+    /**
+     * @param index The index of an operation.
+     * @return The word of the operation.
+     */
+    public String wordAt(int index) {
+        return words[index];
+    }
+
+}
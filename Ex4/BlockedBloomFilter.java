@@ -0,0 +1,131 @@
+/**
+ * A blocked Bloom filter of strings. The bits are split into blocks of 512 bits, a single cache line, and
+ * all of the bits of a string are in one block, so that adding or looking up a string touches a single
+ * cache line. The strings are hashed by their characters with a 64-bit hash function of their own, so
+ * that strings which share a hash code (as the words of data1 do) are still told apart.
+ * A lookup never misses a string which was added, but may find a string which wasn't, with about the
+ * false positive rate the filter was sized for, as long as it holds no more strings than it was sized for.
+ * @author Oren Motiei
+ */
+public class BlockedBloomFilter {
+
+    private static final int BLOCK_BITS = 512;
+    private static final int BLOCK_LONGS = BLOCK_BITS / Long.SIZE;
+    private static final int MAX_HASH_FUNCTIONS = 16;
+    private static final double LN_2 = Math.log(2);
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long FIRST_MULTIPLIER = 0xff51afd7ed558ccdL;
+    private static final long SECOND_MULTIPLIER = 0xc4ceb9fe1a85ec53L;
+    private static final long GOLDEN_RATIO = 0x9e3779b97f4a7c15L;
+
+    private final long[] bits;
+    private final long blocks;
+    private final int hashFunctions;
+
+    /**
+     * Constructs an empty filter, sized to hold the given number of strings with the given false positive
+     * rate.
+     * @param expectedElements The number of strings the filter is sized for.
+     * @param falsePositiveRate The probability of finding a string which wasn't added, between 0 and 1.
+     * @throws IllegalArgumentException if the false positive rate isn't between 0 and 1.
+     */
+    public BlockedBloomFilter(int expectedElements, double falsePositiveRate) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1))
+            throw new IllegalArgumentException("The false positive rate must be between 0 and 1.");
+        double bitsPerElement = -Math.log(falsePositiveRate) / (LN_2 * LN_2);
+        long totalBits = (long)Math.ceil(Math.max(1, expectedElements) * bitsPerElement);
+        blocks = Math.max(1, (totalBits + BLOCK_BITS - 1) / BLOCK_BITS);
+        bits = new long[Math.toIntExact(blocks * BLOCK_LONGS)];
+        hashFunctions = (int)Math.max(1, Math.min(MAX_HASH_FUNCTIONS, Math.round(bitsPerElement * LN_2)));
+    }
+
+
+    /**
+     * Adds a string to the filter.
+     * @param value The string to add.
+     */
+    public void add(String value) {
+        long hash = hash(value);
+        int block = block(hash);
+        int first = (int)hash;
+        int step = step(hash);
+        for (int i=0; i<hashFunctions; i++) {
+            int bit = (first + i * step) & (BLOCK_BITS - 1);
+            bits[block + (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+
+    /**
+     * Looks for a string in the filter.
+     * @param value The string to look for.
+     * @return False if the string was certainly never added, true if it may have been.
+     */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int block = block(hash);
+        int first = (int)hash;
+        int step = step(hash);
+        for (int i=0; i<hashFunctions; i++) {
+            int bit = (first + i * step) & (BLOCK_BITS - 1);
+            if ((bits[block + (bit >>> 6)] & (1L << bit)) == 0)
+                return false;
+        }
+        return true;
+    }
+
+
+    /**
+     * @return The number of bits of the filter.
+     */
+    public long bitSize() {
+        return (long)bits.length * Long.SIZE;
+    }
+
+
+    /**
+     * @return The number of bits set for every string.
+     */
+    public int getHashFunctions() {
+        return hashFunctions;
+    }
+
+
+    /**
+     * Hashes the characters of a string by FNV-1a, and spreads the result with MurmurHash3's fmix64.
+     * @param value The string to hash.
+     * @return The 64-bit hash code of the string.
+     */
+    public static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i=0; i<value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= FIRST_MULTIPLIER;
+        hash ^= hash >>> 33;
+        hash *= SECOND_MULTIPLIER;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+
+    /*
+     * Returns the index of the first long of the block of the hash code, chosen by its upper half.
+     */
+    private int block(long hash) {
+        return (int)(((hash >>> 32) * blocks) >>> 32) * BLOCK_LONGS;
+    }
+
+
+    /*
+     * Returns the distance between the bits of the hash code within its block. It's odd, so the bits are
+     * distinct.
+     */
+    private static int step(long hash) {
+        return (int)((hash * GOLDEN_RATIO) >>> 32) | 1;
+    }
+
+}
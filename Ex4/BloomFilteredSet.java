@@ -0,0 +1,171 @@
+import java.util.function.Consumer;
+
+/**
+ * Puts a BlockedBloomFilter in front of a SimpleHashSet, so that a lookup of a value which certainly isn't
+ * in the set returns without probing the table or walking a chain. Only the values the filter may contain
+ * are looked up in the set.
+ * The filter is sized for as many values as the set's table holds before it grows, and it's rebuilt from
+ * the values of the set whenever the table is resized. A deleted value can't be removed from the filter,
+ * so the filter is also rebuilt once more values were added to it than it was sized for.
+ * The set must only be changed through this wrapper.
+ * @author Oren Motiei
+ */
+public class BloomFilteredSet implements TraversableSimpleSet {
+
+    /** The false positive rate of the filter of a newly created wrapper. */
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+    private final SimpleHashSet set;
+    private final double falsePositiveRate;
+    private BlockedBloomFilter filter;
+    private int filteredCapacity; // the capacity of the table when the filter was built
+    private int expectedElements; // the number of values the filter is sized for
+    private int filteredElements; // the number of values added to the filter since it was built
+    private int rebuilds = 0;
+
+    /*--------------------------=  Constructors  =--------------------------*/
+
+    /**
+     * Puts a filter with the given false positive rate in front of the set.
+     * @param set The set to filter the lookups of.
+     * @param falsePositiveRate The probability that a lookup of a value which isn't in the set still
+     * looks for it in the set, between 0 and 1.
+     * @throws IllegalArgumentException if the false positive rate isn't between 0 and 1.
+     */
+    public BloomFilteredSet(SimpleHashSet set, double falsePositiveRate) {
+        this.set = set;
+        this.falsePositiveRate = falsePositiveRate;
+        rebuild();
+    }
+
+
+    /**
+     * Puts a filter with the default false positive rate (0.01) in front of the set.
+     * @param set The set to filter the lookups of.
+     */
+    public BloomFilteredSet(SimpleHashSet set) {
+        this(set, DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    /*--------------------------=  End of constructors  =--------------------------*/
+
+    /**
+     * Add a specified element to the set if it's not already in it.
+     * @param newValue New value to add to the set
+     * @return False if newValue already exists in the set
+     */
+    @Override
+    public boolean add(String newValue) {
+        if (!set.add(newValue))
+            return false;
+        if (set.capacity() != filteredCapacity || filteredElements == expectedElements)
+            rebuild();
+        else {
+            filter.add(newValue);
+            filteredElements++;
+        }
+        return true;
+    }
+
+
+    /**
+     * Look for a specified value in the set. The set is only searched if the filter may contain the value.
+     * @param searchVal Value to search for
+     * @return True if searchVal is found in the set
+     */
+    @Override
+    public boolean contains(String searchVal) {
+        return filter.mightContain(searchVal) && set.contains(searchVal);
+    }
+
+
+    /**
+     * Remove the input element from the set. The value stays in the filter until it's rebuilt.
+     * @param toDelete Value to delete
+     * @return True if toDelete is found and deleted
+     */
+    @Override
+    public boolean delete(String toDelete) {
+        if (!set.delete(toDelete))
+            return false;
+        if (set.capacity() != filteredCapacity)
+            rebuild();
+        return true;
+    }
+
+
+    /**
+     * Add the specified elements to the set by its addAll, and then to the filter.
+     * @param newValues New values to add to the set
+     * @return The number of values that were added
+     */
+    @Override
+    public int addAll(String[] newValues) {
+        int added = set.addAll(newValues);
+        if (set.capacity() != filteredCapacity || filteredElements + added > expectedElements)
+            rebuild();
+        else {
+            for (String newValue: newValues)
+                filter.add(newValue);
+            filteredElements += added;
+        }
+        return added;
+    }
+
+
+    /**
+     * @return The number of elements currently in the set
+     */
+    @Override
+    public int size() {
+        return set.size();
+    }
+
+
+    /**
+     * Performs the given action for every element of the set. The set mustn't be changed by the action.
+     * @param action The action to perform
+     */
+    @Override
+    public void forEach(Consumer<? super String> action) {
+        set.forEach(action);
+    }
+
+
+    /**
+     * @return The filtered set.
+     */
+    public SimpleHashSet getSet() {
+        return set;
+    }
+
+
+    /**
+     * @return The false positive rate the filter is sized for.
+     */
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+
+    /**
+     * @return The number of times the filter was built.
+     */
+    public int getRebuilds() {
+        return rebuilds;
+    }
+
+
+    /*
+     * Builds a new filter of the values of the set, sized for the values the table holds before it grows.
+     */
+    private void rebuild() {
+        filteredCapacity = set.capacity();
+        expectedElements = Math.max(set.size() + 1, (int)(filteredCapacity * set.getUpperLoadFactor()));
+        filter = new BlockedBloomFilter(expectedElements, falsePositiveRate);
+        set.forEach(filter::add);
+        filteredElements = set.size();
+        rebuilds++;
+    }
+
+}
@@ -1,12 +1,44 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
- * A hash-set based on closed-hashing with quadratic probing.
+ * A hash-set based on closed-hashing with quadratic probing (or linear probing, see ProbingStrategy).
+ * Its elements can be iterated and streamed, in parallel too, straight from its table.
  * @author Oren Motiei
  */
-public class ClosedHashSet extends SimpleHashSet {
+public class ClosedHashSet extends SimpleHashSet
+        implements IncrementalResizeSet, Iterable<String> {
+
+    /** The fraction of the table's cells that may be DELETED before the table is compacted. */
+    protected static final float DEFAULT_TOMBSTONE_FRACTION = 0.25f;
 
     private static final int NOT_FOUND = -1;
+    private static final int FULL = Integer.MIN_VALUE; // returned by place when the table has no free cell
     private static final String DELETED = new String("");
+    private static final int EMPTY_CELL = -1; // the length written for an empty cell in a snapshot
+    private static final int DELETED_CELL = -2; // the length written for a DELETED cell in a snapshot
     private String[] table = new String[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY]; // the hash code of every value in the table
+    private String[] oldTable = null; // the table being emptied by an incremental resize
+    private int[] oldHashes = null;
+    private int migratedCells = 0; // the number of oldTable's cells that were already moved
+    private boolean incrementalResize = false;
+    private int tombstones = 0; // the number of DELETED cells in the table
+    private float tombstoneFraction = DEFAULT_TOMBSTONE_FRACTION;
+    private ProbingStrategy probing = ProbingStrategy.QUADRATIC;
 
     /*--------------------------=  Constructors  =--------------------------*/
 
@@ -30,19 +62,110 @@ public class ClosedHashSet extends SimpleHashSet {
 
 
     /**
-     * Data constructor - builds the hash set by adding the elements one by one.
+     * Data constructor - builds the hash set by adding all of the elements at once (see addAll).
      * Duplicate values should be ignored. The new table has the default values of initial capacity (16),
      * upper load factor (0.75), and lower load factor (0.25).
      * @param data Values to add to the set.
      */
     public ClosedHashSet(String[] data) {
         super();
-        for (String str: data)
-            this.add(str);
+        addAll(data);
     }
 
     /*--------------------------=  End of constructors  =--------------------------*/
 
+    /**
+     * Loads a set from a snapshot written by writeSnapshot, with the hash function it was written with
+     * (see loadSnapshot(Path, StringHasher)).
+     * @param file The snapshot file.
+     * @return The loaded set.
+     * @throws IOException if the file couldn't be read, isn't a valid snapshot of a ClosedHashSet, or is of
+     * a set hashed by a SipHasher.
+     */
+    public static ClosedHashSet loadSnapshot(Path file) throws IOException {
+        return loadSnapshot(file, null);
+    }
+
+
+    /**
+     * Loads a set from a snapshot written by writeSnapshot. The file is memory-mapped, and every element
+     * is placed back in its cell with its cached hash code, without hashing it. The set is rehashed only
+     * if it's loaded with another hash function than it was written with, e.g. a custom one, which
+     * couldn't be written and is replaced by the default one.
+     * @param file The snapshot file.
+     * @param hasher The hash function of the loaded set, or null for the one written in the snapshot. A
+     * set hashed by a SipHasher needs it, since the key isn't written; a SipHasher with the same key loads
+     * the set without rehashing it.
+     * @return The loaded set.
+     * @throws IOException if the file couldn't be read, isn't a valid snapshot of a ClosedHashSet, or is of
+     * a set hashed by a SipHasher and no hasher was given.
+     */
+    public static ClosedHashSet loadSnapshot(Path file, StringHasher hasher) throws IOException {
+        ByteBuffer buffer = HashSetSnapshot.map(file);
+        HashSetSnapshot header = HashSetSnapshot.read(buffer, HashSetSnapshot.CLOSED_HASH_SET);
+        ClosedHashSet set = new ClosedHashSet(header.getUpperLoadFactor(), header.getLowerLoadFactor());
+        hasher = header.chooseHasher(hasher);
+        if (hasher != null)
+            set.setHasher(hasher);
+        set.probing = header.getProbing();
+        set.table = new String[header.getCapacity()];
+        set.hashes = new int[header.getCapacity()];
+        int size = 0;
+        try {
+            for (int i=0; i<set.table.length; i++) {
+                int length = buffer.getInt();
+                if (length == DELETED_CELL) {
+                    set.table[i] = DELETED;
+                    set.tombstones++;
+                } else if (length != EMPTY_CELL) {
+                    set.hashes[i] = buffer.getInt();
+                    set.table[i] = header.readString(buffer, length);
+                    size++;
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("ERROR: The snapshot is corrupted.", e);
+        }
+        if (size != header.getSize() || set.probing == null)
+            throw new IOException("ERROR: The snapshot is corrupted.");
+        set.setSize(size);
+        if (!header.matches(set.getHasher()))
+            set.rehash();
+        return set;
+    }
+
+
+    /**
+     * Writes a snapshot of the set: its settings, and its table cell by cell, including the cached hash
+     * codes and the DELETED cells, so that loadSnapshot restores the same layout.
+     * An incremental resize in progress is completed first.
+     * @param file The file to write the snapshot to.
+     * @throws IOException if the file couldn't be written, or an element has a surrogate without its pair,
+     * which can't be written as UTF-8.
+     */
+    public void writeSnapshot(Path file) throws IOException {
+        completeResize();
+        CharsetEncoder encoder = HashSetSnapshot.newEncoder();
+        try (DataOutputStream out =
+                     new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            new HashSetSnapshot(HashSetSnapshot.CLOSED_HASH_SET, getHasher(), probing, getUpperLoadFactor(),
+                    getLowerLoadFactor(), table.length, size()).write(out);
+            for (int i=0; i<table.length; i++) {
+                if (table[i] == null)
+                    out.writeInt(EMPTY_CELL);
+                else if (table[i] == DELETED)
+                    out.writeInt(DELETED_CELL);
+                else {
+                    byte[] bytes = HashSetSnapshot.encode(encoder, table[i]);
+                    out.writeInt(bytes.length);
+                    out.writeInt(hashes[i]);
+                    out.write(bytes);
+                }
+            }
+        }
+    }
+
+
     /**
      * @return The current capacity (number of cells) of the table.
      */
@@ -53,28 +176,249 @@ public class ClosedHashSet extends SimpleHashSet {
 
 
     /**
-     * Add a specified element to the set if it's not already in it.
+     * Performs the given action for every element of the set, in the order of the table.
+     * The set mustn't be changed by the action.
+     * @param action The action to perform.
+     */
+    @Override
+    public void forEach(Consumer<? super String> action) {
+        for (String[] target: new String[][] {table, oldTable}) {
+            if (target == null)
+                continue;
+            for (String str: target) {
+                if (str != null && str != DELETED)
+                    action.accept(str);
+            }
+        }
+    }
+
+
+    /**
+     * Returns a fail-fast iterator over the elements, in the order of the table. An incremental resize in
+     * progress is completed first. Once the set is changed, the iterator throws a
+     * ConcurrentModificationException. The iterator can't remove elements.
+     * @return An iterator over the elements of the set.
+     */
+    @Override
+    public Iterator<String> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+
+    /**
+     * Returns a fail-fast spliterator over the elements, which splits by halving the range of the table's
+     * indices it covers, so that the elements are streamed in parallel without being copied.
+     * An incremental resize in progress is completed first.
+     * @return A spliterator over the elements of the set.
+     */
+    @Override
+    public Spliterator<String> spliterator() {
+        completeResize();
+        return new TableSpliterator(this, 0, table.length, size(), true);
+    }
+
+
+    /**
+     * @return A sequential stream of the elements of the set.
+     */
+    public Stream<String> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+
+    /**
+     * @return A parallel stream of the elements of the set, split by ranges of the table.
+     */
+    public Stream<String> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+
+    /*
+    A spliterator over a range of the table's cells. It's bound to the table when it's created, and checks
+    the modification count of the set before every element it passes on.
+     */
+    private static class TableSpliterator implements Spliterator<String> {
+
+        private final ClosedHashSet set;
+        private final String[] table;
+        private final int expectedModCount;
+        private int index; // the next cell to read
+        private final int fence; // one past the last cell to read
+        private int estimate; // the estimated number of elements left
+        private boolean sized; // whether the estimate is exact, before any split
+
+        private TableSpliterator(ClosedHashSet set, int index, int fence, int estimate, boolean sized) {
+            this.set = set;
+            this.table = set.table;
+            this.expectedModCount = set.modCount();
+            this.index = index;
+            this.fence = fence;
+            this.estimate = estimate;
+            this.sized = sized;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            while (index < fence) {
+                String str = table[index++];
+                if (str != null && str != DELETED) {
+                    checkForModification();
+                    action.accept(str);
+                    return true;
+                }
+            }
+            checkForModification();
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super String> action) {
+            for (; index < fence; index++) {
+                String str = table[index];
+                if (str != null && str != DELETED) {
+                    checkForModification();
+                    action.accept(str);
+                }
+            }
+            checkForModification();
+        }
+
+        @Override
+        public Spliterator<String> trySplit() {
+            int middle = (index + fence) >>> 1;
+            if (index >= middle)
+                return null;
+            estimate >>>= 1;
+            sized = false;
+            Spliterator<String> prefix = new TableSpliterator(set, index, middle, estimate, false);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return (sized ? SIZED : 0) | DISTINCT | NONNULL;
+        }
+
+        /*
+         * Throws a ConcurrentModificationException if the set was changed since the spliterator was created.
+         */
+        private void checkForModification() {
+            if (set.modCount() != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+    }
+
+
+    /**
+     * @return The number of DELETED cells in the table.
+     */
+    @Override
+    public int deletedCells() {
+        return tombstones;
+    }
+
+
+    /**
+     * Replaces the probing sequence of the table. If the set isn't empty, all of its elements are moved
+     * to their cells in the new sequence.
+     * @param probing The new probing sequence.
+     */
+    public void setProbingStrategy(ProbingStrategy probing) {
+        this.probing = probing;
+        if (size() > 0) {
+            completeResize();
+            rebuild(table.length, false);
+        }
+    }
+
+
+    /**
+     * @return The probing sequence of the table.
+     */
+    public ProbingStrategy getProbingStrategy() {
+        return probing;
+    }
+
+
+    /**
+     * Sets the fraction of the table's cells that may be marked as deleted. Once a delete leaves more
+     * DELETED cells than that, the elements are rehashed into a clean table of the same capacity.
+     * @param tombstoneFraction The fraction of the capacity, between 0 (exclusive) and 1.
+     * @throws IllegalArgumentException if the fraction is out of range, which would compact the table on
+     * every delete.
+     */
+    public void setTombstoneCompactionFraction(float tombstoneFraction) {
+        if (!(tombstoneFraction > 0 && tombstoneFraction <= 1))
+            throw new IllegalArgumentException("ERROR: The tombstone compaction fraction must be in (0, 1].");
+        this.tombstoneFraction = tombstoneFraction;
+    }
+
+
+    /**
+     * Add a specified element to the set if it's not already in it. A single probing looks for the value
+     * and finds the cell it's placed in (see addIfAbsent).
      * @param newValue New value to add to the set
      * @return False if newValue already exists in the set
      */
     @Override
     public boolean add(String newValue) {
-        if (contains(newValue))
-            return false;
-        int hashCode = newValue.hashCode();
-        for (int i=0; i<table.length; i++) { // start probing
-            int bucketIndex = clamp(hashCode + (i + i*i)/2);
-            if (table[bucketIndex] == null || table[bucketIndex] == DELETED) {
-                table[bucketIndex] = newValue;
-                setSize(size() + 1);
-                double loadFactor = (double)size() / table.length;
-                if (getUpperLoadFactor() == 1 ?
-                        loadFactor >= getUpperLoadFactor() : loadFactor > getUpperLoadFactor())
-                    changeTableSize(GROWTH_CONSTANT);
-                return true;
-            }
+        return addIfAbsent(newValue) >= 0;
+    }
+
+
+    /**
+     * Add a specified element to the set if it's not already in it, and tells which cell of the table holds
+     * it. A single probing looks for the value, and remembers the first free or DELETED cell on its way,
+     * where the value is placed if it isn't found. While an incremental resize is in progress, the old
+     * table is searched first, and a value found there is moved into the table.
+     * @param newValue New value to add to the set
+     * @return The index of the cell newValue was placed in, or -(index + 1) if it was already in the set,
+     * in the cell of that index. The index is valid until the set is changed.
+     * @throws IllegalStateException if the table is full, which happens only at HIGHEST_TABLE_CAPACITY.
+     */
+    @Override
+    public int addIfAbsent(String newValue) {
+        int hashCode = hash(newValue);
+        if (oldTable != null) {
+            int movedIndex = moveFromOldTable(newValue, hashCode, true);
+            if (movedIndex != NOT_FOUND)
+                return -(movedIndex + 1);
+        }
+        int bucketIndex = place(newValue, hashCode);
+        if (bucketIndex == FULL)
+            throw new IllegalStateException("ERROR: The table is full.");
+        if (bucketIndex < 0)
+            return bucketIndex;
+        setSize(size() + 1);
+        countModification();
+        migrate(MIGRATION_STEP);
+        int capacity = capacityAfterAdd(table.length, size());
+        if (capacity != table.length) { // finding the value again isn't a lookup of its own
+            changeTableSize(capacity);
+            bucketIndex = oldTable != null ? moveFromOldTable(newValue, hashCode, false) :
+                    findValue(table, hashes, newValue, hashCode, false);
         }
-        return false;
+        return bucketIndex;
+    }
+
+
+    /**
+     * Checks whether the table should grow. A full table always should, whatever the upper load factor,
+     * since it has no free cell left, so an add never finds the table full.
+     * @param size The number of elements in the table.
+     * @param capacity The capacity of the table.
+     * @return True iff the table should grow.
+     */
+    @Override
+    protected boolean isOverloaded(int size, int capacity) {
+        return size >= capacity || (double)size / capacity > getUpperLoadFactor();
     }
 
 
@@ -85,7 +429,7 @@ public class ClosedHashSet extends SimpleHashSet {
      */
     @Override
     public boolean contains(String searchVal) {
-        return findValue(searchVal) != NOT_FOUND;
+        return contains(searchVal, hash(searchVal));
     }
 
 
@@ -96,52 +440,304 @@ public class ClosedHashSet extends SimpleHashSet {
      */
     @Override
     public boolean delete(String toDelete) {
-        int bucketIndex = findValue(toDelete);
+        int hashCode = hash(toDelete);
+        int bucketIndex = findValue(table, hashes, toDelete, hashCode);
         if (bucketIndex != NOT_FOUND) {
             table[bucketIndex] = DELETED;
-            setSize(size() - 1);
-            double loadFactor = (double)size() / table.length;
-            if (loadFactor < getLowerLoadFactor())
-                changeTableSize(REDUCTION_CONSTANT);
-            return true;
+            tombstones++;
+        } else if (oldTable != null) {
+            bucketIndex = findValue(oldTable, oldHashes, toDelete, hashCode);
+            if (bucketIndex != NOT_FOUND)
+                oldTable[bucketIndex] = DELETED;
         }
-        return false;
+        if (bucketIndex == NOT_FOUND)
+            return false;
+        setSize(size() - 1);
+        countModification();
+        migrate(MIGRATION_STEP);
+        int capacity = capacityAfterDelete(table.length, size());
+        if (capacity != table.length)
+            changeTableSize(capacity);
+        else if (tombstones > tombstoneFraction * table.length) {
+            long startTime = resizeStartTime();
+            completeResize();
+            rebuild(table.length, false);
+            recordResize(table.length, table.length, startTime);
+        }
+        return true;
+    }
+
+
+    /**
+     * Sets whether the table is resized incrementally (see IncrementalResizeSet). While a resize is in
+     * progress, the old table's moved cells are marked as DELETED, MIGRATION_STEP cells at a time.
+     * @param incrementalResize True to resize incrementally, false to move all of the elements at once.
+     */
+    @Override
+    public void setIncrementalResize(boolean incrementalResize) {
+        this.incrementalResize = incrementalResize;
+        if (!incrementalResize)
+            completeResize();
+    }
+
+
+    /**
+     * @return True iff the table is resized incrementally.
+     */
+    @Override
+    public boolean isIncrementalResize() {
+        return incrementalResize;
+    }
+
+
+    /**
+     * Moves all of the elements that are left in the old table of an incremental resize into the new table.
+     * Does nothing if no resize is in progress.
+     */
+    @Override
+    protected void completeResize() {
+        if (oldTable != null)
+            migrate(oldTable.length);
+    }
+
+
+    /**
+     * Moves every element to the cell given by the current hash function, keeping the same capacity.
+     */
+    @Override
+    protected void rehash() {
+        completeResize();
+        rebuild(table.length, true);
+    }
+
+
+    /**
+     * Moves all of the elements at once into a new table of the given capacity, completing any incremental
+     * resize first.
+     * @param capacity The capacity of the new table, a power of two.
+     */
+    @Override
+    protected void resize(int capacity) {
+        completeResize();
+        rebuild(capacity, false);
+    }
+
+
+    /**
+     * Places the value in the table unless it's already there, without resizing the table or updating the
+     * size. A single probing looks for the value and remembers the first free or DELETED cell on its way,
+     * where the value is placed if it isn't found. Must not be called while an incremental resize is in
+     * progress.
+     * @param value The value to add.
+     * @return False if the value is already in the set.
+     * @throws IllegalStateException if the table is full.
+     */
+    @Override
+    protected boolean putIfAbsent(String value) {
+        int bucketIndex = place(value, hash(value));
+        if (bucketIndex == FULL)
+            throw new IllegalStateException("ERROR: The table is full.");
+        return bucketIndex >= 0;
+    }
+
+
+    /**
+     * Places a value which isn't in the set in the first free cell of its probing sequence, given its hash
+     * code, without searching for it, resizing the table or updating the size. Used by
+     * ParallelHashSetBuilder, and must not be called while an incremental resize is in progress.
+     * The table must have room for the value.
+     * @param value The value to add.
+     * @param hashCode The hash code of the value, by the hash function of the set.
+     */
+    protected void placeUnique(String value, int hashCode) {
+        insert(table, hashes, value, hashCode);
     }
 
 
     /*
      * Increases or decreases the table size whenever the load factor surpasses the upperLoadFactor,
      * or goes below the lowerLoadFactor, respectively.
-     * @param num: The number to be multiplied by the capacity of the table.
+     * When resizing incrementally, only allocates the new table, and the elements are moved by migrate.
+     * @param capacity: The capacity of the new table.
      */
-    private void changeTableSize(float num) {
-        int capacity = (int)(table.length * num);
-        if (capacity < LOWEST_TABLE_CAPACITY)
-            capacity = LOWEST_TABLE_CAPACITY;
-        String[] oldTable = table;
+    private void changeTableSize(int capacity) {
+        long startTime = resizeStartTime();
+        int oldCapacity = table.length;
+        if (isIncrementalResize()) {
+            completeResize();
+            oldTable = table;
+            oldHashes = hashes;
+            table = new String[capacity];
+            hashes = new int[capacity];
+            tombstones = 0;
+            migratedCells = 0;
+        } else
+            rebuild(capacity, false);
+        recordResize(oldCapacity, table.length, startTime);
+    }
+
+
+    /*
+     * Moves all of the elements at once into a new table of the given capacity, which leaves no DELETED
+     * cells behind. The cached hash codes are reused, unless they must be recomputed by the hash function.
+     * If the new table is loaded beyond the upper load factor, it grows further. Throws an
+     * IllegalStateException if the new table can't hold all of the elements.
+     */
+    private void rebuild(int capacity, boolean recomputeHashes) {
+        countModification();
+        String[] previousTable = table;
+        int[] previousHashes = hashes;
         table = new String[capacity];
-        setSize(0);
-        for (String str: oldTable) {
-            if (str != null && str != DELETED)
-                add(str);
+        hashes = new int[capacity];
+        tombstones = 0;
+        for (int i=0; i<previousTable.length; i++) {
+            String str = previousTable[i];
+            if (str != null && str != DELETED &&
+                    insert(table, hashes, str, recomputeHashes ? hash(str) : previousHashes[i]) == NOT_FOUND)
+                throw new IllegalStateException("ERROR: The table is too small to hold the elements.");
         }
+        int grown = grownCapacity(table.length, size());
+        if (grown != table.length)
+            changeTableSize(grown);
     }
 
 
     /*
-     * Looks for the given value in the set.
-     * Returns it's index if found, -1 otherwise.
+     * Moves the elements of the next cells of the old table into the new table.
+     * A moved cell is marked as DELETED rather than emptied, so that the probing of the elements which
+     * are still in the old table isn't cut short.
+     * @param cells: The number of cells to move.
      */
-    private int findValue(String str) {
-        int hashCode = str.hashCode();
+    private void migrate(int cells) {
+        if (oldTable == null)
+            return;
+        countModification();
+        int end = Math.min(migratedCells + cells, oldTable.length);
+        for (; migratedCells < end; migratedCells++) {
+            String str = oldTable[migratedCells];
+            if (str != null && str != DELETED) {
+                insert(table, hashes, str, oldHashes[migratedCells]);
+                oldTable[migratedCells] = DELETED;
+            }
+        }
+        if (migratedCells == oldTable.length) {
+            oldTable = null;
+            oldHashes = null;
+        }
+    }
+
+
+    /*
+     * Places the value, with the given hash code, in the table unless it's already there, by a single
+     * probing which remembers the first free or DELETED cell on its way. Doesn't look in the old table,
+     * resize the table or update the size. Returns the index of the cell the value was placed in,
+     * -(index + 1) of the cell it's already in, or FULL if the table has no free cell.
+     */
+    private int place(String value, int hashCode) {
+        int freeIndex = NOT_FOUND;
+        int probes = table.length;
         for (int i=0; i<table.length; i++) {
-            int bucketIndex = clamp(hashCode + (i + i*i)/2);
-            if (table[bucketIndex] == null)
-                return NOT_FOUND;
-            else if (table[bucketIndex].equals(str) && table[bucketIndex] != DELETED)
+            int bucketIndex = clamp(hashCode + probing.offset(i));
+            String cell = table[bucketIndex];
+            if (cell == null) {
+                probes = i + 1;
+                if (freeIndex == NOT_FOUND)
+                    freeIndex = bucketIndex;
+                break;
+            } else if (cell == DELETED) {
+                if (freeIndex == NOT_FOUND)
+                    freeIndex = bucketIndex;
+            } else if (hashes[bucketIndex] == hashCode && cell.equals(value)) {
+                recordProbes(i + 1);
+                return -(bucketIndex + 1);
+            }
+        }
+        recordProbes(probes);
+        if (freeIndex == NOT_FOUND)
+            return FULL;
+        if (table[freeIndex] == DELETED)
+            tombstones--;
+        table[freeIndex] = value;
+        hashes[freeIndex] = hashCode;
+        return freeIndex;
+    }
+
+
+    /*
+     * Moves the value, with the given hash code, from the old table of an incremental resize into the
+     * table, ahead of the migration. Returns the index of its cell in the table, or -1 if it isn't in the
+     * old table. The search of the old table is recorded as a lookup only if recorded is true.
+     */
+    private int moveFromOldTable(String value, int hashCode, boolean recorded) {
+        int oldIndex = findValue(oldTable, oldHashes, value, hashCode, recorded);
+        if (oldIndex == NOT_FOUND)
+            return NOT_FOUND;
+        countModification();
+        oldTable[oldIndex] = DELETED;
+        return insert(table, hashes, value, hashCode);
+    }
+
+
+    /*
+     * Looks for the value, with the given hash code, in both the table and the old table.
+     */
+    private boolean contains(String str, int hashCode) {
+        return findValue(table, hashes, str, hashCode) != NOT_FOUND ||
+                (oldTable != null && findValue(oldTable, oldHashes, str, hashCode) != NOT_FOUND);
+    }
+
+
+    /*
+     * Places the value in the first free cell of its probing sequence in the given table, without checking
+     * whether it's already there. Returns the index of the cell, or -1 if the table has no free cell.
+     */
+    private int insert(String[] target, int[] targetHashes, String value, int hashCode) {
+        for (int i=0; i<target.length; i++) { // start probing
+            int bucketIndex = clamp(hashCode + probing.offset(i), target.length);
+            if (target[bucketIndex] == null || target[bucketIndex] == DELETED) {
+                if (target[bucketIndex] == DELETED && target == table)
+                    tombstones--;
+                target[bucketIndex] = value;
+                targetHashes[bucketIndex] = hashCode;
                 return bucketIndex;
+            }
         }
         return NOT_FOUND;
     }
 
+
+    /*
+     * Looks for the given value in the given table, and records the lookup.
+     */
+    private int findValue(String[] target, int[] targetHashes, String str, int hashCode) {
+        return findValue(target, targetHashes, str, hashCode, true);
+    }
+
+
+    /*
+     * Looks for the given value in the given table. The cached hash codes are compared before equals.
+     * The lookup is recorded only if recorded is true, so that the searches the set makes for itself, like
+     * finding a value again after a resize, don't count.
+     * Returns it's index if found, -1 otherwise.
+     */
+    private int findValue(String[] target, int[] targetHashes, String str, int hashCode, boolean recorded) {
+        int probes = target.length;
+        int foundIndex = NOT_FOUND;
+        for (int i=0; i<target.length; i++) {
+            int bucketIndex = clamp(hashCode + probing.offset(i), target.length);
+            if (target[bucketIndex] == null) {
+                probes = i + 1;
+                break;
+            } else if (targetHashes[bucketIndex] == hashCode && target[bucketIndex] != DELETED &&
+                    target[bucketIndex].equals(str)) {
+                probes = i + 1;
+                foundIndex = bucketIndex;
+                break;
+            }
+        }
+        if (recorded)
+            recordProbes(probes);
+        return foundIndex;
+    }
+
 }
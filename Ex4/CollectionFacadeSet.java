@@ -1,11 +1,13 @@
 import java.util.Collection;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Wraps an underlying Collection and serves to both simplify its API and give it a common
  * type with the implemented SimpleHashSets.
  * @author Oren Motiei
  */
-public class CollectionFacadeSet  implements SimpleSet {
+public class CollectionFacadeSet  implements TraversableSimpleSet {
 
     protected Collection<String> collection;
 
@@ -19,12 +21,15 @@ public class CollectionFacadeSet  implements SimpleSet {
 
 
     /**
-     * Add a specified element to the set if it's not already in it.
+     * Add a specified element to the set if it's not already in it. A Set rejects duplicates by itself, so
+     * it's searched only once, by its own add. Any other collection is searched before adding.
      * @param newValue New value to add to the set
      * @return False if newValue already exists in the set
      */
     @Override
     public boolean add(String newValue) {
+        if (collection instanceof Set)
+            return collection.add(newValue);
         if (collection.contains(newValue))
             return false;
         collection.add(newValue);
@@ -62,4 +67,14 @@ public class CollectionFacadeSet  implements SimpleSet {
         return collection.size();
     }
 
+
+    /**
+     * Performs the given action for every element of the set. The set mustn't be changed by the action.
+     * @param action The action to perform
+     */
+    @Override
+    public void forEach(Consumer<? super String> action) {
+        collection.forEach(action);
+    }
+
 }
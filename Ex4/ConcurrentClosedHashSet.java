@@ -0,0 +1,231 @@
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * A thread-safe hash-set based on closed-hashing with quadratic probing, for read-mostly workloads.
+ * contains never blocks: it reads the current table through an atomic reference, and every cell is read
+ * and written with volatile semantics, so a reader always sees fully published values.
+ * Writers take turns on a single lock. Resizing copies the elements into a new table, which is published
+ * only once it's complete, so readers keep probing the old table in the meantime.
+ * Since a cell is never emptied while its table is in use, a reader's probing is never cut short.
+ * @author Oren Motiei
+ */
+public class ConcurrentClosedHashSet implements TraversableSimpleSet {
+
+    private static final int NOT_FOUND = -1;
+    private static final String DELETED = new String("");
+
+    private final AtomicReference<AtomicReferenceArray<String>> table;
+    private final Object writeLock = new Object();
+    private final float upperLoadFactor;
+    private final float lowerLoadFactor;
+    private final StringHasher hasher;
+    private volatile int numOfElements = 0;
+    private int tombstones = 0; // the number of DELETED cells in the table, guarded by writeLock
+
+    /*--------------------------=  Constructors  =--------------------------*/
+
+    /**
+     * Constructs a new, empty table with the specified load factors and hash function,
+     * and the default initial capacity (16).
+     * @param upperLoadFactor The upper load factor of the hash table.
+     * @param lowerLoadFactor The lower load factor of the hash table.
+     * @param hasher The hash function of the set.
+     */
+    public ConcurrentClosedHashSet(float upperLoadFactor, float lowerLoadFactor, StringHasher hasher) {
+        this.upperLoadFactor = upperLoadFactor;
+        this.lowerLoadFactor = lowerLoadFactor;
+        this.hasher = hasher;
+        table = new AtomicReference<>(new AtomicReferenceArray<>(SimpleHashSet.INITIAL_CAPACITY));
+    }
+
+
+    /**
+     * A default constructor. Constructs a new, empty table with default initial capacity (16),
+     * upper load factor (0.75), lower load factor (0.25) and the default hash function.
+     */
+    public ConcurrentClosedHashSet() {
+        this(SimpleHashSet.DEFAULT_HIGHER_CAPACITY, SimpleHashSet.DEFAULT_LOWER_CAPACITY,
+                SimpleHashSet.DEFAULT_HASHER);
+    }
+
+    /*--------------------------=  End of constructors  =--------------------------*/
+
+    /**
+     * @return The current capacity (number of cells) of the table.
+     */
+    public int capacity() {
+        return table.get().length();
+    }
+
+
+    /**
+     * Add a specified element to the set if it's not already in it. A single probing looks for the value,
+     * and remembers the first free or DELETED cell on its way, where the value is placed if it isn't found.
+     * Only if the table must grow is the value placed by probing the new table.
+     * @param newValue New value to add to the set
+     * @return False if newValue already exists in the set
+     */
+    @Override
+    public boolean add(String newValue) {
+        int hashCode = hasher.hash(newValue);
+        synchronized (writeLock) {
+            AtomicReferenceArray<String> cells = table.get();
+            int freeIndex = NOT_FOUND;
+            for (int i=0; i<cells.length(); i++) { // start probing
+                int bucketIndex = (hashCode + (i + i*i)/2) & (cells.length() - 1);
+                String cell = cells.get(bucketIndex);
+                if (cell == null) {
+                    if (freeIndex == NOT_FOUND)
+                        freeIndex = bucketIndex;
+                    break;
+                } else if (cell == DELETED) {
+                    if (freeIndex == NOT_FOUND)
+                        freeIndex = bucketIndex;
+                } else if (cell.equals(newValue))
+                    return false;
+            }
+            if (isOverloaded(numOfElements + 1, cells.length())) {
+                cells = copy(cells, cells.length() * 2);
+                freeIndex = freeCell(cells, hashCode);
+                cells.set(freeIndex, newValue);
+                table.set(cells);
+            } else {
+                if (cells.get(freeIndex) == DELETED)
+                    tombstones--;
+                cells.set(freeIndex, newValue);
+            }
+            numOfElements++;
+            return true;
+        }
+    }
+
+
+    /**
+     * Look for a specified value in the set. Never blocks.
+     * @param searchVal Value to search for
+     * @return True if searchVal is found in the set
+     */
+    @Override
+    public boolean contains(String searchVal) {
+        return findValue(table.get(), searchVal, hasher.hash(searchVal)) != NOT_FOUND;
+    }
+
+
+    /**
+     * Remove the input element from the set.
+     * Once the set is too sparse, or DELETED cells take a quarter of the table, the elements are copied
+     * into a new table. Like ResizePolicy.DEFAULT, the table is halved only if the halved table isn't
+     * overloaded.
+     * @param toDelete Value to delete
+     * @return True if toDelete is found and deleted
+     */
+    @Override
+    public boolean delete(String toDelete) {
+        int hashCode = hasher.hash(toDelete);
+        synchronized (writeLock) {
+            AtomicReferenceArray<String> cells = table.get();
+            int bucketIndex = findValue(cells, toDelete, hashCode);
+            if (bucketIndex == NOT_FOUND)
+                return false;
+            cells.set(bucketIndex, DELETED);
+            tombstones++;
+            numOfElements--;
+            int shrunk = Math.max(cells.length() / 2, SimpleHashSet.LOWEST_TABLE_CAPACITY);
+            if (numOfElements < lowerLoadFactor * cells.length() && !isOverloaded(numOfElements, shrunk))
+                table.set(copy(cells, shrunk));
+            else if (tombstones > ClosedHashSet.DEFAULT_TOMBSTONE_FRACTION * cells.length())
+                table.set(copy(cells, cells.length()));
+            return true;
+        }
+    }
+
+
+    /**
+     * @return The number of elements currently in the set
+     */
+    @Override
+    public int size() {
+        return numOfElements;
+    }
+
+
+    /**
+     * Performs the given action for every element of the table which is current when it's called. Never
+     * blocks, and may miss changes made in the meantime.
+     * @param action The action to perform
+     */
+    @Override
+    public void forEach(Consumer<? super String> action) {
+        AtomicReferenceArray<String> cells = table.get();
+        for (int i=0; i<cells.length(); i++) {
+            String value = cells.get(i);
+            if (value != null && value != DELETED)
+                action.accept(value);
+        }
+    }
+
+
+    /*
+     * Checks whether a table of the given capacity holding the given number of elements is loaded beyond
+     * the upper load factor, or full, so that it must not hold them. A table is grown before an add fills
+     * it, since a probing for a missing value stops only at an empty cell.
+     */
+    private boolean isOverloaded(int size, int capacity) {
+        return size >= capacity || size > upperLoadFactor * capacity;
+    }
+
+
+    /*
+     * Copies the elements of the table into a new table of the given capacity, which isn't published yet.
+     * Must be called while holding writeLock. Throws an IllegalStateException if the new table can't hold
+     * all of the elements.
+     */
+    private AtomicReferenceArray<String> copy(AtomicReferenceArray<String> cells, int capacity) {
+        AtomicReferenceArray<String> newCells = new AtomicReferenceArray<>(capacity);
+        for (int i=0; i<cells.length(); i++) {
+            String value = cells.get(i);
+            if (value == null || value == DELETED)
+                continue;
+            int freeIndex = freeCell(newCells, hasher.hash(value));
+            if (freeIndex == NOT_FOUND)
+                throw new IllegalStateException("ERROR: The table is too small to hold the elements.");
+            newCells.set(freeIndex, value);
+        }
+        tombstones = 0;
+        return newCells;
+    }
+
+
+    /*
+     * Returns the index of the first empty cell in the probing sequence of the hash code, in a table which
+     * isn't published yet, so it has no DELETED cells.
+     */
+    private int freeCell(AtomicReferenceArray<String> cells, int hashCode) {
+        for (int i=0; i<cells.length(); i++) {
+            int bucketIndex = (hashCode + (i + i*i)/2) & (cells.length() - 1);
+            if (cells.get(bucketIndex) == null)
+                return bucketIndex;
+        }
+        return NOT_FOUND;
+    }
+
+
+    /*
+     * Looks for the given value in the given table.
+     * Returns it's index if found, -1 otherwise.
+     */
+    private int findValue(AtomicReferenceArray<String> cells, String str, int hashCode) {
+        for (int i=0; i<cells.length(); i++) {
+            int bucketIndex = (hashCode + (i + i*i)/2) & (cells.length() - 1);
+            String cell = cells.get(bucketIndex);
+            if (cell == null)
+                return NOT_FOUND;
+            else if (cell != DELETED && cell.equals(str))
+                return bucketIndex;
+        }
+        return NOT_FOUND;
+    }
+
+}
@@ -0,0 +1,284 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * A thread-safe hash-set based on chaining, which may be shared by several threads.
+ * Writers lock only the stripe of the bucket they modify, so writers of different stripes never wait for
+ * each other. The chains are immutable lists, published atomically, so contains never locks.
+ * The table grows cooperatively: every writer that finds a resize in progress claims a range of buckets
+ * and moves them into the new table, and the last one to finish publishes it. The table never shrinks.
+ * @author Oren Motiei
+ */
+public class ConcurrentSimpleHashSet implements TraversableSimpleSet {
+
+    /** The number of locks guarding the buckets. The capacity of the table is never lower than it. */
+    protected static final int STRIPES = SimpleHashSet.INITIAL_CAPACITY;
+
+    /** The number of buckets a thread claims at once while helping a resize. */
+    protected static final int TRANSFER_CHUNK = 16;
+
+    private static final Node FORWARDED = new Node(0, null, null); // marks a bucket that was moved
+
+    private final Object[] locks = new Object[STRIPES];
+    private final AtomicReference<Table> current;
+    private final LongAdder numOfElements = new LongAdder();
+    private final float upperLoadFactor;
+    private final StringHasher hasher;
+
+    /*
+    An immutable node of a chain.
+     */
+    private static class Node {
+        private final int hash;
+        private final String value;
+        private final Node next;
+
+        private Node(int hash, String value, Node next) {
+            this.hash = hash;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /*
+    An array of buckets, and the state of its resize.
+     */
+    private static class Table {
+        private final AtomicReferenceArray<Node> buckets;
+        private final AtomicReference<Table> next = new AtomicReference<>(); // the table it's moved into
+        private final AtomicInteger transferIndex = new AtomicInteger(); // the first unclaimed bucket
+        private final AtomicInteger transferred = new AtomicInteger(); // the number of moved buckets
+
+        private Table(int capacity) {
+            buckets = new AtomicReferenceArray<>(capacity);
+        }
+
+        private int capacity() {
+            return buckets.length();
+        }
+    }
+
+    /*--------------------------=  Constructors  =--------------------------*/
+
+    /**
+     * Constructs a new, empty set with the specified upper load factor and hash function,
+     * and the default initial capacity (16).
+     * @param upperLoadFactor The upper load factor of the hash table.
+     * @param hasher The hash function of the set.
+     */
+    public ConcurrentSimpleHashSet(float upperLoadFactor, StringHasher hasher) {
+        this.upperLoadFactor = upperLoadFactor;
+        this.hasher = hasher;
+        for (int i=0; i<locks.length; i++)
+            locks[i] = new Object();
+        current = new AtomicReference<>(new Table(SimpleHashSet.INITIAL_CAPACITY));
+    }
+
+
+    /**
+     * A default constructor. Constructs a new, empty set with default initial capacity (16),
+     * upper load factor (0.75) and the default hash function.
+     */
+    public ConcurrentSimpleHashSet() {
+        this(SimpleHashSet.DEFAULT_HIGHER_CAPACITY, SimpleHashSet.DEFAULT_HASHER);
+    }
+
+    /*--------------------------=  End of Constructors  =--------------------------*/
+
+    /**
+     * @return The current capacity (number of buckets) of the table.
+     */
+    public int capacity() {
+        return current.get().capacity();
+    }
+
+
+    /**
+     * Add a specified element to the set if it's not already in it.
+     * @param newValue New value to add to the set
+     * @return False if newValue already exists in the set
+     */
+    @Override
+    public boolean add(String newValue) {
+        int hashCode = hasher.hash(newValue);
+        Table table = current.get();
+        while (true) {
+            helpTransfer(table);
+            int bucketIndex = hashCode & (table.capacity() - 1);
+            synchronized (locks[bucketIndex & (STRIPES - 1)]) {
+                Node head = table.buckets.get(bucketIndex);
+                if (head != FORWARDED) {
+                    for (Node node = head; node != null; node = node.next) {
+                        if (node.hash == hashCode && node.value.equals(newValue))
+                            return false;
+                    }
+                    table.buckets.set(bucketIndex, new Node(hashCode, newValue, head));
+                    break;
+                }
+            }
+            table = table.next.get();
+        }
+        numOfElements.increment();
+        Table latest = current.get();
+        if (numOfElements.sum() > upperLoadFactor * latest.capacity()) {
+            if (latest.next.get() == null)
+                latest.next.compareAndSet(null, new Table(latest.capacity() * 2));
+            helpTransfer(latest);
+        }
+        return true;
+    }
+
+
+    /**
+     * Look for a specified value in the set. Never blocks.
+     * @param searchVal Value to search for
+     * @return True if searchVal is found in the set
+     */
+    @Override
+    public boolean contains(String searchVal) {
+        int hashCode = hasher.hash(searchVal);
+        Table table = current.get();
+        while (true) {
+            Node head = table.buckets.get(hashCode & (table.capacity() - 1));
+            if (head != FORWARDED) {
+                for (Node node = head; node != null; node = node.next) {
+                    if (node.hash == hashCode && node.value.equals(searchVal))
+                        return true;
+                }
+                return false;
+            }
+            table = table.next.get();
+        }
+    }
+
+
+    /**
+     * Remove the input element from the set.
+     * @param toDelete Value to delete
+     * @return True if toDelete is found and deleted
+     */
+    @Override
+    public boolean delete(String toDelete) {
+        int hashCode = hasher.hash(toDelete);
+        Table table = current.get();
+        while (true) {
+            helpTransfer(table);
+            int bucketIndex = hashCode & (table.capacity() - 1);
+            synchronized (locks[bucketIndex & (STRIPES - 1)]) {
+                Node head = table.buckets.get(bucketIndex);
+                if (head != FORWARDED) {
+                    Node removed = head;
+                    while (removed != null && !(removed.hash == hashCode && removed.value.equals(toDelete)))
+                        removed = removed.next;
+                    if (removed == null)
+                        return false;
+                    table.buckets.set(bucketIndex, withoutNode(head, removed));
+                    break;
+                }
+            }
+            table = table.next.get();
+        }
+        numOfElements.decrement();
+        return true;
+    }
+
+
+    /**
+     * @return The number of elements currently in the set
+     */
+    @Override
+    public int size() {
+        return (int)numOfElements.sum();
+    }
+
+
+    /**
+     * Performs the given action for every element of the set. Never blocks, and may miss changes made in
+     * the meantime. A bucket which was moved by a resize is read from the table it was moved into.
+     * @param action The action to perform
+     */
+    @Override
+    public void forEach(Consumer<? super String> action) {
+        Table table = current.get();
+        for (int bucketIndex=0; bucketIndex<table.capacity(); bucketIndex++)
+            forEachInBucket(table, bucketIndex, action);
+    }
+
+
+    /*
+     * Performs the action for every element of the bucket, following it into the next tables if it was
+     * moved.
+     */
+    private static void forEachInBucket(Table table, int bucketIndex, Consumer<? super String> action) {
+        Node head = table.buckets.get(bucketIndex);
+        if (head == FORWARDED) {
+            forEachInBucket(table.next.get(), bucketIndex, action);
+            forEachInBucket(table.next.get(), bucketIndex + table.capacity(), action);
+            return;
+        }
+        for (Node node = head; node != null; node = node.next)
+            action.accept(node.value);
+    }
+
+
+    /*
+     * Copies the nodes preceding the removed node, and links the copy to the nodes following it.
+     */
+    private static Node withoutNode(Node head, Node removed) {
+        int preceding = 0;
+        for (Node node = head; node != removed; node = node.next)
+            preceding++;
+        Node[] prefix = new Node[preceding];
+        Node node = head;
+        for (int i=0; i<preceding; i++, node = node.next)
+            prefix[i] = node;
+        Node result = removed.next;
+        for (int i=preceding-1; i>=0; i--)
+            result = new Node(prefix[i].hash, prefix[i].value, result);
+        return result;
+    }
+
+
+    /*
+     * If the table is being resized, claims ranges of its buckets and moves them into the next table, until
+     * no bucket is left unclaimed. The thread which moves the last bucket publishes the next table.
+     */
+    private void helpTransfer(Table table) {
+        Table next = table.next.get();
+        if (next == null)
+            return;
+        int start;
+        while ((start = table.transferIndex.getAndAdd(TRANSFER_CHUNK)) < table.capacity()) {
+            int end = Math.min(start + TRANSFER_CHUNK, table.capacity());
+            for (int bucketIndex=start; bucketIndex<end; bucketIndex++)
+                transferBucket(table, next, bucketIndex);
+            if (table.transferred.addAndGet(end - start) == table.capacity())
+                current.compareAndSet(table, next);
+        }
+    }
+
+
+    /*
+     * Splits a bucket between the two buckets of the next table its elements belong to, and marks it as
+     * forwarded. Both of those buckets are guarded by the same stripe as the moved bucket.
+     */
+    private void transferBucket(Table table, Table next, int bucketIndex) {
+        synchronized (locks[bucketIndex & (STRIPES - 1)]) {
+            Node low = null;
+            Node high = null;
+            for (Node node = table.buckets.get(bucketIndex); node != null; node = node.next) {
+                if ((node.hash & table.capacity()) == 0)
+                    low = new Node(node.hash, node.value, low);
+                else
+                    high = new Node(node.hash, node.value, high);
+            }
+            next.buckets.set(bucketIndex, low);
+            next.buckets.set(bucketIndex + table.capacity(), high);
+            table.buckets.set(bucketIndex, FORWARDED);
+        }
+    }
+
+}
@@ -0,0 +1,506 @@
+import java.util.function.Consumer;
+
+/**
+ * A hash-set based on bucketized cuckoo hashing: the table is split into buckets of 4 cells, and every value
+ * lives in one of two buckets, so a lookup reads at most two buckets however loaded the table is.
+ * Every cell has an 8-bit fingerprint of its value's hash code, and the 4 fingerprints of a bucket are
+ * packed in a single int, which a lookup compares with the value's fingerprint all at once; only the cells
+ * whose fingerprint matches are compared. The second bucket is computed from the first and the fingerprint,
+ * so an element can be moved between its buckets without hashing it again.
+ * An add whose buckets are both full evicts an element to its other bucket, which may evict another and so
+ * on. If that doesn't end within MAX_KICKS evictions, the element left without a cell goes to the stash,
+ * unless the table is too full, in which case it grows. Values which share a hash code share both buckets,
+ * so more than 8 of them (like some of the words of data1) always overflow to the stash. The stash is an
+ * OpenHashSet which hashes their characters, so they don't collide in it too, and a lookup only searches it
+ * when some value of its bucket overflowed.
+ * The table is always resized at once.
+ * @author Oren Motiei
+ */
+public class CuckooHashSet extends SimpleHashSet {
+
+    private static final int NOT_FOUND = -1;
+    private static final int IN_STASH = -2;
+    private static final int SLOT_BITS = 2;
+    private static final int SLOTS = 1 << SLOT_BITS; // the cells of a bucket
+    private static final int FINGERPRINT_SHIFT = 24;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int LOW_BITS = 0x01010101; // the lowest bit of every fingerprint of a bucket
+    private static final int HIGH_BITS = 0x80808080; // the highest bit of every fingerprint of a bucket
+    private static final int ALTERNATE_MIXER = 0x5bd1e995;
+    private static final int OVERFLOW_SHIFT = 6; // the buckets of every long of overflowed
+    private static final int MAX_KICKS = 16;
+    private static final float MAX_CELLS_LOAD = 0.9f; // a failed add grows the table beyond this load
+    private static final StringHasher STASH_HASHER = new SeededMurmurHasher();
+
+    private String[] table = new String[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY]; // the hash code of every value in the table
+    private int[] fingerprints = new int[INITIAL_CAPACITY / SLOTS]; // per bucket, 0 marks an empty cell
+    private long[] overflowed = new long[1]; // a bit per bucket, set once a value of it went to the stash
+    private OpenHashSet stash = null;
+    private int usedCells = 0;
+    private int victimSeed = 1; // the state of the xorshift generator choosing the evicted cells
+    private String homeless; // the element left without a cell by a failed place
+    private int homelessHash;
+
+    /*--------------------------=  Constructors  =--------------------------*/
+
+    /**
+     * Constructs a new, empty table with the specified load factors, and the default initial capacity (16).
+     * @param upperLoadFactor The upper load factor of the hash table.
+     * @param lowerLoadFactor The lower load factor of the hash table.
+     */
+    public CuckooHashSet(float upperLoadFactor, float lowerLoadFactor) {
+        super(upperLoadFactor, lowerLoadFactor);
+    }
+
+
+    /**
+     * A default constructor. Constructs a new, empty table with default initial capacity (16),
+     * upper load factor (0.75) and lower load factor (0.25).
+     */
+    public CuckooHashSet() {
+        super();
+    }
+
+
+    /**
+     * Data constructor - builds the hash set by adding all of the elements at once (see addAll).
+     * Duplicate values should be ignored. The new table has the default values of initial capacity (16),
+     * upper load factor (0.75), and lower load factor (0.25).
+     * @param data Values to add to the set.
+     */
+    public CuckooHashSet(String[] data) {
+        super();
+        addAll(data);
+    }
+
+    /*--------------------------=  End of constructors  =--------------------------*/
+
+    /**
+     * @return The current capacity (number of cells) of the table.
+     */
+    @Override
+    public int capacity() {
+        return table.length;
+    }
+
+
+    /**
+     * @return The number of elements in the stash.
+     */
+    public int stashSize() {
+        return stash == null ? 0 : stash.size();
+    }
+
+
+    /**
+     * Performs the given action for every element of the set, in the order of the table and then of the
+     * stash. The set mustn't be changed by the action.
+     * @param action The action to perform.
+     */
+    @Override
+    public void forEach(Consumer<? super String> action) {
+        for (String str: table) {
+            if (str != null)
+                action.accept(str);
+        }
+        if (stash != null)
+            stash.forEach(action);
+    }
+
+
+    /**
+     * Add a specified element to the set if it's not already in it.
+     * @param newValue New value to add to the set
+     * @return False if newValue already exists in the set
+     */
+    @Override
+    public boolean add(String newValue) {
+        return addIfAbsent(newValue) >= 0;
+    }
+
+
+    /**
+     * Add a specified element to the set if it's not already in it, and tells which cell of the table holds
+     * it. The value's buckets are searched once, and the value is placed in one of them if it isn't found.
+     * The evictions or a resize may move the value on, so its buckets are read again to find its cell,
+     * which isn't counted as a lookup. A value in the stash has no cell, and its index is the capacity.
+     * @param newValue New value to add to the set
+     * @return The index of the cell newValue was placed in, or -(index + 1) if it was already in the set,
+     * in the cell of that index. The index is valid until the set is changed.
+     */
+    @Override
+    public int addIfAbsent(String newValue) {
+        int hashCode = hash(newValue);
+        int cellIndex = findValue(newValue, hashCode, true);
+        if (cellIndex != NOT_FOUND)
+            return -(indexOf(cellIndex) + 1);
+        placeAbsent(newValue, hashCode);
+        setSize(size() + 1);
+        int capacity = capacityAfterAdd(table.length, size());
+        if (capacity != table.length)
+            changeTableSize(capacity);
+        return indexOf(findValue(newValue, hashCode, false));
+    }
+
+
+    /**
+     * Checks whether the table should grow. A full table always should, since it has no free cell left.
+     * @param size The number of elements in the table.
+     * @param capacity The capacity of the table.
+     * @return True iff the table should grow.
+     */
+    @Override
+    protected boolean isOverloaded(int size, int capacity) {
+        double loadFactor = (double)size / capacity;
+        return getUpperLoadFactor() == 1 ?
+                loadFactor >= getUpperLoadFactor() : loadFactor > getUpperLoadFactor();
+    }
+
+
+    /**
+     * Computes the capacity a table shrinks to after an element was deleted from it, as the resize policy
+     * decides, but never below a single bucket.
+     * @param capacity The capacity of the table.
+     * @param size The number of elements in the table after deleting.
+     * @return The capacity of the table after deleting.
+     */
+    @Override
+    protected int shrunkCapacity(int capacity, int size) {
+        return Math.max(SLOTS, super.shrunkCapacity(capacity, size));
+    }
+
+
+    /**
+     * Look for a specified value in the set.
+     * @param searchVal Value to search for
+     * @return True if searchVal is found in the set
+     */
+    @Override
+    public boolean contains(String searchVal) {
+        return findValue(searchVal, hash(searchVal), true) != NOT_FOUND;
+    }
+
+
+    /**
+     * Remove the input element from the set.
+     * @param toDelete Value to delete
+     * @return True if toDelete is found and deleted
+     */
+    @Override
+    public boolean delete(String toDelete) {
+        int cellIndex = findValue(toDelete, hash(toDelete), true);
+        if (cellIndex == NOT_FOUND)
+            return false;
+        if (cellIndex == IN_STASH) {
+            stash.delete(toDelete);
+            if (stash.size() == 0)
+                stash = null;
+        } else
+            clearCell(cellIndex);
+        setSize(size() - 1);
+        int capacity = capacityAfterDelete(table.length, size());
+        if (capacity != table.length)
+            changeTableSize(capacity);
+        return true;
+    }
+
+
+    /**
+     * Moves every element to the buckets given by the current hash function, keeping the same capacity.
+     */
+    @Override
+    protected void rehash() {
+        rebuild(table.length, true);
+    }
+
+
+    /**
+     * Moves all of the elements at once into a new table of the given capacity.
+     * @param capacity The capacity of the new table, a power of two.
+     */
+    @Override
+    protected void resize(int capacity) {
+        rebuild(Math.max(SLOTS, capacity), false);
+    }
+
+
+    /**
+     * Places the value in one of its buckets unless it's already in the set, without updating the size.
+     * If the evictions fail and the table is too full, the table grows.
+     * @param value The value to add.
+     * @return False if the value is already in the set.
+     */
+    @Override
+    protected boolean putIfAbsent(String value) {
+        int hashCode = hash(value);
+        if (findValue(value, hashCode, true) != NOT_FOUND)
+            return false;
+        placeAbsent(value, hashCode);
+        return true;
+    }
+
+
+    /*
+     * Places a value which isn't in the set in one of its buckets or in the stash. If the evictions fail
+     * and the table is too full, the table grows.
+     */
+    private void placeAbsent(String value, int hashCode) {
+        if (!placeOrStash(value, hashCode)) {
+            long startTime = resizeStartTime();
+            int oldCapacity = table.length;
+            rebuild(table.length * 2, false);
+            recordResize(oldCapacity, table.length, startTime);
+        }
+    }
+
+
+    /*
+     * Increases or decreases the table size whenever the load factor surpasses the upperLoadFactor,
+     * or goes below the lowerLoadFactor, respectively.
+     */
+    private void changeTableSize(int capacity) {
+        long startTime = resizeStartTime();
+        int oldCapacity = table.length;
+        rebuild(capacity, false);
+        recordResize(oldCapacity, table.length, startTime);
+    }
+
+
+    /*
+     * Moves all of the elements, including the stash, into a new table of the given capacity. The cached
+     * hash codes are reused, unless they must be recomputed by the hash function. If the new table fills
+     * up beyond MAX_CELLS_LOAD, it's built again at twice the capacity, and if it's loaded beyond the upper
+     * load factor, it grows further.
+     */
+    private void rebuild(int capacity, boolean recomputeHashes) {
+        String[] previousTable = table;
+        int[] previousHashes = hashes;
+        OpenHashSet previousStash = stash;
+        while (!refill(capacity, previousTable, previousHashes, previousStash, recomputeHashes))
+            capacity *= 2;
+        int grown = grownCapacity(table.length, size());
+        if (grown != table.length)
+            changeTableSize(grown);
+    }
+
+
+    /*
+     * Places all of the given elements in new, empty arrays of the given capacity. Returns false if the
+     * table filled up beyond MAX_CELLS_LOAD on the way.
+     */
+    private boolean refill(int capacity, String[] previousTable, int[] previousHashes,
+                           OpenHashSet previousStash, boolean recomputeHashes) {
+        table = new String[capacity];
+        hashes = new int[capacity];
+        fingerprints = new int[capacity / SLOTS];
+        overflowed = new long[Math.max(1, fingerprints.length >>> OVERFLOW_SHIFT)];
+        stash = null;
+        usedCells = 0;
+        for (int i=0; i<previousTable.length; i++) {
+            String str = previousTable[i];
+            if (str != null && !placeOrStash(str, recomputeHashes ? hash(str) : previousHashes[i]))
+                return false;
+        }
+        if (previousStash != null) {
+            for (String str: previousStash) {
+                if (!placeOrStash(str, hash(str)))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+
+    /*
+     * Places the value in the table, or if the evictions fail, puts the element left without a cell in the
+     * stash. Returns false if they failed while the table is loaded beyond MAX_CELLS_LOAD, so that it should
+     * grow (the element is in the stash even then).
+     */
+    private boolean placeOrStash(String value, int hashCode) {
+        if (place(value, hashCode))
+            return true;
+        if (stash == null) {
+            stash = new OpenHashSet();
+            stash.setHasher(STASH_HASHER);
+        }
+        stash.add(homeless);
+        int bucket = homeBucket(homelessHash);
+        overflowed[bucket >>> OVERFLOW_SHIFT] |= 1L << bucket;
+        homeless = null;
+        return (double)usedCells / table.length <= MAX_CELLS_LOAD;
+    }
+
+
+    /*
+     * Places the value in a free cell of one of its buckets. While both are full, the value takes a cell
+     * of its bucket from the element in it, which moves on to its other bucket. Returns false if no free
+     * cell was found within MAX_KICKS evictions, or at once if the buckets are full of values of its hash
+     * code, leaving the last evicted element in homeless.
+     */
+    private boolean place(String value, int hashCode) {
+        int bucket = homeBucket(hashCode);
+        int cellIndex = freeCell(bucket);
+        if (cellIndex == NOT_FOUND) {
+            bucket = alternateBucket(bucket, fingerprint(hashCode));
+            cellIndex = freeCell(bucket);
+        }
+        if (cellIndex == NOT_FOUND && sharesBuckets(homeBucket(hashCode), bucket, hashCode)) {
+            homeless = value;
+            homelessHash = hashCode;
+            return false;
+        }
+        for (int kick=0; cellIndex == NOT_FOUND; kick++) {
+            if (kick == MAX_KICKS) {
+                homeless = value;
+                homelessHash = hashCode;
+                return false;
+            }
+            victimSeed ^= victimSeed << 13;
+            victimSeed ^= victimSeed >>> 17;
+            victimSeed ^= victimSeed << 5;
+            int victim = (bucket << SLOT_BITS) | (victimSeed & (SLOTS - 1));
+            String evicted = table[victim];
+            int evictedHash = hashes[victim];
+            setCell(victim, value, hashCode);
+            value = evicted;
+            hashCode = evictedHash;
+            bucket = alternateBucket(bucket, fingerprint(hashCode));
+            cellIndex = freeCell(bucket);
+        }
+        setCell(cellIndex, value, hashCode);
+        usedCells++;
+        return true;
+    }
+
+
+    /*
+     * Checks whether all of the cells of the two buckets hold values of the given hash code. Evicting any
+     * of them would only move it to the other bucket, so the evictions are bound to fail.
+     */
+    private boolean sharesBuckets(int bucket, int alternate, int hashCode) {
+        for (int i=0; i<SLOTS; i++) {
+            if (hashes[(bucket << SLOT_BITS) | i] != hashCode ||
+                    hashes[(alternate << SLOT_BITS) | i] != hashCode)
+                return false;
+        }
+        return true;
+    }
+
+
+    /*
+     * Looks for the given value in its two buckets, and in the stash if a value of its bucket overflowed.
+     * Returns it's index if found in the table, IN_STASH if found in the stash, and -1 otherwise.
+     * The number of places searched is recorded only if the search is a lookup of its own.
+     */
+    private int findValue(String str, int hashCode, boolean recorded) {
+        int fingerprint = fingerprint(hashCode);
+        int bucket = homeBucket(hashCode);
+        int cellIndex = findInBucket(str, fingerprint, bucket);
+        int probes = 1;
+        if (cellIndex == NOT_FOUND) {
+            cellIndex = findInBucket(str, fingerprint, alternateBucket(bucket, fingerprint));
+            probes++;
+            if (cellIndex == NOT_FOUND && stash != null &&
+                    (overflowed[bucket >>> OVERFLOW_SHIFT] & (1L << bucket)) != 0) {
+                cellIndex = stash.contains(str) ? IN_STASH : NOT_FOUND;
+                probes++;
+            }
+        }
+        if (recorded)
+            recordProbes(probes);
+        return cellIndex;
+    }
+
+
+    /*
+     * Returns the index addIfAbsent reports for a value found at the given index: the capacity for a value
+     * in the stash.
+     */
+    private int indexOf(int cellIndex) {
+        return cellIndex == IN_STASH ? table.length : cellIndex;
+    }
+
+
+    /*
+     * Looks for the given value in a bucket. The fingerprints of the bucket which equal the value's become
+     * zero bytes of match, whose high bits are then set by subtracting 1 from every byte (a byte above a
+     * zero byte may be set too, which the comparison filters out). The cached hash codes aren't compared,
+     * since the fingerprints leave few false candidates, and reading them would cost another cache line.
+     */
+    private int findInBucket(String str, int fingerprint, int bucket) {
+        int match = fingerprints[bucket] ^ (fingerprint * LOW_BITS);
+        int candidates = (match - LOW_BITS) & ~match & HIGH_BITS;
+        while (candidates != 0) {
+            int cellIndex = (bucket << SLOT_BITS) | (Integer.numberOfTrailingZeros(candidates) >>> 3);
+            if (str.equals(table[cellIndex]))
+                return cellIndex;
+            candidates &= candidates - 1;
+        }
+        return NOT_FOUND;
+    }
+
+
+    /*
+     * Returns the index of the first free cell of a bucket, or -1 if it's full. The lowest byte flagged as
+     * zero is always a real one, since only the bytes above a zero byte can be flagged falsely.
+     */
+    private int freeCell(int bucket) {
+        int word = fingerprints[bucket];
+        int free = (word - LOW_BITS) & ~word & HIGH_BITS;
+        if (free == 0)
+            return NOT_FOUND;
+        return (bucket << SLOT_BITS) | (Integer.numberOfTrailingZeros(free) >>> 3);
+    }
+
+
+    /*
+     * Puts the value in the given cell, and its fingerprint in its bucket.
+     */
+    private void setCell(int cellIndex, String value, int hashCode) {
+        table[cellIndex] = value;
+        hashes[cellIndex] = hashCode;
+        int shift = (cellIndex & (SLOTS - 1)) * Byte.SIZE;
+        int bucket = cellIndex >>> SLOT_BITS;
+        fingerprints[bucket] = (fingerprints[bucket] & ~(BYTE_MASK << shift)) |
+                (fingerprint(hashCode) << shift);
+    }
+
+
+    /*
+     * Empties the given cell.
+     */
+    private void clearCell(int cellIndex) {
+        table[cellIndex] = null;
+        fingerprints[cellIndex >>> SLOT_BITS] &= ~(BYTE_MASK << ((cellIndex & (SLOTS - 1)) * Byte.SIZE));
+        usedCells--;
+    }
+
+
+    /*
+     * Returns the fingerprint of a hash code: its highest 8 bits, which the bucket index doesn't use,
+     * and never 0, which marks an empty cell.
+     */
+    private static int fingerprint(int hashCode) {
+        int fingerprint = hashCode >>> FINGERPRINT_SHIFT;
+        return fingerprint == 0 ? 1 : fingerprint;
+    }
+
+
+    /*
+     * Returns the first bucket of a hash code.
+     */
+    private int homeBucket(int hashCode) {
+        return hashCode & (fingerprints.length - 1);
+    }
+
+
+    /*
+     * Returns the other bucket of an element of the given bucket and fingerprint. Applied to the other
+     * bucket, it returns the given one.
+     */
+    private int alternateBucket(int bucket, int fingerprint) {
+        return (bucket ^ (fingerprint * ALTERNATE_MIXER)) & (fingerprints.length - 1);
+    }
+
+}
@@ -3,7 +3,15 @@ import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -12,6 +20,15 @@ import java.util.List;
  */
 public class Ex4Utils {
 
+	// The initial size of the buffer a file is read through. A longer line grows it.
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	// The number of lines which are added to the set at once.
+	private static final int BATCH_SIZE = 1024;
+
+	// The smallest part of a file that's worth reading by a thread of its own.
+	private static final int MIN_CHUNK_SIZE = BUFFER_SIZE;
+
 	/**
 	 * Reads a text file (such that each line contains a single word), 
 	 * and returns a string array of its lines.
@@ -65,4 +82,184 @@ public class Ex4Utils {
 		fileContent.toArray(result);
 		return result;
 	}
+
+	/**
+	 * Reads a text file (such that each line contains a single word) and adds its lines to the set, without
+	 * keeping the whole file in memory: the file is read through a fixed buffer, and the lines are added
+	 * in small batches by the set's addAll. The lines are split as file2array splits them, and are decoded
+	 * as UTF-8.
+	 * @param fileName Text file to read.
+	 * @param set The set to add the lines to.
+	 * @return The number of lines that were read (returns -1 if an IOException occurred).
+	 */
+	public static long file2set(String fileName, SimpleSet set) {
+		return file2set(fileName, set, 1);
+	}
+
+	/**
+	 * Like file2set(fileName, set), but splits the file into chunks at line boundaries, and reads the chunks
+	 * in parallel, each by a thread of its own. A ConcurrentSimpleHashSet or a ConcurrentClosedHashSet
+	 * is filled by all of the threads at once; any other set is filled by one batch at a time, so only
+	 * the reading and the decoding are parallel. Small files are read by fewer threads.
+	 * @param fileName Text file to read.
+	 * @param set The set to add the lines to.
+	 * @param threads The maximal number of threads to read the file with.
+	 * @return The number of lines that were read (returns -1 if an IOException occurred).
+	 */
+	public static long file2set(String fileName, SimpleSet set, int threads) {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			long[] bounds = chunkBounds(channel, threads);
+			if (bounds.length == 2)
+				return readLines(channel, bounds[0], bounds[1], set, false);
+			return readChunks(channel, bounds, set);
+		} catch (NoSuchFileException e) {
+			System.err.println("ERROR: The file: " + fileName + " is not found.");
+			return -1;
+		} catch (IOException e) {
+			System.err.println("ERROR: An IO error occurred.");
+			return -1;
+		}
+	}
+
+	/*
+	 * Splits the file into up to the given number of chunks, each starting at the beginning of a line.
+	 * Returns the bounds of the chunks: chunk i is [bounds[i], bounds[i+1]).
+	 */
+	private static long[] chunkBounds(FileChannel channel, int chunks) throws IOException {
+		long size = channel.size();
+		chunks = (int)Math.max(1, Math.min(chunks, size / MIN_CHUNK_SIZE));
+		long[] bounds = new long[chunks + 1];
+		for (int i=1; i<chunks; i++)
+			bounds[i] = nextLineStart(channel, Math.max(size / chunks * i, bounds[i - 1]), size);
+		bounds[chunks] = size;
+		return bounds;
+	}
+
+	/*
+	 * Returns the position right after the first line feed at or after the given position, or the size of
+	 * the file if there's none.
+	 */
+	private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE / 16);
+		while (position < size) {
+			buffer.clear();
+			int read = channel.read(buffer, position);
+			if (read < 0)
+				break;
+			for (int i=0; i<read; i++) {
+				if (buffer.get(i) == '\n')
+					return position + i + 1;
+			}
+			position += read;
+		}
+		return size;
+	}
+
+	/*
+	 * Reads the chunks by a thread per chunk, and returns the total number of lines.
+	 */
+	private static long readChunks(FileChannel channel, long[] bounds, SimpleSet set) throws IOException {
+		boolean synchronize = !(set instanceof ConcurrentSimpleHashSet || set instanceof ConcurrentClosedHashSet);
+		int chunks = bounds.length - 1;
+		long[] lines = new long[chunks];
+		IOException[] errors = new IOException[chunks];
+		Thread[] readers = new Thread[chunks];
+		for (int i=0; i<chunks; i++) {
+			int chunk = i;
+			readers[i] = new Thread(() -> {
+				try {
+					lines[chunk] = readLines(channel, bounds[chunk], bounds[chunk + 1], set, synchronize);
+				} catch (IOException e) {
+					errors[chunk] = e;
+				}
+			});
+			readers[i].start();
+		}
+		long total = 0;
+		for (int i=0; i<chunks; i++) {
+			try {
+				readers[i].join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			}
+			if (errors[i] != null)
+				throw errors[i];
+			total += lines[i];
+		}
+		return total;
+	}
+
+	/*
+	 * Reads the lines of [start, end) of the file and adds them to the set, by batches of BATCH_SIZE lines.
+	 * A line ends with "\n", "\r" or "\r\n", and the last line may have no end. Since UTF-8 never uses the
+	 * bytes of '\n' and '\r' inside a multi-byte character, the lines are split before being decoded.
+	 * Returns the number of lines.
+	 */
+	private static long readLines(FileChannel channel, long start, long end, SimpleSet set,
+								  boolean synchronize) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		String[] batch = new String[BATCH_SIZE];
+		int batched = 0;
+		long lines = 0;
+		long position = start;
+		int scanned = 0; // the bytes of the buffer that were already scanned
+		boolean afterCarriageReturn = false;
+		while (true) {
+			buffer.limit((int)Math.min(buffer.capacity(), buffer.position() + (end - position)));
+			int read = buffer.hasRemaining() ? channel.read(buffer, position) : -1;
+			boolean lastRead = read < 0 || (position += read) >= end;
+			byte[] bytes = buffer.array();
+			int filled = buffer.position();
+			int lineStart = 0;
+			for (int i=scanned; i<filled; i++) {
+				byte b = bytes[i];
+				if (b == '\n' && afterCarriageReturn) { // the end of "\r\n", whose line was already added
+					lineStart = i + 1;
+					afterCarriageReturn = false;
+					continue;
+				}
+				afterCarriageReturn = (b == '\r');
+				if (b != '\n' && b != '\r')
+					continue;
+				batch[batched++] = new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8);
+				lines++;
+				lineStart = i + 1;
+				if (batched == BATCH_SIZE) {
+					addBatch(set, batch, synchronize);
+					batched = 0;
+				}
+			}
+			if (lastRead) {
+				if (lineStart < filled) {
+					batch[batched++] = new String(bytes, lineStart, filled - lineStart, StandardCharsets.UTF_8);
+					lines++;
+				}
+				break;
+			}
+			// Keeps the beginning of the unfinished line, and grows the buffer if the line fills it
+			if (lineStart == 0 && filled == buffer.capacity()) {
+				buffer = ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length * 2));
+				buffer.position(filled);
+			} else {
+				System.arraycopy(bytes, lineStart, bytes, 0, filled - lineStart);
+				buffer.position(filled - lineStart);
+			}
+			scanned = buffer.position();
+		}
+		addBatch(set, Arrays.copyOf(batch, batched), synchronize);
+		return lines;
+	}
+
+	/*
+	 * Adds the batch to the set, while holding the set's lock if it isn't thread-safe.
+	 */
+	private static void addBatch(SimpleSet set, String[] batch, boolean synchronize) {
+		if (synchronize) {
+			synchronized (set) {
+				set.addAll(batch);
+			}
+		} else
+			set.addAll(batch);
+	}
 }
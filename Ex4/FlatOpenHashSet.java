@@ -0,0 +1,314 @@
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * A hash-set based on chaining, which keeps its entries in parallel arrays instead of linked objects:
+ * the cached hash code, the value and the index of the next entry in the chain. Deleted entries are kept
+ * in a free-list and reused, so once the arrays are large enough adding and searching allocate nothing.
+ * Resizing only relinks the entries by their cached hash codes, so it's always done at once.
+ * @author Oren Motiei
+ */
+public class FlatOpenHashSet extends SimpleHashSet {
+
+    private static final int NO_ENTRY = -1;
+
+    private int[] heads = newHeads(INITIAL_CAPACITY); // the first entry of every bucket
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private String[] values = new String[INITIAL_CAPACITY];
+    private int[] next = new int[INITIAL_CAPACITY];
+    private int usedEntries = 0; // the entries at or above this index were never used
+    private int freeList = NO_ENTRY; // the first of the deleted entries, linked through next
+
+    /*--------------------------=  Constructors  =--------------------------*/
+
+    /**
+     * Constructs a new, empty table with the specified load factors, and the default initial capacity (16).
+     * @param upperLoadFactor The upper load factor of the hash table.
+     * @param lowerLoadFactor The lower load factor of the hash table.
+     */
+    public FlatOpenHashSet(float upperLoadFactor, float lowerLoadFactor) {
+        super(upperLoadFactor, lowerLoadFactor);
+    }
+
+
+    /**
+     * A default constructor. Constructs a new, empty table with default initial capacity (16),
+     * upper load factor (0.75) and lower load factor (0.25).
+     */
+    public FlatOpenHashSet() {
+        super();
+    }
+
+
+    /**
+     * Data constructor - builds the hash set by adding all of the elements at once (see addAll).
+     * Duplicate values should be ignored. The new table has the default values of initial capacity (16),
+     * upper load factor (0.75), and lower load factor (0.25).
+     * @param data Values to add to the set.
+     */
+    public FlatOpenHashSet(String[] data) {
+        super();
+        addAll(data);
+    }
+
+    /*--------------------------=  End of Constructors  =--------------------------*/
+
+    /**
+     * @return The current capacity (number of cells) of the table.
+     */
+    @Override
+    public int capacity() {
+        return heads.length;
+    }
+
+
+    /**
+     * Performs the given action for every element of the set, in the order of their entries.
+     * The set mustn't be changed by the action.
+     * @param action The action to perform.
+     */
+    @Override
+    public void forEach(Consumer<? super String> action) {
+        for (int entry=0; entry<usedEntries; entry++) {
+            if (values[entry] != null)
+                action.accept(values[entry]);
+        }
+    }
+
+
+    /**
+     * Add a specified element to the set if it's not already in it.
+     * @param newValue New value to add to the set
+     * @return False if newValue already exists in the set
+     */
+    @Override
+    public boolean add(String newValue) {
+        return addIfAbsent(newValue) >= 0;
+    }
+
+
+    /**
+     * Add a specified element to the set if it's not already in it, and tells which bucket of the table
+     * holds it. The value's chain is searched once, and a new entry is linked into it if it isn't found.
+     * @param newValue New value to add to the set
+     * @return The index of the bucket newValue was added to, or -(index + 1) if it was already in the set,
+     * in the bucket of that index. The index is valid until the set is changed.
+     */
+    @Override
+    public int addIfAbsent(String newValue) {
+        int hashCode = hash(newValue);
+        int bucketIndex = clamp(hashCode);
+        if (!link(newValue, hashCode, bucketIndex))
+            return -(bucketIndex + 1);
+        setSize(size() + 1);
+        int capacity = capacityAfterAdd(heads.length, size());
+        if (capacity != heads.length) {
+            changeTableSize(capacity);
+            bucketIndex = clamp(hashCode);
+        }
+        return bucketIndex;
+    }
+
+
+    /**
+     * Look for a specified value in the set.
+     * @param searchVal Value to search for
+     * @return True if searchVal is found in the set
+     */
+    @Override
+    public boolean contains(String searchVal) {
+        int hashCode = hash(searchVal);
+        return findEntry(heads[clamp(hashCode)], hashCode, searchVal) != NO_ENTRY;
+    }
+
+
+    /**
+     * Remove the input element from the set.
+     * @param toDelete Value to delete
+     * @return True if toDelete is found and deleted
+     */
+    @Override
+    public boolean delete(String toDelete) {
+        int hashCode = hash(toDelete);
+        int bucketIndex = clamp(hashCode);
+        int previous = NO_ENTRY;
+        int probes = 0;
+        for (int entry = heads[bucketIndex]; entry != NO_ENTRY; previous = entry, entry = next[entry]) {
+            probes++;
+            if (hashes[entry] == hashCode && values[entry].equals(toDelete)) {
+                recordProbes(probes);
+                if (previous == NO_ENTRY)
+                    heads[bucketIndex] = next[entry];
+                else
+                    next[previous] = next[entry];
+                values[entry] = null;
+                next[entry] = freeList;
+                freeList = entry;
+                setSize(size() - 1);
+                int capacity = capacityAfterDelete(heads.length, size());
+                if (capacity != heads.length)
+                    changeTableSize(capacity);
+                return true;
+            }
+        }
+        recordProbes(probes);
+        return false;
+    }
+
+
+    /**
+     * Moves every element to the cell given by the current hash function, keeping the same capacity.
+     */
+    @Override
+    protected void rehash() {
+        for (int entry=0; entry<usedEntries; entry++) {
+            if (values[entry] != null)
+                hashes[entry] = hash(values[entry]);
+        }
+        relink(heads.length);
+    }
+
+
+    /**
+     * Relinks all of the entries into a new array of buckets of the given capacity.
+     * @param capacity The capacity of the new table, a power of two.
+     */
+    @Override
+    protected void resize(int capacity) {
+        if (capacity < heads.length)
+            compact();
+        relink(capacity);
+    }
+
+
+    /**
+     * Links a new entry of the value into its bucket unless it's already there, without resizing the table
+     * or updating the size.
+     * @param value The value to add.
+     * @return False if the value is already in the set.
+     */
+    @Override
+    protected boolean putIfAbsent(String value) {
+        int hashCode = hash(value);
+        return link(value, hashCode, clamp(hashCode));
+    }
+
+
+    /*
+     * Links a new entry of the value into the given bucket unless it's already in its chain. Returns false
+     * if it is.
+     */
+    private boolean link(String value, int hashCode, int bucketIndex) {
+        if (findEntry(heads[bucketIndex], hashCode, value) != NO_ENTRY)
+            return false;
+        int entry = allocateEntry();
+        hashes[entry] = hashCode;
+        values[entry] = value;
+        next[entry] = heads[bucketIndex];
+        heads[bucketIndex] = entry;
+        return true;
+    }
+
+
+    /*
+     * Increases or decreases the table size whenever the load factor surpasses the upperLoadFactor,
+     * or goes below the lowerLoadFactor, respectively.
+     * The entries keep their hash codes, so they are only relinked into the new buckets. When shrinking,
+     * the entries are also compacted, so that the arrays shrink with the table.
+     * @param capacity The capacity of the new table.
+     */
+    private void changeTableSize(int capacity) {
+        long startTime = resizeStartTime();
+        int oldCapacity = heads.length;
+        resize(capacity);
+        recordResize(oldCapacity, heads.length, startTime);
+    }
+
+
+    /*
+     * Links every entry into a new array of buckets of the given capacity.
+     */
+    private void relink(int capacity) {
+        heads = newHeads(capacity);
+        for (int entry=0; entry<usedEntries; entry++) {
+            if (values[entry] != null) {
+                int bucketIndex = clamp(hashes[entry]);
+                next[entry] = heads[bucketIndex];
+                heads[bucketIndex] = entry;
+            }
+        }
+    }
+
+
+    /*
+     * Moves the entries to the beginning of new arrays, which are just large enough to hold them,
+     * and empties the free-list. Must be followed by relink.
+     */
+    private void compact() {
+        int length = Math.max(size(), LOWEST_TABLE_CAPACITY);
+        int[] newHashes = new int[length];
+        String[] newValues = new String[length];
+        int moved = 0;
+        for (int entry=0; entry<usedEntries; entry++) {
+            if (values[entry] != null) {
+                newHashes[moved] = hashes[entry];
+                newValues[moved] = values[entry];
+                moved++;
+            }
+        }
+        hashes = newHashes;
+        values = newValues;
+        next = new int[length];
+        usedEntries = moved;
+        freeList = NO_ENTRY;
+    }
+
+
+    /*
+     * Returns an unused entry, taken from the free-list if possible. Grows the arrays when they are full.
+     */
+    private int allocateEntry() {
+        if (freeList != NO_ENTRY) {
+            int entry = freeList;
+            freeList = next[entry];
+            return entry;
+        }
+        if (usedEntries == values.length) {
+            int length = (int)(values.length * GROWTH_CONSTANT);
+            hashes = Arrays.copyOf(hashes, length);
+            values = Arrays.copyOf(values, length);
+            next = Arrays.copyOf(next, length);
+        }
+        return usedEntries++;
+    }
+
+
+    /*
+     * Walks the chain starting at the given entry. Compares the cached hash codes before calling equals.
+     * Returns the entry holding the value, or NO_ENTRY if it isn't in the chain. The lookup is recorded
+     * with the number of entries it walked.
+     */
+    private int findEntry(int entry, int hashCode, String value) {
+        int probes = 0;
+        for (; entry != NO_ENTRY; entry = next[entry]) {
+            probes++;
+            if (hashes[entry] == hashCode && values[entry].equals(value)) {
+                recordProbes(probes);
+                return entry;
+            }
+        }
+        recordProbes(probes);
+        return NO_ENTRY;
+    }
+
+
+    /*
+     * Returns an array of empty buckets.
+     */
+    private static int[] newHeads(int capacity) {
+        int[] heads = new int[capacity];
+        Arrays.fill(heads, NO_ENTRY);
+        return heads;
+    }
+
+}
@@ -0,0 +1,386 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * An immutable set of strings, built once from another set (see of), whose contains
+ * looks at a single element. The elements are placed by a minimal perfect hash function, built by the CHD
+ * (compress, hash and displace) algorithm: every element has a slot of its own, and there are exactly as
+ * many slots as elements, so nothing is wasted on empty cells.
+ * The elements are hashed into buckets of about BUCKET_SIZE elements each, and every bucket keeps a single
+ * displacement, chosen while building the set so that its elements land on free slots. The characters of
+ * all of the elements are kept one after the other in a single array, in the order of their slots.
+ * The characters are hashed by the set's own 64-bit hash (see contentHash), which depends on nothing but
+ * the string, unlike the hash codes of the sets it's built from.
+ * A lookup hashes the characters of the string, reads the displacement of its bucket, and compares the
+ * string with the only element which may equal it.
+ * The set holds at most MAX_SIZE elements, of at most 2^31 - 1 characters in total.
+ * @author Oren Motiei
+ */
+public class FrozenStringSet implements TraversableSimpleSet {
+
+    /** The mean number of elements in a bucket of the hash function. */
+    public static final int BUCKET_SIZE = 4;
+
+    /** The number of rounds of displacements tried for a bucket. */
+    private static final int ROUND_BITS = 6;
+    private static final int ROUNDS = 1 << ROUND_BITS;
+
+    /** The maximal number of elements of a frozen set. */
+    public static final int MAX_SIZE = Integer.MAX_VALUE >>> ROUND_BITS;
+
+    private static final int MAX_SEEDS = 32;
+    private static final long FIRST_MULTIPLIER = 0xff51afd7ed558ccdL;
+    private static final long SECOND_MULTIPLIER = 0xc4ceb9fe1a85ec53L;
+    private static final long GOLDEN_RATIO = 0x9e3779b97f4a7c15L;
+    private static final long CHAR_MULTIPLIER = 0x9fb21c651e98df25L; // an odd constant, from rrmxmx
+    private static final String UNSUPPORTED_MESSAGE = "ERROR: A frozen set can't be changed.";
+
+    private final int size;
+    private final char[] chars; // the characters of the elements, in the order of their slots
+    private final int[] offsets; // the element of slot i is chars[offsets[i]..offsets[i + 1])
+    private final int[] displacements; // the displacement of every bucket
+    private long seed;
+
+    /*--------------------------=  Constructors  =--------------------------*/
+
+    /*
+     * Constructs a frozen copy of the given set.
+     */
+    private FrozenStringSet(TraversableSimpleSet set) {
+        List<String> elements = new ArrayList<>(set.size());
+        set.forEach(elements::add);
+        String[] values = elements.toArray(new String[0]);
+        size = values.length;
+        if (size > MAX_SIZE)
+            throw new IllegalArgumentException("ERROR: A frozen set can't hold more than " + MAX_SIZE +
+                    " elements.");
+        long[] contentHashes = new long[size];
+        long totalChars = 0;
+        for (int i=0; i<size; i++) {
+            contentHashes[i] = contentHash(values[i]);
+            totalChars += values[i].length();
+        }
+        if (totalChars > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("ERROR: A frozen set can't hold more than 2^31 - 1 " +
+                    "characters.");
+        displacements = new int[Math.max(1, size / BUCKET_SIZE)];
+        int[] slots = null;
+        for (int i=0; i<MAX_SEEDS && slots == null; i++) {
+            seed = (i + 1) * GOLDEN_RATIO;
+            slots = placeElements(contentHashes);
+        }
+        if (slots == null)
+            throw new IllegalStateException("ERROR: No perfect hash function was found for the set.");
+        chars = new char[(int)totalChars];
+        offsets = new int[size + 1];
+        for (int i=0; i<size; i++)
+            offsets[slots[i] + 1] = values[i].length();
+        for (int slot=0; slot<size; slot++)
+            offsets[slot + 1] += offsets[slot];
+        for (int i=0; i<size; i++)
+            values[i].getChars(0, values[i].length(), chars, offsets[slots[i]]);
+    }
+
+    /*--------------------------=  End of constructors  =--------------------------*/
+
+    /**
+     * Copies the elements of a set into an immutable set with a single-probe contains. A frozen set is
+     * already immutable, so it's returned as it is.
+     * @param set The set to copy.
+     * @return A frozen copy of the set.
+     * @throws IllegalArgumentException if the set has more than MAX_SIZE elements, or more than 2^31 - 1
+     * characters in total.
+     */
+    public static FrozenStringSet of(TraversableSimpleSet set) {
+        if (set instanceof FrozenStringSet)
+            return (FrozenStringSet)set;
+        return new FrozenStringSet(set);
+    }
+
+
+    /**
+     * Always throws, since a frozen set can't be changed.
+     * @param newValue New value to add to the set
+     * @return Never returns
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public boolean add(String newValue) {
+        throw new UnsupportedOperationException(UNSUPPORTED_MESSAGE);
+    }
+
+
+    /**
+     * Look for a specified value in the set, by comparing it with the single element which may equal it.
+     * @param searchVal Value to search for
+     * @return True if searchVal is found in the set
+     */
+    @Override
+    public boolean contains(String searchVal) {
+        if (size == 0)
+            return false;
+        long hash = mix(contentHash(searchVal) ^ seed);
+        int slot = slot(hash, displacements[bucket(hash)]);
+        int start = offsets[slot];
+        if (offsets[slot + 1] - start != searchVal.length())
+            return false;
+        for (int i=0; i<searchVal.length(); i++) {
+            if (chars[start + i] != searchVal.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+
+    /**
+     * Always throws, since a frozen set can't be changed.
+     * @param toDelete Value to delete
+     * @return Never returns
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public boolean delete(String toDelete) {
+        throw new UnsupportedOperationException(UNSUPPORTED_MESSAGE);
+    }
+
+
+    /**
+     * @return The number of elements currently in the set
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+
+    /**
+     * Performs the given action for every element of the set, in the order of their slots.
+     * @param action The action to perform
+     */
+    @Override
+    public void forEach(Consumer<? super String> action) {
+        for (int slot=0; slot<size; slot++)
+            action.accept(new String(chars, offsets[slot], offsets[slot + 1] - offsets[slot]));
+    }
+
+
+    /*
+     * Chooses the displacements of the buckets under the current seed, and returns the slot of every
+     * element, or null if some bucket has no displacement which places its elements on free slots.
+     * The buckets are placed from the largest to the smallest, while most of the slots are still free.
+     */
+    private int[] placeElements(long[] contentHashes) {
+        int buckets = displacements.length;
+        int[] bucketStarts = new int[buckets + 1];
+        int[] bucketOf = new int[size];
+        int[] firsts = new int[size];
+        int[] seconds = new int[size];
+        for (int i=0; i<size; i++) {
+            long hash = mix(contentHashes[i] ^ seed);
+            bucketOf[i] = bucket(hash);
+            firsts[i] = first(hash);
+            seconds[i] = second(hash);
+            bucketStarts[bucketOf[i] + 1]++;
+        }
+        int largest = 0;
+        for (int bucket=0; bucket<buckets; bucket++) {
+            largest = Math.max(largest, bucketStarts[bucket + 1]);
+            bucketStarts[bucket + 1] += bucketStarts[bucket];
+        }
+        int[] members = new int[size]; // the elements, grouped by their buckets
+        int[] filled = new int[buckets];
+        for (int i=0; i<size; i++)
+            members[bucketStarts[bucketOf[i]] + filled[bucketOf[i]]++] = i;
+        int[] order = bucketsBySize(bucketStarts, largest);
+        boolean[] taken = new boolean[size];
+        int[] freeSlots = new int[size]; // the free slots are freeSlots[0..freeCount)
+        int[] freeIndex = new int[size]; // the index of every free slot in freeSlots
+        for (int slot=0; slot<size; slot++) {
+            freeSlots[slot] = slot;
+            freeIndex[slot] = slot;
+        }
+        int freeCount = size;
+        int[] slots = new int[size];
+        int[] bases = new int[largest];
+        for (int bucket: order) {
+            int start = bucketStarts[bucket];
+            int count = bucketStarts[bucket + 1] - start;
+            if (count == 0)
+                break; // the remaining buckets are empty
+            for (int j=0; j<count; j++) {
+                for (int k=0; k<j; k++) {
+                    int element = members[start + j], other = members[start + k];
+                    if (firsts[element] == firsts[other] && seconds[element] == seconds[other])
+                        return null; // no displacement tells them apart
+                }
+            }
+            int displacement = displace(members, start, count, firsts, seconds, bases, taken, freeSlots,
+                    freeCount);
+            if (displacement < 0)
+                return null;
+            displacements[bucket] = displacement;
+            for (int j=0; j<count; j++) {
+                int element = members[start + j];
+                slots[element] = slot(firsts[element], seconds[element], displacement);
+                taken[slots[element]] = true;
+                int last = freeSlots[--freeCount];
+                freeSlots[freeIndex[slots[element]]] = last;
+                freeIndex[last] = freeIndex[slots[element]];
+            }
+        }
+        return slots;
+    }
+
+
+    /*
+     * Looks for a displacement which places the given elements of a bucket on distinct, free slots.
+     * Every round gives the elements new slots (see base), which are then shifted together, and only the
+     * shifts which place the first element on one of the free slots are tried.
+     * Returns -1 if no displacement fits.
+     */
+    private int displace(int[] members, int start, int count, int[] firsts, int[] seconds, int[] bases,
+                         boolean[] taken, int[] freeSlots, int freeCount) {
+        for (int round=0; round<ROUNDS; round++) {
+            for (int j=0; j<count; j++) {
+                int element = members[start + j];
+                bases[j] = base(firsts[element], seconds[element], round);
+            }
+            for (int i=0; i<freeCount; i++) {
+                int shift = wrap(freeSlots[i] - bases[0] + size);
+                if (fits(bases, count, shift, taken))
+                    return (shift << ROUND_BITS) | round;
+            }
+        }
+        return -1;
+    }
+
+
+    /*
+     * Checks whether shifting the given slots places them on distinct, free slots.
+     */
+    private boolean fits(int[] bases, int count, int shift, boolean[] taken) {
+        for (int j=1; j<count; j++) {
+            int slot = wrap(bases[j] + shift);
+            if (taken[slot])
+                return false;
+            for (int k=0; k<j; k++) {
+                if (wrap(bases[k] + shift) == slot)
+                    return false;
+            }
+        }
+        return true;
+    }
+
+
+    /*
+     * Returns the sum of two slots, wrapped back between 0 and size - 1.
+     */
+    private int wrap(int slot) {
+        return slot >= size ? slot - size : slot;
+    }
+
+
+    /*
+     * Returns the buckets ordered from the largest to the smallest, by a counting sort of their sizes.
+     */
+    private static int[] bucketsBySize(int[] bucketStarts, int largest) {
+        int buckets = bucketStarts.length - 1;
+        int[] sizeStarts = new int[largest + 2];
+        for (int bucket=0; bucket<buckets; bucket++)
+            sizeStarts[largest - (bucketStarts[bucket + 1] - bucketStarts[bucket]) + 1]++;
+        for (int i=0; i<=largest; i++)
+            sizeStarts[i + 1] += sizeStarts[i];
+        int[] order = new int[buckets];
+        for (int bucket=0; bucket<buckets; bucket++)
+            order[sizeStarts[largest - (bucketStarts[bucket + 1] - bucketStarts[bucket])]++] = bucket;
+        return order;
+    }
+
+
+    /*
+     * Returns the bucket of the hash value, chosen by its upper half.
+     */
+    private int bucket(long hash) {
+        return (int)(((hash >>> 32) * displacements.length) >>> 32);
+    }
+
+
+    /*
+     * Returns the slot the displacement places an element of the hash value at.
+     */
+    private int slot(long hash, int displacement) {
+        return slot(first(hash), second(hash), displacement);
+    }
+
+
+    /*
+     * Returns the slot the displacement places an element of the given hash values at: the displacement
+     * holds a round in its low ROUND_BITS bits and a shift in the others, and the slot is the base slot
+     * of the round, shifted.
+     */
+    private int slot(int first, int second, int displacement) {
+        return wrap(base(first, second, displacement & (ROUNDS - 1)) + (displacement >>> ROUND_BITS));
+    }
+
+
+    /*
+     * Returns the base slot of an element in the given round: first + round * second, as an unsigned
+     * 32-bit value, scaled down to a slot by a multiplication rather than a division.
+     */
+    private int base(int first, int second, int round) {
+        return (int)(((first + round * second) & 0xFFFFFFFFL) * size >>> 32);
+    }
+
+
+    /*
+     * Returns the first hash value of an element: the lower half of its hash.
+     */
+    private static int first(long hash) {
+        return (int)hash;
+    }
+
+
+    /*
+     * Returns the second hash value of an element, taken from the product of its hash and the golden ratio,
+     * and odd so that every round moves the element.
+     */
+    private static int second(long hash) {
+        return (int)((hash * GOLDEN_RATIO) >>> 32) | 1;
+    }
+
+
+    /*
+     * Hashes the characters of a string two at a time: every pair is added to the hash, which is then
+     * multiplied and folded, and the length is mixed in at the end, so that strings of '\0' characters
+     * differ by their lengths.
+     */
+    private static long contentHash(String value) {
+        long hash = 0;
+        int length = value.length();
+        int i = 0;
+        for (; i + 1 < length; i += 2) {
+            hash = (hash + ((long)value.charAt(i) << Character.SIZE | value.charAt(i + 1))) * CHAR_MULTIPLIER;
+            hash ^= hash >>> 29;
+        }
+        if (i < length) {
+            hash = (hash + value.charAt(i)) * CHAR_MULTIPLIER;
+            hash ^= hash >>> 29;
+        }
+        return mix(hash ^ length);
+    }
+
+
+    /*
+     * Spreads the bits of the value by MurmurHash3's fmix64.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= FIRST_MULTIPLIER;
+        value ^= value >>> 33;
+        value *= SECOND_MULTIPLIER;
+        value ^= value >>> 33;
+        return value;
+    }
+
+}
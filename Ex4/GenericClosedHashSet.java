@@ -0,0 +1,307 @@
+import java.util.function.Consumer;
+
+/**
+ * A hash-set of any type of elements based on closed-hashing with quadratic probing (or linear probing,
+ * see ProbingStrategy), like ClosedHashSet. The hash code of every element is cached beside it, so the
+ * hashing strategy is asked to compare only elements with equal hash codes, and resizing never hashes an
+ * element again.
+ * @param <E> The type of the elements.
+ * @author Oren Motiei
+ */
+public class GenericClosedHashSet<E> extends GenericSimpleHashSet<E> {
+
+    private static final int NOT_FOUND = -1;
+    private static final Object DELETED = new Object();
+    private Object[] table = new Object[INITIAL_CAPACITY]; // the elements, null and DELETED
+    private int[] hashes = new int[INITIAL_CAPACITY]; // the hash code of every value in the table
+    private int tombstones = 0; // the number of DELETED cells in the table
+    private float tombstoneFraction = ClosedHashSet.DEFAULT_TOMBSTONE_FRACTION;
+    private ProbingStrategy probing = ProbingStrategy.QUADRATIC;
+
+    /*--------------------------=  Constructors  =--------------------------*/
+
+    /**
+     * Constructs a new, empty table with the specified load factors and hashing strategy, and the default
+     * initial capacity (16).
+     * @param upperLoadFactor The upper load factor of the hash table.
+     * @param lowerLoadFactor The lower load factor of the hash table.
+     * @param strategy The hashing strategy of the elements.
+     */
+    public GenericClosedHashSet(float upperLoadFactor, float lowerLoadFactor,
+                                HashingStrategy<? super E> strategy) {
+        super(upperLoadFactor, lowerLoadFactor, strategy);
+    }
+
+
+    /**
+     * Constructs a new, empty table with the given hashing strategy, default initial capacity (16),
+     * upper load factor (0.75) and lower load factor (0.25).
+     * @param strategy The hashing strategy of the elements.
+     */
+    public GenericClosedHashSet(HashingStrategy<? super E> strategy) {
+        super(strategy);
+    }
+
+
+    /**
+     * A default constructor. Constructs a new, empty table which hashes and compares the elements by their
+     * own hashCode and equals, with default initial capacity (16), upper load factor (0.75) and lower load
+     * factor (0.25).
+     */
+    public GenericClosedHashSet() {
+        super(HashingStrategy.natural());
+    }
+
+    /*--------------------------=  End of constructors  =--------------------------*/
+
+    /**
+     * @return The current capacity (number of cells) of the table.
+     */
+    @Override
+    public int capacity() {
+        return table.length;
+    }
+
+
+    /**
+     * Performs the given action for every element of the set, in the order of the table.
+     * The set mustn't be changed by the action.
+     * @param action The action to perform.
+     */
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        for (Object cell: table) {
+            if (cell != null && cell != DELETED)
+                action.accept(element(cell));
+        }
+    }
+
+
+    /**
+     * @return The number of DELETED cells in the table.
+     */
+    @Override
+    public int deletedCells() {
+        return tombstones;
+    }
+
+
+    /**
+     * Replaces the probing sequence of the table. If the set isn't empty, all of its elements are moved
+     * to their cells in the new sequence.
+     * @param probing The new probing sequence.
+     */
+    public void setProbingStrategy(ProbingStrategy probing) {
+        this.probing = probing;
+        if (size() > 0)
+            rebuild(table.length);
+    }
+
+
+    /**
+     * @return The probing sequence of the table.
+     */
+    public ProbingStrategy getProbingStrategy() {
+        return probing;
+    }
+
+
+    /**
+     * Sets the fraction of the table's cells that may be marked as deleted. Once a delete leaves more
+     * DELETED cells than that, the elements are moved into a clean table of the same capacity.
+     * @param tombstoneFraction The fraction of the capacity, between 0 (exclusive) and 1.
+     * @throws IllegalArgumentException if the fraction is out of range.
+     */
+    public void setTombstoneCompactionFraction(float tombstoneFraction) {
+        if (!(tombstoneFraction > 0 && tombstoneFraction <= 1))
+            throw new IllegalArgumentException("ERROR: The tombstone compaction fraction must be in (0, 1].");
+        this.tombstoneFraction = tombstoneFraction;
+    }
+
+
+    /**
+     * Add a specified element to the set if it's not already in it. A single probing looks for the value
+     * and finds the cell it's placed in.
+     * @param newValue New value to add to the set
+     * @return False if newValue already exists in the set
+     */
+    @Override
+    public boolean add(E newValue) {
+        if (!putIfAbsent(newValue))
+            return false;
+        setSize(size() + 1);
+        int capacity = capacityAfterAdd(table.length, size());
+        if (capacity != table.length)
+            changeTableSize(capacity);
+        return true;
+    }
+
+
+    /**
+     * Checks whether the table should grow. A full table always should, whatever the upper load factor,
+     * since it has no free cell left, so an add never finds the table full.
+     * @param size The number of elements in the table.
+     * @param capacity The capacity of the table.
+     * @return True iff the table should grow.
+     */
+    @Override
+    protected boolean isOverloaded(int size, int capacity) {
+        return size >= capacity || (double)size / capacity > getUpperLoadFactor();
+    }
+
+
+    /**
+     * Look for a specified value in the set.
+     * @param searchVal Value to search for
+     * @return True if searchVal is found in the set
+     */
+    @Override
+    public boolean contains(E searchVal) {
+        return findValue(searchVal, hash(searchVal)) != NOT_FOUND;
+    }
+
+
+    /**
+     * Remove the input element from the set.
+     * @param toDelete Value to delete
+     * @return True if toDelete is found and deleted
+     */
+    @Override
+    public boolean delete(E toDelete) {
+        int bucketIndex = findValue(toDelete, hash(toDelete));
+        if (bucketIndex == NOT_FOUND)
+            return false;
+        table[bucketIndex] = DELETED;
+        tombstones++;
+        setSize(size() - 1);
+        int capacity = capacityAfterDelete(table.length, size());
+        if (capacity != table.length)
+            changeTableSize(capacity);
+        else if (tombstones > tombstoneFraction * table.length) {
+            long startTime = resizeStartTime();
+            rebuild(table.length);
+            recordResize(table.length, table.length, startTime);
+        }
+        return true;
+    }
+
+
+    /**
+     * Moves all of the elements at once into a new table of the given capacity.
+     * @param capacity The capacity of the new table, a power of two.
+     */
+    @Override
+    protected void resize(int capacity) {
+        rebuild(capacity);
+    }
+
+
+    /**
+     * Places the value in the table unless it's already there, without resizing the table or updating the
+     * size. A single probing looks for the value and remembers the first free or DELETED cell on its way,
+     * where the value is placed if it isn't found.
+     * @param value The value to add.
+     * @return False if the value is already in the set, or the table has no free cell.
+     */
+    @Override
+    protected boolean putIfAbsent(E value) {
+        int hashCode = hash(value);
+        int freeIndex = NOT_FOUND;
+        for (int i=0; i<table.length; i++) {
+            int bucketIndex = clamp(hashCode + probing.offset(i));
+            Object cell = table[bucketIndex];
+            if (cell == null) {
+                if (freeIndex == NOT_FOUND)
+                    freeIndex = bucketIndex;
+                break;
+            } else if (cell == DELETED) {
+                if (freeIndex == NOT_FOUND)
+                    freeIndex = bucketIndex;
+            } else if (hashes[bucketIndex] == hashCode && equal(element(cell), value))
+                return false;
+        }
+        if (freeIndex == NOT_FOUND)
+            return false;
+        if (table[freeIndex] == DELETED)
+            tombstones--;
+        table[freeIndex] = value;
+        hashes[freeIndex] = hashCode;
+        return true;
+    }
+
+
+    /*
+     * Increases or decreases the table size whenever the load factor surpasses the upperLoadFactor,
+     * or goes below the lowerLoadFactor, respectively.
+     * @param capacity: The capacity of the new table.
+     */
+    private void changeTableSize(int capacity) {
+        long startTime = resizeStartTime();
+        int oldCapacity = table.length;
+        rebuild(capacity);
+        recordResize(oldCapacity, table.length, startTime);
+    }
+
+
+    /*
+     * Moves all of the elements at once into a new table of the given capacity, by their cached hash codes,
+     * which leaves no DELETED cells behind. If the new table is loaded beyond the upper load factor, it
+     * grows further. Throws an IllegalStateException if the new table can't hold all of the elements.
+     */
+    private void rebuild(int capacity) {
+        Object[] previousTable = table;
+        int[] previousHashes = hashes;
+        table = new Object[capacity];
+        hashes = new int[capacity];
+        tombstones = 0;
+        for (int i=0; i<previousTable.length; i++) {
+            Object cell = previousTable[i];
+            if (cell == null || cell == DELETED)
+                continue;
+            int freeIndex = NOT_FOUND;
+            for (int j=0; j<capacity && freeIndex == NOT_FOUND; j++) {
+                int bucketIndex = clamp(previousHashes[i] + probing.offset(j), capacity);
+                if (table[bucketIndex] == null)
+                    freeIndex = bucketIndex;
+            }
+            if (freeIndex == NOT_FOUND)
+                throw new IllegalStateException("ERROR: The table is too small to hold the elements.");
+            table[freeIndex] = cell;
+            hashes[freeIndex] = previousHashes[i];
+        }
+        int grown = grownCapacity(table.length, size());
+        if (grown != table.length)
+            changeTableSize(grown);
+    }
+
+
+    /*
+     * Looks for the given value in the table. The cached hash codes are compared before the strategy's
+     * equals. Returns it's index if found, -1 otherwise.
+     */
+    private int findValue(E value, int hashCode) {
+        for (int i=0; i<table.length; i++) {
+            int bucketIndex = clamp(hashCode + probing.offset(i));
+            Object cell = table[bucketIndex];
+            if (cell == null) {
+                recordProbes(i + 1);
+                return NOT_FOUND;
+            } else if (hashes[bucketIndex] == hashCode && cell != DELETED && equal(element(cell), value)) {
+                recordProbes(i + 1);
+                return bucketIndex;
+            }
+        }
+        recordProbes(table.length);
+        return NOT_FOUND;
+    }
+
+
+    /*
+     * Casts a cell of the table, which isn't null or DELETED, back to the type of the elements.
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> E element(Object cell) {
+        return (E)cell;
+    }
+
+}
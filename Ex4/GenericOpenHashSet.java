@@ -0,0 +1,226 @@
+import java.util.function.Consumer;
+
+/**
+ * A hash-set of any type of elements based on chaining, like OpenHashSet.
+ * Every bucket is a chain of nodes which cache the hash codes of their elements, so the hashing strategy
+ * is asked to compare only elements with equal hash codes, and resizing never hashes an element again.
+ * @param <E> The type of the elements.
+ * @author Oren Motiei
+ */
+public class GenericOpenHashSet<E> extends GenericSimpleHashSet<E> {
+
+    private Node<E>[] table = newTable(INITIAL_CAPACITY);
+
+    /*--------------------------=  Constructors  =--------------------------*/
+
+    /**
+     * Constructs a new, empty table with the specified load factors and hashing strategy, and the default
+     * initial capacity (16).
+     * @param upperLoadFactor The upper load factor of the hash table.
+     * @param lowerLoadFactor The lower load factor of the hash table.
+     * @param strategy The hashing strategy of the elements.
+     */
+    public GenericOpenHashSet(float upperLoadFactor, float lowerLoadFactor,
+                              HashingStrategy<? super E> strategy) {
+        super(upperLoadFactor, lowerLoadFactor, strategy);
+    }
+
+
+    /**
+     * Constructs a new, empty table with the given hashing strategy, default initial capacity (16),
+     * upper load factor (0.75) and lower load factor (0.25).
+     * @param strategy The hashing strategy of the elements.
+     */
+    public GenericOpenHashSet(HashingStrategy<? super E> strategy) {
+        super(strategy);
+    }
+
+
+    /**
+     * A default constructor. Constructs a new, empty table which hashes and compares the elements by their
+     * own hashCode and equals, with default initial capacity (16), upper load factor (0.75) and lower load
+     * factor (0.25).
+     */
+    public GenericOpenHashSet() {
+        super(HashingStrategy.natural());
+    }
+
+    /*--------------------------=  End of Constructors  =--------------------------*/
+
+    /*
+    A node of a chain, holding an element and its hash code.
+     */
+    private static class Node<E> {
+
+        private final E value;
+        private final int hashCode;
+        private Node<E> next;
+
+        private Node(E value, int hashCode, Node<E> next) {
+            this.value = value;
+            this.hashCode = hashCode;
+            this.next = next;
+        }
+    }
+
+
+    /**
+     * @return The current capacity (number of cells) of the table.
+     */
+    @Override
+    public int capacity() {
+        return table.length;
+    }
+
+
+    /**
+     * Performs the given action for every element of the set, in the order of the table.
+     * The set mustn't be changed by the action.
+     * @param action The action to perform.
+     */
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        for (Node<E> bucket: table) {
+            for (Node<E> node = bucket; node != null; node = node.next)
+                action.accept(node.value);
+        }
+    }
+
+
+    /**
+     * Add a specified element to the set if it's not already in it. A single search of its chain looks for
+     * the value, and it's added at the head of the chain if it isn't found.
+     * @param newValue New value to add to the set
+     * @return False if newValue already exists in the set
+     */
+    @Override
+    public boolean add(E newValue) {
+        if (!putIfAbsent(newValue))
+            return false;
+        setSize(size() + 1);
+        int capacity = capacityAfterAdd(table.length, size());
+        if (capacity != table.length)
+            changeTableSize(capacity);
+        return true;
+    }
+
+
+    /**
+     * Look for a specified value in the set.
+     * @param searchVal Value to search for
+     * @return True if searchVal is found in the set
+     */
+    @Override
+    public boolean contains(E searchVal) {
+        int hashCode = hash(searchVal);
+        int probes = 0;
+        for (Node<E> node = table[clamp(hashCode)]; node != null; node = node.next) {
+            probes++;
+            if (node.hashCode == hashCode && equal(node.value, searchVal)) {
+                recordProbes(probes);
+                return true;
+            }
+        }
+        recordProbes(probes);
+        return false;
+    }
+
+
+    /**
+     * Remove the input element from the set.
+     * @param toDelete Value to delete
+     * @return True if toDelete is found and deleted
+     */
+    @Override
+    public boolean delete(E toDelete) {
+        int hashCode = hash(toDelete);
+        int bucketIndex = clamp(hashCode);
+        Node<E> previous = null;
+        for (Node<E> node = table[bucketIndex]; node != null; previous = node, node = node.next) {
+            if (node.hashCode == hashCode && equal(node.value, toDelete)) {
+                if (previous == null)
+                    table[bucketIndex] = node.next;
+                else
+                    previous.next = node.next;
+                setSize(size() - 1);
+                int capacity = capacityAfterDelete(table.length, size());
+                if (capacity != table.length)
+                    changeTableSize(capacity);
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Moves all of the elements at once into a new table of the given capacity.
+     * @param capacity The capacity of the new table, a power of two.
+     */
+    @Override
+    protected void resize(int capacity) {
+        rebuild(capacity);
+    }
+
+
+    /**
+     * Adds the value at the head of its chain unless it's already there, without resizing the table or
+     * updating the size.
+     * @param value The value to add.
+     * @return False if the value is already in the set.
+     */
+    @Override
+    protected boolean putIfAbsent(E value) {
+        int hashCode = hash(value);
+        int bucketIndex = clamp(hashCode);
+        for (Node<E> node = table[bucketIndex]; node != null; node = node.next) {
+            if (node.hashCode == hashCode && equal(node.value, value))
+                return false;
+        }
+        table[bucketIndex] = new Node<>(value, hashCode, table[bucketIndex]);
+        return true;
+    }
+
+
+    /*
+     * Increases or decreases the table size whenever the load factor surpasses the upperLoadFactor,
+     * or goes below the lowerLoadFactor, respectively.
+     * @param capacity The capacity of the new table.
+     */
+    private void changeTableSize(int capacity) {
+        long startTime = resizeStartTime();
+        int oldCapacity = table.length;
+        rebuild(capacity);
+        recordResize(oldCapacity, table.length, startTime);
+    }
+
+
+    /*
+     * Moves all of the nodes at once into a new table of the given capacity, by their cached hash codes.
+     */
+    private void rebuild(int capacity) {
+        Node<E>[] previousTable = table;
+        table = newTable(capacity);
+        for (Node<E> bucket: previousTable) {
+            Node<E> node = bucket;
+            while (node != null) {
+                Node<E> next = node.next;
+                int bucketIndex = clamp(node.hashCode, capacity);
+                node.next = table[bucketIndex];
+                table[bucketIndex] = node;
+                node = next;
+            }
+        }
+    }
+
+
+    /*
+     * Allocates a table of the given capacity. Arrays of a generic type can't be created, so the array of
+     * raw nodes is cast.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <E> Node<E>[] newTable(int capacity) {
+        return (Node<E>[])new Node[capacity];
+    }
+
+}
@@ -0,0 +1,112 @@
+/**
+ * A superclass for implementations of hash-sets of any type of elements, implementing the
+ * GenericSimpleSet interface. Its elements are hashed and compared by a HashingStrategy.
+ * For strings, SimpleHashSet remains the specialized path: it uses their cached hash codes and equals
+ * directly, rather than through a strategy.
+ * @param <E> The type of the elements.
+ * @author Oren Motiei
+ */
+public abstract class GenericSimpleHashSet<E> extends AbstractHashSet implements GenericSimpleSet<E> {
+
+    private final HashingStrategy<? super E> strategy;
+
+
+    /**
+     * Constructs a new hash set with capacity INITIAL_CAPACITY.
+     * @param upperLoadFactor upperLoadFactor - the upper load factor before rehashing
+     * @param lowerLoadFactor lowerLoadFactor - the lower load factor before rehashing
+     * @param strategy The hashing strategy of the elements.
+     */
+    protected GenericSimpleHashSet(float upperLoadFactor, float lowerLoadFactor,
+                                   HashingStrategy<? super E> strategy) {
+        super(upperLoadFactor, lowerLoadFactor);
+        this.strategy = strategy;
+    }
+
+    /**
+     * Constructs a new hash set with the default capacities given in
+     * DEFAULT_LOWER_CAPACITY and DEFAULT_HIGHER_CAPACITY.
+     * @param strategy The hashing strategy of the elements.
+     */
+    protected GenericSimpleHashSet(HashingStrategy<? super E> strategy) {
+        super();
+        this.strategy = strategy;
+    }
+
+
+    /**
+     * @return The hashing strategy of the elements.
+     */
+    public HashingStrategy<? super E> getHashingStrategy() {
+        return strategy;
+    }
+
+
+    /**
+     * Hashes a value with the hashing strategy of the set.
+     * @param value The value to hash.
+     * @return The hash code of the value, before clamping.
+     */
+    protected int hash(E value) {
+        return strategy.hash(value);
+    }
+
+
+    /**
+     * Compares two values with the hashing strategy of the set.
+     * @param first A value of the set.
+     * @param second A value to compare it to.
+     * @return True iff the values are equal.
+     */
+    protected boolean equal(E first, E second) {
+        return strategy.equals(first, second);
+    }
+
+
+    /**
+     * Places the value in the table unless it's already there, probing the table only once: the probing
+     * which looks for the value also finds the cell it's placed in. Neither resizes the table nor updates
+     * the size. The table must have room for the value.
+     * @param value The value to add.
+     * @return False if the value is already in the set.
+     */
+    protected abstract boolean putIfAbsent(E value);
+
+
+    /**
+     * Add the specified elements to the set, skipping the ones which are already in it.
+     * Like SimpleHashSet.addAll, the table is resized only once before adding, and shrunk back afterwards
+     * if some of the values were duplicates.
+     * @param newValues New values to add to the set
+     * @return The number of values that were added
+     */
+    @Override
+    public int addAll(E[] newValues) {
+        int startCapacity = capacity();
+        int presized = grownCapacity(startCapacity, size() + newValues.length);
+        if (presized > startCapacity)
+            recordedResize(presized);
+        int added = 0;
+        for (E newValue: newValues) {
+            if (putIfAbsent(newValue))
+                added++;
+        }
+        setSize(size() + added);
+        if (added > 0)
+            getResizePolicy().onAdd(this);
+        int fitted = grownCapacity(startCapacity, size());
+        if (fitted < capacity())
+            recordedResize(fitted);
+        return added;
+    }
+
+
+    /**
+     * @return The number of elements currently in the set
+     */
+    @Override
+    public int size() {
+        return super.size();
+    }
+
+}
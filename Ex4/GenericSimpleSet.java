@@ -0,0 +1,74 @@
+import java.util.function.Consumer;
+
+
+/**
+ * A SimpleSet of any type of elements.
+ * @param <E> The type of the elements.
+ */
+public interface GenericSimpleSet<E> {
+	/**
+	 * Add a specified element to the set if it's not already in it.
+	 * @param newValue New value to add to the set
+	 * @return False iff newValue already exists in the set
+	 */
+	boolean add(E newValue);
+	/**
+	 * Look for a specified value in the set.
+	 * @param searchVal Value to search for
+	 * @return True iff searchVal is found in the set
+	 */
+	boolean contains(E searchVal);
+	/**
+	 * Remove the input element from the set.
+	 * @param toDelete Value to delete
+	 * @return True iff toDelete is found and deleted
+	 */
+	boolean delete(E toDelete);
+	/**
+	 * @return The number of elements currently in the set
+	 */
+	public int size();
+	/**
+	 * Performs the given action for every element of the set. The set mustn't be changed by the action.
+	 * @param action The action to perform
+	 */
+	void forEach(Consumer<? super E> action);
+	/**
+	 * Add the specified elements to the set, skipping the ones which are already in it.
+	 * @param newValues New values to add to the set
+	 * @return The number of values that were added
+	 */
+	default int addAll(E[] newValues) {
+		int added = 0;
+		for (E newValue: newValues) {
+			if (add(newValue))
+				added++;
+		}
+		return added;
+	}
+	/**
+	 * Look for all of the specified values in the set.
+	 * @param searchVals Values to search for
+	 * @return True iff every one of searchVals is found in the set
+	 */
+	default boolean containsAll(E[] searchVals) {
+		for (E searchVal: searchVals) {
+			if (!contains(searchVal))
+				return false;
+		}
+		return true;
+	}
+	/**
+	 * Remove the specified elements from the set.
+	 * @param toDelete Values to delete
+	 * @return The number of values that were found and deleted
+	 */
+	default int removeAll(E[] toDelete) {
+		int deleted = 0;
+		for (E value: toDelete) {
+			if (delete(value))
+				deleted++;
+		}
+		return deleted;
+	}
+}
@@ -0,0 +1,30 @@
+/**
+ * Listens to the lookups and the resizes of a hash set, see AbstractHashSet.setListener.
+ * The methods are called by the thread which uses the set, in the middle of its operations, so they
+ * should be quick. Both do nothing by default.
+ * @author Oren Motiei
+ */
+public interface HashSetListener {
+
+    /**
+     * Called after every lookup of a set which probes its table, or searches a chain.
+     * @param probes The number of cells the lookup visited, or the number of elements of the chain it
+     * searched (about log2 of its length, in a tree).
+     */
+    default void onLookup(int probes) {
+    }
+
+
+    /**
+     * Called after the table was resized, or rebuilt at the same capacity to clear its deleted cells.
+     * An incremental resize is reported once it starts, and its duration doesn't include moving the
+     * elements, which is spread over the next operations.
+     * @param oldCapacity The capacity of the table before the resize.
+     * @param newCapacity The capacity of the table after the resize.
+     * @param size The number of elements in the set.
+     * @param nanos The duration of the resize, in nanoseconds.
+     */
+    default void onResize(int oldCapacity, int newCapacity, int size, long nanos) {
+    }
+
+}
@@ -0,0 +1,204 @@
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Collects the metrics of a hash set, as its listener: a histogram of the probe (or chain) lengths of
+ * its lookups, and the number and the durations of its resizes. The size, the capacity, the load factor
+ * and the ratio of deleted cells are read from the set itself whenever they are asked for, so that
+ * sampling them, e.g. by a JMX client, follows the load factor over time.
+ * The counters are updated by the thread which uses the set, without synchronization, so a JMX client
+ * may read slightly stale values.
+ * @author Oren Motiei
+ */
+public class HashSetMetrics implements HashSetListener, HashSetMetricsMBean {
+
+    /** The domain of the names the metrics are registered under. */
+    public static final String JMX_DOMAIN = "Ex4";
+
+    private static final int HISTOGRAM_CELLS = Integer.SIZE;
+
+    private final AbstractHashSet set;
+    private final long[] probeHistogram = new long[HISTOGRAM_CELLS];
+    private long lookups = 0;
+    private long totalProbes = 0;
+    private int maxProbes = 0;
+    private long resizes = 0;
+    private long totalResizeNanos = 0;
+    private long maxResizeNanos = 0;
+    private ObjectName name = null; // the name the metrics are registered under, if they are
+
+    /**
+     * Constructs the metrics of the given set, and starts collecting them by becoming the set's listener.
+     * @param set The set to collect the metrics of.
+     */
+    public HashSetMetrics(AbstractHashSet set) {
+        this.set = set;
+        set.setListener(this);
+    }
+
+
+    /**
+     * Records a single lookup.
+     * @param probes The number of cells the lookup visited, or the number of elements of the chain it
+     * searched (about log2 of its length, in a tree).
+     */
+    @Override
+    public void onLookup(int probes) {
+        probeHistogram[Integer.SIZE - Integer.numberOfLeadingZeros(probes)]++;
+        lookups++;
+        totalProbes += probes;
+        if (probes > maxProbes)
+            maxProbes = probes;
+    }
+
+
+    /**
+     * Records a single resize.
+     * @param oldCapacity The capacity of the table before the resize.
+     * @param newCapacity The capacity of the table after the resize.
+     * @param size The number of elements in the set.
+     * @param nanos The duration of the resize, in nanoseconds.
+     */
+    @Override
+    public void onResize(int oldCapacity, int newCapacity, int size, long nanos) {
+        resizes++;
+        totalResizeNanos += nanos;
+        if (nanos > maxResizeNanos)
+            maxResizeNanos = nanos;
+    }
+
+
+    /**
+     * Stops collecting the metrics, if the set still reports to them, and unregisters them from JMX.
+     * @throws JMException if the metrics couldn't be unregistered.
+     */
+    public void detach() throws JMException {
+        if (set.getListener() == this)
+            set.setListener(null);
+        unregister();
+    }
+
+
+    /**
+     * Registers the metrics in the platform's MBean server, under the name
+     * "Ex4:type=HashSetMetrics,name=[name]", replacing any earlier registration of these metrics.
+     * @param name The name which identifies the set.
+     * @throws JMException if the name is invalid, or is already taken by other metrics.
+     */
+    public void register(String name) throws JMException {
+        unregister();
+        ObjectName objectName =
+                new ObjectName(JMX_DOMAIN + ":type=HashSetMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        this.name = objectName;
+    }
+
+
+    /**
+     * Unregisters the metrics from the platform's MBean server. Does nothing if they aren't registered.
+     * @throws JMException if the metrics couldn't be unregistered.
+     */
+    public void unregister() throws JMException {
+        if (name == null)
+            return;
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        name = null;
+    }
+
+
+    /**
+     * @return The name the metrics are registered under, or null if they aren't registered.
+     */
+    public ObjectName getObjectName() {
+        return name;
+    }
+
+
+    @Override
+    public int getSize() {
+        return set.size();
+    }
+
+
+    @Override
+    public int getCapacity() {
+        return set.capacity();
+    }
+
+
+    @Override
+    public double getLoadFactor() {
+        return (double)set.size() / set.capacity();
+    }
+
+
+    @Override
+    public double getTombstoneRatio() {
+        return (double)set.deletedCells() / set.capacity();
+    }
+
+
+    @Override
+    public long getLookups() {
+        return lookups;
+    }
+
+
+    @Override
+    public double getMeanProbes() {
+        return lookups == 0 ? 0 : (double)totalProbes / lookups;
+    }
+
+
+    @Override
+    public int getMaxProbes() {
+        return maxProbes;
+    }
+
+
+    @Override
+    public long[] getProbeHistogram() {
+        return probeHistogram.clone();
+    }
+
+
+    @Override
+    public long getResizes() {
+        return resizes;
+    }
+
+
+    @Override
+    public long getTotalResizeNanos() {
+        return totalResizeNanos;
+    }
+
+
+    @Override
+    public long getMaxResizeNanos() {
+        return maxResizeNanos;
+    }
+
+
+    @Override
+    public void reset() {
+        for (int i=0; i<HISTOGRAM_CELLS; i++)
+            probeHistogram[i] = 0;
+        lookups = 0;
+        totalProbes = 0;
+        maxProbes = 0;
+        resizes = 0;
+        totalResizeNanos = 0;
+        maxResizeNanos = 0;
+    }
+
+
+    @Override
+    public String toString() {
+        return String.format("size=%d capacity=%d load=%.3f tombstones=%.3f lookups=%d mean=%.3f max=%d " +
+                        "resizes=%d resizeNanos=%d", getSize(), getCapacity(), getLoadFactor(),
+                getTombstoneRatio(), lookups, getMeanProbes(), maxProbes, resizes, totalResizeNanos);
+    }
+
+}
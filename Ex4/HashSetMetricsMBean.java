@@ -0,0 +1,69 @@
+/**
+ * The management interface of HashSetMetrics, through which JMX clients (e.g. jconsole) read the metrics
+ * of a hash set.
+ * @author Oren Motiei
+ */
+public interface HashSetMetricsMBean {
+
+    /**
+     * @return The number of elements in the set.
+     */
+    int getSize();
+
+    /**
+     * @return The capacity of the table.
+     */
+    int getCapacity();
+
+    /**
+     * @return The current load factor of the table.
+     */
+    double getLoadFactor();
+
+    /**
+     * @return The fraction of the table's cells which are marked as deleted.
+     */
+    double getTombstoneRatio();
+
+    /**
+     * @return The number of recorded lookups.
+     */
+    long getLookups();
+
+    /**
+     * @return The mean probe (or chain) length of the recorded lookups.
+     */
+    double getMeanProbes();
+
+    /**
+     * @return The longest probe (or chain) length of a recorded lookup.
+     */
+    int getMaxProbes();
+
+    /**
+     * @return The histogram of the probe lengths: cell 0 counts the lookups of 0 probes, and cell i > 0
+     * counts the lookups of 2^(i-1) to 2^i - 1 probes.
+     */
+    long[] getProbeHistogram();
+
+    /**
+     * @return The number of recorded resizes.
+     */
+    long getResizes();
+
+    /**
+     * @return The total duration of the recorded resizes, in nanoseconds.
+     */
+    long getTotalResizeNanos();
+
+    /**
+     * @return The duration of the longest recorded resize, in nanoseconds.
+     */
+    long getMaxResizeNanos();
+
+    /**
+     * Forgets all of the recorded lookups and resizes.
+     */
+    void reset();
+
+}
@@ -0,0 +1,280 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The header of a binary snapshot of an OpenHashSet or a ClosedHashSet, and the helpers both of them use to
+ * write and read their snapshots. A snapshot keeps the layout of the table, cell by cell, so loading it
+ * places every element back in its cell without hashing it.
+ * The header holds MAGIC, VERSION, the kind of the set, its hash function (and seed, or key fingerprint),
+ * its probing sequence, its load factors, its capacity and its size. The secret key of a SipHasher isn't
+ * written, only its fingerprint, so whoever reads a snapshot can't craft colliding strings; the set's
+ * hasher must be given again to load it. All of the numbers are big-endian, and every
+ * string is written as the number of its UTF-8 bytes, followed by the bytes (a ClosedHashSet writes the
+ * cached hash code in between).
+ * @author Oren Motiei
+ */
+public class HashSetSnapshot {
+
+    /** The first int of every snapshot. */
+    public static final int MAGIC = 0x53485353;
+
+    /** The version of the format. */
+    public static final int VERSION = 1;
+
+    /** The kind of a snapshot of an OpenHashSet. */
+    public static final byte OPEN_HASH_SET = 1;
+
+    /** The kind of a snapshot of a ClosedHashSet. */
+    public static final byte CLOSED_HASH_SET = 2;
+
+    private static final byte MURMUR_MIX_HASHER = 0;
+    private static final byte SEEDED_MURMUR_HASHER = 1;
+    private static final byte OTHER_HASHER = 2; // can't be restored, so the loaded set is rehashed
+    private static final byte SIP_HASHER = 3;
+    private static final byte NO_PROBING = -1;
+
+    private final byte kind;
+    private final StringHasher hasher;
+    private final ProbingStrategy probing;
+    private final float upperLoadFactor;
+    private final float lowerLoadFactor;
+    private final int capacity;
+    private final int size;
+    private byte hasherKind; // the kind of the hash function, restored or not
+    private long keyFingerprint; // the fingerprint of the key of a SipHasher
+    private byte[] scratch = new byte[0]; // the bytes of the string being read
+
+    /**
+     * Constructs the header of a snapshot.
+     * @param kind OPEN_HASH_SET or CLOSED_HASH_SET.
+     * @param hasher The hash function of the set.
+     * @param probing The probing sequence of the set, or null if it doesn't probe.
+     * @param upperLoadFactor The upper load factor of the set.
+     * @param lowerLoadFactor The lower load factor of the set.
+     * @param capacity The capacity of the table.
+     * @param size The number of elements in the set.
+     */
+    public HashSetSnapshot(byte kind, StringHasher hasher, ProbingStrategy probing, float upperLoadFactor,
+                           float lowerLoadFactor, int capacity, int size) {
+        this.kind = kind;
+        this.hasher = hasher;
+        this.probing = probing;
+        this.upperLoadFactor = upperLoadFactor;
+        this.lowerLoadFactor = lowerLoadFactor;
+        this.capacity = capacity;
+        this.size = size;
+        if (hasher instanceof MurmurMixHasher)
+            hasherKind = MURMUR_MIX_HASHER;
+        else if (hasher instanceof SeededMurmurHasher)
+            hasherKind = SEEDED_MURMUR_HASHER;
+        else if (hasher instanceof SipHasher) {
+            hasherKind = SIP_HASHER;
+            keyFingerprint = ((SipHasher)hasher).fingerprint();
+        } else
+            hasherKind = OTHER_HASHER;
+    }
+
+
+    /**
+     * Chooses the hash function of the loaded set.
+     * @param hasher The hash function given by the caller, or null for the one written in the snapshot.
+     * @return The hash function to set, or null to keep the default one.
+     * @throws IOException if the set was hashed by a SipHasher, whose key isn't written, and no hash
+     * function was given.
+     */
+    public StringHasher chooseHasher(StringHasher hasher) throws IOException {
+        if (hasher != null)
+            return hasher;
+        if (hasherKind == SIP_HASHER)
+            throw new IOException("ERROR: The set is keyed by a SipHasher, which must be given to load it.");
+        return this.hasher;
+    }
+
+
+    /**
+     * Checks whether the given hash function is the one the set was written with, so that the elements
+     * can be placed back without rehashing them. A SipHasher is checked by the fingerprint of its key.
+     * @param hasher A hash function.
+     * @return True iff the hash function places every element where it was written.
+     */
+    public boolean matches(StringHasher hasher) {
+        switch (hasherKind) {
+            case MURMUR_MIX_HASHER:
+                return hasher instanceof MurmurMixHasher;
+            case SEEDED_MURMUR_HASHER:
+                return hasher instanceof SeededMurmurHasher &&
+                        ((SeededMurmurHasher)hasher).getSeed() == ((SeededMurmurHasher)this.hasher).getSeed();
+            case SIP_HASHER:
+                return hasher instanceof SipHasher && ((SipHasher)hasher).fingerprint() == keyFingerprint;
+            default:
+                return false;
+        }
+    }
+
+
+    /**
+     * @return The probing sequence of the set, or null if it doesn't probe.
+     */
+    public ProbingStrategy getProbing() {
+        return probing;
+    }
+
+
+    /**
+     * @return The upper load factor of the set.
+     */
+    public float getUpperLoadFactor() {
+        return upperLoadFactor;
+    }
+
+
+    /**
+     * @return The lower load factor of the set.
+     */
+    public float getLowerLoadFactor() {
+        return lowerLoadFactor;
+    }
+
+
+    /**
+     * @return The capacity of the table.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+
+    /**
+     * @return The number of elements in the set.
+     */
+    public int getSize() {
+        return size;
+    }
+
+
+    /**
+     * Writes the header.
+     * @param out The stream the snapshot is written to.
+     * @throws IOException if the header couldn't be written.
+     */
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeByte(kind);
+        out.writeByte(hasherKind);
+        if (hasherKind == SEEDED_MURMUR_HASHER)
+            out.writeInt(((SeededMurmurHasher)hasher).getSeed());
+        else if (hasherKind == SIP_HASHER)
+            out.writeLong(keyFingerprint);
+        out.writeByte(probing == null ? NO_PROBING : probing.ordinal());
+        out.writeFloat(upperLoadFactor);
+        out.writeFloat(lowerLoadFactor);
+        out.writeInt(capacity);
+        out.writeInt(size);
+    }
+
+
+    /**
+     * Reads the header of a snapshot, and checks that it's a valid snapshot of the expected kind.
+     * @param buffer The snapshot, positioned at its beginning. It's left positioned after the header.
+     * @param expectedKind OPEN_HASH_SET or CLOSED_HASH_SET.
+     * @return The header.
+     * @throws IOException if the buffer doesn't start with a valid header of the expected kind.
+     */
+    public static HashSetSnapshot read(ByteBuffer buffer, byte expectedKind) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.get() != expectedKind)
+                throw new IOException("ERROR: Not a snapshot of the expected set.");
+            StringHasher hasher = null;
+            long keyFingerprint = 0;
+            byte hasherKind = buffer.get();
+            switch (hasherKind) {
+                case MURMUR_MIX_HASHER:
+                    hasher = SimpleHashSet.DEFAULT_HASHER;
+                    break;
+                case SEEDED_MURMUR_HASHER:
+                    hasher = new SeededMurmurHasher(buffer.getInt());
+                    break;
+                case SIP_HASHER:
+                    keyFingerprint = buffer.getLong();
+                    break;
+                default:
+                    hasherKind = OTHER_HASHER;
+            }
+            byte probingOrdinal = buffer.get();
+            ProbingStrategy probing = probingOrdinal == NO_PROBING ? null :
+                    ProbingStrategy.values()[probingOrdinal];
+            HashSetSnapshot header = new HashSetSnapshot(expectedKind, hasher, probing, buffer.getFloat(),
+                    buffer.getFloat(), buffer.getInt(), buffer.getInt());
+            header.hasherKind = hasherKind;
+            header.keyFingerprint = keyFingerprint;
+            if (header.capacity <= 0 || Integer.bitCount(header.capacity) != 1 || header.size < 0)
+                throw new IOException("ERROR: The snapshot is corrupted.");
+            return header;
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("ERROR: The snapshot is corrupted.", e);
+        }
+    }
+
+
+    /**
+     * Maps a snapshot file into memory, so that it's read without copying it first.
+     * @param file The snapshot file.
+     * @return The content of the file.
+     * @throws IOException if the file couldn't be mapped.
+     */
+    public static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+
+    /**
+     * Encodes a string as UTF-8.
+     * @param encoder A UTF-8 encoder created by newEncoder.
+     * @param str The string to encode.
+     * @return The UTF-8 bytes of the string.
+     * @throws IOException if the string has a surrogate without its pair, and can't be encoded exactly.
+     */
+    public static byte[] encode(CharsetEncoder encoder, String str) throws IOException {
+        ByteBuffer encoded = encoder.encode(CharBuffer.wrap(str));
+        byte[] bytes = new byte[encoded.remaining()];
+        encoded.get(bytes);
+        return bytes;
+    }
+
+
+    /**
+     * @return A UTF-8 encoder for encode, which reports malformed input rather than replacing it.
+     */
+    public static CharsetEncoder newEncoder() {
+        return StandardCharsets.UTF_8.newEncoder();
+    }
+
+
+    /**
+     * Reads a string of the given number of UTF-8 bytes.
+     * @param buffer The snapshot, positioned at the bytes of the string.
+     * @param length The number of bytes.
+     * @return The string.
+     * @throws IOException if the snapshot ends before the string.
+     */
+    public String readString(ByteBuffer buffer, int length) throws IOException {
+        if (length < 0 || length > buffer.remaining())
+            throw new IOException("ERROR: The snapshot is corrupted.");
+        if (scratch.length < length)
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        buffer.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,46 @@
+/**
+ * Defines how the elements of a generic hash-set are hashed and compared, in place of their own hashCode
+ * and equals. Elements can then be put in a set as they are, e.g. arrays compared by their contents,
+ * or objects whose hash code was computed beforehand, instead of being wrapped in key objects.
+ * The hash codes are clamped by the set to fit within its table, so they should be spread across all of
+ * their bits.
+ * @param <E> The type of the elements.
+ * @author Oren Motiei
+ */
+public interface HashingStrategy<E> {
+
+    /**
+     * @param value The element to hash.
+     * @return The hash code of the element, which must be equal for elements which are equal.
+     */
+    int hash(E value);
+
+
+    /**
+     * @param first An element of the set.
+     * @param second An element to compare it to.
+     * @return True iff the elements are equal.
+     */
+    boolean equals(E first, E second);
+
+
+    /**
+     * The strategy of the elements' own hashCode and equals, whose hash codes are spread like
+     * MurmurMixHasher's.
+     * @param <E> The type of the elements.
+     * @return The natural strategy.
+     */
+    static <E> HashingStrategy<E> natural() {
+        return new HashingStrategy<E>() {
+            @Override
+            public int hash(E value) {
+                return MurmurMixHasher.mix(value.hashCode());
+            }
+
+            @Override
+            public boolean equals(E first, E second) {
+                return first.equals(second);
+            }
+        };
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * A resize policy which keeps workloads that add and delete around a load factor from resizing the table
+ * back and forth. Unlike ResizePolicy.DEFAULT, the table only shrinks once it's loaded well below the
+ * lower load factor (shrinkFraction of it), only after shrinkDelay such deletes in a row, and never to a
+ * load which would grow it again on the next add. A minimum capacity keeps a set that's known to refill
+ * from shrinking below it, and makes the first add grow the table straight to it.
+ * The policy counts the shrinks it allows and defers. It keeps the state of a single set, the one it was
+ * first set on, so every set needs an instance of its own.
+ * @author Oren Motiei
+ */
+public class HysteresisResizePolicy implements ResizePolicy {
+
+    /** The default fraction of the lower load factor below which the table shrinks. */
+    public static final float DEFAULT_SHRINK_FRACTION = 0.5f;
+
+    private final int minimumCapacity;
+    private final int growthFactor;
+    private final float shrinkFraction;
+    private final int shrinkDelay;
+    private AbstractHashSet owner = null; // the set the policy keeps the state of
+    private int underloadedDeletes = 0; // the deletes in a row which left the table ready to shrink
+    private int shrinks = 0;
+    private int deferredShrinks = 0;
+
+
+    /**
+     * Constructs a policy which doubles the table, shrinks it below DEFAULT_SHRINK_FRACTION of the lower
+     * load factor without delay, and has no minimum capacity.
+     */
+    public HysteresisResizePolicy() {
+        this(AbstractHashSet.LOWEST_TABLE_CAPACITY, (int)AbstractHashSet.GROWTH_CONSTANT,
+                DEFAULT_SHRINK_FRACTION, 0);
+    }
+
+    /**
+     * Constructs a policy.
+     * @param minimumCapacity A hint of the number of cells the table needs. It's rounded up to a power of
+     * two, the table never shrinks below it, and it grows straight to it.
+     * @param growthFactor How many times the table grows, a power of two which is at least 2.
+     * @param shrinkFraction The fraction of the lower load factor below which the table shrinks, between
+     * 0 (exclusive) and 1. 1 shrinks the table as soon as ResizePolicy.DEFAULT does.
+     * @param shrinkDelay The number of deletes in a row, without an add between them, which must leave the
+     * table ready to shrink before it shrinks.
+     * @throws IllegalArgumentException if any of the parameters is out of its range.
+     */
+    public HysteresisResizePolicy(int minimumCapacity, int growthFactor, float shrinkFraction,
+                                  int shrinkDelay) {
+        if (minimumCapacity < AbstractHashSet.LOWEST_TABLE_CAPACITY ||
+                minimumCapacity > AbstractHashSet.HIGHEST_TABLE_CAPACITY)
+            throw new IllegalArgumentException("ERROR: The minimum capacity is out of range.");
+        if (growthFactor < 2 || Integer.bitCount(growthFactor) != 1)
+            throw new IllegalArgumentException("ERROR: The growth factor must be a power of two above 1.");
+        if (!(shrinkFraction > 0 && shrinkFraction <= 1))
+            throw new IllegalArgumentException("ERROR: The shrink fraction must be in (0, 1].");
+        if (shrinkDelay < 0)
+            throw new IllegalArgumentException("ERROR: The shrink delay can't be negative.");
+        this.minimumCapacity = Integer.highestOneBit(minimumCapacity) == minimumCapacity ? minimumCapacity :
+                Integer.highestOneBit(minimumCapacity) << 1;
+        this.growthFactor = growthFactor;
+        this.shrinkFraction = shrinkFraction;
+        this.shrinkDelay = shrinkDelay;
+    }
+
+
+    /**
+     * Binds the policy to the set.
+     * @throws IllegalArgumentException if the policy was already set on another set.
+     */
+    @Override
+    public void attach(AbstractHashSet set) {
+        if (owner != null && owner != set)
+            throw new IllegalArgumentException("ERROR: The resize policy already belongs to another set.");
+        owner = set;
+    }
+
+
+    /**
+     * Grows the table to the minimum capacity, and then by the growth factor while it's overloaded.
+     */
+    @Override
+    public int grownCapacity(AbstractHashSet set, int size, int capacity) {
+        capacity = Math.max(capacity, minimumCapacity);
+        while (capacity < AbstractHashSet.HIGHEST_TABLE_CAPACITY && set.isOverloaded(size, capacity))
+            capacity = (int)Math.min((long)capacity * growthFactor, AbstractHashSet.HIGHEST_TABLE_CAPACITY);
+        return capacity;
+    }
+
+
+    /**
+     * Shrinks the table once it was loaded below shrinkFraction of the lower load factor for shrinkDelay
+     * deletes in a row, this one included. It then halves the table while it stays below the lower load
+     * factor, so the next deletes don't shrink it again.
+     */
+    @Override
+    public int shrunkCapacity(AbstractHashSet set, int size, int capacity) {
+        if (!isUnderloaded(set, size, capacity) || underloadedDeletes < shrinkDelay)
+            return capacity;
+        int shrunk = Math.max(minimumCapacity, capacity / 2);
+        while (shrunk / 2 >= minimumCapacity && (double)size / (shrunk / 2) < set.getLowerLoadFactor() &&
+                !set.isOverloaded(size, shrunk / 2))
+            shrunk /= 2;
+        return shrunk;
+    }
+
+
+    /**
+     * Ends the row of underloaded deletes.
+     */
+    @Override
+    public void onAdd(AbstractHashSet set) {
+        underloadedDeletes = 0;
+    }
+
+
+    /**
+     * Counts the delete in the row of underloaded deletes, and as a shrink or a deferred shrink.
+     */
+    @Override
+    public void onDelete(AbstractHashSet set, int size, int capacity, int newCapacity) {
+        if (newCapacity < capacity) {
+            underloadedDeletes = 0;
+            shrinks++;
+        } else if ((double)size / capacity < set.getLowerLoadFactor() && capacity > minimumCapacity) {
+            deferredShrinks++;
+            if (isUnderloaded(set, size, capacity))
+                underloadedDeletes++;
+        }
+    }
+
+
+    /*
+     * Checks whether the table is loaded below shrinkFraction of the lower load factor, and would stay
+     * below the upper load factor if it was halved.
+     */
+    private boolean isUnderloaded(AbstractHashSet set, int size, int capacity) {
+        return capacity > minimumCapacity &&
+                (double)size / capacity < set.getLowerLoadFactor() * shrinkFraction &&
+                !set.isOverloaded(size, Math.max(minimumCapacity, capacity / 2));
+    }
+
+
+    /**
+     * @return The minimum capacity of the table, a power of two.
+     */
+    public int getMinimumCapacity() {
+        return minimumCapacity;
+    }
+
+
+    /**
+     * @return The number of times the policy shrank the table.
+     */
+    public int getShrinks() {
+        return shrinks;
+    }
+
+
+    /**
+     * @return The number of deletes after which ResizePolicy.DEFAULT would have shrunk the table, but this
+     * policy kept its capacity.
+     */
+    public int getDeferredShrinks() {
+        return deferredShrinks;
+    }
+
+}
@@ -0,0 +1,25 @@
+/**
+ * A SimpleSet whose table can be resized incrementally, as OpenHashSet's and ClosedHashSet's can.
+ * @author Oren Motiei
+ */
+public interface IncrementalResizeSet extends SimpleSet {
+
+    /** Defines how many cells of the old table are moved per operation during an incremental resize */
+    int MIGRATION_STEP = 8;
+
+
+    /**
+     * Sets whether the table is resized incrementally. An incremental resize keeps the old table beside the
+     * new one, and every add or delete moves only MIGRATION_STEP cells of the old table into the new one,
+     * instead of moving all of the elements at once. Turning it off completes a resize in progress.
+     * @param incrementalResize True to resize incrementally, false to move all of the elements at once.
+     */
+    void setIncrementalResize(boolean incrementalResize);
+
+
+    /**
+     * @return True iff the table is resized incrementally.
+     */
+    boolean isIncrementalResize();
+
+}
@@ -0,0 +1,19 @@
+/**
+ * A SimpleSet whose add searches for the value only once, and can tell where the value is held. All of
+ * the hash sets of this exercise, and ListFacadeSet, are.
+ * @author Oren Motiei
+ */
+public interface IndexedSimpleSet extends SimpleSet {
+
+    /**
+     * Add a specified element to the set if it's not already in it, and tells where the set holds it.
+     * The set is searched once, and the value is placed where the search ended if it isn't found.
+     * What the index points to depends on the set: a cell or a bucket of a hash table, or a position in a
+     * list.
+     * @param newValue New value to add to the set
+     * @return The index newValue was placed at, or -(index + 1) if it was already in the set, at that
+     * index. The index is valid until the set is changed.
+     */
+    int addIfAbsent(String newValue);
+
+}
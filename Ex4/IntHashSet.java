@@ -0,0 +1,128 @@
+import java.util.function.IntConsumer;
+
+/**
+ * A hash-set of int values based on closed-hashing with quadratic probing, like ClosedHashSet, which keeps
+ * the values themselves in an int table, so nothing is boxed, converted to a string or hashed as one.
+ * It grows, shrinks and is compacted by the same policy as ClosedHashSet (see PrimitiveHashSet).
+ * 0 and Integer.MIN_VALUE mark the free and the deleted cells of the table, so the set keeps those two
+ * values aside, in flags, rather than in the table.
+ * @author Oren Motiei
+ */
+public class IntHashSet extends PrimitiveHashSet<int[]> {
+
+    /*--------------------------=  Constructors  =--------------------------*/
+
+    /**
+     * Constructs a new, empty table with the specified load factors, and the default initial capacity (16).
+     * @param upperLoadFactor The upper load factor of the hash table.
+     * @param lowerLoadFactor The lower load factor of the hash table.
+     */
+    public IntHashSet(float upperLoadFactor, float lowerLoadFactor) {
+        super(new int[INITIAL_CAPACITY], Integer.MIN_VALUE, upperLoadFactor, lowerLoadFactor);
+    }
+
+
+    /**
+     * A default constructor. Constructs a new, empty table with default initial capacity (16),
+     * upper load factor (0.75) and lower load factor (0.25).
+     */
+    public IntHashSet() {
+        super(new int[INITIAL_CAPACITY], Integer.MIN_VALUE);
+    }
+
+
+    /**
+     * Data constructor - builds the hash set by adding all of the elements at once (see addAll).
+     * Duplicate values are ignored. The new table has the default values of initial capacity (16),
+     * upper load factor (0.75), and lower load factor (0.25).
+     * @param data Values to add to the set.
+     */
+    public IntHashSet(int[] data) {
+        this();
+        addAll(data);
+    }
+
+    /*--------------------------=  End of constructors  =--------------------------*/
+
+    /**
+     * Add a specified element to the set if it's not already in it. A single probing looks for the value
+     * and finds the cell it's placed in.
+     * @param newValue New value to add to the set
+     * @return False if newValue already exists in the set
+     */
+    public boolean add(int newValue) {
+        return addValue(newValue);
+    }
+
+
+    /**
+     * Look for a specified value in the set.
+     * @param searchVal Value to search for
+     * @return True if searchVal is found in the set
+     */
+    public boolean contains(int searchVal) {
+        return containsValue(searchVal);
+    }
+
+
+    /**
+     * Remove the input element from the set.
+     * @param toDelete Value to delete
+     * @return True if toDelete is found and deleted
+     */
+    public boolean delete(int toDelete) {
+        return deleteValue(toDelete);
+    }
+
+
+    /**
+     * Add the specified elements to the set, skipping the ones which are already in it.
+     * Like SimpleHashSet.addAll, the table is resized only once before adding, and shrunk back afterwards
+     * if some of the values were duplicates.
+     * @param newValues New values to add to the set
+     * @return The number of values that were added
+     */
+    public int addAll(int[] newValues) {
+        return addValues(newValues.length, i -> newValues[i]);
+    }
+
+
+    /**
+     * Performs the given action for every element of the set. The set mustn't be changed by the action.
+     * @param action The action to perform.
+     */
+    public void forEach(IntConsumer action) {
+        forEachValue(value -> action.accept((int)value));
+    }
+
+
+    @Override
+    protected int[] newTable(int capacity) {
+        return new int[capacity];
+    }
+
+
+    @Override
+    protected int length(int[] table) {
+        return table.length;
+    }
+
+
+    @Override
+    protected long get(int[] table, int index) {
+        return table[index];
+    }
+
+
+    @Override
+    protected void set(int[] table, int index, long value) {
+        table[index] = (int)value;
+    }
+
+
+    @Override
+    protected int hash(long value) {
+        return MurmurMixHasher.mix((int)value);
+    }
+
+}
@@ -0,0 +1,50 @@
+import java.util.List;
+
+/**
+ * A CollectionFacadeSet wrapping a List, whose elements have positions, so that addIfAbsent tells the
+ * position of a value.
+ * @author Oren Motiei
+ */
+public class ListFacadeSet extends CollectionFacadeSet implements IndexedSimpleSet {
+
+    private final List<String> list;
+
+    /**
+     * Creates a new facade wrapping the specified list.
+     * @param list The List to wrap.
+     */
+    public ListFacadeSet(List<String> list) {
+        super(list);
+        this.list = list;
+    }
+
+
+    /**
+     * Add a specified element to the set if it's not already in it. The list is searched only once (see
+     * addIfAbsent).
+     * @param newValue New value to add to the set
+     * @return False if newValue already exists in the set
+     */
+    @Override
+    public boolean add(String newValue) {
+        return addIfAbsent(newValue) >= 0;
+    }
+
+
+    /**
+     * Add a specified element to the set if it's not already in it, and tells its position in the list.
+     * The list is searched by indexOf, and the value is appended if it isn't found.
+     * @param newValue New value to add to the set
+     * @return The position newValue was added at, or -(position + 1) if it was already in the set, at
+     * that position. The position is valid until the set is changed.
+     */
+    @Override
+    public int addIfAbsent(String newValue) {
+        int index = list.indexOf(newValue);
+        if (index >= 0)
+            return -(index + 1);
+        list.add(newValue);
+        return list.size() - 1;
+    }
+
+}
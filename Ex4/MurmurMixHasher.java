@@ -0,0 +1,53 @@
+/**
+ * Spreads String's own hash code with the finalization step of MurmurHash3 (fmix32), so that
+ * every bit of the hash code affects the low bits which are kept by clamping.
+ * Strings whose hash codes are equal still collide, see SeededMurmurHasher and SipHasher for that.
+ * @author Oren Motiei
+ */
+public class MurmurMixHasher implements StringHasher {
+
+    private static final int FIRST_MULTIPLIER = 0x85ebca6b;
+    private static final int SECOND_MULTIPLIER = 0xc2b2ae35;
+    private static final long FIRST_LONG_MULTIPLIER = 0xff51afd7ed558ccdL;
+    private static final long SECOND_LONG_MULTIPLIER = 0xc4ceb9fe1a85ec53L;
+
+    /**
+     * @param value The string to hash.
+     * @return The spread hash code of the string.
+     */
+    @Override
+    public int hash(String value) {
+        return mix(value.hashCode());
+    }
+
+
+    /**
+     * Spreads the bits of a hash code.
+     * @param hashCode The hash code to spread.
+     * @return The spread hash code.
+     */
+    public static int mix(int hashCode) {
+        hashCode ^= hashCode >>> 16;
+        hashCode *= FIRST_MULTIPLIER;
+        hashCode ^= hashCode >>> 13;
+        hashCode *= SECOND_MULTIPLIER;
+        hashCode ^= hashCode >>> 16;
+        return hashCode;
+    }
+
+
+    /**
+     * Spreads the bits of a 64-bit value with MurmurHash3's fmix64, and keeps the lower half.
+     * @param value The value to spread.
+     * @return The spread hash code of the value.
+     */
+    public static int mix(long value) {
+        value ^= value >>> 33;
+        value *= FIRST_LONG_MULTIPLIER;
+        value ^= value >>> 33;
+        value *= SECOND_LONG_MULTIPLIER;
+        value ^= value >>> 33;
+        return (int)value;
+    }
+
+}
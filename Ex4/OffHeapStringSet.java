@@ -0,0 +1,575 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * A hash-set which keeps its strings outside of the java heap, as UTF-8 bytes in an arena, indexed by an
+ * open-addressing table with linear probing. Each cell of the index holds the hash code of an element and
+ * the offset of its bytes in the arena, so probing compares hash codes without touching the arena, and
+ * resizing the index never reads the strings.
+ * The index and the arena are either direct buffers, or memory-mapped files which keep a populated set
+ * across runs: opening the same files again reuses the set as it is, without rebuilding it.
+ * The strings are hashed by MurmurMixHasher, whose hash codes are the same on every run. A surrogate
+ * without its pair is stored on its own, as a three-byte sequence (WTF-8), so every string is stored
+ * exactly, and is decoded back as it was.
+ * Both buffers are limited to 2GB each.
+ * @author Oren Motiei
+ */
+public class OffHeapStringSet implements TraversableSimpleSet, Closeable {
+
+    /** The extension of the file holding the index of a memory-mapped set. */
+    public static final String INDEX_EXTENSION = ".idx";
+
+    /** The extension of the file holding the arena of a memory-mapped set. */
+    public static final String ARENA_EXTENSION = ".dat";
+
+    private static final int MAGIC = 0x4F485353;
+    private static final int VERSION = 1;
+    private static final String TEMPORARY_EXTENSION = ".tmp";
+    private static final int INITIAL_ARENA_BYTES = 1024;
+    private static final int MAX_REGION_BYTES = Integer.MAX_VALUE - 8;
+
+    // The header of the index: its fields and their offsets.
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int SIZE_OFFSET = 12;
+    private static final int TOMBSTONES_OFFSET = 16;
+    private static final int ARENA_END_OFFSET = 20;
+    private static final int GARBAGE_OFFSET = 24;
+    private static final int HEADER_BYTES = 32;
+
+    private static final int CELL_BYTES = 8; // the hash code and the offset of an element
+    private static final int EMPTY = 0; // the offset in an empty cell, at which no string can start
+    private static final int DELETED = -1; // the offset in the cell of a deleted element
+    private static final int NOT_FOUND = -1;
+    private static final int ARENA_START = 8; // the arena starts with its magic number
+    private static final int LENGTH_BYTES = 4; // every string is preceded by the length of its bytes
+
+    private final Path indexPath; // null for a set in direct buffers
+    private final Path arenaPath;
+    private ByteBuffer index;
+    private ByteBuffer arena;
+    private int capacity;
+    private int numOfElements;
+    private int tombstones; // the number of DELETED cells in the index
+    private int arenaEnd; // the offset at which the next string is written
+    private int garbage; // the number of arena bytes held by deleted strings
+
+    /*--------------------------=  Constructors  =--------------------------*/
+
+    /**
+     * Constructs a new, empty set in direct buffers, with the default initial capacity (16),
+     * upper load factor (0.75) and lower load factor (0.25).
+     */
+    public OffHeapStringSet() {
+        indexPath = null;
+        arenaPath = null;
+        create();
+    }
+
+
+    /**
+     * Opens the set kept in the files given by the path followed by INDEX_EXTENSION and ARENA_EXTENSION,
+     * memory-mapping them. If the files don't exist, a new, empty set is created in them.
+     * Changes reach the files as the operating system writes the mapped pages back; call close to write
+     * them at once.
+     * @param path The path of the files, without the extensions.
+     * @throws IOException if the files couldn't be mapped, or don't hold a valid set.
+     */
+    public OffHeapStringSet(Path path) throws IOException {
+        indexPath = Paths.get(path + INDEX_EXTENSION);
+        arenaPath = Paths.get(path + ARENA_EXTENSION);
+        if (Files.exists(indexPath) && Files.exists(arenaPath))
+            open();
+        else
+            create();
+    }
+
+    /*--------------------------=  End of constructors  =--------------------------*/
+
+    /**
+     * @return The current capacity (number of cells) of the index.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+
+    /**
+     * @return The number of bytes held by the set outside of the java heap.
+     */
+    public long offHeapBytes() {
+        return (long)index.capacity() + arena.capacity();
+    }
+
+
+    /**
+     * Add a specified element to the set if it's not already in it.
+     * @param newValue New value to add to the set
+     * @return False if newValue already exists in the set
+     */
+    @Override
+    public boolean add(String newValue) {
+        int hashCode = MurmurMixHasher.mix(newValue.hashCode());
+        int length = utf8Length(newValue);
+        if ((long)arenaEnd + LENGTH_BYTES + length > arena.capacity() && garbage > 0 &&
+                garbage >= (arenaEnd - ARENA_START) / 2)
+            rebuild(capacity); // compacts the arena instead of growing it
+        int freeCell = NOT_FOUND;
+        int cell = NOT_FOUND;
+        for (int i=0; i<capacity; i++) { // start probing
+            int probed = (hashCode + i) & (capacity - 1);
+            int offset = offsetAt(probed);
+            if (offset == EMPTY) {
+                cell = probed;
+                break;
+            }
+            if (offset == DELETED) {
+                if (freeCell == NOT_FOUND)
+                    freeCell = probed;
+            } else if (hashAt(probed) == hashCode && matches(offset, newValue, length))
+                return false;
+        }
+        if (freeCell != NOT_FOUND) {
+            cell = freeCell;
+            tombstones--;
+        }
+        ensureArena((long)arenaEnd + LENGTH_BYTES + length);
+        arena.putInt(arenaEnd, length);
+        utf8(newValue, arenaEnd + LENGTH_BYTES, true);
+        setCell(index, cell, hashCode, arenaEnd);
+        arenaEnd += LENGTH_BYTES + length;
+        numOfElements++;
+        if ((double)numOfElements / capacity > SimpleHashSet.DEFAULT_HIGHER_CAPACITY)
+            rebuild(capacity * 2);
+        else
+            writeHeader();
+        return true;
+    }
+
+
+    /**
+     * Look for a specified value in the set.
+     * @param searchVal Value to search for
+     * @return True if searchVal is found in the set
+     */
+    @Override
+    public boolean contains(String searchVal) {
+        return findCell(searchVal) != NOT_FOUND;
+    }
+
+
+    /**
+     * Remove the input element from the set. The bytes of the element are left in the arena until the
+     * index is rebuilt, or the arena is full, at which point the arena is compacted if at least half of it
+     * is garbage.
+     * @param toDelete Value to delete
+     * @return True if toDelete is found and deleted
+     */
+    @Override
+    public boolean delete(String toDelete) {
+        int cell = findCell(toDelete);
+        if (cell == NOT_FOUND)
+            return false;
+        garbage += LENGTH_BYTES + arena.getInt(offsetAt(cell));
+        setCell(index, cell, hashAt(cell), DELETED);
+        tombstones++;
+        numOfElements--;
+        if ((double)numOfElements / capacity < SimpleHashSet.DEFAULT_LOWER_CAPACITY &&
+                capacity > SimpleHashSet.INITIAL_CAPACITY)
+            rebuild(capacity / 2);
+        else if (tombstones > ClosedHashSet.DEFAULT_TOMBSTONE_FRACTION * capacity)
+            rebuild(capacity);
+        else
+            writeHeader();
+        return true;
+    }
+
+
+    /**
+     * @return The number of elements currently in the set
+     */
+    @Override
+    public int size() {
+        return numOfElements;
+    }
+
+
+    /**
+     * Performs the given action for every element of the set, decoding each of them from the arena.
+     * The set mustn't be changed by the action.
+     * @param action The action to perform
+     */
+    @Override
+    public void forEach(Consumer<? super String> action) {
+        for (int cell=0; cell<capacity; cell++) {
+            int offset = offsetAt(cell);
+            if (offset == EMPTY || offset == DELETED)
+                continue;
+            action.accept(decode(offset + LENGTH_BYTES, arena.getInt(offset)));
+        }
+    }
+
+
+    /**
+     * Writes the changes of a memory-mapped set to its files. The set may not be used afterwards.
+     * Does nothing for a set in direct buffers.
+     */
+    @Override
+    public void close() {
+        if (indexPath == null)
+            return;
+        ((MappedByteBuffer)index).force();
+        ((MappedByteBuffer)arena).force();
+    }
+
+
+    /*
+     * Allocates an empty index of the initial capacity and an empty arena.
+     */
+    private void create() {
+        capacity = SimpleHashSet.INITIAL_CAPACITY;
+        index = newRegion(indexPath, HEADER_BYTES + capacity * CELL_BYTES);
+        arena = newRegion(arenaPath, INITIAL_ARENA_BYTES);
+        arena.putInt(MAGIC_OFFSET, MAGIC);
+        arenaEnd = ARENA_START;
+        index.putInt(MAGIC_OFFSET, MAGIC);
+        index.putInt(VERSION_OFFSET, VERSION);
+        writeHeader();
+    }
+
+
+    /*
+     * Maps the existing files and reads the state of the set from the header of the index.
+     */
+    private void open() throws IOException {
+        index = map(indexPath, Files.size(indexPath), false);
+        arena = map(arenaPath, Files.size(arenaPath), false);
+        if (index.capacity() < HEADER_BYTES || index.getInt(MAGIC_OFFSET) != MAGIC ||
+                index.getInt(VERSION_OFFSET) != VERSION || arena.capacity() < ARENA_START ||
+                arena.getInt(MAGIC_OFFSET) != MAGIC)
+            throw new IOException("ERROR: " + indexPath + " doesn't hold a valid set.");
+        capacity = index.getInt(CAPACITY_OFFSET);
+        numOfElements = index.getInt(SIZE_OFFSET);
+        tombstones = index.getInt(TOMBSTONES_OFFSET);
+        arenaEnd = index.getInt(ARENA_END_OFFSET);
+        garbage = index.getInt(GARBAGE_OFFSET);
+        if (Integer.bitCount(capacity) != 1 || HEADER_BYTES + (long)capacity * CELL_BYTES > index.capacity()
+                || arenaEnd < ARENA_START || arenaEnd > arena.capacity()
+                || numOfElements + tombstones > capacity)
+            throw new IOException("ERROR: " + indexPath + " doesn't hold a valid set.");
+    }
+
+
+    /*
+     * Moves the cells into a new index of the given capacity, which leaves no DELETED cells behind.
+     * If at least half of the arena is garbage, the live strings are also copied into a new, compact arena.
+     * A memory-mapped set builds the new regions in temporary files, which then replace its files.
+     */
+    private void rebuild(int newCapacity) {
+        boolean compact = garbage > 0 && garbage >= (arenaEnd - ARENA_START) / 2;
+        ByteBuffer newIndex = newRegion(temporary(indexPath), HEADER_BYTES + newCapacity * CELL_BYTES);
+        ByteBuffer newArena = arena;
+        int newArenaEnd = arenaEnd;
+        if (compact) {
+            int live = arenaEnd - ARENA_START - garbage;
+            newArena = newRegion(temporary(arenaPath),
+                    regionBytes(INITIAL_ARENA_BYTES, (long)ARENA_START + live));
+            newArena.putInt(MAGIC_OFFSET, MAGIC);
+            newArenaEnd = ARENA_START;
+        }
+        for (int cell=0; cell<capacity; cell++) {
+            int offset = offsetAt(cell);
+            if (offset == EMPTY || offset == DELETED)
+                continue;
+            if (compact) {
+                int bytes = LENGTH_BYTES + arena.getInt(offset);
+                newArena.put(newArenaEnd, arena, offset, bytes);
+                offset = newArenaEnd;
+                newArenaEnd += bytes;
+            }
+            int hashCode = hashAt(cell);
+            int newCell = hashCode & (newCapacity - 1);
+            while (newIndex.getInt(HEADER_BYTES + newCell * CELL_BYTES + 4) != EMPTY)
+                newCell = (newCell + 1) & (newCapacity - 1);
+            setCell(newIndex, newCell, hashCode, offset);
+        }
+        newIndex.putInt(MAGIC_OFFSET, MAGIC);
+        newIndex.putInt(VERSION_OFFSET, VERSION);
+        if (compact) {
+            replace(arenaPath);
+            arena = newArena;
+            arenaEnd = newArenaEnd;
+            garbage = 0;
+        }
+        index = newIndex;
+        capacity = newCapacity;
+        tombstones = 0;
+        writeHeader();
+        replace(indexPath);
+    }
+
+
+    /*
+     * Grows the arena, by doubling it, until it holds the given number of bytes.
+     */
+    private void ensureArena(long bytes) {
+        if (bytes <= arena.capacity())
+            return;
+        int newBytes = regionBytes(arena.capacity(), bytes);
+        if (arenaPath != null) {
+            try {
+                arena = map(arenaPath, newBytes, false); // mapping the file beyond its end extends it
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            ByteBuffer newArena = ByteBuffer.allocateDirect(newBytes);
+            newArena.put(0, arena, 0, arenaEnd);
+            arena = newArena;
+        }
+    }
+
+
+    /*
+     * Returns the size of a region that starts with the given size and doubles until it holds the given
+     * number of bytes.
+     */
+    private static int regionBytes(int bytes, long needed) {
+        if (needed > MAX_REGION_BYTES)
+            throw new IllegalStateException("ERROR: The set can't hold more than 2GB of strings.");
+        long size = bytes;
+        while (size < needed)
+            size *= 2;
+        return (int)Math.min(size, MAX_REGION_BYTES);
+    }
+
+
+    /*
+     * Returns a zeroed region of the given size: a direct buffer if the path is null, and a mapping of the
+     * file at the path otherwise, whose previous content is discarded.
+     */
+    private static ByteBuffer newRegion(Path path, int bytes) {
+        if (path == null)
+            return ByteBuffer.allocateDirect(bytes);
+        try {
+            return map(path, bytes, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    /*
+     * Maps the given number of bytes of the file at the path, creating the file if needed.
+     * Unless the file is truncated first, its content is kept.
+     */
+    private static MappedByteBuffer map(Path path, long bytes, boolean truncate) throws IOException {
+        try (FileChannel channel = truncate ?
+                FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE) :
+                FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        }
+    }
+
+
+    /*
+     * Returns the temporary file in which a region replacing the file at the path is built,
+     * or null for a set in direct buffers.
+     */
+    private static Path temporary(Path path) {
+        return path == null ? null : Paths.get(path + TEMPORARY_EXTENSION);
+    }
+
+
+    /*
+     * Moves the temporary file of the path over the file at the path. Does nothing for a set in direct
+     * buffers.
+     */
+    private static void replace(Path path) {
+        if (path == null)
+            return;
+        try {
+            Files.move(temporary(path), path, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    /*
+     * Writes the state of the set to the header of the index.
+     */
+    private void writeHeader() {
+        index.putInt(CAPACITY_OFFSET, capacity);
+        index.putInt(SIZE_OFFSET, numOfElements);
+        index.putInt(TOMBSTONES_OFFSET, tombstones);
+        index.putInt(ARENA_END_OFFSET, arenaEnd);
+        index.putInt(GARBAGE_OFFSET, garbage);
+    }
+
+
+    /*
+     * Looks for the given value in the index. Returns the cell holding it, or -1 if it isn't found.
+     */
+    private int findCell(String str) {
+        int hashCode = MurmurMixHasher.mix(str.hashCode());
+        int length = utf8Length(str);
+        for (int i=0; i<capacity; i++) {
+            int cell = (hashCode + i) & (capacity - 1);
+            int offset = offsetAt(cell);
+            if (offset == EMPTY)
+                return NOT_FOUND;
+            if (offset != DELETED && hashAt(cell) == hashCode && matches(offset, str, length))
+                return cell;
+        }
+        return NOT_FOUND;
+    }
+
+
+    /*
+     * Returns the hash code of the element in the given cell of the index.
+     */
+    private int hashAt(int cell) {
+        return index.getInt(HEADER_BYTES + cell * CELL_BYTES);
+    }
+
+
+    /*
+     * Returns the arena offset of the element in the given cell of the index, EMPTY or DELETED.
+     */
+    private int offsetAt(int cell) {
+        return index.getInt(HEADER_BYTES + cell * CELL_BYTES + 4);
+    }
+
+
+    /*
+     * Writes the hash code and the offset of an element to the given cell of the given index.
+     */
+    private static void setCell(ByteBuffer target, int cell, int hashCode, int offset) {
+        target.putInt(HEADER_BYTES + cell * CELL_BYTES, hashCode);
+        target.putInt(HEADER_BYTES + cell * CELL_BYTES + 4, offset);
+    }
+
+
+    /*
+     * Checks whether the string at the given arena offset is the given string, whose UTF-8 encoding has
+     * the given length.
+     */
+    private boolean matches(int offset, String str, int length) {
+        return arena.getInt(offset) == length && utf8(str, offset + LENGTH_BYTES, false);
+    }
+
+
+    /*
+     * Walks the UTF-8 encoding of the string, and either writes it to the arena at the given position, or
+     * compares it with the bytes already there. Nothing is allocated on the way.
+     * A surrogate without its pair is encoded like any other character below U+10000, in three bytes,
+     * which no valid UTF-8 has, so it's kept apart from every other character.
+     * Returns false on the first byte which differs.
+     */
+    private boolean utf8(String str, int position, boolean write) {
+        for (int i=0; i<str.length(); ) {
+            int codePoint = str.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (codePoint < 0x80) {
+                if (!utf8Byte(position++, codePoint, write))
+                    return false;
+            } else if (codePoint < 0x800) {
+                if (!utf8Byte(position++, 0xC0 | (codePoint >> 6), write) ||
+                        !utf8Byte(position++, 0x80 | (codePoint & 0x3F), write))
+                    return false;
+            } else if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                if (!utf8Byte(position++, 0xE0 | (codePoint >> 12), write) ||
+                        !utf8Byte(position++, 0x80 | ((codePoint >> 6) & 0x3F), write) ||
+                        !utf8Byte(position++, 0x80 | (codePoint & 0x3F), write))
+                    return false;
+            } else if (!utf8Byte(position++, 0xF0 | (codePoint >> 18), write) ||
+                    !utf8Byte(position++, 0x80 | ((codePoint >> 12) & 0x3F), write) ||
+                    !utf8Byte(position++, 0x80 | ((codePoint >> 6) & 0x3F), write) ||
+                    !utf8Byte(position++, 0x80 | (codePoint & 0x3F), write))
+                return false;
+        }
+        return true;
+    }
+
+
+    /*
+     * Decodes the string whose encoding (see utf8), of the given number of bytes, is at the given arena
+     * position. A surrogate without its pair is decoded back from its own three bytes.
+     */
+    private String decode(int position, int length) {
+        char[] chars = new char[length]; // a character takes at least a byte
+        int count = 0;
+        for (int end=position+length; position<end; ) {
+            int lead = arena.get(position++) & 0xFF;
+            int codePoint;
+            if (lead < 0x80)
+                codePoint = lead;
+            else if (lead < 0xE0)
+                codePoint = (lead & 0x1F) << 6 | continuation(position++);
+            else if (lead < 0xF0)
+                codePoint = (lead & 0x0F) << 12 | continuation(position++) << 6 | continuation(position++);
+            else
+                codePoint = (lead & 0x07) << 18 | continuation(position++) << 12 |
+                        continuation(position++) << 6 | continuation(position++);
+            count += Character.toChars(codePoint, chars, count);
+        }
+        return new String(chars, 0, count);
+    }
+
+
+    /*
+     * Returns the six bits of data of the continuation byte at the given arena position.
+     */
+    private int continuation(int position) {
+        return arena.get(position) & 0x3F;
+    }
+
+
+    /*
+     * Writes a single byte to the arena, or compares it with the byte already there.
+     */
+    private boolean utf8Byte(int position, int value, boolean write) {
+        if (write) {
+            arena.put(position, (byte)value);
+            return true;
+        }
+        return arena.get(position) == (byte)value;
+    }
+
+
+    /*
+     * Returns the number of bytes in the UTF-8 encoding of the string.
+     */
+    private static int utf8Length(String str) {
+        int length = 0;
+        for (int i=0; i<str.length(); ) {
+            int codePoint = str.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (codePoint < 0x80)
+                length += 1;
+            else if (codePoint < 0x800)
+                length += 2;
+            else if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT)
+                length += 3;
+            else
+                length += 4;
+        }
+        return length;
+    }
+
+}
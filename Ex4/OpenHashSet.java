@@ -1,12 +1,34 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A hash-set based on chaining.
+ * Its elements can be iterated and streamed, in parallel too, straight from its table.
  * @author Oren Motiei
  */
-public class OpenHashSet extends SimpleHashSet {
+public class OpenHashSet extends SimpleHashSet
+        implements IncrementalResizeSet, Iterable<String> {
 
     private LinkedListWrapper[] table = new LinkedListWrapper[INITIAL_CAPACITY];
+    private LinkedListWrapper[] oldTable = null; // the table being emptied by an incremental resize
+    private int migratedCells = 0; // the number of oldTable's cells that were already moved
+    private boolean incrementalResize = false;
 
     /*--------------------------=  Constructors  =--------------------------*/
 
@@ -30,24 +52,161 @@ public class OpenHashSet extends SimpleHashSet {
 
 
     /**
-     * Data constructor - builds the hash set by adding the elements one by one.
+     * Data constructor - builds the hash set by adding all of the elements at once (see addAll).
      * Duplicate values should be ignored. The new table has the default values of initial capacity (16),
      * upper load factor (0.75), and lower load factor (0.25).
      * @param data Values to add to the set.
      */
     public OpenHashSet(String[] data) {
         super();
-        for (String str: data)
-            this.add(str);
+        addAll(data);
     }
 
     /*--------------------------=  End of Constructors  =--------------------------*/
 
+    /**
+     * Loads a set from a snapshot written by writeSnapshot, with the hash function it was written with
+     * (see loadSnapshot(Path, StringHasher)).
+     * @param file The snapshot file.
+     * @return The loaded set.
+     * @throws IOException if the file couldn't be read, isn't a valid snapshot of an OpenHashSet, or is of
+     * a set hashed by a SipHasher.
+     */
+    public static OpenHashSet loadSnapshot(Path file) throws IOException {
+        return loadSnapshot(file, null);
+    }
+
+
+    /**
+     * Loads a set from a snapshot written by writeSnapshot. The file is memory-mapped, and every element
+     * is placed back in its bucket without hashing it. The set is rehashed only if it's loaded with
+     * another hash function than it was written with, e.g. a custom one, which couldn't be written and is
+     * replaced by the default one.
+     * @param file The snapshot file.
+     * @param hasher The hash function of the loaded set, or null for the one written in the snapshot. A
+     * set hashed by a SipHasher needs it, since the key isn't written; a SipHasher with the same key loads
+     * the set without rehashing it.
+     * @return The loaded set.
+     * @throws IOException if the file couldn't be read, isn't a valid snapshot of an OpenHashSet, or is of
+     * a set hashed by a SipHasher and no hasher was given.
+     */
+    public static OpenHashSet loadSnapshot(Path file, StringHasher hasher) throws IOException {
+        ByteBuffer buffer = HashSetSnapshot.map(file);
+        HashSetSnapshot header = HashSetSnapshot.read(buffer, HashSetSnapshot.OPEN_HASH_SET);
+        OpenHashSet set = new OpenHashSet(header.getUpperLoadFactor(), header.getLowerLoadFactor());
+        hasher = header.chooseHasher(hasher);
+        if (hasher != null)
+            set.setHasher(hasher);
+        set.table = new LinkedListWrapper[header.getCapacity()];
+        int size = 0;
+        try {
+            for (int i=0; i<set.table.length; i++) {
+                int chainSize = buffer.getInt();
+                if (chainSize == 0)
+                    continue;
+                set.table[i] = new LinkedListWrapper();
+                for (int j=0; j<chainSize; j++)
+                    set.table[i].add(header.readString(buffer, buffer.getInt()));
+                size += chainSize;
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("ERROR: The snapshot is corrupted.", e);
+        }
+        if (size != header.getSize())
+            throw new IOException("ERROR: The snapshot is corrupted.");
+        set.setSize(size);
+        if (!header.matches(set.getHasher()))
+            set.rehash();
+        return set;
+    }
+
+
+    /**
+     * Writes a snapshot of the set: its settings, and its table bucket by bucket, so that loadSnapshot
+     * restores the same layout. An incremental resize in progress is completed first.
+     * @param file The file to write the snapshot to.
+     * @throws IOException if the file couldn't be written, or an element has a surrogate without its pair,
+     * which can't be written as UTF-8.
+     */
+    public void writeSnapshot(Path file) throws IOException {
+        completeResize();
+        CharsetEncoder encoder = HashSetSnapshot.newEncoder();
+        try (DataOutputStream out =
+                     new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            new HashSetSnapshot(HashSetSnapshot.OPEN_HASH_SET, getHasher(), null, getUpperLoadFactor(),
+                    getLowerLoadFactor(), table.length, size()).write(out);
+            for (LinkedListWrapper bucket: table) {
+                if (bucket == null) {
+                    out.writeInt(0);
+                    continue;
+                }
+                out.writeInt(bucket.chain.size());
+                for (String str: bucket.chain) {
+                    byte[] bytes = HashSetSnapshot.encode(encoder, str);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+        }
+    }
+
+
     /*
-    A wrapper-class which wraps up a LinkedList<String>
+    A wrapper-class which wraps up a LinkedList<String>. Once the chain grows longer than TREEIFY_THRESHOLD,
+    it's replaced by a TreeSet<String> (a balanced tree ordered by compareTo), and once it shrinks below
+    UNTREEIFY_THRESHOLD it's turned back into a LinkedList<String>.
      */
     private static class LinkedListWrapper {
-        private final LinkedList<String> chain = new LinkedList<String>();
+
+        private static final int TREEIFY_THRESHOLD = 8;
+        private static final int UNTREEIFY_THRESHOLD = 6;
+
+        private Collection<String> chain = new LinkedList<String>();
+
+        /*
+         * Returns the number of elements a search of the bucket compares the value with, at most: the
+         * length of a list, or the height of a balanced tree, about log2 of its size. An empty bucket
+         * compares none.
+         */
+        private static int probes(LinkedListWrapper bucket) {
+            if (bucket == null)
+                return 0;
+            int size = bucket.chain.size();
+            return bucket.chain instanceof TreeSet ? Integer.SIZE - Integer.numberOfLeadingZeros(size) : size;
+        }
+
+        /*
+         * Adds the value to the chain, without checking whether it's already there.
+         */
+        private void add(String value) {
+            chain.add(value);
+            if (chain.size() > TREEIFY_THRESHOLD && chain instanceof LinkedList)
+                chain = new TreeSet<String>(chain);
+        }
+
+        /*
+         * Adds the value to the chain unless it's already there. A tree is searched only once, by its own
+         * add. Returns true iff the value was added.
+         */
+        private boolean addIfAbsent(String value) {
+            if (chain instanceof TreeSet)
+                return chain.add(value);
+            if (chain.contains(value))
+                return false;
+            add(value);
+            return true;
+        }
+
+        /*
+         * Removes the value from the chain. Returns true iff it was found.
+         */
+        private boolean remove(String value) {
+            if (!chain.remove(value))
+                return false;
+            if (chain.size() < UNTREEIFY_THRESHOLD && chain instanceof TreeSet)
+                chain = new LinkedList<String>(chain);
+            return true;
+        }
     }
 
 
@@ -61,23 +220,204 @@ public class OpenHashSet extends SimpleHashSet {
 
 
     /**
-     * Add a specified element to the set if it's not already in it.
+     * Performs the given action for every element of the set, in the order of the table.
+     * The set mustn't be changed by the action.
+     * @param action The action to perform.
+     */
+    @Override
+    public void forEach(Consumer<? super String> action) {
+        for (LinkedListWrapper[] target: new LinkedListWrapper[][] {table, oldTable}) {
+            if (target == null)
+                continue;
+            for (LinkedListWrapper bucket: target) {
+                if (bucket != null)
+                    bucket.chain.forEach(action);
+            }
+        }
+    }
+
+
+    /**
+     * Returns a fail-fast iterator over the elements, in the order of the table. An incremental resize in
+     * progress is completed first. Once the set is changed, the iterator throws a
+     * ConcurrentModificationException. The iterator can't remove elements.
+     * @return An iterator over the elements of the set.
+     */
+    @Override
+    public Iterator<String> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+
+    /**
+     * Returns a fail-fast spliterator over the elements, which splits by halving the range of the table's
+     * buckets it covers, so that the elements are streamed in parallel without being copied.
+     * An incremental resize in progress is completed first.
+     * @return A spliterator over the elements of the set.
+     */
+    @Override
+    public Spliterator<String> spliterator() {
+        completeResize();
+        return new TableSpliterator(this, 0, table.length, size(), true);
+    }
+
+
+    /**
+     * @return A sequential stream of the elements of the set.
+     */
+    public Stream<String> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+
+    /**
+     * @return A parallel stream of the elements of the set, split by ranges of the table.
+     */
+    public Stream<String> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+
+    /*
+    A spliterator over a range of the table's buckets. It's bound to the table when it's created, and checks
+    the modification count of the set before every element it passes on.
+     */
+    private static class TableSpliterator implements Spliterator<String> {
+
+        private final OpenHashSet set;
+        private final LinkedListWrapper[] table;
+        private final int expectedModCount;
+        private int index; // the next bucket to read
+        private int fence; // one past the last bucket to read
+        private int estimate; // the estimated number of elements left
+        private boolean sized; // whether the estimate is exact, before any split
+        private Iterator<String> chain = null; // the rest of the bucket being read
+
+        private TableSpliterator(OpenHashSet set, int index, int fence, int estimate, boolean sized) {
+            this.set = set;
+            this.table = set.table;
+            this.expectedModCount = set.modCount();
+            this.index = index;
+            this.fence = fence;
+            this.estimate = estimate;
+            this.sized = sized;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            while (chain != null || index < fence) {
+                if (chain == null) {
+                    LinkedListWrapper bucket = table[index++];
+                    if (bucket == null)
+                        continue;
+                    chain = bucket.chain.iterator();
+                }
+                checkForModification();
+                if (chain.hasNext()) {
+                    action.accept(chain.next());
+                    return true;
+                }
+                chain = null;
+            }
+            checkForModification();
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super String> action) {
+            while (tryAdvance(action)) {
+                // every call passes on a single element
+            }
+        }
+
+        @Override
+        public Spliterator<String> trySplit() {
+            int middle = (index + fence) >>> 1;
+            if (index >= middle)
+                return null;
+            estimate >>>= 1;
+            sized = false;
+            Spliterator<String> suffix = new TableSpliterator(set, middle, fence, estimate, false);
+            fence = middle;
+            return suffix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return (sized ? SIZED : 0) | DISTINCT | NONNULL;
+        }
+
+        /*
+         * Throws a ConcurrentModificationException if the set was changed since the spliterator was created.
+         */
+        private void checkForModification() {
+            if (set.modCount() != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+    }
+
+
+    /**
+     * Add a specified element to the set if it's not already in it. Its chain is searched only once
+     * (see addIfAbsent).
      * @param newValue New value to add to the set
      * @return False if newValue already exists in the set
      */
     @Override
     public boolean add(String newValue) {
-        if (contains(newValue))
-            return false;
-        int bucketIndex = clamp(newValue.hashCode());
-        if (table[bucketIndex] == null)
-            table[bucketIndex] = new LinkedListWrapper();
-        table[bucketIndex].chain.add(newValue);
+        return addIfAbsent(newValue) >= 0;
+    }
+
+
+    /**
+     * Add a specified element to the set if it's not already in it, and tells which bucket of the table
+     * holds it. The value's chain is searched once, and the value is added to it if it isn't found.
+     * While an incremental resize is in progress, the old table is searched first, and a value found there
+     * is moved into the table.
+     * @param newValue New value to add to the set
+     * @return The index of the bucket newValue was added to, or -(index + 1) if it was already in the set,
+     * in the bucket of that index. The index is valid until the set is changed.
+     */
+    @Override
+    public int addIfAbsent(String newValue) {
+        int hashCode = hash(newValue);
+        int bucketIndex = clamp(hashCode);
+        if (oldTable != null && moveFromOldTable(newValue, hashCode))
+            return -(bucketIndex + 1);
+        LinkedListWrapper bucket = table[bucketIndex];
+        recordProbes(LinkedListWrapper.probes(bucket));
+        if (bucket == null)
+            bucket = table[bucketIndex] = new LinkedListWrapper();
+        if (!bucket.addIfAbsent(newValue))
+            return -(bucketIndex + 1);
         setSize(size() + 1);
-        double loadFactor = (double)size() / table.length;
-        if (loadFactor > getUpperLoadFactor())
-            changeTableSize(GROWTH_CONSTANT);
-        return true;
+        countModification();
+        migrate(MIGRATION_STEP);
+        int capacity = capacityAfterAdd(table.length, size());
+        if (capacity != table.length) {
+            changeTableSize(capacity);
+            if (oldTable != null)
+                moveFromOldTable(newValue, hashCode);
+            bucketIndex = clamp(hashCode);
+        }
+        return bucketIndex;
+    }
+
+
+    /**
+     * Tells whether the bucket of a value in the table holds its chain in a tree rather than in a list,
+     * so the tests can follow the transitions between them.
+     * @param value A value.
+     * @return True iff the value's bucket is a tree.
+     */
+    boolean isTreeBucket(String value) {
+        LinkedListWrapper bucket = table[clamp(hash(value))];
+        return bucket != null && bucket.chain instanceof TreeSet;
     }
 
 
@@ -88,9 +428,15 @@ public class OpenHashSet extends SimpleHashSet {
      */
     @Override
     public boolean contains(String searchVal) {
-        int bucketIndex = clamp(searchVal.hashCode());
-        if (table[bucketIndex] != null)
-            return table[bucketIndex].chain.contains(searchVal);
+        int hashCode = hash(searchVal);
+        LinkedListWrapper bucket = table[clamp(hashCode)];
+        recordProbes(LinkedListWrapper.probes(bucket));
+        if (bucket != null && bucket.chain.contains(searchVal))
+            return true;
+        if (oldTable != null) {
+            bucket = oldTable[clamp(hashCode, oldTable.length)];
+            return bucket != null && bucket.chain.contains(searchVal);
+        }
         return false;
     }
 
@@ -102,38 +448,200 @@ public class OpenHashSet extends SimpleHashSet {
      */
     @Override
     public boolean delete(String toDelete) {
-        int bucketIndex = clamp(toDelete.hashCode());
-        if (table[bucketIndex] != null && table[bucketIndex].chain.remove(toDelete)) {
+        int hashCode = hash(toDelete);
+        if (remove(table, clamp(hashCode), toDelete) ||
+                (oldTable != null && remove(oldTable, clamp(hashCode, oldTable.length), toDelete))) {
             setSize(size() - 1);
-            if (table[bucketIndex].chain.size() == 0)
-                table[bucketIndex] = null;
-            double loadFactor = (double)size() / table.length;
-            if (loadFactor < getLowerLoadFactor())
-                changeTableSize(REDUCTION_CONSTANT);
+            countModification();
+            migrate(MIGRATION_STEP);
+            int capacity = capacityAfterDelete(table.length, size());
+            if (capacity != table.length)
+                changeTableSize(capacity);
             return true;
         }
         return false;
     }
 
 
+    /**
+     * Sets whether the table is resized incrementally (see IncrementalResizeSet). While a resize is in
+     * progress, the chains of the old table are moved MIGRATION_STEP buckets at a time.
+     * @param incrementalResize True to resize incrementally, false to move all of the elements at once.
+     */
+    @Override
+    public void setIncrementalResize(boolean incrementalResize) {
+        this.incrementalResize = incrementalResize;
+        if (!incrementalResize)
+            completeResize();
+    }
+
+
+    /**
+     * @return True iff the table is resized incrementally.
+     */
+    @Override
+    public boolean isIncrementalResize() {
+        return incrementalResize;
+    }
+
+
+    /**
+     * Moves all of the elements that are left in the old table of an incremental resize into the new table.
+     * Does nothing if no resize is in progress.
+     */
+    @Override
+    protected void completeResize() {
+        if (oldTable != null)
+            migrate(oldTable.length);
+    }
+
+
     /*
      * Increases or decreases the table size whenever the load factor surpasses the upperLoadFactor,
      * or goes below the lowerLoadFactor, respectively.
-     * @param num The number to be multiplied by the capacity of the table.
+     * When resizing incrementally, only allocates the new table, and the elements are moved by migrate.
+     * @param capacity The capacity of the new table.
+     */
+    private void changeTableSize(int capacity) {
+        long startTime = resizeStartTime();
+        int oldCapacity = table.length;
+        if (isIncrementalResize()) {
+            completeResize();
+            oldTable = table;
+            table = new LinkedListWrapper[capacity];
+            migratedCells = 0;
+        } else
+            rebuild(capacity);
+        recordResize(oldCapacity, table.length, startTime);
+    }
+
+
+    /**
+     * Moves every element to the cell given by the current hash function, keeping the same capacity.
      */
-    private void changeTableSize(float num) {
-        int capacity = (int)(table.length * num);
-        if (capacity < LOWEST_TABLE_CAPACITY)
-            capacity = LOWEST_TABLE_CAPACITY;
-        LinkedListWrapper[] oldTable = table;
+    @Override
+    protected void rehash() {
+        completeResize();
+        rebuild(table.length);
+    }
+
+
+    /**
+     * Moves all of the elements at once into a new table of the given capacity, completing any incremental
+     * resize first.
+     * @param capacity The capacity of the new table, a power of two.
+     */
+    @Override
+    protected void resize(int capacity) {
+        completeResize();
+        rebuild(capacity);
+    }
+
+
+    /**
+     * Adds the value to its bucket unless it's already there, without resizing the table or updating the
+     * size. Must not be called while an incremental resize is in progress.
+     * @param value The value to add.
+     * @return False if the value is already in the set.
+     */
+    @Override
+    protected boolean putIfAbsent(String value) {
+        int bucketIndex = clamp(hash(value));
+        recordProbes(LinkedListWrapper.probes(table[bucketIndex]));
+        if (table[bucketIndex] == null)
+            table[bucketIndex] = new LinkedListWrapper();
+        return table[bucketIndex].addIfAbsent(value);
+    }
+
+
+    /**
+     * Adds a value which isn't in the set to its bucket, given its hash code, without searching for it,
+     * resizing the table or updating the size. Values of different buckets may be placed concurrently.
+     * Used by ParallelHashSetBuilder, and must not be called while an incremental resize is in progress.
+     * @param value The value to add.
+     * @param hashCode The hash code of the value, by the hash function of the set.
+     */
+    protected void placeUnique(String value, int hashCode) {
+        int bucketIndex = clamp(hashCode);
+        if (table[bucketIndex] == null)
+            table[bucketIndex] = new LinkedListWrapper();
+        table[bucketIndex].add(value);
+    }
+
+
+    /*
+     * Moves all of the elements at once into a new table of the given capacity. The elements are known to
+     * be unique, so they are inserted without searching for them first.
+     */
+    private void rebuild(int capacity) {
+        countModification();
+        LinkedListWrapper[] previousTable = table;
         table = new LinkedListWrapper[capacity];
-        setSize(0);
-        for (LinkedListWrapper bucket: oldTable) {
+        for (LinkedListWrapper bucket: previousTable) {
             if (bucket != null) {
                 for (String str: bucket.chain)
-                    add(str);
+                    insert(table, str);
+            }
+        }
+    }
+
+
+    /*
+     * Moves the elements of the next cells of the old table into the new table.
+     * The elements are known to be unique, so they are inserted without searching for them first.
+     * @param cells The number of cells to move.
+     */
+    private void migrate(int cells) {
+        if (oldTable == null)
+            return;
+        countModification();
+        int end = Math.min(migratedCells + cells, oldTable.length);
+        for (; migratedCells < end; migratedCells++) {
+            if (oldTable[migratedCells] != null) {
+                for (String str: oldTable[migratedCells].chain)
+                    insert(table, str);
+                oldTable[migratedCells] = null;
             }
         }
+        if (migratedCells == oldTable.length)
+            oldTable = null;
+    }
+
+
+    /*
+     * Moves the value, with the given hash code, from the old table of an incremental resize into the
+     * table, ahead of the migration. Returns false if it isn't in the old table.
+     */
+    private boolean moveFromOldTable(String value, int hashCode) {
+        if (!remove(oldTable, clamp(hashCode, oldTable.length), value))
+            return false;
+        countModification();
+        insert(table, value);
+        return true;
+    }
+
+
+    /*
+     * Inserts the value into its bucket in the given table, without checking whether it's already there.
+     */
+    private void insert(LinkedListWrapper[] target, String value) {
+        int bucketIndex = clamp(hash(value), target.length);
+        if (target[bucketIndex] == null)
+            target[bucketIndex] = new LinkedListWrapper();
+        target[bucketIndex].add(value);
+    }
+
+
+    /*
+     * Removes the value from the given bucket of the given table, and drops the bucket once it's empty.
+     * Returns true iff the value was found.
+     */
+    private boolean remove(LinkedListWrapper[] target, int bucketIndex, String value) {
+        if (target[bucketIndex] == null || !target[bucketIndex].remove(value))
+            return false;
+        if (target[bucketIndex].chain.size() == 0)
+            target[bucketIndex] = null;
+        return true;
     }
 
 }
@@ -0,0 +1,301 @@
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Builds an OpenHashSet or a ClosedHashSet from a large array in parallel, on a ForkJoinPool.
+ * The values are hashed in parallel and partitioned by the top bits of their hash codes, so that equal
+ * values always fall in the same partition, and every partition drops its own duplicates. The table is
+ * then allocated once, with the capacity the set would have after adding the unique values one by one.
+ * An OpenHashSet is filled in parallel as well, after partitioning the unique values again by ranges of
+ * buckets, so that no two threads touch the same bucket. A ClosedHashSet is filled by a single thread,
+ * since a probing sequence may cross into any range of cells, but it still places the values without
+ * searching for them, as they are known to be unique.
+ * Either way, the built set holds the same values and has the same capacity as a set built by addAll.
+ * @author Oren Motiei
+ */
+public class ParallelHashSetBuilder {
+
+    /** Arrays shorter than this are added by the set's own addAll. */
+    public static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private static final int PARTITIONS_PER_THREAD = 4;
+    private static final int MAX_PROBES = 64; // the longest probing before switching to a HashSet
+
+    private final ForkJoinPool pool;
+    private final int partitions; // a power of two
+
+    /*--------------------------=  Constructors  =--------------------------*/
+
+    /**
+     * Constructs a builder which runs on the given pool.
+     * @param pool The pool to run the building tasks on.
+     */
+    public ParallelHashSetBuilder(ForkJoinPool pool) {
+        this.pool = pool;
+        int partitions = 2;
+        while (partitions < pool.getParallelism() * PARTITIONS_PER_THREAD)
+            partitions *= 2;
+        this.partitions = partitions;
+    }
+
+
+    /**
+     * A default constructor. Constructs a builder which runs on the common pool.
+     */
+    public ParallelHashSetBuilder() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /*--------------------------=  End of constructors  =--------------------------*/
+
+    /**
+     * Builds a new OpenHashSet, with the default load factors and hash function, from the given values.
+     * @param data Values to add to the set. Duplicate values are ignored.
+     * @return The new set.
+     */
+    public OpenHashSet buildOpenHashSet(String[] data) {
+        return build(new OpenHashSet(), data);
+    }
+
+
+    /**
+     * Builds a new ClosedHashSet, with the default load factors, hash function and probing sequence, from
+     * the given values.
+     * @param data Values to add to the set. Duplicate values are ignored.
+     * @return The new set.
+     */
+    public ClosedHashSet buildClosedHashSet(String[] data) {
+        return build(new ClosedHashSet(), data);
+    }
+
+
+    /**
+     * Adds the values to an empty OpenHashSet, keeping its load factors and hash function. A set which
+     * isn't empty, a short array or a pool of a single thread are handled by the set's addAll.
+     * @param set The set to add the values to.
+     * @param data Values to add to the set. Duplicate values are ignored.
+     * @return The given set.
+     */
+    public OpenHashSet build(OpenHashSet set, String[] data) {
+        if (!inParallel(set, data)) {
+            set.addAll(data);
+            return set;
+        }
+        Partitions unique = uniqueValues(set, data);
+        set.resize(set.grownCapacity(set.capacity(), unique.length()));
+        int capacityBits = Integer.numberOfTrailingZeros(set.capacity());
+        int rangeBits = Math.min(Integer.numberOfTrailingZeros(partitions), capacityBits);
+        int shift = capacityBits - rangeBits;
+        Partitions ranges = partition(unique, hashCode -> set.clamp(hashCode) >>> shift, 1 << rangeBits);
+        forEach(1 << rangeBits, range -> {
+            for (int i=ranges.starts[range]; i<ranges.ends[range]; i++)
+                set.placeUnique(ranges.values[i], ranges.hashCodes[i]);
+        });
+        set.setSize(unique.length());
+        return set;
+    }
+
+
+    /**
+     * Adds the values to an empty ClosedHashSet, keeping its load factors, hash function and probing
+     * sequence. A set which isn't empty, a short array or a pool of a single thread are handled by the
+     * set's addAll.
+     * @param set The set to add the values to.
+     * @param data Values to add to the set. Duplicate values are ignored.
+     * @return The given set.
+     */
+    public ClosedHashSet build(ClosedHashSet set, String[] data) {
+        if (!inParallel(set, data)) {
+            set.addAll(data);
+            return set;
+        }
+        Partitions unique = uniqueValues(set, data);
+        set.resize(set.grownCapacity(set.capacity(), unique.length()));
+        for (int part=0; part<partitions; part++) {
+            for (int i=unique.starts[part]; i<unique.ends[part]; i++)
+                set.placeUnique(unique.values[i], unique.hashCodes[i]);
+        }
+        set.setSize(unique.length());
+        return set;
+    }
+
+
+    /*
+     * Checks whether the values should be added in parallel.
+     */
+    private boolean inParallel(SimpleHashSet set, String[] data) {
+        return set.size() == 0 && data.length >= PARALLEL_THRESHOLD && pool.getParallelism() > 1;
+    }
+
+
+    /*
+     * Hashes the values by the hash function of the set, and drops the duplicates. Returns the unique
+     * values with their hash codes, partitioned by the top bits of the hash codes.
+     */
+    private Partitions uniqueValues(SimpleHashSet set, String[] data) {
+        int[] hashCodes = new int[data.length];
+        int[] starts = new int[partitions];
+        int[] ends = new int[partitions];
+        for (int chunk=0; chunk<partitions; chunk++) {
+            starts[chunk] = (int)((long)data.length * chunk / partitions);
+            ends[chunk] = (int)((long)data.length * (chunk + 1) / partitions);
+        }
+        forEach(partitions, chunk -> {
+            for (int i=starts[chunk]; i<ends[chunk]; i++)
+                hashCodes[i] = set.hash(data[i]);
+        });
+        int bits = Integer.numberOfTrailingZeros(partitions);
+        Partitions sorted = partition(new Partitions(data, hashCodes, starts, ends),
+                hashCode -> hashCode >>> (Integer.SIZE - bits), partitions);
+        forEach(partitions, part -> sorted.ends[part] =
+                removeDuplicates(sorted.values, sorted.hashCodes, sorted.starts[part], sorted.ends[part]));
+        return sorted;
+    }
+
+
+    /*
+     * Moves the first occurrence of every value of [start, end) to the beginning of the range, keeping the
+     * hash codes beside them, and returns the end of the unique values. The values are looked up in a
+     * linearly probed table of their indices, which compares the hash codes before equals. If too many
+     * values share a hash code for that, the rest are looked up in a java HashSet instead.
+     */
+    private static int removeDuplicates(String[] values, int[] hashCodes, int start, int end) {
+        int capacity = Integer.highestOneBit(Math.max(1, end - start)) * 4;
+        int[] indices = new int[capacity]; // the index of a unique value plus one, or 0 in an empty cell
+        HashSet<String> seen = null;
+        int next = start;
+        for (int i=start; i<end; i++) {
+            String value = values[i];
+            int hashCode = hashCodes[i];
+            boolean found = false;
+            if (seen == null) {
+                int cell = hashCode & (capacity - 1);
+                for (int probes=0; indices[cell] != 0 && !found; probes++) {
+                    int index = indices[cell] - 1;
+                    found = hashCodes[index] == hashCode && values[index].equals(value);
+                    cell = (cell + 1) & (capacity - 1);
+                    if (probes == MAX_PROBES) {
+                        seen = new HashSet<String>(Arrays.asList(values).subList(start, next));
+                        break;
+                    }
+                }
+                if (!found && seen == null)
+                    indices[cell] = next + 1;
+            }
+            if (seen != null)
+                found = !seen.add(value);
+            if (!found) {
+                values[next] = value;
+                hashCodes[next++] = hashCode;
+            }
+        }
+        return next;
+    }
+
+
+    /*
+     * Reorders the values with their hash codes by a parallel counting sort, in which every partition of
+     * the input is a chunk, so that the values of every new partition are contiguous. The new partition of
+     * a value is given by its hash code.
+     */
+    private Partitions partition(Partitions input, IntUnaryOperator partitionOf, int parts) {
+        int chunks = input.starts.length;
+        int[][] offsets = new int[chunks][parts];
+        forEach(chunks, chunk -> {
+            for (int i=input.starts[chunk]; i<input.ends[chunk]; i++)
+                offsets[chunk][partitionOf.applyAsInt(input.hashCodes[i])]++;
+        });
+        int[] starts = new int[parts];
+        int[] ends = new int[parts];
+        int offset = 0;
+        for (int part=0; part<parts; part++) { // turns the counts into the offsets every chunk writes at
+            starts[part] = offset;
+            for (int chunk=0; chunk<chunks; chunk++) {
+                int count = offsets[chunk][part];
+                offsets[chunk][part] = offset;
+                offset += count;
+            }
+            ends[part] = offset;
+        }
+        Partitions output = new Partitions(new String[offset], new int[offset], starts, ends);
+        forEach(chunks, chunk -> {
+            int[] next = offsets[chunk];
+            for (int i=input.starts[chunk]; i<input.ends[chunk]; i++) {
+                int index = next[partitionOf.applyAsInt(input.hashCodes[i])]++;
+                output.values[index] = input.values[i];
+                output.hashCodes[index] = input.hashCodes[i];
+            }
+        });
+        return output;
+    }
+
+
+    /*
+     * Runs the task for every index in [0, tasks) on the pool, and waits for all of them to finish.
+     */
+    private void forEach(int tasks, IntConsumer task) {
+        pool.invoke(new RangeAction(0, tasks, task));
+    }
+
+
+    /*
+    Values with their hash codes, split into partitions: partition p is [starts[p], ends[p]) of the arrays.
+     */
+    private static class Partitions {
+
+        private final String[] values;
+        private final int[] hashCodes;
+        private final int[] starts;
+        private final int[] ends;
+
+        private Partitions(String[] values, int[] hashCodes, int[] starts, int[] ends) {
+            this.values = values;
+            this.hashCodes = hashCodes;
+            this.starts = starts;
+            this.ends = ends;
+        }
+
+        /*
+         * Returns the number of values in all of the partitions.
+         */
+        private int length() {
+            int length = 0;
+            for (int part=0; part<starts.length; part++)
+                length += ends[part] - starts[part];
+            return length;
+        }
+    }
+
+
+    /*
+     * Runs a task for every index of a range, splitting the range in halves between the threads of the pool.
+     */
+    private static class RangeAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+        private final IntConsumer task;
+
+        private RangeAction(int from, int to, IntConsumer task) {
+            this.from = from;
+            this.to = to;
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                task.accept(from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeAction(from, middle, task), new RangeAction(middle, to, task));
+        }
+    }
+
+}
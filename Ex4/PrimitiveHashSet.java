@@ -0,0 +1,348 @@
+import java.util.function.IntToLongFunction;
+import java.util.function.LongConsumer;
+
+/**
+ * A superclass for hash-sets of primitive numbers based on closed-hashing with quadratic probing, like
+ * ClosedHashSet, which keep the values themselves in a table of their primitive type, so nothing is boxed,
+ * converted to a string or hashed as one. IntHashSet and LongHashSet extend it with an int and a long
+ * table: the values are passed to it widened to long, and the subclass reads, writes and hashes the cells
+ * of its table, so the probing, the resizing and the compaction are written once.
+ * It grows, shrinks and is compacted by the same policy as ClosedHashSet.
+ * Two values mark the free and the deleted cells of the table, so the set keeps those two values aside,
+ * in flags, rather than in the table.
+ * @param <T> The type of the table, an array of the primitive type.
+ * @author Oren Motiei
+ */
+public abstract class PrimitiveHashSet<T> extends AbstractHashSet {
+
+    /** The value of a free cell. */
+    protected static final long FREE = 0;
+
+    private static final int NOT_FOUND = -1;
+    private final long deleted; // the value of a deleted cell
+    private T table;
+    private boolean hasFree = false; // whether FREE is in the set
+    private boolean hasDeleted = false; // whether the deleted value is in the set
+    private int tombstones = 0; // the number of deleted cells in the table
+
+    /*--------------------------=  Constructors  =--------------------------*/
+
+    /**
+     * Constructs a new, empty set with the specified load factors.
+     * @param table The initial table, whose cells are all FREE.
+     * @param deleted The value which marks a deleted cell.
+     * @param upperLoadFactor The upper load factor of the hash table.
+     * @param lowerLoadFactor The lower load factor of the hash table.
+     */
+    protected PrimitiveHashSet(T table, long deleted, float upperLoadFactor, float lowerLoadFactor) {
+        super(upperLoadFactor, lowerLoadFactor);
+        this.table = table;
+        this.deleted = deleted;
+    }
+
+
+    /**
+     * Constructs a new, empty set with upper load factor (0.75) and lower load factor (0.25).
+     * @param table The initial table, whose cells are all FREE.
+     * @param deleted The value which marks a deleted cell.
+     */
+    protected PrimitiveHashSet(T table, long deleted) {
+        super();
+        this.table = table;
+        this.deleted = deleted;
+    }
+
+    /*--------------------------=  End of constructors  =--------------------------*/
+
+    /**
+     * @param capacity The capacity of the table.
+     * @return A new table of the given capacity, whose cells are all FREE.
+     */
+    protected abstract T newTable(int capacity);
+
+
+    /**
+     * @param table A table of the set.
+     * @return The capacity of the table.
+     */
+    protected abstract int length(T table);
+
+
+    /**
+     * @param table A table of the set.
+     * @param index The index of a cell of the table.
+     * @return The value in the cell, widened to long.
+     */
+    protected abstract long get(T table, int index);
+
+
+    /**
+     * Writes a value in a cell of a table.
+     * @param table A table of the set.
+     * @param index The index of a cell of the table.
+     * @param value The value, which fits the primitive type of the table.
+     */
+    protected abstract void set(T table, int index, long value);
+
+
+    /**
+     * @param value A value which fits the primitive type of the table.
+     * @return The hash code of the value, before clamping.
+     */
+    protected abstract int hash(long value);
+
+
+    /**
+     * @return The current capacity (number of cells) of the table.
+     */
+    @Override
+    public int capacity() {
+        return length(table);
+    }
+
+
+    /**
+     * @return The number of deleted cells in the table.
+     */
+    @Override
+    public int deletedCells() {
+        return tombstones;
+    }
+
+
+    /**
+     * Checks whether the table should grow. A full table always should, whatever the upper load factor,
+     * since it has no free cell left, so an add never finds the table full.
+     * @param size The number of elements in the table.
+     * @param capacity The capacity of the table.
+     * @return True iff the table should grow.
+     */
+    @Override
+    protected boolean isOverloaded(int size, int capacity) {
+        return size >= capacity || (double)size / capacity > getUpperLoadFactor();
+    }
+
+
+    /**
+     * Adds a value to the set if it's not already in it. A single probing looks for the value and finds
+     * the cell it's placed in.
+     * @param newValue The value to add, which fits the primitive type of the table.
+     * @return False if newValue already exists in the set
+     */
+    protected boolean addValue(long newValue) {
+        if (!putIfAbsent(newValue))
+            return false;
+        setSize(size() + 1);
+        int capacity = capacityAfterAdd(length(table), size());
+        if (capacity != length(table))
+            changeTableSize(capacity);
+        return true;
+    }
+
+
+    /**
+     * Looks for a value in the set.
+     * @param searchVal The value to search for, which fits the primitive type of the table.
+     * @return True if searchVal is found in the set
+     */
+    protected boolean containsValue(long searchVal) {
+        if (searchVal == FREE)
+            return hasFree;
+        if (searchVal == deleted)
+            return hasDeleted;
+        return findValue(searchVal) != NOT_FOUND;
+    }
+
+
+    /**
+     * Removes a value from the set.
+     * @param toDelete The value to delete, which fits the primitive type of the table.
+     * @return True if toDelete is found and deleted
+     */
+    protected boolean deleteValue(long toDelete) {
+        if (toDelete == FREE || toDelete == deleted) {
+            if (!containsValue(toDelete))
+                return false;
+            if (toDelete == FREE)
+                hasFree = false;
+            else
+                hasDeleted = false;
+        } else {
+            int bucketIndex = findValue(toDelete);
+            if (bucketIndex == NOT_FOUND)
+                return false;
+            set(table, bucketIndex, deleted);
+            tombstones++;
+        }
+        setSize(size() - 1);
+        int capacity = capacityAfterDelete(length(table), size());
+        if (capacity != length(table))
+            changeTableSize(capacity);
+        else if (tombstones > ClosedHashSet.DEFAULT_TOMBSTONE_FRACTION * length(table)) {
+            long startTime = resizeStartTime();
+            rebuild(length(table));
+            recordResize(length(table), length(table), startTime);
+        }
+        return true;
+    }
+
+
+    /**
+     * Adds several values to the set, skipping the ones which are already in it.
+     * Like SimpleHashSet.addAll, the table is resized only once before adding, and shrunk back afterwards
+     * if some of the values were duplicates.
+     * @param count The number of values.
+     * @param newValues Gives the value of every index from 0 to count - 1.
+     * @return The number of values that were added
+     */
+    protected int addValues(int count, IntToLongFunction newValues) {
+        int startCapacity = length(table);
+        int presized = grownCapacity(startCapacity, size() + count);
+        if (presized > startCapacity)
+            recordedResize(presized);
+        int added = 0;
+        for (int i=0; i<count; i++) {
+            if (putIfAbsent(newValues.applyAsLong(i)))
+                added++;
+        }
+        setSize(size() + added);
+        if (added > 0)
+            getResizePolicy().onAdd(this);
+        int fitted = grownCapacity(startCapacity, size());
+        if (fitted < length(table))
+            recordedResize(fitted);
+        return added;
+    }
+
+
+    /**
+     * Performs the given action for every element of the set. The set mustn't be changed by the action.
+     * @param action The action to perform, given every value widened to long.
+     */
+    protected void forEachValue(LongConsumer action) {
+        if (hasFree)
+            action.accept(FREE);
+        if (hasDeleted)
+            action.accept(deleted);
+        for (int i=0; i<length(table); i++) {
+            long value = get(table, i);
+            if (value != FREE && value != deleted)
+                action.accept(value);
+        }
+    }
+
+
+    /**
+     * Moves all of the elements at once into a new table of the given capacity.
+     * @param capacity The capacity of the new table, a power of two.
+     */
+    @Override
+    protected void resize(int capacity) {
+        rebuild(capacity);
+    }
+
+
+    /*
+     * Places the value in the set unless it's already there, without resizing the table or updating the
+     * size. A single probing looks for the value and remembers the first free or deleted cell on its way,
+     * where the value is placed if it isn't found. Returns false if the value is already in the set.
+     */
+    private boolean putIfAbsent(long value) {
+        if (value == FREE || value == deleted) {
+            if (containsValue(value))
+                return false;
+            if (value == FREE)
+                hasFree = true;
+            else
+                hasDeleted = true;
+            return true;
+        }
+        int hashCode = hash(value);
+        int capacity = length(table);
+        int freeIndex = NOT_FOUND;
+        for (int i=0; i<capacity; i++) {
+            int bucketIndex = clamp(hashCode + ProbingStrategy.QUADRATIC.offset(i), capacity);
+            long cell = get(table, bucketIndex);
+            if (cell == FREE) {
+                if (freeIndex == NOT_FOUND)
+                    freeIndex = bucketIndex;
+                break;
+            } else if (cell == deleted) {
+                if (freeIndex == NOT_FOUND)
+                    freeIndex = bucketIndex;
+            } else if (cell == value)
+                return false;
+        }
+        if (get(table, freeIndex) == deleted)
+            tombstones--;
+        set(table, freeIndex, value);
+        return true;
+    }
+
+
+    /*
+     * Increases or decreases the table size whenever the load factor surpasses the upperLoadFactor,
+     * or goes below the lowerLoadFactor, respectively.
+     * @param capacity: The capacity of the new table.
+     */
+    private void changeTableSize(int capacity) {
+        long startTime = resizeStartTime();
+        int oldCapacity = length(table);
+        rebuild(capacity);
+        recordResize(oldCapacity, length(table), startTime);
+    }
+
+
+    /*
+     * Moves all of the elements at once into a new table of the given capacity, which leaves no deleted
+     * cells behind. If the new table is loaded beyond the upper load factor, it grows further. Throws an
+     * IllegalStateException if the new table can't hold all of the elements.
+     */
+    private void rebuild(int capacity) {
+        T previousTable = table;
+        table = newTable(capacity);
+        tombstones = 0;
+        for (int j=0; j<length(previousTable); j++) {
+            long value = get(previousTable, j);
+            if (value == FREE || value == deleted)
+                continue;
+            int hashCode = hash(value);
+            int freeIndex = NOT_FOUND;
+            for (int i=0; i<capacity && freeIndex == NOT_FOUND; i++) {
+                int bucketIndex = clamp(hashCode + ProbingStrategy.QUADRATIC.offset(i), capacity);
+                if (get(table, bucketIndex) == FREE)
+                    freeIndex = bucketIndex;
+            }
+            if (freeIndex == NOT_FOUND)
+                throw new IllegalStateException("ERROR: The table is too small to hold the elements.");
+            set(table, freeIndex, value);
+        }
+        int grown = grownCapacity(length(table), size());
+        if (grown != length(table))
+            changeTableSize(grown);
+    }
+
+
+    /*
+     * Looks for the given value, which isn't FREE or deleted, in the table.
+     * Returns it's index if found, -1 otherwise.
+     */
+    private int findValue(long value) {
+        int hashCode = hash(value);
+        int capacity = length(table);
+        for (int i=0; i<capacity; i++) {
+            int bucketIndex = clamp(hashCode + ProbingStrategy.QUADRATIC.offset(i), capacity);
+            long cell = get(table, bucketIndex);
+            if (cell == FREE) {
+                recordProbes(i + 1);
+                return NOT_FOUND;
+            } else if (cell == value) {
+                recordProbes(i + 1);
+                return bucketIndex;
+            }
+        }
+        recordProbes(capacity);
+        return NOT_FOUND;
+    }
+
+}
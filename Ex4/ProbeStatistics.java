@@ -0,0 +1,77 @@
+/**
+ * Collects the probe lengths of the lookups in a hash set, i.e. the number of cells each lookup visited.
+ * @author Oren Motiei
+ */
+public class ProbeStatistics {
+
+    private long lookups = 0;
+    private long totalProbes = 0;
+    private long totalSquaredProbes = 0;
+    private int maxProbes = 0;
+
+    /**
+     * Records a single lookup.
+     * @param probes The number of cells the lookup visited.
+     */
+    public void record(int probes) {
+        lookups++;
+        totalProbes += probes;
+        totalSquaredProbes += (long)probes * probes;
+        if (probes > maxProbes)
+            maxProbes = probes;
+    }
+
+
+    /**
+     * Forgets all of the recorded lookups.
+     */
+    public void reset() {
+        lookups = 0;
+        totalProbes = 0;
+        totalSquaredProbes = 0;
+        maxProbes = 0;
+    }
+
+
+    /**
+     * @return The number of recorded lookups.
+     */
+    public long getLookups() {
+        return lookups;
+    }
+
+
+    /**
+     * @return The mean number of cells a lookup visited.
+     */
+    public double getMeanProbes() {
+        return lookups == 0 ? 0 : (double)totalProbes / lookups;
+    }
+
+
+    /**
+     * @return The variance of the number of cells a lookup visited.
+     */
+    public double getProbeVariance() {
+        if (lookups == 0)
+            return 0;
+        double mean = getMeanProbes();
+        return (double)totalSquaredProbes / lookups - mean * mean;
+    }
+
+
+    /**
+     * @return The largest number of cells a single lookup visited.
+     */
+    public int getMaxProbes() {
+        return maxProbes;
+    }
+
+
+    @Override
+    public String toString() {
+        return String.format("lookups=%d mean=%.3f variance=%.3f max=%d",
+                lookups, getMeanProbes(), getProbeVariance(), maxProbes);
+    }
+
+}
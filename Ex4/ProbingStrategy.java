@@ -0,0 +1,28 @@
+/**
+ * The probing sequences a ClosedHashSet can use to look for a cell.
+ * @author Oren Motiei
+ */
+public enum ProbingStrategy {
+
+    /** Triangular quadratic probing, visiting every cell of a table whose capacity is a power of two. */
+    QUADRATIC {
+        @Override
+        public int offset(int attempt) {
+            return (attempt + attempt * attempt) / 2;
+        }
+    },
+
+    /** Linear probing, visiting neighbouring cells, which usually share a cache line. */
+    LINEAR {
+        @Override
+        public int offset(int attempt) {
+            return attempt;
+        }
+    };
+
+    /**
+     * @param attempt The number of cells that were already probed.
+     * @return The offset from the hash code of the cell to probe next.
+     */
+    public abstract int offset(int attempt);
+}
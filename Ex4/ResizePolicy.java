@@ -0,0 +1,87 @@
+/**
+ * Decides the capacity of the table of a hash set after its elements were added or deleted. Every set
+ * asks its policy after each add and delete, and resizes its table iff the policy returns a capacity
+ * other than the current one. The sets start with DEFAULT, and setResizePolicy of AbstractHashSet
+ * replaces it, e.g. with a HysteresisResizePolicy.
+ * The capacities are computed without side effects, since the sets also ask for them when they presize
+ * or rebuild their table. A policy which keeps state updates it only in onAdd and onDelete, which the set
+ * calls once for every add and delete of an element.
+ * @author Oren Motiei
+ */
+public interface ResizePolicy {
+
+    /**
+     * The policy the sets always had: the table doubles while it's loaded beyond the upper load factor,
+     * and halves once a delete leaves it loaded below the lower one, unless the halved table would be
+     * loaded beyond the upper load factor (when the lower load factor is above half of the upper one).
+     */
+    ResizePolicy DEFAULT = new ResizePolicy() {
+        @Override
+        public int grownCapacity(AbstractHashSet set, int size, int capacity) {
+            while (capacity < AbstractHashSet.HIGHEST_TABLE_CAPACITY && set.isOverloaded(size, capacity))
+                capacity *= AbstractHashSet.GROWTH_CONSTANT;
+            return capacity;
+        }
+
+        @Override
+        public int shrunkCapacity(AbstractHashSet set, int size, int capacity) {
+            int shrunk = Math.max(AbstractHashSet.LOWEST_TABLE_CAPACITY,
+                    (int)(capacity * AbstractHashSet.REDUCTION_CONSTANT));
+            if ((double)size / capacity >= set.getLowerLoadFactor() || set.isOverloaded(size, shrunk))
+                return capacity;
+            return shrunk;
+        }
+    };
+
+
+    /**
+     * Computes the capacity a table needs after elements were added to it. It's also used to presize the
+     * table before adding many elements at once.
+     * @param set The set the table belongs to.
+     * @param size The number of elements in the table after adding.
+     * @param capacity The capacity of the table before adding.
+     * @return The capacity of the table after adding, or capacity to keep the table as it is.
+     */
+    int grownCapacity(AbstractHashSet set, int size, int capacity);
+
+
+    /**
+     * Computes the capacity a table should have after an element was deleted from it. A capacity at
+     * which the table would be overloaded (see AbstractHashSet.isOverloaded) is ignored.
+     * @param set The set the table belongs to.
+     * @param size The number of elements in the table after deleting.
+     * @param capacity The capacity of the table.
+     * @return The capacity of the table after deleting, or capacity to keep the table as it is.
+     */
+    int shrunkCapacity(AbstractHashSet set, int size, int capacity);
+
+
+    /**
+     * Called when the policy is set as the resize policy of a set. A policy which keeps the state of a
+     * single set throws if it's set on another one.
+     * @param set The set.
+     * @throws IllegalArgumentException if the policy can't be used by the set.
+     */
+    default void attach(AbstractHashSet set) {
+    }
+
+
+    /**
+     * Called once after elements were added to the set, before the set asks for grownCapacity.
+     * @param set The set the table belongs to.
+     */
+    default void onAdd(AbstractHashSet set) {
+    }
+
+
+    /**
+     * Called once after an element was deleted from the set, with the capacity shrunkCapacity returned.
+     * @param set The set the table belongs to.
+     * @param size The number of elements in the table after deleting.
+     * @param capacity The capacity of the table before deleting.
+     * @param newCapacity The capacity of the table after deleting.
+     */
+    default void onDelete(AbstractHashSet set, int size, int capacity, int newCapacity) {
+    }
+
+}
@@ -0,0 +1,316 @@
+import java.util.function.Consumer;
+
+/**
+ * A hash-set based on closed-hashing with Robin Hood linear probing.
+ * An element that was displaced further from its home cell takes the cell of an element that was displaced
+ * less, which keeps the probe lengths short and even. Deleting shifts the following elements one cell
+ * back instead of leaving a deleted marker, so the table never fills up with tombstones.
+ * The table is always resized at once.
+ * @author Oren Motiei
+ */
+public class RobinHoodHashSet extends SimpleHashSet {
+
+    private static final int NOT_FOUND = -1;
+    private String[] table = new String[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY]; // the hash code of every value in the table
+
+    /*--------------------------=  Constructors  =--------------------------*/
+
+    /**
+     * Constructs a new, empty table with the specified load factors, and the default initial capacity (16).
+     * @param upperLoadFactor The upper load factor of the hash table.
+     * @param lowerLoadFactor The lower load factor of the hash table.
+     */
+    public RobinHoodHashSet(float upperLoadFactor, float lowerLoadFactor) {
+        super(upperLoadFactor, lowerLoadFactor);
+    }
+
+
+    /**
+     * A default constructor. Constructs a new, empty table with default initial capacity (16),
+     * upper load factor (0.75) and lower load factor (0.25).
+     */
+    public RobinHoodHashSet() {
+        super();
+    }
+
+
+    /**
+     * Data constructor - builds the hash set by adding all of the elements at once (see addAll).
+     * Duplicate values should be ignored. The new table has the default values of initial capacity (16),
+     * upper load factor (0.75), and lower load factor (0.25).
+     * @param data Values to add to the set.
+     */
+    public RobinHoodHashSet(String[] data) {
+        super();
+        addAll(data);
+    }
+
+    /*--------------------------=  End of constructors  =--------------------------*/
+
+    /**
+     * @return The current capacity (number of cells) of the table.
+     */
+    @Override
+    public int capacity() {
+        return table.length;
+    }
+
+
+    /**
+     * Performs the given action for every element of the set, in the order of the table.
+     * The set mustn't be changed by the action.
+     * @param action The action to perform.
+     */
+    @Override
+    public void forEach(Consumer<? super String> action) {
+        for (String str: table) {
+            if (str != null)
+                action.accept(str);
+        }
+    }
+
+
+    /**
+     * Add a specified element to the set if it's not already in it.
+     * @param newValue New value to add to the set
+     * @return False if newValue already exists in the set
+     */
+    @Override
+    public boolean add(String newValue) {
+        return addIfAbsent(newValue) >= 0;
+    }
+
+
+    /**
+     * Add a specified element to the set if it's not already in it, and tells which cell of the table holds
+     * it. The probing which looks for the value stops where the value would have been, and the value is
+     * placed in that cell. If the table grows, the value is found again in the new table, which isn't
+     * counted as a lookup.
+     * @param newValue New value to add to the set
+     * @return The index of the cell newValue was placed in, or -(index + 1) if it was already in the set,
+     * in the cell of that index. The index is valid until the set is changed.
+     * @throws IllegalStateException if the table is full, which happens only at HIGHEST_TABLE_CAPACITY.
+     */
+    @Override
+    public int addIfAbsent(String newValue) {
+        if (size() == table.length)
+            throw new IllegalStateException("ERROR: The table is full.");
+        int hashCode = hash(newValue);
+        int bucketIndex = place(newValue, hashCode);
+        if (bucketIndex < 0)
+            return bucketIndex;
+        setSize(size() + 1);
+        int capacity = capacityAfterAdd(table.length, size());
+        if (capacity != table.length) {
+            changeTableSize(capacity);
+            bucketIndex = findValue(newValue, hashCode, false);
+        }
+        return bucketIndex;
+    }
+
+
+    /**
+     * Checks whether the table should grow. A full table always should, whatever the upper load factor,
+     * since it has no free cell left, so an add never finds the table full.
+     * @param size The number of elements in the table.
+     * @param capacity The capacity of the table.
+     * @return True iff the table should grow.
+     */
+    @Override
+    protected boolean isOverloaded(int size, int capacity) {
+        return size >= capacity || (double)size / capacity > getUpperLoadFactor();
+    }
+
+
+    /**
+     * Look for a specified value in the set.
+     * @param searchVal Value to search for
+     * @return True if searchVal is found in the set
+     */
+    @Override
+    public boolean contains(String searchVal) {
+        return findValue(searchVal, hash(searchVal), true) != NOT_FOUND;
+    }
+
+
+    /**
+     * Remove the input element from the set.
+     * @param toDelete Value to delete
+     * @return True if toDelete is found and deleted
+     */
+    @Override
+    public boolean delete(String toDelete) {
+        int bucketIndex = findValue(toDelete, hash(toDelete), true);
+        if (bucketIndex == NOT_FOUND)
+            return false;
+        int next = clamp(bucketIndex + 1);
+        while (table[next] != null && distance(next) > 0) { // shift the following elements back
+            table[bucketIndex] = table[next];
+            hashes[bucketIndex] = hashes[next];
+            bucketIndex = next;
+            next = clamp(next + 1);
+        }
+        table[bucketIndex] = null;
+        setSize(size() - 1);
+        int capacity = capacityAfterDelete(table.length, size());
+        if (capacity != table.length)
+            changeTableSize(capacity);
+        return true;
+    }
+
+
+    /**
+     * Moves every element to the cell given by the current hash function, keeping the same capacity.
+     */
+    @Override
+    protected void rehash() {
+        rebuild(table.length, true);
+    }
+
+
+    /**
+     * Moves all of the elements at once into a new table of the given capacity.
+     * @param capacity The capacity of the new table, a power of two.
+     */
+    @Override
+    protected void resize(int capacity) {
+        rebuild(capacity, false);
+    }
+
+
+    /**
+     * Places the value in the table unless it's already there, without resizing the table or updating the
+     * size. The probing which looks for the value stops where the value would have been, and the insertion
+     * continues from that cell.
+     * @param value The value to add.
+     * @return False if the value is already in the set.
+     */
+    @Override
+    protected boolean putIfAbsent(String value) {
+        return place(value, hash(value)) >= 0;
+    }
+
+
+    /*
+     * Increases or decreases the table size whenever the load factor surpasses the upperLoadFactor,
+     * or goes below the lowerLoadFactor, respectively.
+     * @param capacity: The capacity of the new table.
+     */
+    private void changeTableSize(int capacity) {
+        long startTime = resizeStartTime();
+        int oldCapacity = table.length;
+        rebuild(capacity, false);
+        recordResize(oldCapacity, table.length, startTime);
+    }
+
+
+    /*
+     * Moves all of the elements into a new table of the given capacity. The cached hash codes are reused,
+     * unless they must be recomputed by the hash function.
+     * If the new table is loaded beyond the upper load factor, it grows further. Throws an
+     * IllegalStateException if the new table can't hold all of the elements.
+     */
+    private void rebuild(int capacity, boolean recomputeHashes) {
+        String[] previousTable = table;
+        int[] previousHashes = hashes;
+        table = new String[capacity];
+        hashes = new int[capacity];
+        for (int i=0; i<previousTable.length; i++) {
+            if (previousTable[i] != null) {
+                int hashCode = recomputeHashes ? hash(previousTable[i]) : previousHashes[i];
+                insert(previousTable[i], hashCode, clamp(hashCode), 0);
+            }
+        }
+        int grown = grownCapacity(table.length, size());
+        if (grown != table.length)
+            changeTableSize(grown);
+    }
+
+
+    /*
+     * Places the value in the table unless it's already there. The probing which looks for the value stops
+     * where the value would have been, and the insertion continues from that cell, which the value takes.
+     * Returns the index of that cell, or -(index + 1) if the value is already in the cell of that index.
+     */
+    private int place(String value, int hashCode) {
+        int bucketIndex = clamp(hashCode);
+        int distance = 0;
+        while (table[bucketIndex] != null && distance(bucketIndex) >= distance) {
+            if (hashes[bucketIndex] == hashCode && table[bucketIndex].equals(value)) {
+                recordProbes(distance + 1);
+                return -(bucketIndex + 1);
+            }
+            bucketIndex = clamp(bucketIndex + 1);
+            distance++;
+        }
+        recordProbes(distance + 1);
+        insert(value, hashCode, bucketIndex, distance);
+        return bucketIndex;
+    }
+
+
+    /*
+     * Places the value in the table, without checking whether it's already there, probing from the given
+     * cell which is the given distance from its home cell. Whenever the value is further from its home cell
+     * than the element in the probed cell, they switch places, and the displaced element continues the
+     * probing. The table must have a free cell, which the probing reaches within a round of the table.
+     * Throws an IllegalStateException if it has none.
+     */
+    private void insert(String value, int hashCode, int bucketIndex, int distance) {
+        for (int probed=0; table[bucketIndex] != null; probed++) {
+            if (probed == table.length)
+                throw new IllegalStateException("ERROR: The table is too small to hold the elements.");
+            int residentDistance = distance(bucketIndex);
+            if (residentDistance < distance) {
+                String resident = table[bucketIndex];
+                int residentHash = hashes[bucketIndex];
+                table[bucketIndex] = value;
+                hashes[bucketIndex] = hashCode;
+                value = resident;
+                hashCode = residentHash;
+                distance = residentDistance;
+            }
+            bucketIndex = clamp(bucketIndex + 1);
+            distance++;
+        }
+        table[bucketIndex] = value;
+        hashes[bucketIndex] = hashCode;
+    }
+
+
+    /*
+     * Looks for the given value in the table. The probing stops as soon as it reaches an element which is
+     * closer to its home cell than the value would be, since the value would have taken that cell.
+     * Returns it's index if found, -1 otherwise. The probe length is recorded only if the search is a
+     * lookup of its own.
+     */
+    private int findValue(String str, int hashCode, boolean recorded) {
+        int bucketIndex = clamp(hashCode);
+        for (int distance=0; distance<table.length; distance++) {
+            if (table[bucketIndex] == null || distance(bucketIndex) < distance) {
+                if (recorded)
+                    recordProbes(distance + 1);
+                return NOT_FOUND;
+            }
+            if (hashes[bucketIndex] == hashCode && table[bucketIndex].equals(str)) {
+                if (recorded)
+                    recordProbes(distance + 1);
+                return bucketIndex;
+            }
+            bucketIndex = clamp(bucketIndex + 1);
+        }
+        if (recorded)
+            recordProbes(table.length);
+        return NOT_FOUND;
+    }
+
+
+    /*
+     * Returns how far the element in the given cell is from its home cell.
+     */
+    private int distance(int bucketIndex) {
+        return clamp(bucketIndex - clamp(hashes[bucketIndex]));
+    }
+
+}
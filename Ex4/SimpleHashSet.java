@@ -2,29 +2,14 @@
  * A superclass for implementations of hash-sets implementing the SimpleSet interface.
  * @author Oren Motiei
  */
-public abstract class SimpleHashSet implements SimpleSet {
+public abstract class SimpleHashSet extends AbstractHashSet
+        implements TraversableSimpleSet, IndexedSimpleSet {
 
-    /** Describes the capacity of a newly created hash set. */
-    protected static final int INITIAL_CAPACITY = 16;
+    /** The hash function of a newly created hash set. */
+    protected static final StringHasher DEFAULT_HASHER = new MurmurMixHasher();
 
-    /** Describes the lower load factor of a newly created hash set. */
-    protected static final float DEFAULT_LOWER_CAPACITY = 0.25f;
-
-    /** Describes the higher load factor of a newly created hash set. */
-    protected static final float DEFAULT_HIGHER_CAPACITY = 0.75f;
-
-    /** Defines the lowest capacity a table can get */
-    protected static final int LOWEST_TABLE_CAPACITY = 1;
-
-    /** Defines how many times the table size will grow */
-    protected static final float GROWTH_CONSTANT = 2f;
-
-    /** Defines how many times the table size will decrease */
-    protected static final float REDUCTION_CONSTANT = 0.5f;
-
-    private int numOfElements = 0; // current number of elements in the table
-    private float lowerLoadFactor;
-    private float upperLoadFactor;
+    private StringHasher hasher = DEFAULT_HASHER;
+    private int modCount = 0; // the number of structural modifications, checked by fail-fast iterators
 
 
     /**
@@ -33,8 +18,7 @@ public abstract class SimpleHashSet implements SimpleSet {
      * @param lowerLoadFactor lowerLoadFactor - the lower load factor before rehashing
      */
     protected SimpleHashSet(float upperLoadFactor, float lowerLoadFactor) {
-        this.lowerLoadFactor = lowerLoadFactor;
-        this.upperLoadFactor = upperLoadFactor;
+        super(upperLoadFactor, lowerLoadFactor);
     }
 
     /**
@@ -42,44 +26,92 @@ public abstract class SimpleHashSet implements SimpleSet {
      * DEFAULT_LOWER_CAPACITY and DEFAULT_HIGHER_CAPACITY.
      */
     protected SimpleHashSet() {
-        this.lowerLoadFactor = DEFAULT_LOWER_CAPACITY;
-        this.upperLoadFactor = DEFAULT_HIGHER_CAPACITY;
+        super();
+    }
+
+
+    /**
+     * Replaces the hash function of the set. If the set isn't empty, all of its elements are rehashed.
+     * @param hasher The new hash function, e.g. a SipHasher to resist adversarial inputs.
+     */
+    public void setHasher(StringHasher hasher) {
+        this.hasher = hasher;
+        if (size() > 0)
+            rehash();
     }
 
 
     /**
-     * @return The current capacity (number of cells) of the table.
+     * @return The hash function of the set.
      */
-    public abstract int capacity();
+    public StringHasher getHasher() {
+        return hasher;
+    }
+
+
+    /**
+     * @return The number of times the elements were added, deleted or moved within the table, so that an
+     * iterator notices the set was changed since it was created.
+     */
+    protected int modCount() {
+        return modCount;
+    }
 
 
     /**
-     * @return The lower load factor of the table.
+     * Counts a structural modification of the set: an element was added or deleted, or the elements were
+     * moved within the table.
      */
-    protected float getLowerLoadFactor() {
-        return lowerLoadFactor;
+    protected void countModification() {
+        modCount++;
     }
 
 
     /**
-     * @return The higher load factor of the table.
+     * Hashes a value with the hash function of the set.
+     * @param value The value to hash.
+     * @return The hash code of the value, before clamping.
      */
-    protected float getUpperLoadFactor() {
-        return upperLoadFactor;
+    protected int hash(String value) {
+        return hasher.hash(value);
     }
 
 
     /**
-     * Clamps hashing indices to fit within the current table capacity
-     * (see the exercise description for details)
-     * @param index the index before clamping.
-     * @return an index properly clamped.
+     * Moves every element to the cell given by the current hash function, keeping the same capacity.
+     */
+    protected abstract void rehash();
+
+
+    /**
+     * Moves all of the elements that are left in the old table of an incremental resize into the new table.
+     * Does nothing if no resize is in progress, or the set is never resized incrementally (see
+     * IncrementalResizeSet).
      */
-    protected int clamp(int index) {
-        return index & (this.capacity() - 1);
+    protected void completeResize() {
     }
 
 
+    /**
+     * Moves all of the elements at once into a new table of the given capacity, completing any incremental
+     * resize first. The table must be large enough to hold them.
+     * @param capacity The capacity of the new table, a power of two.
+     */
+    @Override
+    protected abstract void resize(int capacity);
+
+
+    /**
+     * Places the value in the table unless it's already there, probing the table only once: the probing
+     * which looks for the value also finds the cell it's placed in. Neither resizes the table nor updates
+     * the size, and must not be called while an incremental resize is in progress.
+     * The table must have room for the value.
+     * @param value The value to add.
+     * @return False if the value is already in the set.
+     */
+    protected abstract boolean putIfAbsent(String value);
+
+
     /**
      * Add a specified element to the set if it's not already in it.
      * @param newValue New value to add to the set
@@ -89,6 +121,17 @@ public abstract class SimpleHashSet implements SimpleSet {
     public abstract boolean add(String newValue);
 
 
+    /**
+     * Add a specified element to the set if it's not already in it, and tells which cell or bucket of the
+     * table holds it. The set is searched once, and the value is placed where the search ended.
+     * @param newValue New value to add to the set
+     * @return The index of the cell or bucket newValue was placed in, or -(index + 1) if it was already in
+     * the set, in the cell or bucket of that index. The index is valid until the set is changed.
+     */
+    @Override
+    public abstract int addIfAbsent(String newValue);
+
+
     /**
      * Look for a specified value in the set.
      * @param searchVal Value to search for
@@ -108,20 +151,44 @@ public abstract class SimpleHashSet implements SimpleSet {
 
 
     /**
-     * @return The number of elements currently in the set
+     * Add the specified elements to the set, skipping the ones which are already in it.
+     * The table is resized only once before adding, to a capacity that holds all of the values, and each
+     * value is placed by a single probing. Afterwards, if some of the values were duplicates, the table is
+     * shrunk back, so it ends up with the same capacity as if the values were added one by one.
+     * @param newValues New values to add to the set
+     * @return The number of values that were added
      */
     @Override
-    public int size() {
-        return numOfElements;
+    public int addAll(String[] newValues) {
+        int startCapacity = capacity();
+        int presized = grownCapacity(startCapacity, size() + newValues.length);
+        if (presized > startCapacity)
+            recordedResize(presized);
+        else
+            completeResize();
+        int added = 0;
+        for (String newValue: newValues) {
+            if (putIfAbsent(newValue))
+                added++;
+        }
+        setSize(size() + added);
+        if (added > 0) {
+            countModification();
+            getResizePolicy().onAdd(this);
+        }
+        int fitted = grownCapacity(startCapacity, size());
+        if (fitted < capacity())
+            recordedResize(fitted);
+        return added;
     }
 
 
     /**
-     * Updates the number of elements currently in the set.
-     * @param size The updated number of elements.
+     * @return The number of elements currently in the set
      */
-    protected void setSize(int size) {
-        numOfElements = size;
+    @Override
+    public int size() {
+        return super.size();
     }
 
 }
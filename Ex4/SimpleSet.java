@@ -1,3 +1,5 @@
+import java.util.BitSet;
+
 
 public interface SimpleSet {
 	/**
@@ -22,4 +24,55 @@ public interface SimpleSet {
 	 * @return The number of elements currently in the set
 	 */
 	public int size();
+	/**
+	 * Add the specified elements to the set, skipping the ones which are already in it.
+	 * @param newValues New values to add to the set
+	 * @return The number of values that were added
+	 */
+	default int addAll(String[] newValues) {
+		int added = 0;
+		for (String newValue: newValues) {
+			if (add(newValue))
+				added++;
+		}
+		return added;
+	}
+	/**
+	 * Look for all of the specified values in the set.
+	 * @param searchVals Values to search for
+	 * @return True iff every one of searchVals is found in the set
+	 */
+	default boolean containsAll(String[] searchVals) {
+		for (String searchVal: searchVals) {
+			if (!contains(searchVal))
+				return false;
+		}
+		return true;
+	}
+	/**
+	 * Look for each of the specified values in the set.
+	 * @param searchVals Values to search for
+	 * @return The indices of the values of searchVals which are found in the set
+	 */
+	default BitSet containsEach(String[] searchVals) {
+		BitSet hits = new BitSet(searchVals.length);
+		for (int i=0; i<searchVals.length; i++) {
+			if (contains(searchVals[i]))
+				hits.set(i);
+		}
+		return hits;
+	}
+	/**
+	 * Remove the specified elements from the set.
+	 * @param toDelete Values to delete
+	 * @return The number of values that were found and deleted
+	 */
+	default int removeAll(String[] toDelete) {
+		int deleted = 0;
+		for (String value: toDelete) {
+			if (delete(value))
+				deleted++;
+		}
+		return deleted;
+	}
 }
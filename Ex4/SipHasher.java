@@ -0,0 +1,124 @@
+import java.security.SecureRandom;
+
+/**
+ * Hashes the characters of a string with SipHash-2-4, keyed by a secret 128-bit key. SipHash is a keyed
+ * pseudorandom function, so without the key strings can't be crafted to collide, and a set using a
+ * randomly keyed hasher resists adversarial inputs (hash flooding). Every character is hashed as its two
+ * bytes, little-endian, and the 64-bit result is folded into 32 bits.
+ * @author Oren Motiei
+ */
+public class SipHasher implements StringHasher {
+
+    private static final long V0 = 0x736f6d6570736575L;
+    private static final long V1 = 0x646f72616e646f6dL;
+    private static final long V2 = 0x6c7967656e657261L;
+    private static final long V3 = 0x7465646279746573L;
+    private static final long FINALIZATION = 0xff;
+    private static final int COMPRESSION_ROUNDS = 2;
+    private static final int FINALIZATION_ROUNDS = 4;
+    private static final int CHARS_PER_WORD = 4;
+    private static final int CHAR_BITS = 16;
+    private static final int LENGTH_SHIFT = 56;
+    private static final int BYTES_PER_CHAR = 2;
+    private static final String FINGERPRINT_INPUT = "SipHasher key fingerprint";
+
+    private final long key0;
+    private final long key1;
+
+    /**
+     * Constructs a hasher with the given key.
+     * @param key0 The first (low) 64 bits of the key.
+     * @param key1 The second (high) 64 bits of the key.
+     */
+    public SipHasher(long key0, long key1) {
+        this.key0 = key0;
+        this.key1 = key1;
+    }
+
+
+    /**
+     * Constructs a hasher with a random key.
+     */
+    public SipHasher() {
+        this(new SecureRandom().nextLong(), new SecureRandom().nextLong());
+    }
+
+
+    /**
+     * @return The first (low) 64 bits of the key.
+     */
+    public long getKey0() {
+        return key0;
+    }
+
+
+    /**
+     * @return The second (high) 64 bits of the key.
+     */
+    public long getKey1() {
+        return key1;
+    }
+
+
+    /**
+     * @return A fingerprint of the key: the 64-bit hash of a fixed string under it. It tells two keys
+     * apart without revealing either of them, since SipHash is a pseudorandom function.
+     */
+    public long fingerprint() {
+        return hash64(FINGERPRINT_INPUT);
+    }
+
+
+    /**
+     * @param value The string to hash.
+     * @return The keyed hash code of the string's characters.
+     */
+    @Override
+    public int hash(String value) {
+        long hash = hash64(value);
+        return (int)(hash ^ (hash >>> 32));
+    }
+
+
+    /**
+     * @param value The string to hash.
+     * @return The 64-bit SipHash-2-4 of the string's characters.
+     */
+    public long hash64(String value) {
+        long v0 = key0 ^ V0;
+        long v1 = key1 ^ V1;
+        long v2 = key0 ^ V2;
+        long v3 = key1 ^ V3;
+        int length = value.length();
+        int lastWord = length - length % CHARS_PER_WORD;
+        for (int i=0; i<=lastWord; i+=CHARS_PER_WORD) {
+            long word;
+            if (i < lastWord) { // four characters make a 64 bit word
+                word = value.charAt(i) | (long)value.charAt(i + 1) << CHAR_BITS
+                        | (long)value.charAt(i + 2) << 2 * CHAR_BITS
+                        | (long)value.charAt(i + 3) << 3 * CHAR_BITS;
+            } else { // the last word holds the characters left over, and the length in bytes
+                word = (long)(length * BYTES_PER_CHAR) << LENGTH_SHIFT;
+                for (int j=i; j<length; j++)
+                    word |= (long)value.charAt(j) << (j - i) * CHAR_BITS;
+            }
+            v3 ^= word;
+            for (int round=0; round<COMPRESSION_ROUNDS; round++) {
+                v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+                v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+                v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+                v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+            }
+            v0 ^= word;
+        }
+        v2 ^= FINALIZATION;
+        for (int round=0; round<FINALIZATION_ROUNDS; round++) {
+            v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+            v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+            v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+            v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+        }
+        return v0 ^ v1 ^ v2 ^ v3;
+    }
+
+}
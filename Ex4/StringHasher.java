@@ -0,0 +1,25 @@
+/**
+ * A hash function for the strings of a SimpleHashSet.
+ * The hash codes it returns are clamped by the set to fit within its table, so they should be spread
+ * across all of their bits.
+ * It's also the hashing strategy of strings in a generic hash-set, comparing them by String.equals.
+ * @author Oren Motiei
+ */
+public interface StringHasher extends HashingStrategy<String> {
+    /**
+     * @param value The string to hash.
+     * @return The hash code of the string.
+     */
+    @Override
+    int hash(String value);
+
+    /**
+     * @param first A string of the set.
+     * @param second A string to compare it to.
+     * @return True iff the strings are equal.
+     */
+    @Override
+    default boolean equals(String first, String second) {
+        return first.equals(second);
+    }
+}
@@ -0,0 +1,158 @@
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+
+public class TestBloomFilteredSet {
+
+    private static final int ELEMENTS = 10000;
+    private static final int LOOKUPS = 100000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static String[] data1;
+    private BloomFilteredSet bloomOpenHashSet;
+    private BloomFilteredSet bloomClosedHashSet;
+
+
+    /**
+     * Loads the data set once for all of the tests.
+     */
+    @BeforeClass
+    public static void loadDataBeforeClass() {
+        data1 = Ex4Utils.file2array("Ex4/data1.txt");
+    }
+
+
+    /**
+     * Creates objects before each test runs.
+     */
+    @Before
+    public void createObjectsBefore() {
+        bloomOpenHashSet = new BloomFilteredSet(new OpenHashSet(), FALSE_POSITIVE_RATE);
+        bloomClosedHashSet = new BloomFilteredSet(new ClosedHashSet(), FALSE_POSITIVE_RATE);
+    }
+
+
+    @Test
+    public void testAgainstHashSet() {
+        Random random = new Random(4);
+        for (BloomFilteredSet set: new BloomFilteredSet[] {bloomOpenHashSet, bloomClosedHashSet}) {
+            HashSet<String> expected = new HashSet<>();
+            for (int i=0; i<ELEMENTS; i++) {
+                String value = Integer.toString(random.nextInt(ELEMENTS / 4));
+                switch (random.nextInt(3)) {
+                    case 0:
+                        assertEquals(expected.add(value), set.add(value));
+                        break;
+                    case 1:
+                        assertEquals(expected.remove(value), set.delete(value));
+                        break;
+                    default:
+                        assertEquals(expected.contains(value), set.contains(value));
+                }
+                assertEquals(expected.size(), set.size());
+            }
+            for (String value: expected)
+                assertTrue(set.contains(value));
+        }
+    }
+
+
+    @Test
+    public void testFalsePositiveRate() {
+        BlockedBloomFilter filter = new BlockedBloomFilter(ELEMENTS, FALSE_POSITIVE_RATE);
+        for (int i=0; i<ELEMENTS; i++)
+            filter.add("in" + i);
+        for (int i=0; i<ELEMENTS; i++)
+            assertTrue(filter.mightContain("in" + i));
+        int falsePositives = 0;
+        for (int i=0; i<LOOKUPS; i++)
+            if (filter.mightContain("out" + i))
+                falsePositives++;
+        assertTrue(falsePositives < LOOKUPS * FALSE_POSITIVE_RATE * 2);
+    }
+
+
+    @Test
+    public void testCollidingMisses() {
+        // all of the words of data1 share a hash code with the missing word, but not its characters
+        for (BloomFilteredSet set: new BloomFilteredSet[] {bloomOpenHashSet, bloomClosedHashSet}) {
+            set.addAll(data1);
+            for (String word: data1)
+                assertTrue(set.contains(word));
+            assertFalse(set.contains("-13170890158"));
+        }
+    }
+
+
+    @Test
+    public void testRebuildsOnResize() {
+        for (BloomFilteredSet set: new BloomFilteredSet[] {bloomOpenHashSet, bloomClosedHashSet}) {
+            assertEquals(1, set.getRebuilds());
+            int capacity = set.getSet().capacity();
+            for (int i=0; set.getSet().capacity() == capacity; i++)
+                set.add(Integer.toString(i));
+            assertEquals(2, set.getRebuilds());
+            capacity = set.getSet().capacity();
+            for (int i=0; set.getSet().capacity() == capacity; i++)
+                set.delete(Integer.toString(i));
+            assertEquals(3, set.getRebuilds());
+            for (int i=0; i<2 * capacity; i++)
+                assertEquals(set.getSet().contains(Integer.toString(i)), set.contains(Integer.toString(i)));
+        }
+    }
+
+
+    @Test
+    public void testChurn() {
+        // deleted values stay in the filter, until enough values are added that it's rebuilt
+        for (int i=0; i<ELEMENTS; i++)
+            bloomClosedHashSet.add("in" + i);
+        for (int round=1; round<=10; round++)
+            for (int i=0; i<ELEMENTS; i++) {
+                bloomClosedHashSet.delete("in" + (i + (round - 1) * ELEMENTS));
+                bloomClosedHashSet.add("in" + (i + round * ELEMENTS));
+            }
+        assertEquals(ELEMENTS, bloomClosedHashSet.size());
+        int falsePositives = 0;
+        for (int i=0; i<LOOKUPS; i++)
+            if (bloomClosedHashSet.contains("in" + i))
+                falsePositives++;
+        assertTrue(falsePositives < LOOKUPS * FALSE_POSITIVE_RATE * 2);
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidFalsePositiveRate() {
+        new BloomFilteredSet(new OpenHashSet(), 1);
+    }
+
+
+    @Test
+    public void testForEach() {
+        for (SimpleHashSet set: new SimpleHashSet[] {new OpenHashSet(), new ClosedHashSet(),
+                new FlatOpenHashSet(), new RobinHoodHashSet()}) {
+            if (set instanceof OpenHashSet)
+                ((OpenHashSet)set).setIncrementalResize(true);
+            if (set instanceof ClosedHashSet)
+                ((ClosedHashSet)set).setIncrementalResize(true);
+            HashSet<String> expected = new HashSet<>();
+            for (int i=0; i<100; i++) {
+                set.add(Integer.toString(i));
+                expected.add(Integer.toString(i));
+                if (i % 3 == 0) {
+                    set.delete(Integer.toString(i / 2));
+                    expected.remove(Integer.toString(i / 2));
+                }
+                List<String> values = new ArrayList<>();
+                set.forEach(values::add);
+                assertEquals(expected.size(), values.size());
+                assertEquals(expected, new HashSet<>(values));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,147 @@
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Random;
+
+
+public class TestBulkOperations {
+
+    private static final int RANDOM_WORDS = 5000;
+    private static String[] data2;
+    private static String[] randomWords; // many of them are duplicates
+    private SimpleHashSet[] sets;
+
+
+    /**
+     * Reads the data once before all the tests are run.
+     */
+    @BeforeClass
+    public static void createObjectsBeforeClass() {
+        data2 = Ex4Utils.file2array("Ex4/data2.txt");
+        Random random = new Random(1);
+        randomWords = new String[RANDOM_WORDS];
+        for (int i=0; i<RANDOM_WORDS; i++)
+            randomWords[i] = Integer.toString(random.nextInt(RANDOM_WORDS / 4));
+    }
+
+
+    /**
+     * Creates objects before each test runs.
+     */
+    @Before
+    public void createObjectsBefore() {
+        sets = new SimpleHashSet[] {new OpenHashSet(), new ClosedHashSet(), new FlatOpenHashSet(),
+                new RobinHoodHashSet(), new OpenHashSet(1, 0.1f), new ClosedHashSet(1, 0.1f)};
+    }
+
+
+    @Test
+    public void testAddAllMatchesAddingOneByOne() {
+        SimpleHashSet[] oneByOne = {new OpenHashSet(), new ClosedHashSet(), new FlatOpenHashSet(),
+                new RobinHoodHashSet(), new OpenHashSet(1, 0.1f), new ClosedHashSet(1, 0.1f)};
+        for (int i=0; i<sets.length; i++) {
+            int added = 0;
+            for (String word: randomWords) {
+                if (oneByOne[i].add(word))
+                    added++;
+            }
+            assertEquals(added, sets[i].addAll(randomWords));
+            assertEquals(oneByOne[i].size(), sets[i].size());
+            assertEquals(oneByOne[i].capacity(), sets[i].capacity());
+            assertEquals(0, sets[i].addAll(randomWords));
+            assertEquals(oneByOne[i].capacity(), sets[i].capacity());
+        }
+    }
+
+
+    @Test
+    public void testDataConstructors() {
+        String[] duplicates = {"a", "b", "a", "c", "b", "a"};
+        assertEquals(3, new OpenHashSet(duplicates).size());
+        assertEquals(16, new ClosedHashSet(duplicates).capacity());
+        OpenHashSet openHashSet = new OpenHashSet(data2);
+        ClosedHashSet closedHashSet = new ClosedHashSet(data2);
+        HashSet<String> expected = new HashSet<>();
+        for (String word: data2)
+            expected.add(word);
+        assertEquals(expected.size(), openHashSet.size());
+        assertEquals(expected.size(), closedHashSet.size());
+        assertTrue(openHashSet.containsAll(data2));
+        assertTrue(closedHashSet.containsAll(data2));
+        assertFalse(closedHashSet.contains("hi"));
+    }
+
+
+    @Test
+    public void testAddAllToFilledSet() {
+        for (SimpleHashSet set: sets) {
+            for (int i=0; i<100; i++)
+                set.add("word" + i);
+            for (int i=0; i<50; i++)
+                set.delete("word" + i);
+            assertEquals(distinctRandomWords().length, set.addAll(randomWords));
+            for (String word: randomWords)
+                assertTrue(set.contains(word));
+            for (int i=0; i<100; i++)
+                assertEquals(i >= 50, set.contains("word" + i));
+        }
+    }
+
+
+    @Test
+    public void testAddAllDuringIncrementalResize() {
+        OpenHashSet openHashSet = new OpenHashSet();
+        ClosedHashSet closedHashSet = new ClosedHashSet();
+        for (IncrementalResizeSet set: new IncrementalResizeSet[] {openHashSet, closedHashSet}) {
+            set.setIncrementalResize(true);
+            for (int i=0; i<13; i++)
+                set.add(Integer.toString(i));
+            HashSet<String> expected = new HashSet<>();
+            for (int i=0; i<13; i++)
+                expected.add(Integer.toString(i));
+            int added = 0;
+            for (String word: randomWords) {
+                if (expected.add(word))
+                    added++;
+            }
+            assertEquals(added, set.addAll(randomWords));
+            assertEquals(expected.size(), set.size());
+            for (String word: expected)
+                assertTrue(set.contains(word));
+        }
+    }
+
+
+    @Test
+    public void testContainsEachAndRemoveAll() {
+        String[] words = {"Lord", "vader", "luke", "Lord", "leia"};
+        for (SimpleSet set: new SimpleSet[] {sets[0], sets[1], sets[2], sets[3],
+                new CollectionFacadeSet(new HashSet<String>()), new ConcurrentClosedHashSet()}) {
+            assertEquals(2, set.addAll(new String[] {"Lord", "leia"}));
+            BitSet expected = new BitSet();
+            expected.set(0);
+            expected.set(3);
+            expected.set(4);
+            assertEquals(expected, set.containsEach(words));
+            assertFalse(set.containsAll(words));
+            assertTrue(set.containsAll(new String[] {"leia", "Lord"}));
+            assertEquals(2, set.removeAll(words));
+            assertEquals(0, set.size());
+            assertTrue(set.containsEach(words).isEmpty());
+        }
+    }
+
+
+    /*
+     * Returns the distinct random words.
+     */
+    private static String[] distinctRandomWords() {
+        HashSet<String> distinct = new HashSet<>();
+        for (String word: randomWords)
+            distinct.add(word);
+        return distinct.toArray(new String[0]);
+    }
+
+}
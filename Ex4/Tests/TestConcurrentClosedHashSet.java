@@ -0,0 +1,180 @@
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class TestConcurrentClosedHashSet {
+
+    private static final int THREADS = 8;
+    private static final int WORDS_PER_THREAD = 20000;
+    private static final int STABLE_WORDS = 1000;
+    private ConcurrentClosedHashSet concurrentSet;
+
+
+    /**
+     * Creates objects before each test runs.
+     */
+    @Before
+    public void createObjectsBefore() {
+        concurrentSet = new ConcurrentClosedHashSet();
+    }
+
+
+    @Test
+    public void testSingleThread() {
+        assertTrue(concurrentSet.add("Lord vader"));
+        assertFalse(concurrentSet.add("Lord vader"));
+        assertTrue(concurrentSet.contains("Lord vader"));
+        assertTrue(concurrentSet.add(""));
+        assertTrue(concurrentSet.contains(""));
+        assertEquals(2, concurrentSet.size());
+        assertTrue(concurrentSet.delete("Lord vader"));
+        assertFalse(concurrentSet.delete("Lord vader"));
+        assertFalse(concurrentSet.contains("Lord vader"));
+        assertEquals(1, concurrentSet.size());
+    }
+
+
+    @Test
+    public void testCapacity() {
+        for (int i=0; i<13; i++)
+            concurrentSet.add(Integer.toString(i));
+        assertEquals(32, concurrentSet.capacity());
+        for (int i=0; i<6; i++)
+            concurrentSet.delete(Integer.toString(i));
+        assertEquals(16, concurrentSet.capacity());
+    }
+
+
+    @Test
+    public void testShrinkKeepsEveryElement() {
+        // a lower load factor above half of the upper one would overload the halved table
+        ConcurrentClosedHashSet set = new ConcurrentClosedHashSet(0.9f, 0.6f, new MurmurMixHasher());
+        for (int i=0; i<14; i++)
+            assertTrue(set.add(Integer.toString(i)));
+        for (int i=0; i<14; i++) {
+            assertTrue(set.delete(Integer.toString(i)));
+            assertTrue(set.size() < set.capacity());
+            for (int j=i+1; j<14; j++)
+                assertTrue(set.contains(Integer.toString(j)));
+        }
+        assertEquals(0, set.size());
+    }
+
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(1);
+        HashSet<String> expected = new HashSet<>();
+        for (int i=0; i<WORDS_PER_THREAD; i++) {
+            String str = Integer.toString(random.nextInt(WORDS_PER_THREAD / 4));
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.add(str), concurrentSet.add(str));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(str), concurrentSet.delete(str));
+                    break;
+                default:
+                    assertEquals(expected.contains(str), concurrentSet.contains(str));
+            }
+            assertEquals(expected.size(), concurrentSet.size());
+        }
+    }
+
+
+    @Test
+    public void testConcurrentDuplicateAdds() throws InterruptedException {
+        AtomicInteger added = new AtomicInteger();
+        runThreads(thread -> {
+            for (int i=0; i<WORDS_PER_THREAD; i++) {
+                if (concurrentSet.add(Integer.toString(i)))
+                    added.incrementAndGet();
+            }
+        });
+        assertEquals(WORDS_PER_THREAD, added.get());
+        assertEquals(WORDS_PER_THREAD, concurrentSet.size());
+    }
+
+
+    @Test
+    public void testConcurrentAddsAndDeletes() throws InterruptedException {
+        runThreads(thread -> {
+            for (int i=0; i<WORDS_PER_THREAD; i++) {
+                String word = thread + "-" + i;
+                assertTrue(concurrentSet.add(word));
+                if (i % 2 == 0)
+                    assertTrue(concurrentSet.delete(word));
+            }
+        });
+        assertEquals(THREADS * WORDS_PER_THREAD / 2, concurrentSet.size());
+        for (int thread=0; thread<THREADS; thread++) {
+            for (int i=0; i<WORDS_PER_THREAD; i++)
+                assertEquals(i % 2 == 1, concurrentSet.contains(thread + "-" + i));
+        }
+    }
+
+
+    @Test
+    public void testReadersDuringResizes() throws InterruptedException {
+        for (int i=0; i<STABLE_WORDS; i++)
+            concurrentSet.add("stable-" + i);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        runThreads(thread -> {
+            if (thread == 0) { // grows and shrinks the table over and over
+                for (int round=0; round<10; round++) {
+                    for (int i=0; i<WORDS_PER_THREAD; i++)
+                        concurrentSet.add("churn-" + i);
+                    for (int i=0; i<WORDS_PER_THREAD; i++)
+                        concurrentSet.delete("churn-" + i);
+                }
+                writing.set(false);
+                return;
+            }
+            while (writing.get()) {
+                for (int i=0; i<STABLE_WORDS; i++)
+                    assertTrue(concurrentSet.contains("stable-" + i));
+                assertFalse(concurrentSet.contains("missing"));
+            }
+        });
+        assertEquals(STABLE_WORDS, concurrentSet.size());
+    }
+
+
+    /*
+     * A task run by each of the threads.
+     */
+    private interface ThreadTask {
+        void run(int thread);
+    }
+
+
+    /*
+     * Runs the task in THREADS threads and fails if any of them failed.
+     */
+    private void runThreads(ThreadTask task) throws InterruptedException {
+        ArrayList<Thread> threads = new ArrayList<Thread>();
+        ArrayList<Throwable> failures = new ArrayList<Throwable>();
+        for (int i=0; i<THREADS; i++) {
+            int thread = i;
+            Thread worker = new Thread(() -> task.run(thread));
+            worker.setUncaughtExceptionHandler((t, e) -> {
+                synchronized (failures) {
+                    failures.add(e);
+                }
+            });
+            threads.add(worker);
+        }
+        for (Thread worker: threads)
+            worker.start();
+        for (Thread worker: threads)
+            worker.join();
+        assertTrue(failures.toString(), failures.isEmpty());
+    }
+
+}
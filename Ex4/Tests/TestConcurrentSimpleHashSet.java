@@ -0,0 +1,116 @@
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class TestConcurrentSimpleHashSet {
+
+    private static final int THREADS = 8;
+    private static final int WORDS_PER_THREAD = 20000;
+    private ConcurrentSimpleHashSet concurrentSet;
+
+
+    /**
+     * Creates objects before each test runs.
+     */
+    @Before
+    public void createObjectsBefore() {
+        concurrentSet = new ConcurrentSimpleHashSet();
+    }
+
+
+    @Test
+    public void testSingleThread() {
+        assertTrue(concurrentSet.add("Lord vader"));
+        assertFalse(concurrentSet.add("Lord vader"));
+        assertTrue(concurrentSet.contains("Lord vader"));
+        assertTrue(concurrentSet.add(""));
+        assertEquals(2, concurrentSet.size());
+        assertTrue(concurrentSet.delete("Lord vader"));
+        assertFalse(concurrentSet.delete("Lord vader"));
+        assertFalse(concurrentSet.contains("Lord vader"));
+        assertEquals(1, concurrentSet.size());
+    }
+
+
+    @Test
+    public void testConcurrentDistinctAdds() throws InterruptedException {
+        runThreads(thread -> {
+            for (int i=0; i<WORDS_PER_THREAD; i++)
+                assertTrue(concurrentSet.add(thread + "-" + i));
+        });
+        assertEquals(THREADS * WORDS_PER_THREAD, concurrentSet.size());
+        assertTrue(concurrentSet.capacity() >= THREADS * WORDS_PER_THREAD / 0.75);
+        for (int thread=0; thread<THREADS; thread++) {
+            for (int i=0; i<WORDS_PER_THREAD; i++)
+                assertTrue(concurrentSet.contains(thread + "-" + i));
+        }
+    }
+
+
+    @Test
+    public void testConcurrentDuplicateAdds() throws InterruptedException {
+        AtomicInteger added = new AtomicInteger();
+        runThreads(thread -> {
+            for (int i=0; i<WORDS_PER_THREAD; i++) {
+                if (concurrentSet.add(Integer.toString(i)))
+                    added.incrementAndGet();
+            }
+        });
+        assertEquals(WORDS_PER_THREAD, added.get());
+        assertEquals(WORDS_PER_THREAD, concurrentSet.size());
+    }
+
+
+    @Test
+    public void testConcurrentAddsAndDeletes() throws InterruptedException {
+        runThreads(thread -> {
+            for (int i=0; i<WORDS_PER_THREAD; i++) {
+                String word = thread + "-" + i;
+                assertTrue(concurrentSet.add(word));
+                if (i % 2 == 0)
+                    assertTrue(concurrentSet.delete(word));
+            }
+        });
+        assertEquals(THREADS * WORDS_PER_THREAD / 2, concurrentSet.size());
+        for (int thread=0; thread<THREADS; thread++) {
+            for (int i=0; i<WORDS_PER_THREAD; i++)
+                assertEquals(i % 2 == 1, concurrentSet.contains(thread + "-" + i));
+        }
+    }
+
+
+    /*
+     * A task run by each of the threads.
+     */
+    private interface ThreadTask {
+        void run(int thread);
+    }
+
+
+    /*
+     * Runs the task in THREADS threads and fails if any of them failed.
+     */
+    private void runThreads(ThreadTask task) throws InterruptedException {
+        ArrayList<Thread> threads = new ArrayList<Thread>();
+        ArrayList<Throwable> failures = new ArrayList<Throwable>();
+        for (int i=0; i<THREADS; i++) {
+            int thread = i;
+            Thread worker = new Thread(() -> task.run(thread));
+            worker.setUncaughtExceptionHandler((t, e) -> {
+                synchronized (failures) {
+                    failures.add(e);
+                }
+            });
+            threads.add(worker);
+        }
+        for (Thread worker: threads)
+            worker.start();
+        for (Thread worker: threads)
+            worker.join();
+        assertTrue(failures.toString(), failures.isEmpty());
+    }
+
+}
@@ -0,0 +1,128 @@
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Random;
+
+
+public class TestCuckooHashSet {
+
+    private static String[] data1;
+    private CuckooHashSet cuckooSet;
+
+
+    /**
+     * Loads the data set once for all of the tests.
+     */
+    @BeforeClass
+    public static void loadDataBeforeClass() {
+        data1 = Ex4Utils.file2array("Ex4/data1.txt");
+    }
+
+
+    /**
+     * Creates objects before each test runs.
+     */
+    @Before
+    public void createObjectsBefore() {
+        cuckooSet = new CuckooHashSet();
+    }
+
+
+    @Test
+    public void testRandomOperations() {
+        randomOperations(cuckooSet);
+        randomOperations(new CuckooHashSet(1f, 0f));
+        randomOperations(new CuckooHashSet(0.5f, 0.5f));
+        randomOperations(new CuckooHashSet(0.95f, 0.1f));
+    }
+
+
+    @Test
+    public void testCapacity() {
+        for (int i=0; i<12; i++)
+            cuckooSet.add(Integer.toString(i));
+        assertEquals(16, cuckooSet.capacity());
+        cuckooSet.add("12");
+        assertEquals(32, cuckooSet.capacity());
+        for (int i=0; i<6; i++)
+            cuckooSet.delete(Integer.toString(i));
+        assertEquals(16, cuckooSet.capacity());
+        for (int i=6; i<13; i++)
+            cuckooSet.delete(Integer.toString(i));
+        assertEquals(0, cuckooSet.size());
+        assertEquals(4, cuckooSet.capacity()); // a single bucket
+    }
+
+
+    @Test
+    public void testSharedHashCodesOverflowToStash() {
+        // many words of data1 share a hash code, and so both of their buckets
+        assertEquals(data1.length, cuckooSet.addAll(data1));
+        assertTrue(cuckooSet.stashSize() > 0);
+        ProbeStatistics statistics = new ProbeStatistics();
+        cuckooSet.setProbeStatistics(statistics);
+        for (String str: data1)
+            assertTrue(cuckooSet.contains(str));
+        assertFalse(cuckooSet.contains("-13170890158"));
+        assertTrue(statistics.getMaxProbes() <= 3);
+        for (String str: data1)
+            assertTrue(cuckooSet.delete(str));
+        assertEquals(0, cuckooSet.size());
+        assertEquals(0, cuckooSet.stashSize());
+        // with a hash over the characters, the words spread over the buckets
+        CuckooHashSet seededSet = new CuckooHashSet(data1);
+        seededSet.setHasher(new SeededMurmurHasher(3));
+        assertEquals(0, seededSet.stashSize());
+        for (String str: data1)
+            assertTrue(seededSet.contains(str));
+    }
+
+
+    @Test
+    public void testFullTable() {
+        // with an upper load factor of 1, the table only grows once the evictions fail
+        CuckooHashSet fullSet = new CuckooHashSet(1f, 0f);
+        HashSetMetrics metrics = new HashSetMetrics(fullSet);
+        for (int i=0; i<10000; i++)
+            assertTrue(fullSet.add(Integer.toString(i)));
+        assertTrue(fullSet.capacity() <= 16384);
+        assertTrue(metrics.getResizes() > 0);
+        for (int i=0; i<10000; i++)
+            assertTrue(fullSet.contains(Integer.toString(i)));
+        assertEquals(10000, fullSet.size());
+    }
+
+
+    @Test
+    public void testForEach() {
+        cuckooSet.addAll(data1);
+        HashSet<String> seen = new HashSet<>();
+        cuckooSet.forEach(str -> assertTrue(seen.add(str)));
+        assertEquals(data1.length, seen.size());
+    }
+
+
+    /*
+     * Runs random operations on the set and on java's HashSet, and compares the results.
+     */
+    private void randomOperations(SimpleHashSet set) {
+        Random random = new Random(3);
+        HashSet<String> expected = new HashSet<>();
+        for (int i=0; i<20000; i++) {
+            String str = Integer.toString(random.nextInt(3000));
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.add(str), set.add(str));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(str), set.delete(str));
+                    break;
+                default:
+                    assertEquals(expected.contains(str), set.contains(str));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Random;
+
+
+public class TestFlatOpenHashSet {
+
+    private FlatOpenHashSet flatSet;
+
+
+    /**
+     * Creates objects before each test runs.
+     */
+    @Before
+    public void createObjectsBefore() {
+        flatSet = new FlatOpenHashSet();
+    }
+
+
+    @Test
+    public void testCapacity() {
+        assertEquals(16, flatSet.capacity());
+        for (int i=0; i<12; i++)
+            flatSet.add(Integer.toString(i));
+        assertEquals(16, flatSet.capacity());
+        flatSet.add("12");
+        assertEquals(32, flatSet.capacity());
+        for (int i=0; i<6; i++)
+            flatSet.delete(Integer.toString(i));
+        assertEquals(16, flatSet.capacity());
+        for (int i=6; i<13; i++)
+            assertTrue(flatSet.contains(Integer.toString(i)));
+    }
+
+
+    @Test
+    public void testDataConstructor() {
+        flatSet = new FlatOpenHashSet(new String[]{"a", "b", "a", "c", ""});
+        assertEquals(4, flatSet.size());
+        assertTrue(flatSet.contains(""));
+        assertFalse(flatSet.contains("d"));
+    }
+
+
+    @Test
+    public void testReusesDeletedEntries() {
+        for (int round=0; round<10; round++) {
+            for (int i=0; i<100; i++)
+                assertTrue(flatSet.add(Integer.toString(i)));
+            for (int i=0; i<100; i++)
+                assertTrue(flatSet.delete(Integer.toString(i)));
+            assertEquals(0, flatSet.size());
+        }
+    }
+
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(2);
+        HashSet<String> expected = new HashSet<>();
+        for (int i=0; i<20000; i++) {
+            String str = Integer.toString(random.nextInt(3000));
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.add(str), flatSet.add(str));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(str), flatSet.delete(str));
+                    break;
+                default:
+                    assertEquals(expected.contains(str), flatSet.contains(str));
+            }
+            assertEquals(expected.size(), flatSet.size());
+        }
+        flatSet.setHasher(new SeededMurmurHasher(9));
+        for (int i=0; i<3000; i++)
+            assertEquals(expected.contains(Integer.toString(i)), flatSet.contains(Integer.toString(i)));
+    }
+
+}
@@ -0,0 +1,179 @@
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+
+public class TestFrozenStringSet {
+
+    private static final int ELEMENTS = 50000;
+    private static String[] data1, data2;
+
+
+    /**
+     * Loads the data sets once for all of the tests.
+     */
+    @BeforeClass
+    public static void loadDataBeforeClass() {
+        data1 = Ex4Utils.file2array("Ex4/data1.txt");
+        data2 = Ex4Utils.file2array("Ex4/data2.txt");
+    }
+
+
+    @Test
+    public void testFreezeEverySet() {
+        OffHeapStringSet offHeapStringSet = new OffHeapStringSet();
+        TraversableSimpleSet[] sets = {new OpenHashSet(), new ClosedHashSet(), new FlatOpenHashSet(),
+                new RobinHoodHashSet(), new ConcurrentSimpleHashSet(), new ConcurrentClosedHashSet(),
+                offHeapStringSet, new BloomFilteredSet(new OpenHashSet()),
+                new CollectionFacadeSet(new TreeSet<>())};
+        for (TraversableSimpleSet set: sets) {
+            set.addAll(data2);
+            for (int i=0; i<data2.length; i+=3)
+                set.delete(data2[i]);
+            FrozenStringSet frozen = FrozenStringSet.of(set);
+            assertEquals(set.size(), frozen.size());
+            for (int i=0; i<data2.length; i++)
+                assertEquals(i % 3 != 0, frozen.contains(data2[i]));
+            assertFalse(frozen.contains("hi"));
+        }
+        offHeapStringSet.close();
+    }
+
+
+    @Test
+    public void testCollidingWords() {
+        // all of the words of data1 share a hash code, but the frozen set hashes their characters
+        ClosedHashSet closedHashSet = new ClosedHashSet();
+        closedHashSet.addAll(data1);
+        FrozenStringSet frozen = FrozenStringSet.of(closedHashSet);
+        assertTrue(frozen.containsAll(data1));
+        assertFalse(frozen.contains("-13170890158"));
+    }
+
+
+    @Test
+    public void testAgainstHashSet() {
+        Random random = new Random(4);
+        HashSet<String> expected = new HashSet<>();
+        OpenHashSet openHashSet = new OpenHashSet();
+        while (expected.size() < ELEMENTS) {
+            String value = Long.toString(random.nextLong(), Character.MAX_RADIX);
+            expected.add(value);
+            openHashSet.add(value);
+        }
+        FrozenStringSet frozen = FrozenStringSet.of(openHashSet);
+        for (String value: expected)
+            assertTrue(frozen.contains(value));
+        for (int i=0; i<ELEMENTS; i++) {
+            String value = Long.toString(random.nextLong(), Character.MAX_RADIX);
+            assertEquals(expected.contains(value), frozen.contains(value));
+        }
+        List<String> values = new ArrayList<>();
+        frozen.forEach(values::add);
+        assertEquals(expected.size(), values.size());
+        assertEquals(expected, new HashSet<>(values));
+    }
+
+
+    @Test
+    public void testSmallSets() {
+        ClosedHashSet closedHashSet = new ClosedHashSet();
+        FrozenStringSet empty = FrozenStringSet.of(closedHashSet);
+        assertEquals(0, empty.size());
+        assertFalse(empty.contains(""));
+        closedHashSet.add("");
+        FrozenStringSet single = FrozenStringSet.of(closedHashSet);
+        assertTrue(single.contains(""));
+        assertFalse(single.contains("a"));
+        for (int i=0; i<10; i++) {
+            closedHashSet.add(Integer.toString(i));
+            FrozenStringSet frozen = FrozenStringSet.of(closedHashSet);
+            assertEquals(i + 2, frozen.size());
+            for (int j=0; j<=i; j++)
+                assertTrue(frozen.contains(Integer.toString(j)));
+            assertTrue(frozen.contains(""));
+            assertFalse(frozen.contains(Integer.toString(i + 1)));
+        }
+    }
+
+
+    @Test
+    public void testImmutable() {
+        OpenHashSet openHashSet = new OpenHashSet();
+        openHashSet.add("a");
+        FrozenStringSet frozen = FrozenStringSet.of(openHashSet);
+        try {
+            frozen.add("b");
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            frozen.delete("a");
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            frozen.addAll(new String[] {"c"});
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        assertSame(frozen, FrozenStringSet.of(frozen));
+        openHashSet.add("d"); // the frozen set is a copy
+        assertFalse(frozen.contains("d"));
+        assertEquals(1, frozen.size());
+    }
+
+
+    @Test
+    public void testNulCharacters() {
+        ClosedHashSet closedHashSet = new ClosedHashSet();
+        String[] values = {"", "\0", "\0\0", "\0\0\0", "a", "a\0", "\0a", "ab", "ba"};
+        closedHashSet.addAll(values);
+        FrozenStringSet frozen = FrozenStringSet.of(closedHashSet);
+        assertTrue(frozen.containsAll(values));
+        assertFalse(frozen.contains("\0\0\0\0"));
+        assertFalse(frozen.contains("aa"));
+    }
+
+
+    @Test
+    public void testCourseSimpleSet() {
+        // a set of the course's interface only needs its four methods, and isn't required to list elements
+        SimpleSet set = new SimpleSet() {
+            private final HashSet<String> elements = new HashSet<>();
+
+            @Override
+            public boolean add(String newValue) {
+                return elements.add(newValue);
+            }
+
+            @Override
+            public boolean contains(String searchVal) {
+                return elements.contains(searchVal);
+            }
+
+            @Override
+            public boolean delete(String toDelete) {
+                return elements.remove(toDelete);
+            }
+
+            @Override
+            public int size() {
+                return elements.size();
+            }
+        };
+        assertEquals(2, set.addAll(new String[] {"a", "b", "a"}));
+        assertTrue(set.containsAll(new String[] {"a", "b"}));
+        assertEquals(1, set.removeAll(new String[] {"a", "c"}));
+        assertFalse(set instanceof TraversableSimpleSet);
+    }
+
+}
@@ -0,0 +1,176 @@
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+
+public class TestGenericHashSets {
+
+    private static final int OPERATIONS = 100000;
+
+    /*
+     * Compares arrays by their contents, and counts how many times it hashed one.
+     */
+    private static class ArrayStrategy implements HashingStrategy<int[]> {
+
+        private int hashes = 0;
+
+        @Override
+        public int hash(int[] value) {
+            hashes++;
+            return MurmurMixHasher.mix(Arrays.hashCode(value));
+        }
+
+        @Override
+        public boolean equals(int[] first, int[] second) {
+            return Arrays.equals(first, second);
+        }
+    }
+
+
+    @Test
+    public void testAgainstHashSet() {
+        Random random = new Random(4);
+        HashSet<Long> expected = new HashSet<>();
+        GenericOpenHashSet<Long> openHashSet = new GenericOpenHashSet<>();
+        GenericClosedHashSet<Long> closedHashSet = new GenericClosedHashSet<>();
+        for (int i=0; i<OPERATIONS; i++) {
+            long value = random.nextInt(OPERATIONS / 10);
+            switch (random.nextInt(3)) {
+                case 0:
+                    boolean added = expected.add(value);
+                    assertEquals(added, openHashSet.add(value));
+                    assertEquals(added, closedHashSet.add(value));
+                    break;
+                case 1:
+                    boolean deleted = expected.remove(value);
+                    assertEquals(deleted, openHashSet.delete(value));
+                    assertEquals(deleted, closedHashSet.delete(value));
+                    break;
+                default:
+                    assertEquals(expected.contains(value), openHashSet.contains(value));
+                    assertEquals(expected.contains(value), closedHashSet.contains(value));
+            }
+            assertEquals(expected.size(), openHashSet.size());
+            assertEquals(expected.size(), closedHashSet.size());
+        }
+        HashSet<Long> listed = new HashSet<>();
+        openHashSet.forEach(listed::add);
+        assertEquals(expected, listed);
+        listed.clear();
+        closedHashSet.forEach(listed::add);
+        assertEquals(expected, listed);
+    }
+
+
+    @Test
+    public void testStrategyWithoutWrappers() {
+        ArrayStrategy strategy = new ArrayStrategy();
+        List<GenericSimpleHashSet<int[]>> sets =
+                Arrays.asList(new GenericOpenHashSet<>(strategy), new GenericClosedHashSet<>(strategy));
+        for (GenericSimpleHashSet<int[]> set: sets) {
+            for (int i=0; i<1000; i++)
+                assertTrue(set.add(new int[] {i, -i}));
+            for (int i=0; i<1000; i++) {
+                assertFalse(set.add(new int[] {i, -i})); // equal contents, a different array
+                assertTrue(set.contains(new int[] {i, -i}));
+                assertFalse(set.contains(new int[] {i, i + 1}));
+            }
+            assertTrue(set.delete(new int[] {7, -7}));
+            assertFalse(set.contains(new int[] {7, -7}));
+            assertEquals(999, set.size());
+            assertSame(strategy, set.getHashingStrategy());
+        }
+    }
+
+
+    @Test
+    public void testCachedHashCodes() {
+        // growing the table moves the elements by their cached hash codes, without hashing them again
+        ArrayStrategy strategy = new ArrayStrategy();
+        List<GenericSimpleHashSet<int[]>> sets =
+                Arrays.asList(new GenericOpenHashSet<>(strategy), new GenericClosedHashSet<>(strategy));
+        for (GenericSimpleHashSet<int[]> set: sets) {
+            strategy.hashes = 0;
+            for (int i=0; i<1000; i++)
+                set.add(new int[] {i});
+            assertEquals(1000, strategy.hashes);
+            assertTrue(set.capacity() > 1000);
+        }
+    }
+
+
+    @Test
+    public void testFullTableGrows() {
+        // above 1, the upper load factor alone would let the table fill up
+        GenericClosedHashSet<String> set = new GenericClosedHashSet<>(2f, 0f, new MurmurMixHasher());
+        for (int i=0; i<100; i++)
+            assertTrue(set.add(Integer.toString(i)));
+        assertEquals(128, set.capacity());
+        for (int i=0; i<100; i++)
+            assertTrue(set.contains(Integer.toString(i)));
+    }
+
+
+    @Test
+    public void testShrinkKeepsEveryElement() {
+        // a lower load factor above half of the upper one would overload the halved table
+        GenericClosedHashSet<String> set = new GenericClosedHashSet<>(0.9f, 0.6f, new MurmurMixHasher());
+        for (int i=0; i<14; i++)
+            assertTrue(set.add(Integer.toString(i)));
+        for (int i=0; i<14; i++) {
+            assertTrue(set.delete(Integer.toString(i)));
+            for (int j=i+1; j<14; j++)
+                assertTrue(set.contains(Integer.toString(j)));
+        }
+        assertEquals(0, set.size());
+    }
+
+
+    @Test
+    public void testStringHasher() {
+        // a StringHasher is the hashing strategy of strings, so a generic set of strings acts like its
+        // specialized counterpart
+        String[] data = Ex4Utils.file2array("Ex4/data2.txt");
+        ClosedHashSet closedHashSet = new ClosedHashSet();
+        GenericClosedHashSet<String> genericClosedHashSet = new GenericClosedHashSet<>(new MurmurMixHasher());
+        GenericOpenHashSet<String> genericOpenHashSet = new GenericOpenHashSet<>(new SeededMurmurHasher(17));
+        assertEquals(closedHashSet.addAll(data), genericClosedHashSet.addAll(data));
+        assertEquals(closedHashSet.size(), genericOpenHashSet.addAll(data));
+        assertEquals(closedHashSet.capacity(), genericClosedHashSet.capacity());
+        assertTrue(genericClosedHashSet.containsAll(data));
+        assertTrue(genericOpenHashSet.containsAll(data));
+        assertFalse(genericClosedHashSet.contains("hi"));
+        assertEquals(closedHashSet.removeAll(data), genericOpenHashSet.removeAll(data));
+        assertEquals(0, genericOpenHashSet.size());
+    }
+
+
+    @Test
+    public void testSameResizePolicyAsClosedHashSet() {
+        ClosedHashSet closedHashSet = new ClosedHashSet();
+        GenericOpenHashSet<Integer> genericOpenHashSet = new GenericOpenHashSet<>();
+        OpenHashSet openHashSet = new OpenHashSet();
+        GenericClosedHashSet<Integer> genericClosedHashSet = new GenericClosedHashSet<>();
+        for (int i=1; i<=1000; i++) {
+            closedHashSet.add(Integer.toString(i));
+            genericClosedHashSet.add(i);
+            openHashSet.add(Integer.toString(i));
+            genericOpenHashSet.add(i);
+            assertEquals(closedHashSet.capacity(), genericClosedHashSet.capacity());
+            assertEquals(openHashSet.capacity(), genericOpenHashSet.capacity());
+        }
+        for (int i=1; i<=1000; i++) {
+            closedHashSet.delete(Integer.toString(i));
+            genericClosedHashSet.delete(i);
+            openHashSet.delete(Integer.toString(i));
+            genericOpenHashSet.delete(i);
+            assertEquals(closedHashSet.capacity(), genericClosedHashSet.capacity());
+            assertEquals(openHashSet.capacity(), genericOpenHashSet.capacity());
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+
+
+public class TestHashSetMetrics {
+
+    private ClosedHashSet closedHashSet;
+    private OpenHashSet openHashSet;
+
+
+    /**
+     * Creates objects before each test runs.
+     */
+    @Before
+    public void createObjectsBefore() {
+        closedHashSet = new ClosedHashSet();
+        openHashSet = new OpenHashSet();
+    }
+
+
+    @Test
+    public void testLookups() {
+        FlatOpenHashSet flatOpenHashSet = new FlatOpenHashSet();
+        for (SimpleHashSet set: new SimpleHashSet[] {closedHashSet, openHashSet, flatOpenHashSet}) {
+            HashSetMetrics metrics = new HashSetMetrics(set);
+            for (int i=0; i<10; i++)
+                set.contains(Integer.toString(i));
+            assertEquals(10, metrics.getLookups());
+            long histogramLookups = 0;
+            for (long lookups: metrics.getProbeHistogram())
+                histogramLookups += lookups;
+            assertEquals(10, histogramLookups);
+            if (set == openHashSet || set == flatOpenHashSet)
+                assertEquals(10, metrics.getProbeHistogram()[0]); // every bucket is empty
+            else
+                assertEquals(10, metrics.getProbeHistogram()[1]); // every lookup stops at its empty cell
+        }
+    }
+
+
+    @Test
+    public void testLookupsAcrossResizes() {
+        // moving the elements into a grown table isn't a lookup, so every add and contains is counted once
+        for (SimpleHashSet set: new SimpleHashSet[] {closedHashSet, openHashSet, new FlatOpenHashSet(),
+                new RobinHoodHashSet(), new CuckooHashSet()}) {
+            HashSetMetrics metrics = new HashSetMetrics(set);
+            for (int i=0; i<100; i++)
+                assertTrue(set.add(Integer.toString(i)));
+            assertEquals(256, set.capacity());
+            assertEquals(4, metrics.getResizes());
+            assertEquals(100, metrics.getLookups());
+            for (int i=0; i<100; i++)
+                assertTrue(set.contains(Integer.toString(i)));
+            assertFalse(set.add("0"));
+            assertEquals(201, metrics.getLookups());
+            long histogramLookups = 0;
+            for (long lookups: metrics.getProbeHistogram())
+                histogramLookups += lookups;
+            assertEquals(201, histogramLookups);
+        }
+    }
+
+
+    @Test
+    public void testChainLengths() {
+        HashSetMetrics metrics = new HashSetMetrics(openHashSet);
+        openHashSet.add("Aa");
+        openHashSet.add("BB"); // the same hash code
+        metrics.reset();
+        assertTrue(openHashSet.contains("Aa"));
+        assertEquals(2, metrics.getMaxProbes());
+        assertEquals(1, metrics.getProbeHistogram()[2]);
+    }
+
+
+    @Test
+    public void testResizes() {
+        HashSetMetrics metrics = new HashSetMetrics(closedHashSet);
+        for (int i=0; i<13; i++)
+            closedHashSet.add(Integer.toString(i));
+        assertEquals(1, metrics.getResizes());
+        assertEquals(32, metrics.getCapacity());
+        assertTrue(metrics.getMaxResizeNanos() > 0);
+        assertEquals(metrics.getMaxResizeNanos(), metrics.getTotalResizeNanos());
+        closedHashSet.addAll(new String[] {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k", "l"});
+        assertEquals(2, metrics.getResizes());
+        assertEquals(25.0 / 64, metrics.getLoadFactor(), 1e-9);
+        metrics.reset();
+        assertEquals(0, metrics.getResizes());
+        assertEquals(0, metrics.getLookups());
+    }
+
+
+    @Test
+    public void testTombstoneRatio() {
+        HashSetMetrics metrics = new HashSetMetrics(closedHashSet);
+        for (int i=0; i<10; i++)
+            closedHashSet.add(Integer.toString(i));
+        for (int i=0; i<3; i++)
+            closedHashSet.delete(Integer.toString(i));
+        assertEquals(3.0 / 16, metrics.getTombstoneRatio(), 1e-9);
+        closedHashSet.delete("3");
+        closedHashSet.delete("4"); // compacts the table, which is reported as a resize
+        assertEquals(0, metrics.getTombstoneRatio(), 1e-9);
+        assertEquals(1, metrics.getResizes());
+        assertEquals(0, new HashSetMetrics(openHashSet).getTombstoneRatio(), 0);
+    }
+
+
+    @Test
+    public void testDetach() throws JMException {
+        HashSetMetrics metrics = new HashSetMetrics(openHashSet);
+        metrics.detach();
+        assertNull(openHashSet.getListener());
+        openHashSet.contains("a");
+        assertEquals(0, metrics.getLookups());
+    }
+
+
+    @Test
+    public void testJmx() throws JMException {
+        HashSetMetrics metrics = new HashSetMetrics(closedHashSet);
+        metrics.register("test set");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            closedHashSet.add("a");
+            assertEquals(1, server.getAttribute(metrics.getObjectName(), "Size"));
+            assertEquals(1L, server.getAttribute(metrics.getObjectName(), "Lookups"));
+            server.invoke(metrics.getObjectName(), "reset", null, null);
+            assertEquals(0L, server.getAttribute(metrics.getObjectName(), "Lookups"));
+        } finally {
+            metrics.detach();
+        }
+        assertNull(metrics.getObjectName());
+        assertTrue(server.queryNames(null, null).stream()
+                .noneMatch(name -> name.getDomain().equals(HashSetMetrics.JMX_DOMAIN)));
+    }
+
+}
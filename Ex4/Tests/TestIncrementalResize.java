@@ -0,0 +1,106 @@
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Random;
+
+
+public class TestIncrementalResize {
+
+    private static final int ITERATIONS = 5000;
+    private OpenHashSet openHashSet;
+    private ClosedHashSet closedHashSet;
+
+
+    /**
+     * Creates objects before each test runs.
+     */
+    @Before
+    public void createObjectsBefore() {
+        openHashSet = new OpenHashSet();
+        openHashSet.setIncrementalResize(true);
+        closedHashSet = new ClosedHashSet();
+        closedHashSet.setIncrementalResize(true);
+    }
+
+
+    @Test
+    public void testAddAndDelete() {
+        addAndDelete(openHashSet);
+        addAndDelete(closedHashSet);
+    }
+
+
+    @Test
+    public void testRandomOperations() {
+        randomOperations(openHashSet);
+        randomOperations(closedHashSet);
+    }
+
+
+    @Test
+    public void testCapacity() {
+        for (int i=0; i<13; i++)
+            closedHashSet.add(Integer.toString(i));
+        assertEquals(32, closedHashSet.capacity());
+        for (int i=0; i<13; i++)
+            openHashSet.add(Integer.toString(i));
+        assertEquals(32, openHashSet.capacity());
+    }
+
+
+    @Test
+    public void testDisableWhileResizing() {
+        for (int i=0; i<13; i++)
+            closedHashSet.add(Integer.toString(i));
+        closedHashSet.setIncrementalResize(false);
+        for (int i=0; i<13; i++)
+            assertTrue(closedHashSet.contains(Integer.toString(i)));
+        assertEquals(13, closedHashSet.size());
+    }
+
+
+    /*
+     * Adds many strings and then deletes them, checking the content of the set after every operation.
+     */
+    private void addAndDelete(SimpleHashSet set) {
+        for (int i=0; i<ITERATIONS; i++) {
+            assertTrue(set.add(Integer.toString(i)));
+            assertFalse(set.add(Integer.toString(i)));
+            assertTrue(set.contains(Integer.toString(i / 2)));
+            assertEquals(i + 1, set.size());
+        }
+        for (int i=0; i<ITERATIONS; i++)
+            assertTrue(set.contains(Integer.toString(i)));
+        for (int i=0; i<ITERATIONS; i++) {
+            assertTrue(set.delete(Integer.toString(i)));
+            assertFalse(set.delete(Integer.toString(i)));
+            assertFalse(set.contains(Integer.toString(i)));
+            assertEquals(ITERATIONS - i - 1, set.size());
+        }
+    }
+
+
+    /*
+     * Runs random operations on the set and on java's HashSet, and compares the results.
+     */
+    private void randomOperations(SimpleHashSet set) {
+        Random random = new Random(1);
+        HashSet<String> expected = new HashSet<>();
+        for (int i=0; i<ITERATIONS * 4; i++) {
+            String str = Integer.toString(random.nextInt(ITERATIONS));
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.add(str), set.add(str));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(str), set.delete(str));
+                    break;
+                default:
+                    assertEquals(expected.contains(str), set.contains(str));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+    }
+
+}
@@ -0,0 +1,170 @@
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.stream.Stream;
+
+
+public class TestOffHeapStringSet {
+
+    private static final int ITERATIONS = 20000;
+    private static final String[] UNICODE_WORDS = {"", "a", "été", "שלום",
+            "中文", "😀 smile", "lone \ud83d surrogate", "lone \ude00 surrogate"};
+    private OffHeapStringSet offHeapSet;
+    private Path directory;
+
+
+    /**
+     * Creates objects before each test runs.
+     */
+    @Before
+    public void createObjectsBefore() throws IOException {
+        offHeapSet = new OffHeapStringSet();
+        directory = Files.createTempDirectory("offheap");
+    }
+
+
+    /**
+     * Deletes the files of the memory-mapped sets after each test.
+     */
+    @After
+    public void deleteFilesAfter() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file: files.toArray(Path[]::new))
+                Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+
+    @Test
+    public void testUnicodeWords() {
+        for (String word: UNICODE_WORDS)
+            assertTrue(word, offHeapSet.add(word));
+        for (String word: UNICODE_WORDS) {
+            assertFalse(word, offHeapSet.add(word));
+            assertTrue(word, offHeapSet.contains(word));
+        }
+        assertFalse(offHeapSet.contains("éte"));
+        assertFalse(offHeapSet.contains("😁 smile"));
+        assertEquals(UNICODE_WORDS.length, offHeapSet.size());
+        HashSet<String> elements = new HashSet<>();
+        offHeapSet.forEach(elements::add);
+        assertEquals(new HashSet<>(Arrays.asList(UNICODE_WORDS)), elements);
+    }
+
+
+    @Test
+    public void testUnpairedSurrogates() {
+        // both strings have the same hash code, and would both be stored as "??" if surrogates were lost
+        String first = "\uD801\uD800";
+        String second = "\uD800\uD81F";
+        assertEquals(first.hashCode(), second.hashCode());
+        assertTrue(offHeapSet.add(first));
+        assertFalse(offHeapSet.contains(second));
+        assertTrue(offHeapSet.add(second));
+        HashSet<String> elements = new HashSet<>();
+        offHeapSet.forEach(elements::add);
+        assertEquals(new HashSet<>(Arrays.asList(first, second)), elements);
+        assertTrue(offHeapSet.delete(first));
+        assertTrue(offHeapSet.contains(second));
+    }
+
+
+    @Test
+    public void testCapacity() {
+        for (int i=0; i<13; i++)
+            offHeapSet.add(Integer.toString(i));
+        assertEquals(32, offHeapSet.capacity());
+        for (int i=0; i<6; i++)
+            offHeapSet.delete(Integer.toString(i));
+        assertEquals(16, offHeapSet.capacity());
+    }
+
+
+    @Test
+    public void testRandomOperations() {
+        randomOperations(offHeapSet);
+    }
+
+
+    @Test
+    public void testMemoryMappedRandomOperations() throws IOException {
+        OffHeapStringSet mappedSet = new OffHeapStringSet(directory.resolve("random"));
+        randomOperations(mappedSet);
+        mappedSet.close();
+    }
+
+
+    @Test
+    public void testSurvivesReopening() throws IOException {
+        Path path = directory.resolve("words");
+        OffHeapStringSet mappedSet = new OffHeapStringSet(path);
+        for (int i=0; i<ITERATIONS; i++)
+            mappedSet.add("word" + i);
+        for (int i=0; i<ITERATIONS; i+=2)
+            mappedSet.delete("word" + i);
+        int capacity = mappedSet.capacity();
+        mappedSet.close();
+        assertTrue(Files.exists(Paths.get(path + OffHeapStringSet.INDEX_EXTENSION)));
+        OffHeapStringSet reopened = new OffHeapStringSet(path);
+        assertEquals(ITERATIONS / 2, reopened.size());
+        assertEquals(capacity, reopened.capacity());
+        for (int i=0; i<ITERATIONS; i++)
+            assertEquals(i % 2 == 1, reopened.contains("word" + i));
+        assertTrue(reopened.add("word0"));
+        reopened.close();
+    }
+
+
+    @Test
+    public void testArenaIsCompacted() {
+        for (int i=0; i<ITERATIONS; i++) { // the set stays small while its deleted words pile up
+            assertTrue(offHeapSet.add("a rather long word number " + i));
+            assertTrue(offHeapSet.delete("a rather long word number " + i));
+        }
+        assertEquals(0, offHeapSet.size());
+        assertTrue(offHeapSet.offHeapBytes() < 4096);
+    }
+
+
+    @Test(expected = IOException.class)
+    public void testInvalidFiles() throws IOException {
+        Path path = directory.resolve("invalid");
+        Files.write(Paths.get(path + OffHeapStringSet.INDEX_EXTENSION), new byte[64]);
+        Files.write(Paths.get(path + OffHeapStringSet.ARENA_EXTENSION), new byte[64]);
+        new OffHeapStringSet(path);
+    }
+
+
+    /*
+     * Runs random operations on the set and on java's HashSet, and compares the results.
+     */
+    private void randomOperations(OffHeapStringSet set) {
+        Random random = new Random(1);
+        HashSet<String> expected = new HashSet<>();
+        for (int i=0; i<ITERATIONS * 4; i++) {
+            String str = random.nextInt(ITERATIONS) + UNICODE_WORDS[i % UNICODE_WORDS.length];
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.add(str), set.add(str));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(str), set.delete(str));
+                    break;
+                default:
+                    assertEquals(expected.contains(str), set.contains(str));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+        for (String str: expected)
+            assertTrue(set.contains(str));
+    }
+
+}
@@ -0,0 +1,124 @@
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+
+public class TestParallelHashSetBuilder {
+
+    private static final int THREADS = 4;
+    private static final String[] COLLIDING_BLOCKS = {"Aa", "BB"}; // "Aa".hashCode() == "BB".hashCode()
+    private static String[] data1, data2, duplicated;
+    private ForkJoinPool pool;
+    private ParallelHashSetBuilder builder;
+
+
+    /**
+     * Loads the data sets once for all of the tests.
+     */
+    @BeforeClass
+    public static void loadDataBeforeClass() {
+        data1 = Ex4Utils.file2array("Ex4/data1.txt");
+        data2 = Ex4Utils.file2array("Ex4/data2.txt");
+        duplicated = Arrays.copyOf(data2, data2.length * 2 + data1.length / 2); // data2 appears twice
+        System.arraycopy(data1, 0, duplicated, data2.length, data1.length / 2);
+        System.arraycopy(data2, 0, duplicated, data2.length + data1.length / 2, data2.length);
+    }
+
+
+    /**
+     * Creates objects before each test runs.
+     */
+    @Before
+    public void createObjectsBefore() {
+        pool = new ForkJoinPool(THREADS);
+        builder = new ParallelHashSetBuilder(pool);
+    }
+
+
+    /**
+     * Shuts the pool down after each test.
+     */
+    @After
+    public void shutdownPoolAfter() {
+        pool.shutdown();
+    }
+
+
+    @Test
+    public void testOpenHashSet() {
+        for (String[] data: new String[][] {data1, data2, duplicated})
+            assertSameSet(new OpenHashSet(data), builder.buildOpenHashSet(data), data);
+    }
+
+
+    @Test
+    public void testClosedHashSet() {
+        for (String[] data: new String[][] {data1, data2, duplicated})
+            assertSameSet(new ClosedHashSet(data), builder.buildClosedHashSet(data), data);
+    }
+
+
+    @Test
+    public void testSettingsAreKept() {
+        OpenHashSet expectedOpen = new OpenHashSet(0.5f, 0.1f);
+        expectedOpen.setHasher(new SeededMurmurHasher(7));
+        expectedOpen.addAll(duplicated);
+        OpenHashSet openHashSet = new OpenHashSet(0.5f, 0.1f);
+        openHashSet.setHasher(new SeededMurmurHasher(7));
+        assertSameSet(expectedOpen, builder.build(openHashSet, duplicated), duplicated);
+        ClosedHashSet expectedClosed = new ClosedHashSet(1f, 0.1f);
+        expectedClosed.setProbingStrategy(ProbingStrategy.LINEAR);
+        expectedClosed.addAll(duplicated);
+        ClosedHashSet closedHashSet = new ClosedHashSet(1f, 0.1f);
+        closedHashSet.setProbingStrategy(ProbingStrategy.LINEAR);
+        closedHashSet.setIncrementalResize(true);
+        assertSameSet(expectedClosed, builder.build(closedHashSet, duplicated), duplicated);
+    }
+
+
+    @Test
+    public void testCollidingWords() {
+        String[] words = new String[ParallelHashSetBuilder.PARALLEL_THRESHOLD * 2];
+        for (int i=0; i<words.length; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int bit=14; bit>=0; bit--)
+                word.append(COLLIDING_BLOCKS[(i >> bit) & 1]);
+            words[i] = word.toString(); // every word appears twice
+        }
+        assertSameSet(new OpenHashSet(words), builder.buildOpenHashSet(words), words);
+    }
+
+
+    @Test
+    public void testFallsBackToAddAll() {
+        String[] words = Arrays.copyOf(data2, ParallelHashSetBuilder.PARALLEL_THRESHOLD - 1);
+        assertSameSet(new ClosedHashSet(words), builder.buildClosedHashSet(words), words);
+        OpenHashSet nonEmpty = new OpenHashSet(new String[] {"Lord", "vader"});
+        builder.build(nonEmpty, data2);
+        assertEquals(data2.length + 2, nonEmpty.size());
+        assertTrue(nonEmpty.contains("vader"));
+        ParallelHashSetBuilder sequential = new ParallelHashSetBuilder(new ForkJoinPool(1));
+        assertSameSet(new OpenHashSet(data2), sequential.buildOpenHashSet(data2), data2);
+    }
+
+
+    /*
+     * Checks that the built set has the same capacity and values as the expected one, and that it keeps
+     * working afterwards.
+     */
+    private static void assertSameSet(SimpleHashSet expected, SimpleHashSet built, String[] data) {
+        assertEquals(expected.capacity(), built.capacity());
+        assertEquals(expected.size(), built.size());
+        for (String word: data)
+            assertTrue(word, built.contains(word));
+        assertFalse(built.contains("hi"));
+        assertFalse(built.contains("-13170890158"));
+        assertTrue(built.add("hi"));
+        assertFalse(built.add(data[0]));
+        assertTrue(built.delete(data[0]));
+        assertFalse(built.contains(data[0]));
+    }
+
+}
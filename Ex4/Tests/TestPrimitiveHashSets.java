@@ -0,0 +1,185 @@
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Random;
+
+
+public class TestPrimitiveHashSets {
+
+    private static final int OPERATIONS = 100000;
+    private IntHashSet intHashSet;
+    private LongHashSet longHashSet;
+
+
+    /**
+     * Creates objects before each test runs.
+     */
+    @Before
+    public void createObjectsBefore() {
+        intHashSet = new IntHashSet();
+        longHashSet = new LongHashSet();
+    }
+
+
+    @Test
+    public void testAgainstHashSet() {
+        Random random = new Random(4);
+        HashSet<Long> expected = new HashSet<>();
+        for (int i=0; i<OPERATIONS; i++) {
+            int value = random.nextInt(OPERATIONS / 10) - OPERATIONS / 20;
+            switch (random.nextInt(3)) {
+                case 0:
+                    boolean added = expected.add((long)value);
+                    assertEquals(added, intHashSet.add(value));
+                    assertEquals(added, longHashSet.add(value));
+                    break;
+                case 1:
+                    boolean deleted = expected.remove((long)value);
+                    assertEquals(deleted, intHashSet.delete(value));
+                    assertEquals(deleted, longHashSet.delete(value));
+                    break;
+                default:
+                    assertEquals(expected.contains((long)value), intHashSet.contains(value));
+                    assertEquals(expected.contains((long)value), longHashSet.contains(value));
+            }
+            assertEquals(expected.size(), intHashSet.size());
+            assertEquals(expected.size(), longHashSet.size());
+        }
+        HashSet<Long> listed = new HashSet<>();
+        intHashSet.forEach(value -> listed.add((long)value));
+        assertEquals(expected, listed);
+        listed.clear();
+        longHashSet.forEach(listed::add);
+        assertEquals(expected, listed);
+    }
+
+
+    @Test
+    public void testMarkerValues() {
+        // the values which mark the free and the deleted cells are kept aside
+        for (int value: new int[] {0, Integer.MIN_VALUE}) {
+            assertFalse(intHashSet.contains(value));
+            assertTrue(intHashSet.add(value));
+            assertFalse(intHashSet.add(value));
+            assertTrue(intHashSet.contains(value));
+        }
+        for (long value: new long[] {0, Long.MIN_VALUE}) {
+            assertTrue(longHashSet.add(value));
+            assertFalse(longHashSet.add(value));
+            assertTrue(longHashSet.contains(value));
+        }
+        assertEquals(2, intHashSet.size());
+        assertEquals(2, longHashSet.size());
+        assertFalse(longHashSet.contains(Integer.MIN_VALUE));
+        assertTrue(intHashSet.delete(0));
+        assertFalse(intHashSet.contains(0));
+        assertTrue(intHashSet.contains(Integer.MIN_VALUE));
+        assertTrue(longHashSet.delete(Long.MIN_VALUE));
+        assertFalse(longHashSet.delete(Long.MIN_VALUE));
+        assertEquals(1, intHashSet.size());
+        assertEquals(1, longHashSet.size());
+    }
+
+
+    @Test
+    public void testSameResizePolicyAsClosedHashSet() {
+        ClosedHashSet closedHashSet = new ClosedHashSet();
+        for (int i=1; i<=1000; i++) {
+            closedHashSet.add(Integer.toString(i));
+            intHashSet.add(i);
+            longHashSet.add(i);
+            assertEquals(closedHashSet.capacity(), intHashSet.capacity());
+            assertEquals(closedHashSet.capacity(), longHashSet.capacity());
+        }
+        for (int i=1; i<=1000; i++) {
+            closedHashSet.delete(Integer.toString(i));
+            intHashSet.delete(i);
+            longHashSet.delete(i);
+            assertEquals(closedHashSet.capacity(), intHashSet.capacity());
+            assertEquals(closedHashSet.capacity(), longHashSet.capacity());
+        }
+    }
+
+
+    @Test
+    public void testFullTableGrows() {
+        // above 1, the upper load factor alone would let the table fill up
+        IntHashSet ints = new IntHashSet(2f, 0f);
+        LongHashSet longs = new LongHashSet(2f, 0f);
+        for (int i=1; i<=100; i++) {
+            assertTrue(ints.add(i));
+            assertTrue(longs.add(i));
+        }
+        assertEquals(128, ints.capacity());
+        assertEquals(128, longs.capacity());
+        for (int i=1; i<=100; i++) {
+            assertTrue(ints.contains(i));
+            assertTrue(longs.contains(i));
+        }
+    }
+
+
+    @Test
+    public void testShrinkKeepsEveryElement() {
+        // a lower load factor above half of the upper one would overload the halved table
+        IntHashSet ints = new IntHashSet(0.9f, 0.6f);
+        LongHashSet longs = new LongHashSet(0.9f, 0.6f);
+        for (int i=1; i<=14; i++) {
+            assertTrue(ints.add(i));
+            assertTrue(longs.add(i));
+        }
+        for (int i=1; i<=14; i++) {
+            assertTrue(ints.delete(i));
+            assertTrue(longs.delete(i));
+            for (int j=i+1; j<=14; j++) {
+                assertTrue(ints.contains(j));
+                assertTrue(longs.contains(j));
+            }
+        }
+        assertEquals(0, ints.size());
+        assertEquals(0, longs.size());
+    }
+
+
+    @Test
+    public void testAddAll() {
+        int[] values = new int[1000];
+        long[] longValues = new long[1000];
+        for (int i=0; i<values.length; i++) {
+            values[i] = i % 300; // every value appears several times
+            longValues[i] = (long)(i % 300) << 32;
+        }
+        assertEquals(300, intHashSet.addAll(values));
+        assertEquals(300, longHashSet.addAll(longValues));
+        assertEquals(0, intHashSet.addAll(values));
+        IntHashSet oneByOne = new IntHashSet();
+        for (int value: values)
+            oneByOne.add(value);
+        assertEquals(oneByOne.capacity(), intHashSet.capacity());
+        assertEquals(oneByOne.capacity(), longHashSet.capacity());
+        for (int i=0; i<300; i++) {
+            assertTrue(intHashSet.contains(i));
+            assertTrue(longHashSet.contains((long)i << 32));
+            assertFalse(longHashSet.contains(i + 1)); // the values of the set are multiples of 2^32
+        }
+        assertEquals(300, new LongHashSet(longValues).size());
+    }
+
+
+    @Test
+    public void testCompaction() {
+        HashSetMetrics metrics = new HashSetMetrics(intHashSet);
+        for (int i=1; i<=12; i++)
+            intHashSet.add(i);
+        for (int round=0; round<100; round++) {
+            intHashSet.delete(round + 1);
+            intHashSet.add(round + 13);
+            assertTrue(intHashSet.deletedCells() <= intHashSet.capacity() / 4);
+        }
+        assertEquals(12, intHashSet.size());
+        assertTrue(metrics.getResizes() > 0);
+        assertTrue(metrics.getLookups() > 0);
+    }
+
+}
@@ -0,0 +1,146 @@
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Random;
+
+
+public class TestProbingStrategies {
+
+    private ClosedHashSet linearSet;
+    private RobinHoodHashSet robinHoodSet;
+
+
+    /**
+     * Creates objects before each test runs.
+     */
+    @Before
+    public void createObjectsBefore() {
+        linearSet = new ClosedHashSet();
+        linearSet.setProbingStrategy(ProbingStrategy.LINEAR);
+        robinHoodSet = new RobinHoodHashSet();
+    }
+
+
+    @Test
+    public void testRandomOperations() {
+        randomOperations(linearSet);
+        randomOperations(robinHoodSet);
+        randomOperations(new RobinHoodHashSet(1f, 0f));
+        randomOperations(new RobinHoodHashSet(0.5f, 0.5f));
+    }
+
+
+    @Test
+    public void testCapacity() {
+        for (int i=0; i<12; i++)
+            robinHoodSet.add(Integer.toString(i));
+        assertEquals(16, robinHoodSet.capacity());
+        robinHoodSet.add("12");
+        assertEquals(32, robinHoodSet.capacity());
+        for (int i=0; i<6; i++)
+            robinHoodSet.delete(Integer.toString(i));
+        assertEquals(16, robinHoodSet.capacity());
+    }
+
+
+    @Test
+    public void testFullTableGrows() {
+        // above 1, the upper load factor alone would let the table fill up
+        for (float upperLoadFactor: new float[] {1f, 2f}) {
+            SimpleHashSet[] sets = {new ClosedHashSet(upperLoadFactor, 0f),
+                    new RobinHoodHashSet(upperLoadFactor, 0f), new ClosedHashSet(upperLoadFactor, 0f),
+                    new RobinHoodHashSet(upperLoadFactor, 0f)};
+            for (int j=0; j<sets.length; j++) {
+                String[] values = new String[100];
+                for (int i=0; i<values.length; i++)
+                    values[i] = Integer.toString(i);
+                if (j < 2) {
+                    for (String value: values) {
+                        assertTrue(sets[j].addIfAbsent(value) >= 0);
+                        assertTrue(sets[j].size() < sets[j].capacity());
+                    }
+                } else
+                    assertEquals(100, sets[j].addAll(values));
+                assertEquals(100, sets[j].size());
+                assertEquals(128, sets[j].capacity());
+                for (String value: values) {
+                    assertTrue(sets[j].contains(value));
+                    assertFalse(sets[j].add(value));
+                }
+            }
+        }
+    }
+
+
+    @Test
+    public void testShrinkKeepsEveryElement() {
+        // a lower load factor above half of the upper one would overload the halved table
+        RobinHoodHashSet set = new RobinHoodHashSet(0.9f, 0.6f);
+        for (int i=0; i<14; i++)
+            assertTrue(set.add(Integer.toString(i)));
+        for (int i=0; i<14; i++) {
+            assertTrue(set.delete(Integer.toString(i)));
+            assertTrue(set.size() < set.capacity());
+            for (int j=i+1; j<14; j++)
+                assertTrue(set.contains(Integer.toString(j)));
+        }
+        assertEquals(0, set.size());
+    }
+
+
+    @Test
+    public void testChangeStrategyOfFilledSet() {
+        ClosedHashSet closedSet = new ClosedHashSet();
+        for (int i=0; i<100; i++)
+            closedSet.add(Integer.toString(i));
+        closedSet.setProbingStrategy(ProbingStrategy.LINEAR);
+        assertEquals(ProbingStrategy.LINEAR, closedSet.getProbingStrategy());
+        for (int i=0; i<100; i++)
+            assertTrue(closedSet.contains(Integer.toString(i)));
+        assertEquals(100, closedSet.size());
+    }
+
+
+    @Test
+    public void testProbeStatistics() {
+        ProbeStatistics statistics = new ProbeStatistics();
+        robinHoodSet.setProbeStatistics(statistics);
+        for (int i=0; i<1000; i++)
+            robinHoodSet.add(Integer.toString(i));
+        statistics.reset();
+        for (int i=0; i<1000; i++)
+            assertTrue(robinHoodSet.contains(Integer.toString(i)));
+        assertEquals(1000, statistics.getLookups());
+        assertTrue(statistics.getMeanProbes() >= 1);
+        assertTrue(statistics.getMaxProbes() >= statistics.getMeanProbes());
+        assertTrue(statistics.getProbeVariance() >= 0);
+        robinHoodSet.setProbeStatistics(null);
+        robinHoodSet.contains("0");
+        assertEquals(1000, statistics.getLookups());
+    }
+
+
+    /*
+     * Runs random operations on the set and on java's HashSet, and compares the results.
+     */
+    private void randomOperations(SimpleHashSet set) {
+        Random random = new Random(3);
+        HashSet<String> expected = new HashSet<>();
+        for (int i=0; i<20000; i++) {
+            String str = Integer.toString(random.nextInt(3000));
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.add(str), set.add(str));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(str), set.delete(str));
+                    break;
+                default:
+                    assertEquals(expected.contains(str), set.contains(str));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+    }
+
+}
@@ -0,0 +1,233 @@
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+
+public class TestResizePolicy {
+
+    private static String[] data2;
+
+
+    /**
+     * Loads the data set once for all of the tests.
+     */
+    @BeforeClass
+    public static void loadDataBeforeClass() {
+        data2 = Ex4Utils.file2array("Ex4/data2.txt");
+    }
+
+
+    /*
+     * Creates a new set of every type whose resize policy can be replaced.
+     */
+    private static AbstractHashSet[] newSets(float upperLoadFactor, float lowerLoadFactor) {
+        ClosedHashSet incremental = new ClosedHashSet(upperLoadFactor, lowerLoadFactor);
+        incremental.setIncrementalResize(true);
+        return new AbstractHashSet[] {new OpenHashSet(upperLoadFactor, lowerLoadFactor),
+                new ClosedHashSet(upperLoadFactor, lowerLoadFactor), incremental,
+                new FlatOpenHashSet(upperLoadFactor, lowerLoadFactor),
+                new RobinHoodHashSet(upperLoadFactor, lowerLoadFactor)};
+    }
+
+
+    @Test
+    public void testHysteresisWithoutMarginMatchesDefault() {
+        AbstractHashSet[] defaults = newSets(0.75f, 0.25f);
+        AbstractHashSet[] hystereses = newSets(0.75f, 0.25f);
+        for (AbstractHashSet set: hystereses)
+            set.setResizePolicy(new HysteresisResizePolicy(1, 2, 1f, 0));
+        Random random = new Random(18);
+        for (int i=0; i<20000; i++) {
+            String value = data2[random.nextInt(2000)];
+            boolean add = random.nextInt(100) < (i < 10000 ? 60 : 35);
+            for (int j=0; j<defaults.length; j++) {
+                SimpleSet defaultSet = (SimpleSet)defaults[j];
+                SimpleSet hysteresisSet = (SimpleSet)hystereses[j];
+                assertEquals(add ? defaultSet.add(value) : defaultSet.delete(value),
+                        add ? hysteresisSet.add(value) : hysteresisSet.delete(value));
+                assertEquals(defaults[j].capacity(), hystereses[j].capacity());
+            }
+        }
+    }
+
+
+    @Test
+    public void testOscillationStopsResizing() {
+        // with a lower load factor above half of the upper one, every add and delete around 13 elements in a
+        // table of 16 cells resizes it
+        AbstractHashSet[] defaults = newSets(0.75f, 0.5f);
+        AbstractHashSet[] hystereses = newSets(0.75f, 0.5f);
+        for (int j=0; j<defaults.length; j++) {
+            HysteresisResizePolicy policy = new HysteresisResizePolicy();
+            hystereses[j].setResizePolicy(policy);
+            HashSetMetrics defaultMetrics = new HashSetMetrics(defaults[j]);
+            HashSetMetrics hysteresisMetrics = new HashSetMetrics(hystereses[j]);
+            for (AbstractHashSet set: new AbstractHashSet[] {defaults[j], hystereses[j]}) {
+                for (int i=0; i<12; i++)
+                    ((SimpleSet)set).add(data2[i]);
+                for (int i=0; i<100; i++) {
+                    assertTrue(((SimpleSet)set).add(data2[12]));
+                    assertTrue(((SimpleSet)set).delete(data2[12]));
+                }
+            }
+            assertEquals(200, defaultMetrics.getResizes());
+            assertEquals(1, hysteresisMetrics.getResizes());
+            assertEquals(32, hystereses[j].capacity());
+            assertEquals(0, policy.getShrinks());
+            assertEquals(100, policy.getDeferredShrinks());
+            for (int i=0; i<12; i++)
+                assertTrue(((SimpleSet)hystereses[j]).contains(data2[i]));
+        }
+    }
+
+
+    @Test
+    public void testMinimumCapacity() {
+        for (AbstractHashSet set: newSets(0.75f, 0.25f)) {
+            HysteresisResizePolicy policy = new HysteresisResizePolicy(1500, 2, 0.5f, 0);
+            assertEquals(2048, policy.getMinimumCapacity());
+            set.setResizePolicy(policy);
+            int[] capacityChanges = {0}; // the closed sets also rebuild at the same capacity, for tombstones
+            set.setListener(new HashSetListener() {
+                @Override
+                public void onResize(int oldCapacity, int newCapacity, int size, long nanos) {
+                    if (newCapacity != oldCapacity)
+                        capacityChanges[0]++;
+                }
+            });
+            for (int cycle=0; cycle<5; cycle++) {
+                for (int i=0; i<1000; i++)
+                    assertTrue(((SimpleSet)set).add(data2[i]));
+                assertEquals(2048, set.capacity());
+                for (int i=0; i<1000; i++)
+                    assertTrue(((SimpleSet)set).delete(data2[i]));
+                assertEquals(2048, set.capacity());
+            }
+            // the first add grew the table straight to the hint, and it never shrank
+            assertEquals(1, capacityChanges[0]);
+            assertEquals(0, policy.getShrinks());
+        }
+    }
+
+
+    @Test
+    public void testShrinkDelay() {
+        OpenHashSet set = new OpenHashSet();
+        HysteresisResizePolicy policy = new HysteresisResizePolicy(1, 2, 1f, 3);
+        set.setResizePolicy(policy);
+        for (int i=0; i<100; i++)
+            set.add(data2[i]);
+        assertEquals(256, set.capacity());
+        for (int i=0; i<36; i++)
+            set.delete(data2[i]);
+        assertEquals(256, set.capacity()); // 64 elements, exactly the lower load factor
+        for (int i=36; i<39; i++)
+            set.delete(data2[i]);
+        assertEquals(256, set.capacity());
+        assertEquals(3, policy.getDeferredShrinks());
+        // an add ends the row of underloaded deletes
+        set.add(data2[0]);
+        for (int i=39; i<42; i++)
+            set.delete(data2[i]);
+        assertEquals(256, set.capacity());
+        set.delete(data2[42]);
+        assertEquals(128, set.capacity());
+        assertEquals(1, policy.getShrinks());
+        assertEquals(6, policy.getDeferredShrinks());
+        assertEquals(58, set.size());
+    }
+
+
+    @Test
+    public void testCompactionDoesNotEndRowOfDeletes() {
+        ClosedHashSet set = new ClosedHashSet();
+        HysteresisResizePolicy policy = new HysteresisResizePolicy(1, 2, 1f, 40);
+        set.setResizePolicy(policy);
+        for (int i=0; i<100; i++)
+            set.add(data2[i]);
+        assertEquals(256, set.capacity());
+        // the deletes from the 37th on leave the table underloaded, and the 65th compacts its tombstones
+        for (int i=0; i<65; i++)
+            set.delete(data2[i]);
+        assertEquals(0, set.deletedCells());
+        assertEquals(256, set.capacity());
+        for (int i=65; i<76; i++)
+            set.delete(data2[i]);
+        assertEquals(256, set.capacity());
+        set.delete(data2[76]); // the 41st underloaded delete in a row
+        assertEquals(128, set.capacity());
+        assertEquals(1, policy.getShrinks());
+        assertEquals(40, policy.getDeferredShrinks());
+    }
+
+
+    @Test
+    public void testPolicyCantBeShared() {
+        HysteresisResizePolicy policy = new HysteresisResizePolicy();
+        OpenHashSet set = new OpenHashSet();
+        set.setResizePolicy(policy);
+        set.setResizePolicy(policy);
+        try {
+            new ClosedHashSet().setResizePolicy(policy);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().startsWith("ERROR: "));
+        }
+        // the stateless default policy is shared by all of the sets
+        new ClosedHashSet().setResizePolicy(ResizePolicy.DEFAULT);
+        assertSame(ResizePolicy.DEFAULT, new IntHashSet().getResizePolicy());
+    }
+
+
+    @Test
+    public void testShrinkKeepsEveryElement() {
+        // a lower load factor above half of the upper one would overload the halved table
+        float[][] loadFactors = {{0.9f, 0.6f}, {0.95f, 0.9f}};
+        for (float[] factors: loadFactors) {
+            ClosedHashSet incremental = new ClosedHashSet(factors[0], factors[1]);
+            incremental.setIncrementalResize(true);
+            SimpleHashSet[] sets = {new ClosedHashSet(factors[0], factors[1]), incremental};
+            for (SimpleHashSet set: sets) {
+                for (int i=0; i<14; i++)
+                    assertTrue(set.add(Integer.toString(i)));
+                for (int i=0; i<14; i++) {
+                    assertTrue(set.delete(Integer.toString(i)));
+                    assertFalse(set.isOverloaded(set.size(), set.capacity()));
+                    for (int j=i+1; j<14; j++)
+                        assertTrue(set.contains(Integer.toString(j)));
+                }
+                assertEquals(0, set.size());
+            }
+        }
+    }
+
+
+    @Test
+    public void testInvalidPolicies() {
+        int[][] invalid = {{0, 2, 0}, {16, 1, 0}, {16, 3, 0}, {16, 2, -1}};
+        for (int[] parameters: invalid) {
+            try {
+                new HysteresisResizePolicy(parameters[0], parameters[1], 0.5f, parameters[2]);
+                fail();
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage().startsWith("ERROR: "));
+            }
+        }
+        for (float shrinkFraction: new float[] {0f, 1.5f, Float.NaN}) {
+            try {
+                new HysteresisResizePolicy(16, 2, shrinkFraction, 0);
+                fail();
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage().startsWith("ERROR: "));
+            }
+        }
+        try {
+            new IntHashSet().setResizePolicy(null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().startsWith("ERROR: "));
+        }
+    }
+
+}
@@ -9,7 +9,29 @@ import org.junit.runners.Suite;
         TestDrive.class,
         TestClosedStudent2.class,
         TestOpenStudent2.class,
-        TestStudent1.class
+        TestStudent1.class,
+        TestIncrementalResize.class,
+        TestStringHasher.class,
+        TestTreeifiedBuckets.class,
+        TestFlatOpenHashSet.class,
+        TestProbingStrategies.class,
+        TestConcurrentSimpleHashSet.class,
+        TestConcurrentClosedHashSet.class,
+        TestBulkOperations.class,
+        TestOffHeapStringSet.class,
+        TestSnapshots.class,
+        TestStreamingLoader.class,
+        TestParallelHashSetBuilder.class,
+        TestHashSetMetrics.class,
+        TestBloomFilteredSet.class,
+        TestFrozenStringSet.class,
+        TestPrimitiveHashSets.class,
+        TestGenericHashSets.class,
+        TestSetIteration.class,
+        TestSingleLookupInsert.class,
+        TestResizePolicy.class,
+        TestCuckooHashSet.class,
+        TestTombstoneCompaction.class
 })
 
 public class TestRunnerEx4 {
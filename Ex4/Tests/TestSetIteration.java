@@ -0,0 +1,167 @@
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+
+public class TestSetIteration {
+
+    private static String[] data1, data2;
+
+
+    /**
+     * Loads the data sets once for all of the tests.
+     */
+    @BeforeClass
+    public static void loadDataBeforeClass() {
+        data1 = Ex4Utils.file2array("Ex4/data1.txt");
+        data2 = Ex4Utils.file2array("Ex4/data2.txt");
+    }
+
+
+    /*
+     * Creates an OpenHashSet and a ClosedHashSet holding the given data.
+     */
+    private static List<Iterable<String>> createSets(String[] data) {
+        List<Iterable<String>> sets = new ArrayList<>();
+        sets.add(new OpenHashSet(data));
+        sets.add(new ClosedHashSet(data));
+        return sets;
+    }
+
+
+    @Test
+    public void testIterator() {
+        // data1's words share a hash code, so OpenHashSet's chains are trees
+        for (String[] data: new String[][] {data1, data2}) {
+            Set<String> expected = new HashSet<>(List.of(data));
+            for (Iterable<String> set: createSets(data)) {
+                List<String> listed = new ArrayList<>();
+                for (String str: set)
+                    listed.add(str);
+                assertEquals(expected.size(), listed.size());
+                assertEquals(expected, new HashSet<>(listed));
+            }
+        }
+    }
+
+
+    @Test
+    public void testParallelStream() {
+        Set<String> expected = new HashSet<>(List.of(data2));
+        OpenHashSet openHashSet = new OpenHashSet(data2);
+        ClosedHashSet closedHashSet = new ClosedHashSet(data2);
+        assertEquals(expected, openHashSet.parallelStream().collect(Collectors.toSet()));
+        assertEquals(expected, closedHashSet.parallelStream().collect(Collectors.toSet()));
+        assertEquals(expected.size(), openHashSet.parallelStream().count());
+        assertEquals(expected.size(), closedHashSet.stream().filter(expected::contains).count());
+    }
+
+
+    @Test
+    public void testSplitting() {
+        for (Iterable<String> set: createSets(data2)) {
+            Spliterator<String> suffix = set.spliterator();
+            assertTrue(suffix.hasCharacteristics(Spliterator.SIZED));
+            assertEquals(expectedSize(set), suffix.estimateSize());
+            Spliterator<String> prefix = suffix.trySplit();
+            assertNotNull(prefix);
+            assertFalse(suffix.hasCharacteristics(Spliterator.SIZED));
+            assertTrue(suffix.hasCharacteristics(Spliterator.DISTINCT | Spliterator.NONNULL));
+            Set<String> first = new HashSet<>();
+            Set<String> second = new HashSet<>();
+            prefix.forEachRemaining(first::add);
+            suffix.forEachRemaining(second::add);
+            assertFalse(first.isEmpty());
+            assertFalse(second.isEmpty());
+            int total = first.size() + second.size();
+            first.retainAll(second);
+            assertTrue(first.isEmpty()); // the halves cover different cells
+            assertEquals(expectedSize(set), total);
+        }
+        ClosedHashSet closedHashSet = new ClosedHashSet(data2);
+        List<String> listed = new ArrayList<>();
+        splitAll(closedHashSet.spliterator(), listed);
+        assertEquals(closedHashSet.size(), listed.size());
+        assertEquals(new HashSet<>(List.of(data2)), new HashSet<>(listed));
+    }
+
+
+    @Test
+    public void testFailFast() {
+        for (Iterable<String> set: createSets(data2)) {
+            Iterator<String> iterator = set.iterator();
+            iterator.next();
+            ((SimpleSet)set).add("hi");
+            try {
+                iterator.next();
+                fail();
+            } catch (ConcurrentModificationException e) {
+                // expected
+            }
+            Iterator<String> deleting = set.iterator();
+            deleting.next();
+            assertFalse(((SimpleSet)set).delete("missing")); // a failed delete changes nothing
+            deleting.next();
+            ((SimpleSet)set).delete("hi");
+            try {
+                deleting.next();
+                fail();
+            } catch (ConcurrentModificationException e) {
+                // expected
+            }
+        }
+    }
+
+
+    @Test
+    public void testDuringIncrementalResize() {
+        OpenHashSet openHashSet = new OpenHashSet();
+        ClosedHashSet closedHashSet = new ClosedHashSet();
+        openHashSet.setIncrementalResize(true);
+        closedHashSet.setIncrementalResize(true);
+        Set<String> expected = new HashSet<>();
+        for (int i=0; i<100; i++) { // grows the table, leaving elements in the old one
+            expected.add(data2[i]);
+            openHashSet.add(data2[i]);
+            closedHashSet.add(data2[i]);
+        }
+        Set<String> listed = new HashSet<>();
+        openHashSet.forEach(listed::add);
+        assertEquals(expected, listed);
+        assertEquals(expected, openHashSet.stream().collect(Collectors.toSet()));
+        assertEquals(expected, closedHashSet.stream().collect(Collectors.toSet()));
+    }
+
+
+    /*
+     * Splits the spliterator until it covers a single cell, and passes all of the elements to the list.
+     */
+    private static void splitAll(Spliterator<String> spliterator, List<String> listed) {
+        Spliterator<String> prefix = spliterator.trySplit();
+        if (prefix == null) {
+            while (spliterator.tryAdvance(listed::add)) {
+                // every call passes on a single element
+            }
+            return;
+        }
+        splitAll(prefix, listed);
+        splitAll(spliterator, listed);
+    }
+
+
+    /*
+     * Returns the number of elements in the given set.
+     */
+    private static int expectedSize(Iterable<String> set) {
+        return ((SimpleSet)set).size();
+    }
+
+}
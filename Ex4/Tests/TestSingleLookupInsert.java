@@ -0,0 +1,147 @@
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.TreeSet;
+
+
+public class TestSingleLookupInsert {
+
+    private static String[] data1;
+    private static String[] data2;
+
+
+    /**
+     * Loads the data sets once for all of the tests.
+     */
+    @BeforeClass
+    public static void loadDataBeforeClass() {
+        data1 = Ex4Utils.file2array("Ex4/data1.txt");
+        data2 = Ex4Utils.file2array("Ex4/data2.txt");
+    }
+
+
+    @Test
+    public void testAddIfAbsent() {
+        for (boolean incrementalResize: new boolean[] {false, true}) {
+            OpenHashSet openHashSet = new OpenHashSet();
+            ClosedHashSet closedHashSet = new ClosedHashSet();
+            openHashSet.setIncrementalResize(incrementalResize);
+            closedHashSet.setIncrementalResize(incrementalResize);
+            for (int i=0; i<1000; i++) {
+                int openIndex = openHashSet.addIfAbsent(data2[i]);
+                int closedIndex = closedHashSet.addIfAbsent(data2[i]);
+                assertTrue(openIndex >= 0 && openIndex < openHashSet.capacity());
+                assertTrue(closedIndex >= 0 && closedIndex < closedHashSet.capacity());
+                // the same index is reported for a duplicate, even while it's in the old table
+                assertEquals(-(openIndex + 1), openHashSet.addIfAbsent(data2[i]));
+                assertEquals(-(closedIndex + 1), closedHashSet.addIfAbsent(data2[i]));
+            }
+            assertEquals(1000, openHashSet.size());
+            assertEquals(1000, closedHashSet.size());
+            for (int i=0; i<1000; i++) {
+                assertTrue(openHashSet.contains(data2[i]));
+                assertTrue(closedHashSet.contains(data2[i]));
+            }
+        }
+    }
+
+
+    @Test
+    public void testAddIfAbsentOfEveryHashSet() {
+        for (String[] data: new String[][] {data1, data2}) {
+            SimpleHashSet[] sets = {new FlatOpenHashSet(), new RobinHoodHashSet(), new CuckooHashSet()};
+            for (SimpleHashSet set: sets) {
+                for (int i=0; i<2000; i++) {
+                    int index = set.addIfAbsent(data[i]);
+                    // a value in the stash of a CuckooHashSet is at the capacity
+                    assertTrue(index >= 0 && index <= set.capacity());
+                    assertEquals(-(index + 1), set.addIfAbsent(data[i]));
+                }
+                assertEquals(2000, set.size());
+                for (int i=0; i<2000; i++)
+                    assertTrue(set.contains(data[i]));
+            }
+        }
+    }
+
+
+    @Test
+    public void testAddIfAbsentOfFacades() {
+        for (List<String> list: Arrays.<List<String>>asList(new LinkedList<>(), new ArrayList<>())) {
+            ListFacadeSet facade = new ListFacadeSet(list);
+            for (int i=0; i<100; i++)
+                assertEquals(i, facade.addIfAbsent(data2[i]));
+            for (int i=0; i<100; i++) {
+                assertEquals(-(i + 1), facade.addIfAbsent(data2[i]));
+                assertFalse(facade.add(data2[i]));
+            }
+            assertEquals(100, facade.size());
+        }
+        // the elements of other collections have no positions
+        assertFalse(new CollectionFacadeSet(new TreeSet<>()) instanceof IndexedSimpleSet);
+    }
+
+
+    @Test
+    public void testSingleLookup() {
+        for (SimpleHashSet set: new SimpleHashSet[] {new OpenHashSet(), new ClosedHashSet()}) {
+            HashSetMetrics metrics = new HashSetMetrics(set);
+            for (int i=0; i<12; i++) // doesn't grow the table
+                set.add(Integer.toString(i));
+            set.add("0");
+            assertEquals(13, metrics.getLookups());
+        }
+    }
+
+
+    @Test
+    public void testFacadeOfSet() {
+        CountingSet counting = new CountingSet();
+        CollectionFacadeSet facade = new CollectionFacadeSet(counting);
+        assertTrue(facade.add("a"));
+        assertFalse(facade.add("a"));
+        assertEquals(0, counting.containsCalls);
+        CollectionFacadeSet linkedList = new CollectionFacadeSet(new LinkedList<>());
+        assertTrue(linkedList.add("a"));
+        assertFalse(linkedList.add("a"));
+        assertEquals(1, linkedList.size());
+    }
+
+
+    @Test
+    public void testConcurrentClosedHashSet() {
+        ConcurrentClosedHashSet set = new ConcurrentClosedHashSet();
+        HashSet<String> expected = new HashSet<>();
+        for (int round=0; round<3; round++) {
+            for (int i=0; i<2000; i++)
+                assertEquals(expected.add(data2[i]), set.add(data2[i]));
+            for (int i=0; i<2000; i+=2)
+                assertEquals(expected.remove(data2[i]), set.delete(data2[i]));
+        }
+        assertEquals(expected.size(), set.size());
+        for (int i=0; i<2000; i++)
+            assertEquals(expected.contains(data2[i]), set.contains(data2[i]));
+    }
+
+
+    /*
+     * A HashSet which counts the calls to contains.
+     */
+    private static class CountingSet extends HashSet<String> {
+
+        private static final long serialVersionUID = 1L;
+        private int containsCalls = 0;
+
+        @Override
+        public boolean contains(Object value) {
+            containsCalls++;
+            return super.contains(value);
+        }
+    }
+
+}
@@ -0,0 +1,211 @@
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+
+public class TestSnapshots {
+
+    private static final int WORDS = 5000;
+    private Path directory;
+    private Path file;
+
+
+    /**
+     * Creates objects before each test runs.
+     */
+    @Before
+    public void createObjectsBefore() throws IOException {
+        directory = Files.createTempDirectory("snapshots");
+        file = directory.resolve("set.snapshot");
+    }
+
+
+    /**
+     * Deletes the snapshots after each test.
+     */
+    @After
+    public void deleteFilesAfter() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path snapshot: files.toArray(Path[]::new))
+                Files.delete(snapshot);
+        }
+        Files.delete(directory);
+    }
+
+
+    @Test
+    public void testOpenHashSetRoundTrip() throws IOException {
+        OpenHashSet set = new OpenHashSet(0.9f, 0.2f);
+        fill(set);
+        set.writeSnapshot(file);
+        OpenHashSet loaded = OpenHashSet.loadSnapshot(file);
+        assertSameContent(set, loaded);
+        assertEquals(0.9f, loaded.getUpperLoadFactor(), 0);
+        assertEquals(0.2f, loaded.getLowerLoadFactor(), 0);
+    }
+
+
+    @Test
+    public void testClosedHashSetRoundTrip() throws IOException {
+        ClosedHashSet set = new ClosedHashSet();
+        set.setProbingStrategy(ProbingStrategy.LINEAR);
+        set.setTombstoneCompactionFraction(1);
+        fill(set);
+        set.writeSnapshot(file);
+        ClosedHashSet loaded = ClosedHashSet.loadSnapshot(file);
+        assertSameContent(set, loaded);
+        assertEquals(ProbingStrategy.LINEAR, loaded.getProbingStrategy());
+    }
+
+
+    @Test
+    public void testSeededHasherIsRestored() throws IOException {
+        OpenHashSet openHashSet = new OpenHashSet();
+        openHashSet.setHasher(new SeededMurmurHasher(42));
+        fill(openHashSet);
+        openHashSet.writeSnapshot(file);
+        OpenHashSet loadedOpen = OpenHashSet.loadSnapshot(file);
+        assertEquals(42, ((SeededMurmurHasher)loadedOpen.getHasher()).getSeed());
+        assertSameContent(openHashSet, loadedOpen);
+        ClosedHashSet closedHashSet = new ClosedHashSet();
+        closedHashSet.setHasher(new SeededMurmurHasher(42));
+        fill(closedHashSet);
+        closedHashSet.writeSnapshot(file);
+        ClosedHashSet loadedClosed = ClosedHashSet.loadSnapshot(file);
+        assertEquals(42, ((SeededMurmurHasher)loadedClosed.getHasher()).getSeed());
+        assertSameContent(closedHashSet, loadedClosed);
+    }
+
+
+    @Test
+    public void testSipHasherIsRestored() throws IOException {
+        ClosedHashSet set = new ClosedHashSet();
+        SipHasher hasher = new SipHasher(-7, 11);
+        set.setHasher(hasher);
+        fill(set);
+        set.writeSnapshot(file);
+        ClosedHashSet loaded = ClosedHashSet.loadSnapshot(file, new SipHasher(-7, 11));
+        assertEquals(-7, ((SipHasher)loaded.getHasher()).getKey0());
+        assertSameContent(set, loaded);
+        // another key rehashes the set with it
+        loaded = ClosedHashSet.loadSnapshot(file, new SipHasher(1, 2));
+        assertEquals(1, ((SipHasher)loaded.getHasher()).getKey0());
+        assertSameContent(set, loaded);
+    }
+
+
+    @Test
+    public void testSipHasherKeyIsNotWritten() throws IOException {
+        OpenHashSet set = new OpenHashSet();
+        SipHasher hasher = new SipHasher(0x0123456789abcdefL, 0x7edcba9876543210L);
+        set.setHasher(hasher);
+        fill(set);
+        set.writeSnapshot(file);
+        byte[] snapshot = Files.readAllBytes(file);
+        for (long key: new long[] {hasher.getKey0(), hasher.getKey1()}) {
+            for (int i=0; i+Long.BYTES<=snapshot.length; i++) {
+                long word = 0;
+                for (int j=0; j<Long.BYTES; j++)
+                    word = word << Byte.SIZE | (snapshot[i + j] & 0xFF);
+                assertNotEquals(key, word);
+            }
+        }
+        try {
+            OpenHashSet.loadSnapshot(file);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("ERROR: "));
+        }
+        assertSameContent(set, OpenHashSet.loadSnapshot(file, hasher));
+    }
+
+
+    @Test
+    public void testUnknownHasherIsReplaced() throws IOException {
+        ClosedHashSet set = new ClosedHashSet();
+        set.setHasher(String::hashCode);
+        fill(set);
+        set.writeSnapshot(file);
+        ClosedHashSet loaded = ClosedHashSet.loadSnapshot(file);
+        assertTrue(loaded.getHasher() instanceof MurmurMixHasher);
+        assertSameContent(set, loaded);
+    }
+
+
+    @Test
+    public void testIncrementalResizeIsCompleted() throws IOException {
+        OpenHashSet set = new OpenHashSet();
+        set.setIncrementalResize(true);
+        for (int i=0; i<13; i++)
+            set.add(Integer.toString(i));
+        set.writeSnapshot(file);
+        assertSameContent(set, OpenHashSet.loadSnapshot(file));
+    }
+
+
+    @Test
+    public void testEmptySets() throws IOException {
+        new ClosedHashSet().writeSnapshot(file);
+        assertEquals(0, ClosedHashSet.loadSnapshot(file).size());
+        new OpenHashSet().writeSnapshot(file);
+        assertEquals(16, OpenHashSet.loadSnapshot(file).capacity());
+    }
+
+
+    @Test(expected = IOException.class)
+    public void testWrongKind() throws IOException {
+        new OpenHashSet(new String[] {"Lord", "vader"}).writeSnapshot(file);
+        ClosedHashSet.loadSnapshot(file);
+    }
+
+
+    @Test(expected = IOException.class)
+    public void testTruncatedSnapshot() throws IOException {
+        ClosedHashSet set = new ClosedHashSet();
+        fill(set);
+        set.writeSnapshot(file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+        ClosedHashSet.loadSnapshot(file);
+    }
+
+
+    @Test(expected = IOException.class)
+    public void testUnpairedSurrogate() throws IOException {
+        new ClosedHashSet(new String[] {"lone \ud83d surrogate"}).writeSnapshot(file);
+    }
+
+
+    /*
+     * Adds words to the set and deletes some of them, so that a ClosedHashSet has DELETED cells.
+     */
+    private static void fill(SimpleHashSet set) {
+        for (int i=0; i<WORDS; i++)
+            set.add("word" + i);
+        for (int i=0; i<WORDS; i+=3)
+            set.delete("word" + i);
+        set.add("שלום");
+        set.add("");
+    }
+
+
+    /*
+     * Checks that the loaded set has the same capacity and elements as the original.
+     */
+    private static void assertSameContent(SimpleHashSet original, SimpleHashSet loaded) {
+        assertEquals(original.capacity(), loaded.capacity());
+        assertEquals(original.size(), loaded.size());
+        for (int i=0; i<WORDS; i++)
+            assertEquals(original.contains("word" + i), loaded.contains("word" + i));
+        assertEquals(original.contains("שלום"), loaded.contains("שלום"));
+        assertEquals(original.contains(""), loaded.contains(""));
+        assertTrue(loaded.add("new word"));
+        assertTrue(loaded.delete("new word"));
+    }
+
+}
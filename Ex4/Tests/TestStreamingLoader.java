@@ -0,0 +1,127 @@
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+
+
+public class TestStreamingLoader {
+
+    private static final int LINES = 50000;
+    private static final int THREADS = 4;
+    private static String[] data1;
+    private Path file;
+
+
+    /**
+     * Loads the data set once for all of the tests.
+     */
+    @BeforeClass
+    public static void loadDataBeforeClass() {
+        data1 = Ex4Utils.file2array("Ex4/data1.txt");
+    }
+
+
+    /**
+     * Creates objects before each test runs.
+     */
+    @Before
+    public void createObjectsBefore() throws IOException {
+        file = Files.createTempFile("lines", ".txt");
+    }
+
+
+    /**
+     * Deletes the file after each test.
+     */
+    @After
+    public void deleteFileAfter() throws IOException {
+        Files.delete(file);
+    }
+
+
+    @Test
+    public void testSameAsFile2array() {
+        for (int threads: new int[] {1, THREADS}) {
+            ClosedHashSet set = new ClosedHashSet();
+            assertEquals(data1.length, Ex4Utils.file2set("Ex4/data1.txt", set, threads));
+            assertEquals(new HashSet<>(Arrays.asList(data1)).size(), set.size());
+            for (String word: data1)
+                assertTrue(set.contains(word));
+        }
+    }
+
+
+    @Test
+    public void testConcurrentSets() {
+        SimpleSet[] sets = {new ConcurrentClosedHashSet(), new ConcurrentSimpleHashSet()};
+        for (SimpleSet set: sets) {
+            assertEquals(data1.length, Ex4Utils.file2set("Ex4/data1.txt", set, THREADS));
+            for (String word: data1)
+                assertTrue(set.contains(word));
+        }
+    }
+
+
+    @Test
+    public void testLineEndings() throws IOException {
+        StringBuilder text = new StringBuilder();
+        String[] endings = {"\n", "\r\n", "\r"};
+        for (int i=0; i<LINES; i++)
+            text.append("word").append(i).append(endings[i % endings.length]);
+        text.append("last");
+        Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+        for (int threads: new int[] {1, THREADS}) {
+            OpenHashSet set = new OpenHashSet();
+            assertEquals(LINES + 1, Ex4Utils.file2set(file.toString(), set, threads));
+            assertEquals(LINES + 1, set.size());
+            for (int i=0; i<LINES; i++)
+                assertTrue(set.contains("word" + i));
+            assertTrue(set.contains("last"));
+        }
+    }
+
+
+    @Test
+    public void testEmptyLinesAndUnicode() throws IOException {
+        Files.write(file, "\n\nשלום\r\n\r\n中文 😀\nété\n".getBytes(StandardCharsets.UTF_8));
+        ClosedHashSet set = new ClosedHashSet();
+        assertEquals(6, Ex4Utils.file2set(file.toString(), set));
+        assertEquals(4, set.size());
+        for (String word: new String[] {"", "שלום", "中文 😀", "été"})
+            assertTrue(word, set.contains(word));
+    }
+
+
+    @Test
+    public void testLongLines() throws IOException {
+        char[] chars = new char[200000];
+        Arrays.fill(chars, 'a');
+        String longLine = new String(chars);
+        Files.write(file, ("short\n" + longLine + "\nb" + longLine).getBytes(StandardCharsets.UTF_8));
+        OpenHashSet set = new OpenHashSet();
+        assertEquals(3, Ex4Utils.file2set(file.toString(), set, THREADS));
+        assertTrue(set.contains("short"));
+        assertTrue(set.contains(longLine));
+        assertTrue(set.contains("b" + longLine));
+    }
+
+
+    @Test
+    public void testEmptyFile() {
+        ClosedHashSet set = new ClosedHashSet();
+        assertEquals(0, Ex4Utils.file2set(file.toString(), set, THREADS));
+        assertEquals(0, set.size());
+    }
+
+
+    @Test
+    public void testMissingFile() {
+        assertEquals(-1, Ex4Utils.file2set(file + ".missing", new ClosedHashSet()));
+    }
+
+}
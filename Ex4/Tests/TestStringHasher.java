@@ -0,0 +1,120 @@
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+
+
+public class TestStringHasher {
+
+    private static String[] data1;
+
+
+    /**
+     * Reads the colliding words once before all the tests are run.
+     */
+    @BeforeClass
+    public static void createObjectsBeforeClass() {
+        data1 = Ex4Utils.file2array("Ex4/data1.txt");
+    }
+
+
+    @Test
+    public void testMixSpreadsHashCodes() {
+        HashSet<Integer> lowBits = new HashSet<>();
+        for (int i=0; i<1024; i++)
+            lowBits.add(MurmurMixHasher.mix(i << 16) & 1023); // hash codes which differ only in high bits
+        assertTrue(lowBits.size() > 512);
+    }
+
+
+    @Test
+    public void testSeededHasherSeparatesCollidingWords() {
+        StringHasher hasher = new SeededMurmurHasher(17);
+        HashSet<Integer> hashes = new HashSet<>();
+        for (String word: data1)
+            hashes.add(hasher.hash(word));
+        assertTrue(hashes.size() > data1.length * 0.99);
+    }
+
+
+    @Test
+    public void testSameSeedSameHash() {
+        assertEquals(new SeededMurmurHasher(5).hash("Darth maul"),
+                new SeededMurmurHasher(5).hash("Darth maul"));
+        assertEquals(5, new SeededMurmurHasher(5).getSeed());
+    }
+
+
+    @Test
+    public void testSipHasherMatchesReference() {
+        // the key 00 01 .. 0f of the reference implementation's test vectors
+        SipHasher hasher = new SipHasher(0x0706050403020100L, 0x0f0e0d0c0b0a0908L);
+        assertEquals(0x726fdb47dd0e0e31L, hasher.hash64(""));
+        // the bytes 00 01 .. 0d, as seven little-endian characters
+        assertEquals(0xf723ca908e7af2eeL, hasher.hash64("\u0100\u0302\u0504\u0706\u0908\u0b0a\u0d0c"));
+        assertEquals((int)(0xf723ca908e7af2eeL ^ 0xf723ca90L),
+                hasher.hash("\u0100\u0302\u0504\u0706\u0908\u0b0a\u0d0c"));
+    }
+
+
+    @Test
+    public void testSipHasherKeys() {
+        SipHasher hasher = new SipHasher(1, 2);
+        assertEquals(1, hasher.getKey0());
+        assertEquals(2, hasher.getKey1());
+        assertEquals(hasher.hash("Darth maul"), new SipHasher(1, 2).hash("Darth maul"));
+        int differences = 0;
+        for (String word: data1) {
+            if (hasher.hash(word) != new SipHasher(1, 3).hash(word))
+                differences++;
+        }
+        assertTrue(differences > data1.length * 0.99);
+        HashSet<Integer> hashes = new HashSet<>();
+        for (String word: data1)
+            hashes.add(hasher.hash(word));
+        assertTrue(hashes.size() > data1.length * 0.99);
+    }
+
+
+    @Test
+    public void testSetHasherRehashes() {
+        SimpleHashSet[] sets = {new OpenHashSet(), new ClosedHashSet()};
+        for (SimpleHashSet set: sets) {
+            for (int i=0; i<100; i++)
+                set.add(Integer.toString(i));
+            set.setHasher(new SeededMurmurHasher(3));
+            for (int i=0; i<100; i++)
+                assertTrue(set.contains(Integer.toString(i)));
+            assertFalse(set.contains("100"));
+            assertEquals(100, set.size());
+            for (int i=0; i<100; i++)
+                assertTrue(set.delete(Integer.toString(i)));
+            assertEquals(0, set.size());
+        }
+    }
+
+
+    @Test
+    public void testData1WithSipHasher() {
+        OpenHashSet openHashSet = new OpenHashSet();
+        openHashSet.setHasher(new SipHasher());
+        for (String word: data1)
+            assertTrue(openHashSet.add(word));
+        for (String word: data1)
+            assertTrue(openHashSet.contains(word));
+        assertFalse(openHashSet.contains("-13170890158"));
+    }
+
+
+    @Test
+    public void testData1WithSeededHasher() {
+        ClosedHashSet closedHashSet = new ClosedHashSet();
+        closedHashSet.setHasher(new SeededMurmurHasher());
+        for (String word: data1)
+            closedHashSet.add(word);
+        for (String word: data1)
+            assertTrue(closedHashSet.contains(word));
+        assertFalse(closedHashSet.contains("-13170890158"));
+    }
+
+}
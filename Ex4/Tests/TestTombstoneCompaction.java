@@ -0,0 +1,136 @@
+import org.junit.*;
+import static org.junit.Assert.*;
+
+
+public class TestTombstoneCompaction {
+
+    private static String[] data2;
+    private ClosedHashSet closedHashSet;
+
+
+    /**
+     * Loads the data set once for all of the tests.
+     */
+    @BeforeClass
+    public static void loadDataBeforeClass() {
+        data2 = Ex4Utils.file2array("Ex4/data2.txt");
+    }
+
+
+    /**
+     * Creates objects before each test runs.
+     */
+    @Before
+    public void createObjectsBefore() {
+        closedHashSet = new ClosedHashSet();
+    }
+
+
+    @Test
+    public void testCompaction() {
+        for (int i=0; i<10; i++)
+            closedHashSet.add(Integer.toString(i));
+        for (int i=0; i<4; i++)
+            assertTrue(closedHashSet.delete(Integer.toString(i)));
+        assertEquals(4, closedHashSet.deletedCells()); // exactly a quarter of the table
+        assertTrue(closedHashSet.delete("4"));
+        assertEquals(0, closedHashSet.deletedCells());
+        assertEquals(16, closedHashSet.capacity());
+        assertEquals(5, closedHashSet.size());
+        for (int i=0; i<10; i++)
+            assertEquals(i >= 5, closedHashSet.contains(Integer.toString(i)));
+        assertTrue(closedHashSet.add("0"));
+        assertFalse(closedHashSet.add("5"));
+    }
+
+
+    @Test
+    public void testCompactionFraction() {
+        closedHashSet.setTombstoneCompactionFraction(0.1f);
+        for (int i=0; i<1000; i++)
+            closedHashSet.add(data2[i]);
+        assertEquals(2048, closedHashSet.capacity());
+        int[] compactions = {0};
+        closedHashSet.setListener(new HashSetListener() {
+            @Override
+            public void onResize(int oldCapacity, int newCapacity, int size, long nanos) {
+                if (newCapacity == oldCapacity)
+                    compactions[0]++;
+            }
+        });
+        for (int i=0; i<500; i++) {
+            assertTrue(closedHashSet.delete(data2[i]));
+            assertTrue(closedHashSet.deletedCells() <= 0.1f * closedHashSet.capacity());
+        }
+        assertEquals(2, compactions[0]); // after the 205th and the 410th deletes
+        assertEquals(1024, closedHashSet.capacity()); // shrank after the 489th
+        assertEquals(11, closedHashSet.deletedCells());
+        for (int i=0; i<1000; i++)
+            assertEquals(i >= 500, closedHashSet.contains(data2[i]));
+    }
+
+
+    @Test
+    public void testCompactionAfterIncrementalResize() {
+        closedHashSet.setIncrementalResize(true);
+        for (int i=0; i<200; i++)
+            closedHashSet.add(data2[i]);
+        for (int i=0; i<100; i++)
+            assertTrue(closedHashSet.delete(data2[i]));
+        assertTrue(closedHashSet.deletedCells() <= 0.25f * closedHashSet.capacity());
+        for (int i=0; i<200; i++)
+            assertEquals(i >= 100, closedHashSet.contains(data2[i]));
+    }
+
+
+    @Test
+    public void testCachedHashCodes() {
+        // a hash function which counts its calls, and sends all of the values to the same cell
+        int[] calls = {0};
+        closedHashSet.setHasher(value -> {
+            calls[0]++;
+            return value.hashCode() << 16;
+        });
+        String[] values = new String[40];
+        for (int i=0; i<values.length; i++) {
+            values[i] = "v" + i;
+            assertTrue(closedHashSet.add(values[i]));
+        }
+        assertEquals(64, closedHashSet.capacity());
+        assertEquals(values.length, calls[0]); // the resizes reuse the cached hash codes
+        for (int i=0; i<17; i++)
+            assertTrue(closedHashSet.delete(values[i]));
+        assertEquals(0, closedHashSet.deletedCells()); // the 17th delete compacted the table
+        assertEquals(64, closedHashSet.capacity());
+        for (int i=17; i<30; i++)
+            assertTrue(closedHashSet.delete(values[i]));
+        assertEquals(32, closedHashSet.capacity());
+        assertEquals(5, closedHashSet.deletedCells());
+        assertEquals(values.length + 30, calls[0]);
+        // values of the same cell with other hash codes are skipped by the cached hash codes
+        for (int i=0; i<values.length; i++)
+            assertEquals(i >= 30, closedHashSet.contains(values[i]));
+        assertFalse(closedHashSet.contains("Aa"));
+        assertEquals(2 * values.length + 31, calls[0]);
+    }
+
+
+    @Test
+    public void testInvalidFraction() {
+        for (float fraction: new float[] {0f, -0.5f, 1.5f, Float.NaN}) {
+            try {
+                closedHashSet.setTombstoneCompactionFraction(fraction);
+                fail();
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage().startsWith("ERROR: "));
+            }
+        }
+        closedHashSet.setTombstoneCompactionFraction(1f);
+        for (int i=0; i<10; i++)
+            closedHashSet.add(Integer.toString(i));
+        for (int i=0; i<5; i++)
+            closedHashSet.delete(Integer.toString(i));
+        assertEquals(5, closedHashSet.deletedCells());
+    }
+
+}
@@ -0,0 +1,117 @@
+import org.junit.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+
+public class TestTreeifiedBuckets {
+
+    private static final int BLOCKS = 10;
+    private static ArrayList<String> collidingWords = new ArrayList<String>();
+    private OpenHashSet openHashSet;
+
+
+    /**
+     * Creates words which all share the same hash code, since "Aa".hashCode() == "BB".hashCode().
+     */
+    @BeforeClass
+    public static void createObjectsBeforeClass() {
+        for (int i=0; i<(1 << BLOCKS); i++) {
+            StringBuilder word = new StringBuilder();
+            for (int bit=0; bit<BLOCKS; bit++)
+                word.append(((i >> bit) & 1) == 0 ? "Aa" : "BB");
+            collidingWords.add(word.toString());
+        }
+    }
+
+
+    /**
+     * Creates objects before each test runs.
+     */
+    @Before
+    public void createObjectsBefore() {
+        openHashSet = new OpenHashSet();
+    }
+
+
+    @Test
+    public void testCollidingAdd() {
+        for (String word: collidingWords)
+            assertTrue(openHashSet.add(word));
+        for (String word: collidingWords) {
+            assertTrue(openHashSet.contains(word));
+            assertFalse(openHashSet.add(word));
+        }
+        assertEquals(collidingWords.size(), openHashSet.size());
+    }
+
+
+    @Test
+    public void testCollidingDelete() {
+        for (String word: collidingWords)
+            openHashSet.add(word);
+        for (int i=0; i<collidingWords.size(); i++) {
+            assertTrue(openHashSet.delete(collidingWords.get(i)));
+            assertFalse(openHashSet.contains(collidingWords.get(i)));
+            if (i + 1 < collidingWords.size())
+                assertTrue(openHashSet.contains(collidingWords.get(i + 1)));
+        }
+        assertEquals(0, openHashSet.size());
+    }
+
+
+    @Test
+    public void testTreeAndListTransitions() {
+        for (int i=0; i<8; i++) {
+            openHashSet.add(collidingWords.get(i));
+            assertFalse(openHashSet.isTreeBucket(collidingWords.get(0)));
+        }
+        openHashSet.add(collidingWords.get(8)); // above 8 entries
+        assertTrue(openHashSet.isTreeBucket(collidingWords.get(0)));
+        for (int i=8; i>5; i--) {
+            openHashSet.delete(collidingWords.get(i));
+            assertTrue(openHashSet.isTreeBucket(collidingWords.get(0)));
+        }
+        openHashSet.delete(collidingWords.get(5)); // below 6 entries
+        assertFalse(openHashSet.isTreeBucket(collidingWords.get(0)));
+        for (int i=0; i<5; i++)
+            assertTrue(openHashSet.contains(collidingWords.get(i)));
+        assertEquals(5, openHashSet.size());
+    }
+
+
+    @Test
+    public void testTreeProbes() {
+        int[] probes = {0};
+        openHashSet.setListener(new HashSetListener() {
+            @Override
+            public void onLookup(int lookupProbes) {
+                probes[0] = lookupProbes;
+            }
+        });
+        for (int i=0; i<8; i++)
+            openHashSet.add(collidingWords.get(i));
+        openHashSet.contains(collidingWords.get(0));
+        assertEquals(8, probes[0]); // the whole list
+        for (int i=8; i<12; i++) // doesn't grow the table
+            openHashSet.add(collidingWords.get(i));
+        openHashSet.contains(collidingWords.get(0));
+        assertEquals(4, probes[0]); // the height of a balanced tree of 12
+        openHashSet.contains("hi");
+        assertEquals(0, probes[0]);
+    }
+
+
+    @Test
+    public void testShrinkingBucket() {
+        for (int i=0; i<10; i++)
+            openHashSet.add(collidingWords.get(i));
+        for (int i=0; i<7; i++)
+            assertTrue(openHashSet.delete(collidingWords.get(i)));
+        for (int i=7; i<10; i++)
+            assertTrue(openHashSet.contains(collidingWords.get(i)));
+        assertTrue(openHashSet.add(collidingWords.get(0)));
+        assertEquals(4, openHashSet.size());
+    }
+
+}
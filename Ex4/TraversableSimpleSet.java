@@ -0,0 +1,17 @@
+import java.util.function.Consumer;
+
+/**
+ * A SimpleSet which can list its elements. All of the sets of this exercise are, so any of them can be
+ * frozen into a FrozenStringSet or filtered by a BloomFilteredSet, while SimpleSet itself stays the
+ * interface of the course, which other implementations only need add, contains, delete and size for.
+ * @author Oren Motiei
+ */
+public interface TraversableSimpleSet extends SimpleSet {
+
+    /**
+     * Performs the given action for every element of the set. The set mustn't be changed by the action.
+     * @param action The action to perform
+     */
+    void forEach(Consumer<? super String> action);
+
+}
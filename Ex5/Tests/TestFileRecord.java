@@ -0,0 +1,46 @@
+import subsections.FileRecord;
+import org.junit.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import static org.junit.Assert.*;
+
+public class TestFileRecord {
+
+    private static final String DIRECTORY = "Ex5/Tests/Test_directory/";
+
+    /*
+     * Reads the record of a file in the test directory.
+     */
+    private static FileRecord read(String name) throws IOException {
+        Path path = Paths.get(DIRECTORY + name);
+        return new FileRecord(path, Files.readAttributes(path, BasicFileAttributes.class));
+    }
+
+
+    @Test
+    public void testMatchesFile() throws IOException {
+        for (String name: new String[]{"file1.txt", "emptyFile", "zzzz copy.txt", ".DS_Store"}) {
+            File file = new File(DIRECTORY + name);
+            FileRecord record = read(name);
+            assertEquals(file.getName(), record.getName());
+            assertEquals(file.getAbsolutePath(), record.getAbsolutePath());
+            assertEquals(file.length(), record.getSize());
+            assertEquals(file.canWrite(), record.isWritable());
+            assertEquals(file.canExecute(), record.isExecutable());
+            assertEquals(file.isHidden(), record.isHidden());
+        }
+    }
+
+
+    @Test
+    public void testType() throws IOException {
+        assertEquals(".txt", read("file1.txt").getType());
+        assertEquals(".csv", read("HELLO2.csv").getType());
+        assertEquals(".", read("emptyFile").getType());
+        assertEquals("", read(".DS_Store").getType());
+    }
+
+}
@@ -4,6 +4,9 @@ import sections.*;
 import subsections.*;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
 
 /**
@@ -14,19 +17,29 @@ import java.util.*;
 public class DirectoryProcessor {
 
     /*
+     * Reads the metadata of every file in the source directory once, so the sections never access the file
+     * system again: one Files.readAttributes call per file, and then the checks of FileRecord, which ask
+     * the file system whether the current user may write and execute the file, and whether it's hidden.
      * @param path: the path to a Source directory.
-     * @return: an array list of all the files contained in the source directory.
+     * @return: an array list of records of all the files contained in the source directory.
      */
-    private static ArrayList<File> getFilesInSourceDir(String path) {
-        ArrayList<File> files = new ArrayList<>();
+    private static ArrayList<FileRecord> getFilesInSourceDir(String path) {
+        ArrayList<FileRecord> files = new ArrayList<>();
         try {
             File f = new File(path);
             if (!f.isDirectory())
                 throw new FileNotFoundException();
             File[] directory = f.listFiles();
             for (File file: directory) {
-                if (file.isFile())
-                    files.add(file);
+                Path filePath = file.toPath();
+                try {
+                    BasicFileAttributes attributes =
+                            Files.readAttributes(filePath, BasicFileAttributes.class);
+                    if (attributes.isRegularFile())
+                        files.add(new FileRecord(filePath, attributes));
+                } catch (IOException e) {
+                    // the file was removed while scanning (or is a broken link), so it isn't a file
+                }
             }
         } catch (FileNotFoundException e) {
             System.err.print("ERROR: Incorrect path to Source directory\n");
@@ -45,16 +58,16 @@ public class DirectoryProcessor {
             if (args.length > 2)
                 throw new IndexOutOfBoundsException();
 
-            ArrayList<File> files = getFilesInSourceDir(args[0]);
+            ArrayList<FileRecord> files = getFilesInSourceDir(args[0]);
             CommandReader commandReader = new CommandReader(commandFile);
             ArrayList<Section> sections = commandReader.parseFile();
 
             for (Section section: sections) {
                 FiltersFactory filter = new FiltersFactory(section, files);
-                ArrayList<File> filteredFiles = filter.executeFilter();
+                ArrayList<FileRecord> filteredFiles = filter.executeFilter();
                 OrdersFactory order = new OrdersFactory(section, filteredFiles);
                 order.executeOrder();
-                for (File file: filteredFiles)
+                for (FileRecord file: filteredFiles)
                     System.out.println(file.getName());
             }
 
@@ -0,0 +1,113 @@
+package subsections;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A snapshot of a file's metadata, read once when the source directory is scanned. The filters and the
+ * orders of all the sections read it instead of accessing the file system again for every file.
+ * @author Oren Motiei
+ */
+public class FileRecord {
+
+    private static final Pattern TYPE_PATTERN = Pattern.compile("\\.[\\w/\\s-]+$");
+    private static final String NO_TYPE = ".";
+    private final String name;
+    private final String absolutePath;
+    private final String type;
+    private final long size;
+    private final boolean writable;
+    private final boolean executable;
+    private final boolean hidden;
+
+    /**
+     * Initializes a new record of a file. Besides the given attributes, it asks the file system whether
+     * the file may be written and executed by the current user, which depend on more than the permission
+     * bits (e.g. on who the user is), and whether it's hidden, which on Unix only depends on its name.
+     * @param path the path of the file.
+     * @param attributes the attributes of the file, read by Files.readAttributes.
+     * @throws IOException if the file can't be accessed.
+     */
+    public FileRecord(Path path, BasicFileAttributes attributes) throws IOException {
+        name = path.getFileName().toString();
+        absolutePath = path.toAbsolutePath().toString();
+        type = typeOf(name);
+        size = attributes.size();
+        writable = Files.isWritable(path);
+        executable = Files.isExecutable(path);
+        hidden = Files.isHidden(path);
+    }
+
+
+    /**
+     * @return the name of the file.
+     */
+    public String getName() {
+        return name;
+    }
+
+
+    /**
+     * @return the absolute path of the file.
+     */
+    public String getAbsolutePath() {
+        return absolutePath;
+    }
+
+
+    /**
+     * @return the type of the file, i.e. its extension including the dot, an empty string if the whole
+     * name is an extension (e.g. ".DS_Store"), or "." if it has no extension.
+     */
+    public String getType() {
+        return type;
+    }
+
+
+    /**
+     * @return the size of the file in bytes.
+     */
+    public long getSize() {
+        return size;
+    }
+
+
+    /**
+     * @return true if the file can be written, false otherwise.
+     */
+    public boolean isWritable() {
+        return writable;
+    }
+
+
+    /**
+     * @return true if the file can be executed, false otherwise.
+     */
+    public boolean isExecutable() {
+        return executable;
+    }
+
+
+    /**
+     * @return true if the file is hidden, false otherwise.
+     */
+    public boolean isHidden() {
+        return hidden;
+    }
+
+
+    /*
+     * @param fileName: the name of a file.
+     * @return: the type of the file, as described in getType.
+     */
+    private static String typeOf(String fileName) {
+        Matcher m = TYPE_PATTERN.matcher(fileName);
+        if (m.find())
+            return (m.start() == 0) ? "" : fileName.substring(m.start(), m.end());
+        return NO_TYPE;
+    }
+
+}
@@ -1,6 +1,5 @@
 package subsections;
 
-import java.io.*;
 import java.util.*;
 
 /**
@@ -26,13 +25,13 @@ public class FilesMergeSort implements Order {
      * @param list a list of files.
      * @param c a comparator to determine how the files will be sorted.
      */
-    public void sort(ArrayList<File> list, Comparator<File> c) {
+    public void sort(ArrayList<FileRecord> list, Comparator<FileRecord> c) {
         int size = list.size();
         if (size <= 1)
             return;
         int mid = size / 2;
-        ArrayList<File> leftList = new ArrayList<>();
-        ArrayList<File> rightList = new ArrayList<>();
+        ArrayList<FileRecord> leftList = new ArrayList<>();
+        ArrayList<FileRecord> rightList = new ArrayList<>();
         for (int i=0; i<mid; i++)
             leftList.add(list.get(i));
         for (int i=mid; i<size; i++)
@@ -50,8 +49,8 @@ public class FilesMergeSort implements Order {
      * @param list: a list of files.
      * @param c: a comparator to determine how the files will be sorted.
      */
-    private void merge(ArrayList<File> leftList, ArrayList<File> rightList, ArrayList<File> list,
-                       Comparator<File> c) {
+    private void merge(ArrayList<FileRecord> leftList, ArrayList<FileRecord> rightList,
+                       ArrayList<FileRecord> list, Comparator<FileRecord> c) {
         int l = 0, r = 0, n = 0;
         while (n < list.size()) {
             if (l < leftList.size() &&
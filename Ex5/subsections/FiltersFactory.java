@@ -4,7 +4,6 @@ import sections.Section;
 import java.util.*;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
-import java.io.File;
 
 /**
  * Creates all the possible filters of the commands file, and uses them to filter files.
@@ -25,14 +24,14 @@ public class FiltersFactory {
     private static final String ALL_FILTER = "all";
     private static final int BYTES_CONVERSION = 1024;
     private final Section section;
-    private final ArrayList<File> files;
+    private final ArrayList<FileRecord> files;
 
     /**
      * Initializes a new filters factory.
      * @param section a section object which contains a specific filter.
      * @param files files to filter.
      */
-    public FiltersFactory(Section section, ArrayList<File> files) {
+    public FiltersFactory(Section section, ArrayList<FileRecord> files) {
         this.section = section;
         this.files = files;
     }
@@ -43,7 +42,7 @@ public class FiltersFactory {
      * and uses it to filter the files of the given path.
      * @return an array list of the filtered files.
      */
-    public ArrayList<File> executeFilter() {
+    public ArrayList<FileRecord> executeFilter() {
         String filter = section.getFilter();
         Pattern p = Pattern.compile("[\\w./-]+");
         Matcher m = p.matcher(filter);
@@ -112,9 +111,9 @@ public class FiltersFactory {
      * @return: an array list of the filtered files.
      * @throws BadValueException: if s - the values, are incorrect.
      */
-    private ArrayList<File> filterBySize(String s, ArrayList<File> files, Filter<Double> filter)
+    private ArrayList<FileRecord> filterBySize(String s, ArrayList<FileRecord> files, Filter<Double> filter)
             throws BadValueException {
-        ArrayList<File> filteredFiles = new ArrayList<>();
+        ArrayList<FileRecord> filteredFiles = new ArrayList<>();
         Pattern p = Pattern.compile("(?:#\\d*\\.?\\d+|#\\d+\\.?\\d*)(?:#NOT)?");
         Matcher m = p.matcher(s);
         if (m.matches()) {
@@ -123,8 +122,8 @@ public class FiltersFactory {
             Double negation = 0.0;
             if (matches.length == 2)
                 negation = 1.0;
-            for (File file: files) {
-                double fileSize = (double)file.length() / BYTES_CONVERSION;
+            for (FileRecord file: files) {
+                double fileSize = (double)file.getSize() / BYTES_CONVERSION;
                 if (filter.filePassed(value, null, negation, fileSize))
                     filteredFiles.add(file);
             } return filteredFiles;
@@ -142,9 +141,9 @@ public class FiltersFactory {
      * @return: an array list of the filtered files.
      * @throws BadValueException: if s - the values, are incorrect.
      */
-    private ArrayList<File> filterBetween(String s, ArrayList<File> files, Filter<Double> filter)
+    private ArrayList<FileRecord> filterBetween(String s, ArrayList<FileRecord> files, Filter<Double> filter)
             throws BadValueException {
-        ArrayList<File> filteredFiles = new ArrayList<>();
+        ArrayList<FileRecord> filteredFiles = new ArrayList<>();
         Pattern p = Pattern.compile("(?:#\\d+\\.?\\d*#\\d+\\.?\\d*|#\\d+\\.?\\d*#\\d*\\.?\\d+|" +
                                        "#\\d*\\.?\\d+#\\d+\\.?\\d*|#\\d*\\.?\\d+#\\d*\\.?\\d+)(?:#NOT)?");
         Matcher m = p.matcher(s);
@@ -157,8 +156,8 @@ public class FiltersFactory {
             Double negation = 0.0;
             if (matches.length == 3)
                 negation = 1.0;
-            for (File file: files) {
-                double fileSize = (double)file.length() / BYTES_CONVERSION;
+            for (FileRecord file: files) {
+                double fileSize = (double)file.getSize() / BYTES_CONVERSION;
                 if (filter.filePassed(low, up, negation, fileSize))
                     filteredFiles.add(file);
             } return filteredFiles;
@@ -176,9 +175,9 @@ public class FiltersFactory {
      * @return: an array list of the filtered files.
      * @throws BadValueException: if s - the values, are incorrect.
      */
-    private ArrayList<File> filterByString(String s, ArrayList<File> files, Filter<String> filter)
+    private ArrayList<FileRecord> filterByString(String s, ArrayList<FileRecord> files, Filter<String> filter)
             throws BadValueException {
-        ArrayList<File> filteredFiles = new ArrayList<>();
+        ArrayList<FileRecord> filteredFiles = new ArrayList<>();
         Pattern p = Pattern.compile("(?:#[\\w./\\s-]+)(?:#NOT)?");
         Matcher m = p.matcher(s);
         if (m.matches()) {
@@ -187,7 +186,7 @@ public class FiltersFactory {
             String negation = null;
             if (matches.length == 2)
                 negation = "true";
-            for (File file: files) {
+            for (FileRecord file: files) {
                 if (filter.filePassed(value, null, negation, file.getName()))
                     filteredFiles.add(file);
             } return filteredFiles;
@@ -206,10 +205,10 @@ public class FiltersFactory {
      * @return: an array list of the filtered files.
      * @throws BadValueException: if s - the values, are incorrect.
      */
-    private ArrayList<File> filterByAttributes(String filterName, String s, ArrayList<File> files,
-                                            Filter<String> filter)
+    private ArrayList<FileRecord> filterByAttributes(String filterName, String s, ArrayList<FileRecord> files,
+                                                     Filter<String> filter)
             throws BadValueException {
-        ArrayList<File> filteredFiles = new ArrayList<>();
+        ArrayList<FileRecord> filteredFiles = new ArrayList<>();
         Pattern p = Pattern.compile("#(?:YES|NO)(?:#NOT)?");
         Matcher m = p.matcher(s);
         if (m.matches()) {
@@ -218,7 +217,7 @@ public class FiltersFactory {
             String negation = null;
             if (matches.length == 2)
                 negation = "true";
-            for (File file: files) {
+            for (FileRecord file: files) {
                 if (filter.filePassed(value, null, negation, getFileAttribute(filterName, file)))
                     filteredFiles.add(file);
             } return filteredFiles;
@@ -230,12 +229,12 @@ public class FiltersFactory {
     /*
      * @return 'YES' if file is able to do the attribute, 'NO' otherwise.
      */
-    private String getFileAttribute(String filterName, File file) {
+    private String getFileAttribute(String filterName, FileRecord file) {
         switch (filterName) {
             case WRITABLE_FILTER:
-                return file.canWrite() ? "YES" : "NO";
+                return file.isWritable() ? "YES" : "NO";
             case EXECUTABLE_FILTER:
-                return file.canExecute() ? "YES" : "NO";
+                return file.isExecutable() ? "YES" : "NO";
             case HIDDEN_FILTER:
                 return file.isHidden() ? "YES" : "NO";
             default:
@@ -250,7 +249,8 @@ public class FiltersFactory {
      * @return: if s - the value, contains "#NOT" it returns an empty array list, otherwise all the files.
      * @throws BadValueException: if s - the values, are incorrect.
      */
-    private ArrayList<File> filterByAll(String s, ArrayList<File> files) throws BadValueException {
+    private ArrayList<FileRecord> filterByAll(String s, ArrayList<FileRecord> files)
+            throws BadValueException {
         Pattern p = Pattern.compile("(?:#NOT)?");
         Matcher m = p.matcher(s);
         if (m.matches()) {
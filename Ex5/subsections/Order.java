@@ -1,6 +1,5 @@
 package subsections;
 
-import java.io.File;
 import java.util.*;
 
 /**
@@ -15,5 +14,5 @@ public interface Order {
      * @param list a list of files.
      * @param c a comparator to determine how the files will be sorted.
      */
-    void sort(ArrayList<File> list, Comparator<File> c);
+    void sort(ArrayList<FileRecord> list, Comparator<FileRecord> c);
 }
@@ -1,10 +1,7 @@
 package subsections;
 
 import sections.Section;
-import java.io.*;
 import java.util.*;
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
 
 /**
  * Creates all the possible orders of the commands file, and uses them to sort the files.
@@ -18,14 +15,14 @@ public class OrdersFactory {
     private static final String FIRST_SUBSECTION = "FILTER";
     private final Order sorter = FilesMergeSort.getInstance();
     private Section section;
-    private ArrayList<File> filteredFiles;
+    private ArrayList<FileRecord> filteredFiles;
 
     /**
      * Initializes a new orders factory.
      * @param section a section object which contains a specific order.
      * @param filteredFiles the filtered files to sort.
      */
-    public OrdersFactory(Section section, ArrayList<File> filteredFiles) {
+    public OrdersFactory(Section section, ArrayList<FileRecord> filteredFiles) {
         this.section = section;
         this.filteredFiles = filteredFiles;
     }
@@ -67,9 +64,9 @@ public class OrdersFactory {
      * @param reverse: true if the sorter should go from 'z' to 'a', false to go from 'a' to 'z'.
      */
     private void orderByAbs(boolean reverse) {
-        Comparator<File> c = new Comparator<File>() {
+        Comparator<FileRecord> c = new Comparator<FileRecord>() {
             @Override
-            public int compare(File file1, File file2) {
+            public int compare(FileRecord file1, FileRecord file2) {
                 return reverse ? file2.getAbsolutePath().compareTo(file1.getAbsolutePath()) :
                         file1.getAbsolutePath().compareTo(file2.getAbsolutePath());
             }
@@ -83,21 +80,11 @@ public class OrdersFactory {
      * @param reverse: true if the sorter should go from 'z' to 'a', false to go from 'a' to 'z'.
      */
     private void orderByType(boolean reverse) {
-        class TypeComparator implements Comparator<File> {
+        class TypeComparator implements Comparator<FileRecord> {
             @Override
-            public int compare(File file1, File file2) {
-                String file1Type = ".", file2Type = ".";
-                Pattern p = Pattern.compile("\\.[\\w/\\s-]+$");
-                Matcher m1 = p.matcher(file1.getName());
-                Matcher m2 = p.matcher(file2.getName());
-                if (m1.find()) {
-                    String match = file1.getName().substring(m1.start(), m1.end());
-                    file1Type = (m1.start() == 0) ? "" : match;
-                }
-                if (m2.find()) {
-                    String match = file2.getName().substring(m2.start(), m2.end());
-                    file2Type = (m2.start() == 0) ? "" : match;
-                } if (file1Type.equals(file2Type))
+            public int compare(FileRecord file1, FileRecord file2) {
+                String file1Type = file1.getType(), file2Type = file2.getType();
+                if (file1Type.equals(file2Type))
                     return reverse ? file2.getAbsolutePath().compareTo(file1.getAbsolutePath()) :
                             file1.getAbsolutePath().compareTo(file2.getAbsolutePath());
                 return reverse ? file2Type.compareTo(file1Type) : file1Type.compareTo(file2Type);
@@ -113,14 +100,14 @@ public class OrdersFactory {
      *                 false to go from the smallest to the largest.
      */
     private void orderBySize(Boolean reverse) {
-        class SizeComparator implements Comparator<File> {
+        class SizeComparator implements Comparator<FileRecord> {
             @Override
-            public int compare(File file1, File file2) {
-                if (file1.length() == file2.length())
+            public int compare(FileRecord file1, FileRecord file2) {
+                if (file1.getSize() == file2.getSize())
                     return reverse ? file2.getAbsolutePath().compareTo(file1.getAbsolutePath()) :
                             file1.getAbsolutePath().compareTo(file2.getAbsolutePath());
-                return reverse ? Long.compare(file2.length(), file1.length()) :
-                        Long.compare(file1.length(), file2.length());
+                return reverse ? Long.compare(file2.getSize(), file1.getSize()) :
+                        Long.compare(file1.getSize(), file2.getSize());
             }
         }
         sorter.sort(filteredFiles, new SizeComparator());